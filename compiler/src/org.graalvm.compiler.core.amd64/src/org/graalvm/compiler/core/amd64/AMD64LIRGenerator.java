@@ -52,6 +52,7 @@ import org.graalvm.compiler.asm.amd64.AMD64Assembler.SSEOp;
 import org.graalvm.compiler.core.common.LIRKind;
 import org.graalvm.compiler.core.common.NumUtil;
 import org.graalvm.compiler.core.common.calc.Condition;
+import org.graalvm.compiler.core.common.calc.VectorizedLoopOperation;
 import org.graalvm.compiler.core.common.spi.ForeignCallLinkage;
 import org.graalvm.compiler.core.common.spi.LIRKindTool;
 import org.graalvm.compiler.debug.GraalError;
@@ -92,6 +93,8 @@ import org.graalvm.compiler.lir.amd64.AMD64Move.StackLeaOp;
 import org.graalvm.compiler.lir.amd64.AMD64PauseOp;
 import org.graalvm.compiler.lir.amd64.AMD64StringLatin1InflateOp;
 import org.graalvm.compiler.lir.amd64.AMD64StringUTF16CompressOp;
+import org.graalvm.compiler.lir.amd64.AMD64VectorizedArrayLoopOp;
+import org.graalvm.compiler.lir.amd64.AMD64VectorizedLoopRangeOp;
 import org.graalvm.compiler.lir.amd64.AMD64ZapRegistersOp;
 import org.graalvm.compiler.lir.amd64.AMD64ZapStackOp;
 import org.graalvm.compiler.lir.gen.LIRGenerationResult;
@@ -560,6 +563,30 @@ public abstract class AMD64LIRGenerator extends LIRGenerator {
         return result;
     }
 
+    @Override
+    public Variable emitVectorizedLoopRange(Value start, Value limit, int arrayLengthOffset, Value... arrays) {
+        Variable result = newVariable(LIRKind.value(AMD64Kind.DWORD));
+        AllocatableValue[] allocatableArrays = new AllocatableValue[arrays.length];
+        for (int i = 0; i < arrays.length; i++) {
+            allocatableArrays[i] = asAllocatable(arrays[i]);
+        }
+        append(new AMD64VectorizedLoopRangeOp(result, asAllocatable(start), asAllocatable(limit), arrayLengthOffset, allocatableArrays));
+        return result;
+    }
+
+    @Override
+    public void emitVectorizedArrayOp(VectorizedLoopOperation operation, JavaKind kind, Value dst, Value src1, Value src2, Value start, Value end) {
+        append(new AMD64VectorizedArrayLoopOp(this, operation, kind, Value.ILLEGAL, asAllocatable(dst), asAllocatable(src1), asAllocatable(src2), asAllocatable(start), asAllocatable(end),
+                        getMaxVectorSize()));
+    }
+
+    @Override
+    public Variable emitVectorizedArraySum(JavaKind kind, Value array, Value start, Value end) {
+        Variable result = newVariable(LIRKind.value(kind == JavaKind.Long ? AMD64Kind.QWORD : AMD64Kind.DWORD));
+        append(new AMD64VectorizedArrayLoopOp(this, null, kind, result, Value.ILLEGAL, asAllocatable(array), Value.ILLEGAL, asAllocatable(start), asAllocatable(end), getMaxVectorSize()));
+        return result;
+    }
+
     /**
      * Return a conservative estimate of the page size for use by the String.indexOf intrinsic.
      */
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.common.calc;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * The element-wise operations that can be applied by a vectorized loop over arrays, i.e.,
+ * {@code dst[i] = src1[i] op src2[i]}.
+ */
+public enum VectorizedLoopOperation {
+    ADD,
+    SUB,
+    MUL,
+    AND,
+    OR,
+    XOR;
+
+    /**
+     * Determines if this operation can be vectorized for arrays with the given element kind.
+     */
+    public boolean supports(JavaKind kind) {
+        switch (kind) {
+            case Int:
+                return true;
+            case Long:
+                // there is no packed 64-bit multiplication before AVX-512
+                return this != MUL;
+            case Float:
+            case Double:
+                return this == ADD || this == SUB || this == MUL;
+            default:
+                return false;
+        }
+    }
+}
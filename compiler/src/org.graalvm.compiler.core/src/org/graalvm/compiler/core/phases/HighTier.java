@@ -29,6 +29,7 @@ import static org.graalvm.compiler.core.common.GraalOptions.FullUnroll;
 import static org.graalvm.compiler.core.common.GraalOptions.ImmutableCode;
 import static org.graalvm.compiler.core.common.GraalOptions.LoopPeeling;
 import static org.graalvm.compiler.core.common.GraalOptions.LoopUnswitch;
+import static org.graalvm.compiler.core.common.GraalOptions.LoopVectorization;
 import static org.graalvm.compiler.core.common.GraalOptions.OptConvertDeoptsToGuards;
 import static org.graalvm.compiler.core.common.GraalOptions.OptLoopTransform;
 import static org.graalvm.compiler.core.common.GraalOptions.OptReadElimination;
@@ -40,6 +41,7 @@ import org.graalvm.compiler.loop.LoopPolicies;
 import org.graalvm.compiler.loop.phases.LoopFullUnrollPhase;
 import org.graalvm.compiler.loop.phases.LoopPeelingPhase;
 import org.graalvm.compiler.loop.phases.LoopUnswitchingPhase;
+import org.graalvm.compiler.loop.phases.LoopVectorizationPhase;
 import org.graalvm.compiler.nodes.spi.LoweringTool;
 import org.graalvm.compiler.options.Option;
 import org.graalvm.compiler.options.OptionKey;
@@ -111,6 +113,9 @@ public class HighTier extends PhaseSuite<HighTierContext> {
             if (LoopUnswitch.getValue(options)) {
                 appendPhase(new LoopUnswitchingPhase(loopPolicies));
             }
+            if (LoopVectorization.getValue(options)) {
+                appendPhase(new LoopVectorizationPhase());
+            }
         }
 
         appendPhase(canonicalizer);
@@ -47,6 +47,8 @@ import org.graalvm.compiler.replacements.nodes.UnaryMathIntrinsicNode;
 import org.graalvm.compiler.replacements.nodes.UnaryMathIntrinsicNode.UnaryOperation;
 import org.graalvm.compiler.serviceprovider.GraalServices;
 
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
 import jdk.vm.ci.code.TargetDescription;
 import jdk.vm.ci.hotspot.HotSpotConstantReflectionProvider;
 import jdk.vm.ci.meta.MetaAccessProvider;
@@ -128,4 +130,9 @@ public class AMD64HotSpotLoweringProvider extends DefaultHotSpotLoweringProvider
     public Integer smallestCompareWidth() {
         return 8;
     }
+
+    @Override
+    public int vectorizedLoopArrayLengthOffset() {
+        return ((AMD64) target.arch).getFeatures().contains(CPUFeature.AVX) ? arrayLengthOffset() : -1;
+    }
 }
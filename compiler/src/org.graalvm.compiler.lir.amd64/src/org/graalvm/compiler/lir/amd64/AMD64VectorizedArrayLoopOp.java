@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.ILLEGAL;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import java.util.Objects;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Address.Scale;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexMRIOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexMoveOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRMIOp;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.VexRVMOp;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.asm.amd64.AVXKind.AVXSize;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.core.common.calc.VectorizedLoopOperation;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64.CPUFeature;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Emits a loop over the index range {@code [start, end)} of arrays that either computes
+ * {@code dst[i] = src1[i] op src2[i]} or the sum of {@code src1[i]}. The main loop processes one
+ * 256-bit (AVX2) or 128-bit (AVX) vector per iteration, the remaining elements are processed one
+ * by one with the same instructions on the lowest vector lane. The caller must ensure that the
+ * range is in bounds of all arrays.
+ */
+@Opcode("VECTORIZED_ARRAY_LOOP")
+public final class AMD64VectorizedArrayLoopOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64VectorizedArrayLoopOp> TYPE = LIRInstructionClass.create(AMD64VectorizedArrayLoopOp.class);
+
+    /** The element-wise operation, or {@code null} if the elements of {@code src1} are summed. */
+    private final VectorizedLoopOperation operation;
+    private final JavaKind kind;
+    private final int arrayBaseOffset;
+    private final Scale arrayIndexScale;
+    private final AVXSize vectorSize;
+
+    @Def({REG, ILLEGAL}) private Value resultValue;
+    @Alive({REG, ILLEGAL}) private Value dstValue;
+    @Alive({REG}) private Value src1Value;
+    @Alive({REG, ILLEGAL}) private Value src2Value;
+    @Alive({REG}) private Value startValue;
+    @Alive({REG}) private Value endValue;
+
+    @Temp({REG}) private Value indexTemp;
+    @Temp({REG}) private Value countTemp;
+    @Temp({REG}) private Value vectorTemp1;
+    @Temp({REG}) private Value vectorTemp2;
+
+    public AMD64VectorizedArrayLoopOp(LIRGeneratorTool tool, VectorizedLoopOperation operation, JavaKind kind, Value result, Value dst, Value src1, Value src2, Value start, Value end,
+                    int maxVectorSize) {
+        super(TYPE);
+        assert operation == null ? kind == JavaKind.Int || kind == JavaKind.Long : operation.supports(kind);
+        this.operation = operation;
+        this.kind = kind;
+        this.arrayBaseOffset = tool.getProviders().getMetaAccess().getArrayBaseOffset(kind);
+        this.arrayIndexScale = Objects.requireNonNull(Scale.fromInt(tool.getProviders().getMetaAccess().getArrayIndexScale(kind)));
+        this.vectorSize = ((AMD64) tool.target().arch).getFeatures().contains(CPUFeature.AVX2) && (maxVectorSize < 0 || maxVectorSize >= 32) ? AVXSize.YMM : AVXSize.XMM;
+
+        this.resultValue = result;
+        this.dstValue = dst;
+        this.src1Value = src1;
+        this.src2Value = src2;
+        this.startValue = start;
+        this.endValue = end;
+
+        this.indexTemp = tool.newVariable(LIRKind.value(tool.target().arch.getWordKind()));
+        this.countTemp = tool.newVariable(LIRKind.value(AMD64Kind.DWORD));
+        LIRKind vectorKind = LIRKind.value(vectorSize == AVXSize.YMM ? AMD64Kind.V256_BYTE : AMD64Kind.V128_BYTE);
+        this.vectorTemp1 = tool.newVariable(vectorKind);
+        this.vectorTemp2 = tool.newVariable(vectorKind);
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register index = asRegister(indexTemp);
+        Register count = asRegister(countTemp);
+        Register vector1 = asRegister(vectorTemp1);
+        Register vector2 = asRegister(vectorTemp2);
+        int elementsPerVector = vectorSize.getBytes() / kind.getByteCount();
+
+        Label vectorLoop = new Label();
+        Label tail = new Label();
+        Label scalarLoop = new Label();
+        Label done = new Label();
+
+        // The start index is known to be non-negative, so the zero extension of movl is fine.
+        masm.movl(index, asRegister(startValue));
+        masm.movl(count, asRegister(endValue));
+        masm.subl(count, index);
+        if (operation == null) {
+            VexRVMOp.VPXOR.emit(masm, vectorSize, vector1, vector1, vector1);
+        }
+        masm.cmpl(count, elementsPerVector);
+        masm.jcc(ConditionFlag.Less, tail);
+
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(vectorLoop);
+        if (operation == null) {
+            getArithmeticOp().emit(masm, vectorSize, vector1, vector1, elementAddress(src1Value, index));
+        } else {
+            getVectorMove().emit(masm, vectorSize, vector1, elementAddress(src1Value, index));
+            getArithmeticOp().emit(masm, vectorSize, vector1, vector1, elementAddress(src2Value, index));
+            getVectorMove().emit(masm, vectorSize, elementAddress(dstValue, index), vector1);
+        }
+        masm.addq(index, elementsPerVector);
+        masm.subl(count, elementsPerVector);
+        masm.cmpl(count, elementsPerVector);
+        masm.jcc(ConditionFlag.GreaterEqual, vectorLoop);
+
+        masm.bind(tail);
+        if (operation == null) {
+            emitHorizontalSum(masm, vector1, vector2);
+        }
+        masm.testl(count, count);
+        masm.jcc(ConditionFlag.Zero, done);
+
+        masm.bind(scalarLoop);
+        if (operation == null) {
+            getScalarMove().emit(masm, AVXSize.XMM, vector2, elementAddress(src1Value, index));
+            getArithmeticOp().emit(masm, AVXSize.XMM, vector1, vector1, vector2);
+        } else {
+            getScalarMove().emit(masm, AVXSize.XMM, vector1, elementAddress(src1Value, index));
+            getScalarMove().emit(masm, AVXSize.XMM, vector2, elementAddress(src2Value, index));
+            getArithmeticOp().emit(masm, AVXSize.XMM, vector1, vector1, vector2);
+            getScalarMove().emit(masm, AVXSize.XMM, elementAddress(dstValue, index), vector1);
+        }
+        masm.incq(index);
+        masm.subl(count, 1);
+        masm.jcc(ConditionFlag.NotZero, scalarLoop);
+
+        masm.bind(done);
+        if (operation == null) {
+            getScalarMove().emitReverse(masm, AVXSize.XMM, asRegister(resultValue), vector1);
+        }
+        if (vectorSize == AVXSize.YMM) {
+            masm.vzeroupper();
+        }
+    }
+
+    /**
+     * Adds up all lanes of {@code acc} so that its lowest lane holds the sum. The upper half of a
+     * 256-bit accumulator is cleared afterwards, so all following operations can use 128-bit
+     * instructions.
+     */
+    private void emitHorizontalSum(AMD64MacroAssembler masm, Register acc, Register temp) {
+        VexRVMOp add = getArithmeticOp();
+        if (vectorSize == AVXSize.YMM) {
+            VexMRIOp.VEXTRACTI128.emit(masm, AVXSize.YMM, temp, acc, 1);
+            add.emit(masm, AVXSize.XMM, acc, acc, temp);
+        }
+        VexRMIOp.VPSHUFD.emit(masm, AVXSize.XMM, temp, acc, 0x4E);
+        add.emit(masm, AVXSize.XMM, acc, acc, temp);
+        if (kind == JavaKind.Int) {
+            VexRMIOp.VPSHUFD.emit(masm, AVXSize.XMM, temp, acc, 0xB1);
+            add.emit(masm, AVXSize.XMM, acc, acc, temp);
+        }
+    }
+
+    private AMD64Address elementAddress(Value array, Register index) {
+        return new AMD64Address(asRegister(array), index, arrayIndexScale, arrayBaseOffset);
+    }
+
+    private VexMoveOp getVectorMove() {
+        switch (kind) {
+            case Float:
+                return VexMoveOp.VMOVUPS;
+            case Double:
+                return VexMoveOp.VMOVUPD;
+            default:
+                return VexMoveOp.VMOVDQU;
+        }
+    }
+
+    private VexMoveOp getScalarMove() {
+        return kind.getByteCount() == 8 ? VexMoveOp.VMOVQ : VexMoveOp.VMOVD;
+    }
+
+    private VexRVMOp getArithmeticOp() {
+        VectorizedLoopOperation op = operation == null ? VectorizedLoopOperation.ADD : operation;
+        switch (kind) {
+            case Int:
+                switch (op) {
+                    case ADD:
+                        return VexRVMOp.VPADDD;
+                    case SUB:
+                        return VexRVMOp.VPSUBD;
+                    case MUL:
+                        return VexRVMOp.VPMULLD;
+                    case AND:
+                        return VexRVMOp.VPAND;
+                    case OR:
+                        return VexRVMOp.VPOR;
+                    case XOR:
+                        return VexRVMOp.VPXOR;
+                }
+                break;
+            case Long:
+                switch (op) {
+                    case ADD:
+                        return VexRVMOp.VPADDQ;
+                    case SUB:
+                        return VexRVMOp.VPSUBQ;
+                    case AND:
+                        return VexRVMOp.VPAND;
+                    case OR:
+                        return VexRVMOp.VPOR;
+                    case XOR:
+                        return VexRVMOp.VPXOR;
+                }
+                break;
+            case Float:
+                switch (op) {
+                    case ADD:
+                        return VexRVMOp.VADDPS;
+                    case SUB:
+                        return VexRVMOp.VSUBPS;
+                    case MUL:
+                        return VexRVMOp.VMULPS;
+                }
+                break;
+            case Double:
+                switch (op) {
+                    case ADD:
+                        return VexRVMOp.VADDPD;
+                    case SUB:
+                        return VexRVMOp.VSUBPD;
+                    case MUL:
+                        return VexRVMOp.VMULPD;
+                }
+                break;
+        }
+        throw GraalError.shouldNotReachHere(op + " " + kind);
+    }
+}
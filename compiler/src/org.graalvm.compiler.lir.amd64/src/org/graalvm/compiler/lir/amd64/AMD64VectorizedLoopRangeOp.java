@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.AllocatableValue;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Checks whether the index range {@code [start, limit)} is in bounds of all given arrays. The
+ * result is {@code limit} if all arrays are non-null and {@code 0 <= start < limit <= length}
+ * holds for all of them, and {@code start} otherwise.
+ */
+@Opcode("VECTORIZED_LOOP_RANGE")
+public final class AMD64VectorizedLoopRangeOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64VectorizedLoopRangeOp> TYPE = LIRInstructionClass.create(AMD64VectorizedLoopRangeOp.class);
+
+    private final int arrayLengthOffset;
+
+    @Def({REG}) private Value resultValue;
+    @Alive({REG}) private Value startValue;
+    @Alive({REG}) private Value limitValue;
+    @Alive({REG}) private Value[] arrayValues;
+
+    public AMD64VectorizedLoopRangeOp(AllocatableValue result, AllocatableValue start, AllocatableValue limit, int arrayLengthOffset, AllocatableValue[] arrays) {
+        super(TYPE);
+        this.resultValue = result;
+        this.startValue = start;
+        this.limitValue = limit;
+        this.arrayLengthOffset = arrayLengthOffset;
+        this.arrayValues = arrays;
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register start = asRegister(startValue);
+        Register limit = asRegister(limitValue);
+        Label done = new Label();
+
+        masm.movl(result, start);
+        masm.testl(start, start);
+        masm.jcc(ConditionFlag.Less, done);
+        masm.cmpl(start, limit);
+        masm.jcc(ConditionFlag.GreaterEqual, done);
+        for (Value arrayValue : arrayValues) {
+            Register array = asRegister(arrayValue);
+            masm.testq(array, array);
+            masm.jcc(ConditionFlag.Zero, done);
+            masm.cmpl(limit, new AMD64Address(array, arrayLengthOffset));
+            masm.jcc(ConditionFlag.Greater, done);
+        }
+        masm.movl(result, limit);
+        masm.bind(done);
+    }
+}
@@ -30,6 +30,7 @@ import java.util.List;
 import org.graalvm.compiler.core.common.CompressEncoding;
 import org.graalvm.compiler.core.common.LIRKind;
 import org.graalvm.compiler.core.common.calc.Condition;
+import org.graalvm.compiler.core.common.calc.VectorizedLoopOperation;
 import org.graalvm.compiler.core.common.cfg.AbstractBlockBase;
 import org.graalvm.compiler.core.common.spi.CodeGenProviders;
 import org.graalvm.compiler.core.common.spi.ForeignCallLinkage;
@@ -298,6 +299,26 @@ public interface LIRGeneratorTool extends DiagnosticLIRGeneratorTool, ValueKindF
         throw GraalError.unimplemented("StringUTF16.compress substitution is not implemented on this architecture");
     }
 
+    /**
+     * Emits a check whether the index range {@code [start, limit)} is in bounds of all given
+     * arrays. The result is {@code limit} if all arrays are non-null and {@code 0 <= start < limit
+     * <= length} holds for all of them, and {@code start} otherwise.
+     */
+    @SuppressWarnings("unused")
+    default Variable emitVectorizedLoopRange(Value start, Value limit, int arrayLengthOffset, Value... arrays) {
+        throw GraalError.unimplemented("Loop vectorization is not implemented on this architecture");
+    }
+
+    @SuppressWarnings("unused")
+    default void emitVectorizedArrayOp(VectorizedLoopOperation operation, JavaKind kind, Value dst, Value src1, Value src2, Value start, Value end) {
+        throw GraalError.unimplemented("Loop vectorization is not implemented on this architecture");
+    }
+
+    @SuppressWarnings("unused")
+    default Variable emitVectorizedArraySum(JavaKind kind, Value array, Value start, Value end) {
+        throw GraalError.unimplemented("Loop vectorization is not implemented on this architecture");
+    }
+
     void emitBlackhole(Value operand);
 
     LIRKind getLIRKind(Stamp stamp);
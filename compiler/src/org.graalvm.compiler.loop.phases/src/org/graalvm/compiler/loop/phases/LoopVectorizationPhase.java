@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.phases;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.core.common.calc.VectorizedLoopOperation;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.loop.BasicInductionVariable;
+import org.graalvm.compiler.loop.CountedLoopInfo;
+import org.graalvm.compiler.loop.InductionVariable;
+import org.graalvm.compiler.loop.InductionVariable.Direction;
+import org.graalvm.compiler.loop.LoopEx;
+import org.graalvm.compiler.loop.LoopsData;
+import org.graalvm.compiler.nodes.AbstractEndNode;
+import org.graalvm.compiler.nodes.FixedNode;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.FrameState;
+import org.graalvm.compiler.nodes.LoopBeginNode;
+import org.graalvm.compiler.nodes.LoopEndNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.PhiNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.AndNode;
+import org.graalvm.compiler.nodes.calc.BinaryArithmeticNode;
+import org.graalvm.compiler.nodes.calc.MulNode;
+import org.graalvm.compiler.nodes.calc.OrNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.calc.XorNode;
+import org.graalvm.compiler.nodes.extended.VectorizedArrayOpNode;
+import org.graalvm.compiler.nodes.extended.VectorizedArraySumNode;
+import org.graalvm.compiler.nodes.extended.VectorizedLoopRangeNode;
+import org.graalvm.compiler.nodes.java.AccessIndexedNode;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.nodes.java.StoreIndexedNode;
+import org.graalvm.compiler.phases.BasePhase;
+import org.graalvm.compiler.phases.tiers.PhaseContext;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Vectorizes simple counted loops over arrays. Two loop shapes are recognized:
+ *
+ * <pre>
+ * for (int i = start; i &lt; limit; i++) { dst[i] = src1[i] op src2[i]; }
+ * for (int i = start; i &lt; limit; i++) { sum += src[i]; }
+ * </pre>
+ *
+ * where all arrays and {@code limit} are loop invariant. A {@link VectorizedLoopRangeNode} inserted
+ * before the loop checks that all array accesses of the range are in bounds. If so, a
+ * {@link VectorizedArrayOpNode} or {@link VectorizedArraySumNode} processes the whole range and the
+ * induction variable (and the sum) of the original loop start at the values after the last
+ * iteration, so the original loop is not entered. Otherwise, the vectorized nodes process an empty
+ * range and the original loop runs unchanged, which keeps all exception semantics intact.
+ *
+ * The vectorized nodes operate on whole arrays instead of individual loop iterations, so the phase
+ * does not need vector types in the IR. It runs before lowering, when the array accesses are still
+ * represented by {@link AccessIndexedNode}s.
+ */
+public class LoopVectorizationPhase extends BasePhase<PhaseContext> {
+
+    private static final CounterKey VECTORIZED_LOOPS = DebugContext.counter("VectorizedLoops");
+    private static final CounterKey VECTORIZED_REDUCTIONS = DebugContext.counter("VectorizedReductions");
+
+    @Override
+    protected void run(StructuredGraph graph, PhaseContext context) {
+        if (!graph.hasLoops()) {
+            return;
+        }
+        int arrayLengthOffset = context.getLowerer().vectorizedLoopArrayLengthOffset();
+        if (arrayLengthOffset < 0) {
+            return;
+        }
+        DebugContext debug = graph.getDebug();
+        LoopsData dataCounted = new LoopsData(graph);
+        dataCounted.detectedCountedLoops();
+        for (LoopEx loop : dataCounted.countedLoops()) {
+            if (tryVectorize(loop, arrayLengthOffset)) {
+                debug.dump(DebugContext.DETAILED_LEVEL, graph, "Vectorized %s", loop);
+            }
+        }
+        dataCounted.deleteUnusedNodes();
+    }
+
+    private static boolean tryVectorize(LoopEx loop, int arrayLengthOffset) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        if (loopBegin.loopEnds().count() != 1 || loopBegin.loopExits().count() != 1) {
+            return false;
+        }
+        FrameState loopState = loopBegin.stateAfter();
+        if (loopState == null || loopState.virtualObjectMappingCount() > 0) {
+            return false;
+        }
+        CountedLoopInfo counted = loop.counted();
+        InductionVariable counter = counted.getCounter();
+        if (!(counter instanceof BasicInductionVariable) || counted.getDirection() != Direction.Up || counted.isLimitIncluded() || !counter.isConstantStride() ||
+                        counter.constantStride() != 1 || counted.getStamp().getBits() != 32 || loopBegin.next() != counted.getLimitTest()) {
+            return false;
+        }
+        ValuePhiNode iv = ((BasicInductionVariable) counter).valueNode();
+
+        /* The body must consist of array accesses at index iv only. */
+        List<LoadIndexedNode> loads = new ArrayList<>();
+        StoreIndexedNode store = null;
+        for (FixedNode node = counted.getBody().next(); !(node instanceof LoopEndNode); node = ((FixedWithNextNode) node).next()) {
+            if (!(node instanceof AccessIndexedNode)) {
+                return false;
+            }
+            AccessIndexedNode access = (AccessIndexedNode) node;
+            if (access.index() != iv || !loop.isOutsideLoop(access.array())) {
+                return false;
+            }
+            if (node instanceof LoadIndexedNode) {
+                loads.add((LoadIndexedNode) node);
+            } else if (node instanceof StoreIndexedNode && store == null) {
+                store = (StoreIndexedNode) node;
+            } else {
+                return false;
+            }
+        }
+
+        PhiNode reduction = null;
+        for (PhiNode phi : loopBegin.phis()) {
+            if (phi == iv) {
+                continue;
+            }
+            if (reduction != null || !(phi instanceof ValuePhiNode)) {
+                return false;
+            }
+            reduction = phi;
+        }
+
+        if (store != null && reduction == null) {
+            return vectorizeArrayOp(loop, iv, counted.getLimit(), store, loads, arrayLengthOffset);
+        } else if (store == null && reduction != null) {
+            return vectorizeSum(loop, iv, counted.getLimit(), reduction, loads, arrayLengthOffset);
+        }
+        return false;
+    }
+
+    private static boolean vectorizeArrayOp(LoopEx loop, ValuePhiNode iv, ValueNode limit, StoreIndexedNode store, List<LoadIndexedNode> loads, int arrayLengthOffset) {
+        JavaKind kind = store.elementKind();
+        if (!(store.value() instanceof BinaryArithmeticNode<?>)) {
+            return false;
+        }
+        BinaryArithmeticNode<?> value = (BinaryArithmeticNode<?>) store.value();
+        VectorizedLoopOperation operation = getOperation(value);
+        if (operation == null || !operation.supports(kind) || value.getStackKind() != kind.getStackKind() || !value.hasExactlyOneUsage()) {
+            return false;
+        }
+        if (!(value.getX() instanceof LoadIndexedNode) || !(value.getY() instanceof LoadIndexedNode)) {
+            return false;
+        }
+        LoadIndexedNode x = (LoadIndexedNode) value.getX();
+        LoadIndexedNode y = (LoadIndexedNode) value.getY();
+        for (LoadIndexedNode load : loads) {
+            if ((load != x && load != y) || load.elementKind() != kind || !onlyUsedBy(load, value)) {
+                return false;
+            }
+        }
+        if (!loads.contains(x) || !loads.contains(y)) {
+            return false;
+        }
+
+        StructuredGraph graph = loop.loopBegin().graph();
+        AbstractEndNode forwardEnd = loop.loopBegin().forwardEnd();
+        ValueNode start = iv.valueAt(forwardEnd);
+        List<ValueNode> arrays = new ArrayList<>();
+        arrays.add(store.array());
+        arrays.add(x.array());
+        arrays.add(y.array());
+        VectorizedLoopRangeNode end = graph.add(new VectorizedLoopRangeNode(start, limit, arrays, arrayLengthOffset));
+        graph.addBeforeFixed(forwardEnd, end);
+        VectorizedArrayOpNode op = graph.add(new VectorizedArrayOpNode(operation, kind, store.array(), x.array(), y.array(), start, end));
+        graph.addBeforeFixed(forwardEnd, op);
+        /*
+         * The vectorized loop writes to memory, so it needs a state that resumes execution in the
+         * loop header after the processed iterations.
+         */
+        op.setStateAfter(loopStateAfter(loop, iv, end));
+        iv.setValueAt(forwardEnd, end);
+        VECTORIZED_LOOPS.increment(graph.getDebug());
+        return true;
+    }
+
+    private static boolean vectorizeSum(LoopEx loop, ValuePhiNode iv, ValueNode limit, PhiNode reduction, List<LoadIndexedNode> loads, int arrayLengthOffset) {
+        if (loads.size() != 1) {
+            return false;
+        }
+        LoadIndexedNode load = loads.get(0);
+        JavaKind kind = load.elementKind();
+        if ((kind != JavaKind.Int && kind != JavaKind.Long) || reduction.getStackKind() != kind) {
+            return false;
+        }
+        ValueNode backValue = reduction.singleBackValueOrThis();
+        if (!(backValue instanceof AddNode) || !onlyUsedBy(backValue, reduction) || !onlyUsedBy(load, backValue)) {
+            return false;
+        }
+        AddNode add = (AddNode) backValue;
+        if (!((add.getX() == reduction && add.getY() == load) || (add.getX() == load && add.getY() == reduction))) {
+            return false;
+        }
+
+        StructuredGraph graph = loop.loopBegin().graph();
+        AbstractEndNode forwardEnd = loop.loopBegin().forwardEnd();
+        ValueNode start = iv.valueAt(forwardEnd);
+        List<ValueNode> arrays = new ArrayList<>();
+        arrays.add(load.array());
+        VectorizedLoopRangeNode end = graph.add(new VectorizedLoopRangeNode(start, limit, arrays, arrayLengthOffset));
+        graph.addBeforeFixed(forwardEnd, end);
+        VectorizedArraySumNode sum = graph.add(new VectorizedArraySumNode(kind, load.array(), start, end));
+        graph.addBeforeFixed(forwardEnd, sum);
+        ValueNode initialSum = BinaryArithmeticNode.add(graph, reduction.valueAt(forwardEnd), sum, NodeView.DEFAULT);
+        reduction.setValueAt(forwardEnd, initialSum);
+        iv.setValueAt(forwardEnd, end);
+        VECTORIZED_REDUCTIONS.increment(graph.getDebug());
+        return true;
+    }
+
+    private static VectorizedLoopOperation getOperation(BinaryArithmeticNode<?> node) {
+        if (node instanceof AddNode) {
+            return VectorizedLoopOperation.ADD;
+        } else if (node instanceof SubNode) {
+            return VectorizedLoopOperation.SUB;
+        } else if (node instanceof MulNode) {
+            return VectorizedLoopOperation.MUL;
+        } else if (node instanceof AndNode) {
+            return VectorizedLoopOperation.AND;
+        } else if (node instanceof OrNode) {
+            return VectorizedLoopOperation.OR;
+        } else if (node instanceof XorNode) {
+            return VectorizedLoopOperation.XOR;
+        }
+        return null;
+    }
+
+    private static boolean onlyUsedBy(ValueNode node, Node user) {
+        for (Node usage : node.usages()) {
+            if (usage != user) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a copy of the loop header state in which the induction variable has the given value,
+     * i.e., the state before the first iteration that is executed by the original loop.
+     */
+    private static FrameState loopStateAfter(LoopEx loop, PhiNode iv, ValueNode ivValue) {
+        FrameState state = loop.loopBegin().stateAfter().duplicate();
+        for (int i = 0; i < state.values().size(); i++) {
+            if (state.values().get(i) == iv) {
+                state.values().set(i, ivValue);
+            }
+        }
+        return state;
+    }
+
+    @Override
+    public boolean checkContract() {
+        return false;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.loop.test;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.extended.VectorizedArrayOpNode;
+import org.graalvm.compiler.nodes.extended.VectorizedArraySumNode;
+import org.graalvm.compiler.options.OptionValues;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+public class LoopVectorizationTest extends GraalCompilerTest {
+
+    private static final int[] LENGTHS = {0, 1, 3, 4, 7, 8, 15, 16, 17, 31, 33, 100};
+
+    private boolean expectVectorized;
+
+    @Override
+    protected Result test(OptionValues options, ResolvedJavaMethod method, Object receiver, Object... args) {
+        return super.test(new OptionValues(options, GraalOptions.LoopVectorization, true), method, receiver, args);
+    }
+
+    @Override
+    protected boolean checkHighTierGraph(StructuredGraph graph) {
+        boolean vectorized = graph.getNodes().filter(VectorizedArrayOpNode.class).isNotEmpty() || graph.getNodes().filter(VectorizedArraySumNode.class).isNotEmpty();
+        if (expectVectorized && getLowerer().vectorizedLoopArrayLengthOffset() >= 0) {
+            Assert.assertTrue("loop was not vectorized", vectorized);
+        } else if (!expectVectorized) {
+            Assert.assertFalse("loop must not be vectorized", vectorized);
+        }
+        return true;
+    }
+
+    public static void addInts(int[] dst, int[] a, int[] b, int n) {
+        for (int i = 0; i < n; i++) {
+            dst[i] = a[i] + b[i];
+        }
+    }
+
+    public static void mulInts(int[] dst, int[] a, int[] b, int start, int n) {
+        for (int i = start; i < n; i++) {
+            dst[i] = a[i] * b[i];
+        }
+    }
+
+    public static void xorLongs(long[] dst, long[] a, long[] b, int n) {
+        for (int i = 0; i < n; i++) {
+            dst[i] = a[i] ^ b[i];
+        }
+    }
+
+    public static void subFloats(float[] dst, float[] a, float[] b, int n) {
+        for (int i = 0; i < n; i++) {
+            dst[i] = a[i] - b[i];
+        }
+    }
+
+    public static void mulDoubles(double[] dst, double[] a, double[] b, int n) {
+        for (int i = 0; i < n; i++) {
+            dst[i] = a[i] * b[i];
+        }
+    }
+
+    public static int sumInts(int[] a, int start, int n) {
+        int sum = 7;
+        for (int i = start; i < n; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    public static long sumLongs(long[] a, int n) {
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum = a[i] + sum;
+        }
+        return sum;
+    }
+
+    public static void addIntsShifted(int[] dst, int[] a, int[] b, int n) {
+        for (int i = 0; i < n; i++) {
+            dst[i] = a[i + 1] + b[i];
+        }
+    }
+
+    public static void prefixSumInts(int[] a, int n) {
+        for (int i = 1; i < n; i++) {
+            a[i] = a[i] + a[i - 1];
+        }
+    }
+
+    public static float sumFloats(float[] a, int n) {
+        float sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    private static int[] ints(int length, int seed) {
+        int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = seed * 31 + i * 0x9E3779B9;
+        }
+        return result;
+    }
+
+    private static long[] longs(int length, int seed) {
+        long[] result = new long[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = seed * 31L + i * 0x9E3779B97F4A7C15L;
+        }
+        return result;
+    }
+
+    private static float[] floats(int length, int seed) {
+        float[] result = new float[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = seed + i * 0.37f;
+        }
+        return result;
+    }
+
+    private static double[] doubles(int length, int seed) {
+        double[] result = new double[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = seed + i * 0.37;
+        }
+        return result;
+    }
+
+    @Test
+    public void testAddInts() {
+        expectVectorized = true;
+        for (int length : LENGTHS) {
+            test("addInts", new int[length], ints(length, 1), ints(length, 2), length);
+        }
+    }
+
+    @Test
+    public void testAddIntsAliased() {
+        expectVectorized = true;
+        for (int length : LENGTHS) {
+            int[] a = ints(length, 1);
+            test("addInts", a, a, a, length);
+        }
+    }
+
+    @Test
+    public void testAddIntsOutOfBounds() {
+        expectVectorized = true;
+        test("addInts", new int[10], ints(20, 1), ints(20, 2), 20);
+        test("addInts", new int[20], ints(20, 1), ints(5, 2), 20);
+        test("addInts", null, ints(20, 1), ints(20, 2), 20);
+        test("addInts", new int[20], ints(20, 1), null, 0);
+    }
+
+    @Test
+    public void testMulInts() {
+        expectVectorized = true;
+        for (int length : LENGTHS) {
+            test("mulInts", new int[length], ints(length, 3), ints(length, 4), 0, length);
+            test("mulInts", new int[length], ints(length, 3), ints(length, 4), length / 3, length);
+        }
+        test("mulInts", new int[10], ints(10, 3), ints(10, 4), -1, 10);
+    }
+
+    @Test
+    public void testXorLongs() {
+        expectVectorized = true;
+        for (int length : LENGTHS) {
+            test("xorLongs", new long[length], longs(length, 1), longs(length, 2), length);
+        }
+    }
+
+    @Test
+    public void testSubFloats() {
+        expectVectorized = true;
+        for (int length : LENGTHS) {
+            test("subFloats", new float[length], floats(length, 1), floats(length, 2), length);
+        }
+    }
+
+    @Test
+    public void testMulDoubles() {
+        expectVectorized = true;
+        for (int length : LENGTHS) {
+            test("mulDoubles", new double[length], doubles(length, 1), doubles(length, 2), length);
+        }
+    }
+
+    @Test
+    public void testSumInts() {
+        expectVectorized = true;
+        for (int length : LENGTHS) {
+            test("sumInts", ints(length, 5), 0, length);
+            test("sumInts", ints(length, 5), length / 2, length);
+        }
+        test("sumInts", ints(10, 5), 0, 11);
+        test("sumInts", null, 0, 1);
+    }
+
+    @Test
+    public void testSumLongs() {
+        expectVectorized = true;
+        for (int length : LENGTHS) {
+            test("sumLongs", longs(length, 6), length);
+        }
+    }
+
+    @Test
+    public void testAddIntsShiftedNotVectorized() {
+        expectVectorized = false;
+        for (int length : LENGTHS) {
+            test("addIntsShifted", new int[length], ints(length + 1, 1), ints(length, 2), length);
+        }
+    }
+
+    @Test
+    public void testPrefixSumNotVectorized() {
+        expectVectorized = false;
+        for (int length : LENGTHS) {
+            test("prefixSumInts", ints(length, 1), length);
+        }
+    }
+
+    @Test
+    public void testSumFloatsNotVectorized() {
+        /* Floating-point addition is not associative, so the reduction must stay sequential. */
+        expectVectorized = false;
+        for (int length : LENGTHS) {
+            test("sumFloats", floats(length, 1), length);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.nodes.extended;
+
+import static org.graalvm.compiler.nodeinfo.InputType.Memory;
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_UNKNOWN;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_128;
+
+import org.graalvm.compiler.core.common.calc.VectorizedLoopOperation;
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.memory.AbstractMemoryCheckpoint;
+import org.graalvm.compiler.nodes.memory.MemoryCheckpoint;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Computes {@code dst[i] = src1[i] op src2[i]} for all {@code i} in {@code [start, end)} using
+ * vector instructions. The range must have been checked before, usually by a
+ * {@link VectorizedLoopRangeNode}. The arrays may alias each other since every element is only
+ * read and written at the same index.
+ */
+@NodeInfo(allowedUsageTypes = Memory, cycles = CYCLES_UNKNOWN, size = SIZE_128)
+public final class VectorizedArrayOpNode extends AbstractMemoryCheckpoint implements MemoryCheckpoint.Single, LIRLowerable {
+
+    public static final NodeClass<VectorizedArrayOpNode> TYPE = NodeClass.create(VectorizedArrayOpNode.class);
+
+    protected final VectorizedLoopOperation operation;
+    protected final JavaKind elementKind;
+
+    @Input ValueNode dst;
+    @Input ValueNode src1;
+    @Input ValueNode src2;
+    @Input ValueNode start;
+    @Input ValueNode end;
+
+    public VectorizedArrayOpNode(VectorizedLoopOperation operation, JavaKind elementKind, ValueNode dst, ValueNode src1, ValueNode src2, ValueNode start, ValueNode end) {
+        super(TYPE, StampFactory.forVoid());
+        assert operation.supports(elementKind);
+        this.operation = operation;
+        this.elementKind = elementKind;
+        this.dst = dst;
+        this.src1 = src1;
+        this.src2 = src2;
+        this.start = start;
+        this.end = end;
+    }
+
+    public VectorizedLoopOperation getOperation() {
+        return operation;
+    }
+
+    public JavaKind getElementKind() {
+        return elementKind;
+    }
+
+    @Override
+    public LocationIdentity getLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(elementKind);
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        gen.getLIRGeneratorTool().emitVectorizedArrayOp(operation, elementKind, gen.operand(dst), gen.operand(src1), gen.operand(src2), gen.operand(start), gen.operand(end));
+    }
+}
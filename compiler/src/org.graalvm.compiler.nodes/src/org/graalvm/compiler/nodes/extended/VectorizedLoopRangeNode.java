@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.nodes.extended;
+
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_8;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_16;
+
+import java.util.List;
+
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.graph.NodeInputList;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Checks whether the index range {@code [start, limit)} can be accessed in all given arrays
+ * without raising an exception. The node evaluates to {@code limit} if all arrays are non-null,
+ * {@code 0 <= start < limit} and {@code limit} is not larger than any of the array lengths, and
+ * to {@code start} otherwise. A loop can then process the elements up to the result in vectorized
+ * form and leave the remaining iterations (including all exceptional ones) to its scalar form.
+ */
+@NodeInfo(cycles = CYCLES_8, size = SIZE_16)
+public final class VectorizedLoopRangeNode extends FixedWithNextNode implements LIRLowerable {
+
+    public static final NodeClass<VectorizedLoopRangeNode> TYPE = NodeClass.create(VectorizedLoopRangeNode.class);
+
+    @Input ValueNode start;
+    @Input ValueNode limit;
+    @Input NodeInputList<ValueNode> arrays;
+
+    /** The offset of the length field in array objects. */
+    protected final int arrayLengthOffset;
+
+    public VectorizedLoopRangeNode(ValueNode start, ValueNode limit, List<ValueNode> arrays, int arrayLengthOffset) {
+        super(TYPE, start.stamp(NodeView.DEFAULT).meet(limit.stamp(NodeView.DEFAULT)));
+        this.start = start;
+        this.limit = limit;
+        this.arrays = new NodeInputList<>(this, arrays);
+        this.arrayLengthOffset = arrayLengthOffset;
+    }
+
+    public ValueNode getStart() {
+        return start;
+    }
+
+    public ValueNode getLimit() {
+        return limit;
+    }
+
+    public NodeInputList<ValueNode> getArrays() {
+        return arrays;
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        Value[] arrayValues = new Value[arrays.size()];
+        for (int i = 0; i < arrayValues.length; i++) {
+            arrayValues[i] = gen.operand(arrays.get(i));
+        }
+        gen.setResult(this, gen.getLIRGeneratorTool().emitVectorizedLoopRange(gen.operand(start), gen.operand(limit), arrayLengthOffset, arrayValues));
+    }
+}
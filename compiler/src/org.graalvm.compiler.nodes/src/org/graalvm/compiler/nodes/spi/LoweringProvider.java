@@ -54,4 +54,13 @@ public interface LoweringProvider {
         // most platforms only support 32 and 64 bit compares
         return 32;
     }
+
+    /**
+     * Returns the offset of the length field in array objects if the backend can execute the
+     * vectorized array loop nodes created by loop vectorization, or {@code -1} if loops must not be
+     * vectorized for the target.
+     */
+    default int vectorizedLoopArrayLengthOffset() {
+        return -1;
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -28,6 +28,7 @@ import static org.graalvm.compiler.nodes.graphbuilderconf.IntrinsicContext.Compi
 
 import org.graalvm.collections.EconomicMap;
 import org.graalvm.compiler.bytecode.BytecodeProvider;
+import org.graalvm.compiler.core.common.spi.ConstantFieldProvider;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.graph.SourceLanguagePositionProvider;
 import org.graalvm.compiler.java.GraphBuilderPhase;
@@ -67,7 +68,21 @@ public class CachingPEGraphDecoder extends PEGraphDecoder {
                     AllowAssumptions allowAssumptions, LoopExplosionPlugin loopExplosionPlugin, InvocationPlugins invocationPlugins, InlineInvokePlugin[] inlineInvokePlugins,
                     ParameterPlugin parameterPlugin,
                     NodePlugin[] nodePlugins, ResolvedJavaMethod callInlinedMethod, SourceLanguagePositionProvider sourceLanguagePositionProvider) {
-        super(architecture, graph, providers.getMetaAccess(), providers.getConstantReflection(), providers.getConstantFieldProvider(), providers.getStampProvider(), loopExplosionPlugin,
+        this(architecture, graph, providers, providers.getConstantFieldProvider(), graphBuilderConfig, optimisticOpts, allowAssumptions, loopExplosionPlugin, invocationPlugins,
+                        inlineInvokePlugins, parameterPlugin, nodePlugins, callInlinedMethod, sourceLanguagePositionProvider);
+    }
+
+    /**
+     * Creates a decoder that parses the encoded graphs with {@code providers}, but folds constant
+     * fields with {@code decodingConstantFieldProvider} when decoding them. Graphs that are shared
+     * beyond one compilation must be parsed with a provider that only folds fields which stay
+     * constant for all compilations.
+     */
+    public CachingPEGraphDecoder(Architecture architecture, StructuredGraph graph, Providers providers, ConstantFieldProvider decodingConstantFieldProvider,
+                    GraphBuilderConfiguration graphBuilderConfig, OptimisticOptimizations optimisticOpts, AllowAssumptions allowAssumptions, LoopExplosionPlugin loopExplosionPlugin,
+                    InvocationPlugins invocationPlugins, InlineInvokePlugin[] inlineInvokePlugins, ParameterPlugin parameterPlugin, NodePlugin[] nodePlugins,
+                    ResolvedJavaMethod callInlinedMethod, SourceLanguagePositionProvider sourceLanguagePositionProvider) {
+        super(architecture, graph, providers.getMetaAccess(), providers.getConstantReflection(), decodingConstantFieldProvider, providers.getStampProvider(), loopExplosionPlugin,
                         invocationPlugins, inlineInvokePlugins, parameterPlugin, nodePlugins, callInlinedMethod, sourceLanguagePositionProvider);
 
         this.providers = providers;
@@ -108,7 +123,7 @@ public class CachingPEGraphDecoder extends PEGraphDecoder {
             new ConvertDeoptimizeToGuardPhase().apply(graphToEncode, context);
 
             EncodedGraph encodedGraph = GraphEncoder.encodeSingleGraph(graphToEncode, architecture);
-            graphCache.put(method, encodedGraph);
+            cacheGraph(method, intrinsicBytecodeProvider, isSubstitution, encodedGraph);
             return encodedGraph;
 
         } catch (Throwable ex) {
@@ -116,10 +131,24 @@ public class CachingPEGraphDecoder extends PEGraphDecoder {
         }
     }
 
+    /**
+     * Returns the previously encoded graph of {@code method}, or {@code null} if the method was not
+     * parsed yet. Subclasses can override this and {@link #cacheGraph} to share encoded graphs
+     * beyond the lifetime of this decoder. Such caches must take the parsing context into account:
+     * a graph parsed as an intrinsic or substitution differs from the plain graph of the method.
+     */
+    protected EncodedGraph getCachedGraph(ResolvedJavaMethod method, BytecodeProvider intrinsicBytecodeProvider, boolean isSubstitution) {
+        return graphCache.get(method);
+    }
+
+    protected void cacheGraph(ResolvedJavaMethod method, BytecodeProvider intrinsicBytecodeProvider, boolean isSubstitution, EncodedGraph encodedGraph) {
+        graphCache.put(method, encodedGraph);
+    }
+
     @Override
     protected EncodedGraph lookupEncodedGraph(ResolvedJavaMethod method, ResolvedJavaMethod originalMethod, BytecodeProvider intrinsicBytecodeProvider, boolean isSubstitution,
                     boolean trackNodeSourcePosition) {
-        EncodedGraph result = graphCache.get(method);
+        EncodedGraph result = getCachedGraph(method, intrinsicBytecodeProvider, isSubstitution);
         if (result == null && method.hasBytecodes()) {
             result = createGraph(method, originalMethod, intrinsicBytecodeProvider, isSubstitution);
         }
@@ -199,6 +199,18 @@ public class Option {
             .def("0")
             .help("Manually set the number of compiler threads"),
 
+        option("TruffleCompilationQueueHotnessOrder")
+            .type("Boolean")
+            .category("EXPERT")
+            .def("false")
+            .help("Order compilation requests of the same tier by how hot their call targets are when a compiler thread picks the next request, instead of first-in-first-out."),
+
+        option("TruffleCompilationQueueStaleThreshold")
+            .type("Integer")
+            .category("EXPERT")
+            .def("10000")
+            .help("With TruffleCompilationQueueHotnessOrder, drop compilation requests whose call targets were not called for this many milliseconds while queued (0 disables dropping)."),
+
         option("TruffleReturnTypeSpeculation")
             .type("Boolean")
             .category("DEBUG")
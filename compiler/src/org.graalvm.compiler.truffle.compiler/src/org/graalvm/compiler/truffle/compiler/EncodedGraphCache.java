@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.compiler;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.graalvm.compiler.nodes.EncodedGraph;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * A size-bounded cache of {@link EncodedGraph encoded graphs} that is shared by all compilations of
+ * a {@link PartialEvaluator}, so that the interpreter methods that appear in most Truffle
+ * compilations are parsed and encoded only once. The cache is safe for use by multiple compiler
+ * threads and evicts the least recently used graphs once its capacity is exceeded.
+ * <p>
+ * Entries are keyed by {@link ResolvedJavaMethod} identity together with the parsing configuration
+ * that shapes the encoded graph: whether node source positions are tracked and which
+ * {@link InvocationPlugins} were applied during parsing. Graphs of intrinsics and substitutions are
+ * not shared. Redefining a class produces new method objects, so graphs of the old versions are no
+ * longer hit and eventually evicted. The graphs are parsed without assumptions, which keeps them
+ * valid independently of class loading.
+ */
+public final class EncodedGraphCache {
+
+    private final Map<Key, EncodedGraph> graphs;
+    private final int capacity;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    EncodedGraphCache(int capacity) {
+        assert capacity > 0;
+        this.capacity = capacity;
+        this.graphs = Collections.synchronizedMap(new LRUCache<>(Math.min(capacity, 256), capacity));
+    }
+
+    /**
+     * Returns the cached graph for {@code method} parsed with the given configuration or
+     * {@code null} if there is none.
+     */
+    public EncodedGraph get(ResolvedJavaMethod method, boolean trackNodeSourcePosition, InvocationPlugins invocationPlugins) {
+        EncodedGraph result = graphs.get(new Key(method, trackNodeSourcePosition, invocationPlugins));
+        if (result != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return result;
+    }
+
+    public void put(ResolvedJavaMethod method, boolean trackNodeSourcePosition, InvocationPlugins invocationPlugins, EncodedGraph encodedGraph) {
+        graphs.put(new Key(method, trackNodeSourcePosition, invocationPlugins), encodedGraph);
+    }
+
+    public void clear() {
+        graphs.clear();
+    }
+
+    public int size() {
+        return graphs.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the ratio of lookups that were answered from the cache, or 0 if there were none.
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0D : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EncodedGraphCache[size=%d, capacity=%d, hits=%d, misses=%d, hitRate=%.2f%%]", size(), capacity, getHits(), getMisses(), getHitRate() * 100D);
+    }
+
+    private static final class Key {
+        final ResolvedJavaMethod method;
+        final boolean trackNodeSourcePosition;
+        final InvocationPlugins invocationPlugins;
+
+        Key(ResolvedJavaMethod method, boolean trackNodeSourcePosition, InvocationPlugins invocationPlugins) {
+            this.method = method;
+            this.trackNodeSourcePosition = trackNodeSourcePosition;
+            this.invocationPlugins = invocationPlugins;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return method.equals(other.method) && trackNodeSourcePosition == other.trackNodeSourcePosition && invocationPlugins == other.invocationPlugins;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, trackNodeSourcePosition, System.identityHashCode(invocationPlugins));
+        }
+    }
+
+    private static final class LRUCache<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+        private final int maxCacheSize;
+
+        LRUCache(int initialCapacity, int maxCacheSize) {
+            super(initialCapacity, 0.75F, true);
+            this.maxCacheSize = maxCacheSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxCacheSize;
+        }
+    }
+}
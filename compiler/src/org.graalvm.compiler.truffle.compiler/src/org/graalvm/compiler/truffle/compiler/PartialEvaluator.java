@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -36,8 +36,11 @@ import org.graalvm.collections.EconomicMap;
 import org.graalvm.collections.Equivalence;
 import org.graalvm.collections.MapCursor;
 import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
+import org.graalvm.compiler.bytecode.BytecodeProvider;
 import org.graalvm.compiler.core.common.CompilationIdentifier;
+import org.graalvm.compiler.core.common.spi.ConstantFieldProvider;
 import org.graalvm.compiler.core.common.type.StampPair;
+import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.debug.Indent;
@@ -47,6 +50,7 @@ import org.graalvm.compiler.graph.SourceLanguagePositionProvider;
 import org.graalvm.compiler.java.ComputeLoopFrequenciesClosure;
 import org.graalvm.compiler.nodes.Cancellable;
 import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.EncodedGraph;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
 import org.graalvm.compiler.nodes.ValueNode;
@@ -114,6 +118,7 @@ import static org.graalvm.compiler.truffle.compiler.SharedTruffleCompilerOptions
 import static org.graalvm.compiler.truffle.compiler.SharedTruffleCompilerOptions.TrufflePerformanceWarningsAreFatal;
 import static org.graalvm.compiler.truffle.compiler.TruffleCompilerOptions.PrintTruffleExpansionHistogram;
 import static org.graalvm.compiler.truffle.compiler.TruffleCompilerOptions.TraceTrufflePerformanceWarnings;
+import static org.graalvm.compiler.truffle.compiler.TruffleCompilerOptions.TruffleEncodedGraphCacheCapacity;
 import static org.graalvm.compiler.truffle.compiler.TruffleCompilerOptions.TruffleInlineAcrossTruffleBoundary;
 import static org.graalvm.compiler.truffle.compiler.TruffleCompilerOptions.TruffleInstrumentBoundaries;
 import static org.graalvm.compiler.truffle.compiler.TruffleCompilerOptions.TruffleInstrumentBranches;
@@ -145,6 +150,13 @@ public abstract class PartialEvaluator {
      */
     protected volatile InstrumentPhase.Instrumentation instrumentation;
 
+    /**
+     * Encoded graphs shared by all compilations of this partial evaluator. Lazily initialized like
+     * {@link #instrumentation} because its capacity depends on the Truffle options.
+     */
+    private volatile EncodedGraphCache encodedGraphCache;
+    private volatile boolean encodedGraphCacheInitialized;
+
     public PartialEvaluator(Providers providers, GraphBuilderConfiguration configForRoot, SnippetReflectionProvider snippetReflection, Architecture architecture,
                     KnownTruffleTypes knownFields) {
         this.providers = providers;
@@ -187,6 +199,24 @@ public abstract class PartialEvaluator {
         return instrumentation;
     }
 
+    /**
+     * Gets the cache of encoded graphs that is shared by all compilations of this partial
+     * evaluator, creating it first if necessary. Returns {@code null} if the cache is
+     * {@linkplain TruffleCompilerOptions#TruffleEncodedGraphCacheCapacity disabled}.
+     */
+    public final EncodedGraphCache getEncodedGraphCache() {
+        if (!encodedGraphCacheInitialized) {
+            synchronized (this) {
+                if (!encodedGraphCacheInitialized) {
+                    int capacity = TruffleCompilerOptions.getValue(TruffleEncodedGraphCacheCapacity);
+                    encodedGraphCache = capacity > 0 ? new EncodedGraphCache(capacity) : null;
+                    encodedGraphCacheInitialized = true;
+                }
+            }
+        }
+        return encodedGraphCache;
+    }
+
     static ResolvedJavaMethod findRequiredMethod(ResolvedJavaType declaringClass, ResolvedJavaMethod[] methods, String name, String descriptor) {
         for (ResolvedJavaMethod method : methods) {
             if (method.getName().equals(name) && method.getSignature().toMethodDescriptor().equals(descriptor)) {
@@ -453,11 +483,74 @@ public abstract class PartialEvaluator {
         }
 
         Providers compilationUnitProviders = providers.copyWith(new TruffleConstantFieldProvider(providers.getConstantFieldProvider(), providers.getMetaAccess()));
+        EncodedGraphCache sharedCache = getEncodedGraphCache();
+        if (sharedCache != null && !TruffleCompilerOptions.getValue(PrintTruffleExpansionHistogram)) {
+            /*
+             * Graphs in the shared cache outlive this compilation, so they must not depend on
+             * assumptions, and they are parsed without the Truffle constant field provider: the
+             * values of static @CompilationFinal fields can change between compilations. The
+             * decoder still devirtualizes calls using the assumptions of the compiled graph and
+             * folds @CompilationFinal fields while decoding.
+             */
+            return new SharedCachingPEGraphDecoder(sharedCache, architecture, graph, providers, compilationUnitProviders.getConstantFieldProvider(), newConfig,
+                            TruffleCompilerImpl.Optimizations, AllowAssumptions.NO,
+                            loopExplosionPlugin, decodingInvocationPlugins, inlineInvokePlugins, parameterPlugin, nodePluginList, callInlined, sourceLanguagePositionProvider);
+        }
         return new CachingPEGraphDecoder(architecture, graph, compilationUnitProviders, newConfig, TruffleCompilerImpl.Optimizations,
                         AllowAssumptions.ifNonNull(graph.getAssumptions()),
                         loopExplosionPlugin, decodingInvocationPlugins, inlineInvokePlugins, parameterPlugin, nodePluginList, callInlined, sourceLanguagePositionProvider);
     }
 
+    private static final class SharedCachingPEGraphDecoder extends CachingPEGraphDecoder {
+
+        private static final CounterKey EncodedGraphCacheHits = DebugContext.counter("PartialEvaluator_EncodedGraphCacheHits");
+        private static final CounterKey EncodedGraphCacheMisses = DebugContext.counter("PartialEvaluator_EncodedGraphCacheMisses");
+
+        private final EncodedGraphCache sharedCache;
+
+        SharedCachingPEGraphDecoder(EncodedGraphCache sharedCache, Architecture architecture, StructuredGraph graph, Providers parsingProviders,
+                        ConstantFieldProvider decodingConstantFieldProvider, GraphBuilderConfiguration graphBuilderConfig, OptimisticOptimizations optimisticOpts,
+                        AllowAssumptions allowAssumptions, LoopExplosionPlugin loopExplosionPlugin, InvocationPlugins invocationPlugins, InlineInvokePlugin[] inlineInvokePlugins,
+                        ParameterPlugin parameterPlugin, NodePlugin[] nodePlugins, ResolvedJavaMethod callInlinedMethod, SourceLanguagePositionProvider sourceLanguagePositionProvider) {
+            super(architecture, graph, parsingProviders, decodingConstantFieldProvider, graphBuilderConfig, optimisticOpts, allowAssumptions, loopExplosionPlugin, invocationPlugins,
+                            inlineInvokePlugins, parameterPlugin, nodePlugins, callInlinedMethod, sourceLanguagePositionProvider);
+            this.sharedCache = sharedCache;
+        }
+
+        /**
+         * The invocation plugins of the parsing configuration are a fresh child of the plugins of
+         * the partial evaluator for each compilation, so their parent identifies the plugins that
+         * were applied.
+         */
+        private InvocationPlugins parsingInvocationPlugins() {
+            InvocationPlugins plugins = graphBuilderConfig.getPlugins().getInvocationPlugins();
+            return plugins.getParent() != null ? plugins.getParent() : plugins;
+        }
+
+        @Override
+        protected EncodedGraph getCachedGraph(ResolvedJavaMethod method, BytecodeProvider intrinsicBytecodeProvider, boolean isSubstitution) {
+            if (intrinsicBytecodeProvider != null || isSubstitution) {
+                return super.getCachedGraph(method, intrinsicBytecodeProvider, isSubstitution);
+            }
+            EncodedGraph result = sharedCache.get(method, graphBuilderConfig.trackNodeSourcePosition(), parsingInvocationPlugins());
+            if (result != null) {
+                EncodedGraphCacheHits.increment(debug);
+            } else {
+                EncodedGraphCacheMisses.increment(debug);
+            }
+            return result;
+        }
+
+        @Override
+        protected void cacheGraph(ResolvedJavaMethod method, BytecodeProvider intrinsicBytecodeProvider, boolean isSubstitution, EncodedGraph encodedGraph) {
+            if (intrinsicBytecodeProvider != null || isSubstitution) {
+                super.cacheGraph(method, intrinsicBytecodeProvider, isSubstitution, encodedGraph);
+            } else {
+                sharedCache.put(method, graphBuilderConfig.trackNodeSourcePosition(), parsingInvocationPlugins(), encodedGraph);
+            }
+        }
+    }
+
     protected void doGraphPE(CompilableTruffleAST compilable, StructuredGraph graph, HighTierContext tierContext, TruffleInliningPlan inliningDecision) {
         LoopExplosionPlugin loopExplosionPlugin = new PELoopExplosionPlugin();
         ParameterPlugin parameterPlugin = new InterceptReceiverPlugin(compilable);
@@ -93,6 +93,9 @@ public final class TruffleCompilerOptions {
 
     @Option(help = "Maximum number of instrumentation counters available.")
     public static final OptionKey<Integer> TruffleInstrumentationTableSize = new OptionKey<>(10000);
+
+    @Option(help = "Maximum number of encoded graphs of interpreter methods that are shared between Truffle compilations (0 to disable).", type = OptionType.Expert)
+    public static final OptionKey<Integer> TruffleEncodedGraphCacheCapacity = new OptionKey<>(4096);
     // @formatter:on
 
     private TruffleCompilerOptions() {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -165,12 +165,26 @@ public final class NewFrameNode extends FixedWithNextNode implements IterableNod
         JavaConstant defaultValue = constantReflection.readFieldValue(types.fieldFrameDescriptorDefaultValue, frameDescriptor);
         this.frameDefaultValue = ConstantNode.forConstant(defaultValue, metaAccess, graph);
 
+        /*
+         * Indexed slots occupy the first indices of the frame, the indices of frame slots start
+         * after them.
+         */
+        JavaConstant indexedSlotKinds = constantReflection.readFieldValue(types.fieldFrameDescriptorIndexedSlotKinds, frameDescriptor);
+        int indexedSlotCount = constantReflection.readArrayLength(indexedSlotKinds);
+
         JavaConstant slotArrayList = constantReflection.readFieldValue(types.fieldFrameDescriptorSlots, frameDescriptor);
         JavaConstant slotArray = constantReflection.readFieldValue(types.fieldArrayListElementData, slotArrayList);
         int slotsArrayLength = constantReflection.readArrayLength(slotArray);
 
-        frameSlotKinds = new JavaKind[slotsArrayLength];
+        frameSlotKinds = new JavaKind[indexedSlotCount + slotsArrayLength];
         int limit = -1;
+        for (int i = 0; i < indexedSlotCount; i++) {
+            JavaConstant slotKind = constantReflection.readArrayElement(indexedSlotKinds, i);
+            if (slotKind.isNonNull()) {
+                frameSlotKinds[i] = asJavaKind(constantReflection.readFieldValue(types.fieldFrameSlotKindTag, slotKind));
+                limit = i;
+            }
+        }
         for (int i = 0; i < slotsArrayLength; i++) {
             JavaConstant slot = constantReflection.readArrayElement(slotArray, i);
             if (slot.isNonNull()) {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -28,6 +28,12 @@ import static org.graalvm.compiler.truffle.runtime.TruffleRuntimeOptions.getOpti
 import static org.graalvm.compiler.truffle.runtime.TruffleRuntimeOptions.overrideOptions;
 
 import java.lang.ref.WeakReference;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.PriorityBlockingQueue;
@@ -36,6 +42,8 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.graalvm.compiler.truffle.common.TruffleCompilationTask;
 import org.graalvm.compiler.truffle.runtime.TruffleRuntimeOptions.TruffleRuntimeOptionsOverrideScope;
@@ -50,18 +58,61 @@ import org.graalvm.options.OptionValues;
  * (first-in-first-out).
  *
  * Note that all the compilation requests are second tier when the multi-tier option is turned off.
+ *
+ * With {@code TruffleCompilationQueueHotnessOrder}, requests of the same tier are instead ordered
+ * by their {@linkplain Request#hotness(long) hotness}, which changes while they wait and is
+ * re-evaluated lazily by the {@link HotnessOrderedQueue}. Requests whose call targets have not been
+ * called since they were queued, for longer than {@code TruffleCompilationQueueStaleThreshold}, are
+ * dropped when they are picked. A dropped call target is queued again if it becomes hot again.
  */
 public class BackgroundCompileQueue {
+    /**
+     * The reason reported to {@link GraalTruffleRuntimeListener#onCompilationDequeued} for requests
+     * that are dropped because their call target went cold while queued.
+     */
+    public static final String STALE_REQUEST_REASON = "Stale compilation request";
+
+    /**
+     * The time after which the call and loop count of a call target at queuing time has lost half
+     * of its weight in the {@linkplain Request#hotness(long) hotness} of a request.
+     */
+    private static final double HOTNESS_HALF_LIFE_MILLIS = 1000.0;
+
+    /**
+     * How often the {@link HotnessOrderedQueue} re-evaluates the hotness of all queued requests.
+     */
+    private static final long REPRIORITIZE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
     private final AtomicLong idCounter;
     private final ExecutorService compilationExecutorService;
+    private final boolean hotnessOrder;
+    private final long staleThresholdNanos;
+
+    /**
+     * A queued task ordered by a {@link HotnessOrderedQueue}.
+     */
+    public interface Prioritized {
+        boolean isFirstTier();
 
-    public class Request implements Runnable, Comparable<Request> {
+        /**
+         * The hotness of the task at time {@code now} (in {@link System#nanoTime()} units). Hotter
+         * tasks are taken first.
+         */
+        double hotness(long now);
+
+        /** Orders tasks of the same tier and hotness, lower ids are taken first. */
+        long getId();
+    }
+
+    public class Request implements Runnable, Comparable<Request>, Prioritized {
         private final long id;
         private final GraalTruffleRuntime runtime;
         private final OptionValues optionOverrides;
         private final WeakReference<OptimizedCallTarget> weakCallTarget;
         private final TruffleCompilationTask task;
         private final boolean isFirstTier;
+        private final long queuedTime;
+        private final int queuedCallAndLoopCount;
 
         public Request(GraalTruffleRuntime runtime, OptionValues optionOverrides, OptimizedCallTarget callTarget, TruffleCompilationTask task) {
             this.id = idCounter.getAndIncrement();
@@ -70,6 +121,43 @@ public class BackgroundCompileQueue {
             this.weakCallTarget = new WeakReference<>(callTarget);
             this.task = task;
             this.isFirstTier = !task.isLastTier();
+            this.queuedTime = System.nanoTime();
+            this.queuedCallAndLoopCount = callAndLoopCount(callTarget);
+        }
+
+        /**
+         * The hotness of a request is the number of calls and loop iterations its call target has
+         * seen since the request was queued, plus the count at queuing time decayed by the time
+         * the request has been waiting. A target that keeps running stays hot, one that stopped
+         * running cools down. Requests whose call target was collected are the hottest, so that
+         * they are removed from the queue quickly.
+         */
+        @Override
+        public double hotness(long now) {
+            OptimizedCallTarget callTarget = weakCallTarget.get();
+            if (callTarget == null) {
+                return Double.MAX_VALUE;
+            }
+            int count = callAndLoopCount(callTarget);
+            double waitedMillis = (now - queuedTime) / 1e6;
+            return (count - queuedCallAndLoopCount) + count * HOTNESS_HALF_LIFE_MILLIS / (HOTNESS_HALF_LIFE_MILLIS + waitedMillis);
+        }
+
+        @Override
+        public boolean isFirstTier() {
+            return isFirstTier;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        private boolean isStale(OptimizedCallTarget callTarget) {
+            if (!hotnessOrder || staleThresholdNanos <= 0) {
+                return false;
+            }
+            return System.nanoTime() - queuedTime > staleThresholdNanos && callAndLoopCount(callTarget) == queuedCallAndLoopCount;
         }
 
         @SuppressWarnings("try")
@@ -79,8 +167,12 @@ public class BackgroundCompileQueue {
             if (callTarget != null) {
                 try (TruffleRuntimeOptionsOverrideScope scope = optionOverrides != null ? overrideOptions(optionOverrides) : null) {
                     if (!task.isCancelled()) {
-                        OptionValues options = getOptions();
-                        runtime.doCompile(options, callTarget, task);
+                        if (isStale(callTarget)) {
+                            runtime.cancelInstalledTask(callTarget, null, STALE_REQUEST_REASON);
+                        } else {
+                            OptionValues options = getOptions();
+                            runtime.doCompile(options, callTarget, task);
+                        }
                     }
                 } finally {
                     callTarget.resetCompilationTask();
@@ -102,7 +194,7 @@ public class BackgroundCompileQueue {
         }
     }
 
-    public class RequestFutureTask<V> extends FutureTask<V> implements Comparable<Runnable> {
+    public class RequestFutureTask<V> extends FutureTask<V> implements Comparable<Runnable>, Prioritized {
         private final Request request;
 
         public RequestFutureTask(Runnable runnable, V result) {
@@ -119,14 +211,300 @@ public class BackgroundCompileQueue {
             }
         }
 
+        @Override
+        public boolean isFirstTier() {
+            return request.isFirstTier();
+        }
+
+        @Override
+        public double hotness(long now) {
+            return request.hotness(now);
+        }
+
+        @Override
+        public long getId() {
+            return request.getId();
+        }
+
         @Override
         public String toString() {
             return "Future(" + request + ")";
         }
     }
 
+    private static int callAndLoopCount(OptimizedCallTarget callTarget) {
+        OptimizedCompilationProfile profile = callTarget.getCompilationProfile();
+        return profile != null ? profile.getCallAndLoopCount() : 0;
+    }
+
+    /**
+     * A blocking queue that hands out the hottest {@link Prioritized} task. The hotness of a task
+     * changes while it waits, so the heap is ordered by the hotness observed when a task was last
+     * evaluated. Taking a task re-evaluates the head of the heap and sifts it down until the head
+     * is a task evaluated by the current take. In addition, all tasks are re-evaluated at most once
+     * per {@code reprioritizeIntervalNanos}, so that tasks which became hotter deep in the heap are
+     * not overlooked for long.
+     */
+    public static final class HotnessOrderedQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final long reprioritizeIntervalNanos;
+        private PriorityQueue<Entry> heap = new PriorityQueue<>();
+        private long lastReprioritized = System.nanoTime();
+        private long epoch;
+
+        private static final class Entry implements Comparable<Entry> {
+            final Runnable task;
+            final Prioritized prioritized;
+            double hotness;
+            long evaluatedEpoch;
+
+            Entry(Runnable task, long now, long epoch) {
+                this.task = task;
+                this.prioritized = (Prioritized) task;
+                evaluate(now, epoch);
+            }
+
+            void evaluate(long now, long currentEpoch) {
+                hotness = prioritized.hotness(now);
+                evaluatedEpoch = currentEpoch;
+            }
+
+            @Override
+            public int compareTo(Entry that) {
+                if (this.prioritized.isFirstTier() != that.prioritized.isFirstTier()) {
+                    return this.prioritized.isFirstTier() ? -1 : 1;
+                }
+                int result = Double.compare(that.hotness, this.hotness);
+                if (result != 0) {
+                    return result;
+                }
+                return Long.compare(this.prioritized.getId(), that.prioritized.getId());
+            }
+        }
+
+        public HotnessOrderedQueue(long reprioritizeIntervalNanos) {
+            this.reprioritizeIntervalNanos = reprioritizeIntervalNanos;
+        }
+
+        /** Must be called with the lock held. */
+        private Runnable removeHottest() {
+            if (heap.isEmpty()) {
+                return null;
+            }
+            long now = System.nanoTime();
+            epoch++;
+            if (now - lastReprioritized >= reprioritizeIntervalNanos) {
+                ArrayList<Entry> entries = new ArrayList<>(heap);
+                for (Entry entry : entries) {
+                    entry.evaluate(now, epoch);
+                }
+                heap = new PriorityQueue<>(entries);
+                lastReprioritized = now;
+            } else {
+                Entry head = heap.peek();
+                while (head.evaluatedEpoch != epoch) {
+                    heap.poll();
+                    head.evaluate(now, epoch);
+                    heap.add(head);
+                    head = heap.peek();
+                }
+            }
+            return heap.poll().task;
+        }
+
+        @Override
+        public boolean offer(Runnable e) {
+            lock.lock();
+            try {
+                heap.add(new Entry(e, System.nanoTime(), epoch));
+                notEmpty.signal();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void put(Runnable e) {
+            offer(e);
+        }
+
+        @Override
+        public boolean offer(Runnable e, long timeout, TimeUnit unit) {
+            return offer(e);
+        }
+
+        @Override
+        public Runnable take() throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                while (heap.isEmpty()) {
+                    notEmpty.await();
+                }
+                return removeHottest();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lockInterruptibly();
+            try {
+                while (heap.isEmpty()) {
+                    if (nanos <= 0L) {
+                        return null;
+                    }
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+                return removeHottest();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable poll() {
+            lock.lock();
+            try {
+                return removeHottest();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable peek() {
+            lock.lock();
+            try {
+                Entry head = heap.peek();
+                return head == null ? null : head.task;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            lock.lock();
+            try {
+                return heap.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            lock.lock();
+            try {
+                for (Iterator<Entry> iterator = heap.iterator(); iterator.hasNext();) {
+                    if (iterator.next().task.equals(o)) {
+                        iterator.remove();
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            lock.lock();
+            try {
+                for (Entry entry : heap) {
+                    if (entry.task.equals(o)) {
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void clear() {
+            lock.lock();
+            try {
+                heap.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int drainTo(Collection<? super Runnable> c) {
+            return drainTo(c, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public int drainTo(Collection<? super Runnable> c, int maxElements) {
+            lock.lock();
+            try {
+                int n = Math.min(heap.size(), maxElements);
+                for (int i = 0; i < n; i++) {
+                    c.add(heap.poll().task);
+                }
+                return n;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Iterates over a snapshot of the queue, removals are forwarded to the queue. */
+        @Override
+        public Iterator<Runnable> iterator() {
+            final Iterator<Runnable> snapshot;
+            lock.lock();
+            try {
+                ArrayList<Runnable> tasks = new ArrayList<>(heap.size());
+                for (Entry entry : heap) {
+                    tasks.add(entry.task);
+                }
+                snapshot = tasks.iterator();
+            } finally {
+                lock.unlock();
+            }
+            return new Iterator<Runnable>() {
+                private Runnable last;
+
+                @Override
+                public boolean hasNext() {
+                    return snapshot.hasNext();
+                }
+
+                @Override
+                public Runnable next() {
+                    last = snapshot.next();
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException();
+                    }
+                    HotnessOrderedQueue.this.remove(last);
+                    last = null;
+                }
+            };
+        }
+    }
+
     public BackgroundCompileQueue() {
         this.idCounter = new AtomicLong();
+        this.hotnessOrder = TruffleRuntimeOptions.getValue(SharedTruffleRuntimeOptions.TruffleCompilationQueueHotnessOrder);
+        this.staleThresholdNanos = TimeUnit.MILLISECONDS.toNanos(TruffleRuntimeOptions.getValue(SharedTruffleRuntimeOptions.TruffleCompilationQueueStaleThreshold));
 
         TruffleCompilerThreadFactory factory = new TruffleCompilerThreadFactory("TruffleCompilerThread");
         int selectedProcessors = TruffleRuntimeOptions.getValue(SharedTruffleRuntimeOptions.TruffleCompilerThreads);
@@ -138,8 +516,9 @@ public class BackgroundCompileQueue {
             }
         }
         selectedProcessors = Math.max(1, selectedProcessors);
+        BlockingQueue<Runnable> queue = hotnessOrder ? new HotnessOrderedQueue(REPRIORITIZE_INTERVAL_NANOS) : new PriorityBlockingQueue<>();
         this.compilationExecutorService = new ThreadPoolExecutor(selectedProcessors, selectedProcessors, 0, TimeUnit.MILLISECONDS,
-                        new PriorityBlockingQueue<>(), factory) {
+                        queue, factory) {
             @Override
             protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
                 return new RequestFutureTask<>(runnable, value);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -190,6 +190,13 @@ public final class FrameWithBoxing implements VirtualFrame, MaterializedFrame {
         return locals;
     }
 
+    private Object[] resizeAndCheck(int index) {
+        if (!resize()) {
+            throw new IllegalArgumentException(String.format("The frame slot index %s is not known by the frame descriptor.", index));
+        }
+        return locals;
+    }
+
     @Override
     public Object getValue(FrameSlot slot) {
         return getObject(slot);
@@ -241,6 +248,148 @@ public final class FrameWithBoxing implements VirtualFrame, MaterializedFrame {
         return getObject(slot) instanceof Double;
     }
 
+    @Override
+    public Object getObject(int index) {
+        Object[] curLocals = this.getLocals();
+        if (CompilerDirectives.inInterpreter() && index >= curLocals.length) {
+            curLocals = resizeAndCheck(index);
+        }
+        return curLocals[index];
+    }
+
+    @Override
+    public void setObject(int index, Object value) {
+        Object[] curLocals = this.getLocals();
+        if (CompilerDirectives.inInterpreter() && index >= curLocals.length) {
+            curLocals = resizeAndCheck(index);
+        }
+        curLocals[index] = value;
+    }
+
+    @Override
+    public byte getByte(int index) throws FrameSlotTypeException {
+        Object result = getObject(index);
+        if (CompilerDirectives.inInterpreter() && !(result instanceof Byte)) {
+            throw new FrameSlotTypeException();
+        }
+        return (Byte) result;
+    }
+
+    @Override
+    public void setByte(int index, byte value) {
+        setObject(index, value);
+    }
+
+    @Override
+    public boolean getBoolean(int index) throws FrameSlotTypeException {
+        Object result = getObject(index);
+        if (CompilerDirectives.inInterpreter() && !(result instanceof Boolean)) {
+            throw new FrameSlotTypeException();
+        }
+        return (Boolean) result;
+    }
+
+    @Override
+    public void setBoolean(int index, boolean value) {
+        setObject(index, value);
+    }
+
+    @Override
+    public int getInt(int index) throws FrameSlotTypeException {
+        Object result = getObject(index);
+        if (CompilerDirectives.inInterpreter() && !(result instanceof Integer)) {
+            throw new FrameSlotTypeException();
+        }
+        return (Integer) result;
+    }
+
+    @Override
+    public void setInt(int index, int value) {
+        setObject(index, value);
+    }
+
+    @Override
+    public long getLong(int index) throws FrameSlotTypeException {
+        Object result = getObject(index);
+        if (CompilerDirectives.inInterpreter() && !(result instanceof Long)) {
+            throw new FrameSlotTypeException();
+        }
+        return (Long) result;
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        setObject(index, value);
+    }
+
+    @Override
+    public float getFloat(int index) throws FrameSlotTypeException {
+        Object result = getObject(index);
+        if (CompilerDirectives.inInterpreter() && !(result instanceof Float)) {
+            throw new FrameSlotTypeException();
+        }
+        return (Float) result;
+    }
+
+    @Override
+    public void setFloat(int index, float value) {
+        setObject(index, value);
+    }
+
+    @Override
+    public double getDouble(int index) throws FrameSlotTypeException {
+        Object result = getObject(index);
+        if (CompilerDirectives.inInterpreter() && !(result instanceof Double)) {
+            throw new FrameSlotTypeException();
+        }
+        return (Double) result;
+    }
+
+    @Override
+    public void setDouble(int index, double value) {
+        setObject(index, value);
+    }
+
+    @Override
+    public Object getValue(int index) {
+        return getObject(index);
+    }
+
+    @Override
+    public boolean isObject(int index) {
+        return getObject(index) != null;
+    }
+
+    @Override
+    public boolean isByte(int index) {
+        return getObject(index) instanceof Byte;
+    }
+
+    @Override
+    public boolean isBoolean(int index) {
+        return getObject(index) instanceof Boolean;
+    }
+
+    @Override
+    public boolean isInt(int index) {
+        return getObject(index) instanceof Integer;
+    }
+
+    @Override
+    public boolean isLong(int index) {
+        return getObject(index) instanceof Long;
+    }
+
+    @Override
+    public boolean isFloat(int index) {
+        return getObject(index) instanceof Float;
+    }
+
+    @Override
+    public boolean isDouble(int index) {
+        return getObject(index) instanceof Double;
+    }
+
     @SuppressWarnings({"unchecked", "unused"})
     private static <T> T unsafeCast(Object value, Class<T> type, boolean condition, boolean nonNull, boolean exact) {
         return (T) value;
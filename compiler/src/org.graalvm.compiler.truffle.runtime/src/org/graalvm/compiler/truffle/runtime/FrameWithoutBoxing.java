@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -316,7 +316,15 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
 
     @Override
     public Object getValue(FrameSlot slot) {
-        int slotIndex = getFrameSlotIndex(slot);
+        return getValue(getFrameSlotIndex(slot), slot);
+    }
+
+    @Override
+    public Object getValue(int index) {
+        return getValue(index, null);
+    }
+
+    private Object getValue(int slotIndex, FrameSlot slot) {
         if (CompilerDirectives.inInterpreter() && slotIndex >= getTags().length) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             resize();
@@ -366,7 +374,10 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
     }
 
     byte getTag(FrameSlot slot) {
-        int slotIndex = getFrameSlotIndex(slot);
+        return getTag(getFrameSlotIndex(slot));
+    }
+
+    private byte getTag(int slotIndex) {
         byte[] cachedTags = getTags();
         if (slotIndex < cachedTags.length) {
             return cachedTags[slotIndex];
@@ -412,6 +423,130 @@ public final class FrameWithoutBoxing implements VirtualFrame, MaterializedFrame
         return getTag(slot) == DOUBLE_TAG;
     }
 
+    /*
+     * Accessors for indexed slots. They share the frame arrays with the FrameSlot based accessors,
+     * but there is no slot object that could serve as the location identity of the access.
+     */
+
+    @Override
+    public Object getObject(int index) throws FrameSlotTypeException {
+        boolean condition = verifyGet(index, OBJECT_TAG);
+        return getObjectUnsafe(index, null, condition);
+    }
+
+    @Override
+    public void setObject(int index, Object value) {
+        verifySet(index, OBJECT_TAG);
+        setObjectUnsafe(index, null, value);
+    }
+
+    @Override
+    public byte getByte(int index) throws FrameSlotTypeException {
+        boolean condition = verifyGet(index, BYTE_TAG);
+        return getByteUnsafe(index, null, condition);
+    }
+
+    @Override
+    public void setByte(int index, byte value) {
+        verifySet(index, BYTE_TAG);
+        setByteUnsafe(index, null, value);
+    }
+
+    @Override
+    public boolean getBoolean(int index) throws FrameSlotTypeException {
+        boolean condition = verifyGet(index, BOOLEAN_TAG);
+        return getBooleanUnsafe(index, null, condition);
+    }
+
+    @Override
+    public void setBoolean(int index, boolean value) {
+        verifySet(index, BOOLEAN_TAG);
+        setBooleanUnsafe(index, null, value);
+    }
+
+    @Override
+    public int getInt(int index) throws FrameSlotTypeException {
+        boolean condition = verifyGet(index, INT_TAG);
+        return getIntUnsafe(index, null, condition);
+    }
+
+    @Override
+    public void setInt(int index, int value) {
+        verifySet(index, INT_TAG);
+        setIntUnsafe(index, null, value);
+    }
+
+    @Override
+    public long getLong(int index) throws FrameSlotTypeException {
+        boolean condition = verifyGet(index, LONG_TAG);
+        return getLongUnsafe(index, null, condition);
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        verifySet(index, LONG_TAG);
+        setLongUnsafe(index, null, value);
+    }
+
+    @Override
+    public float getFloat(int index) throws FrameSlotTypeException {
+        boolean condition = verifyGet(index, FLOAT_TAG);
+        return getFloatUnsafe(index, null, condition);
+    }
+
+    @Override
+    public void setFloat(int index, float value) {
+        verifySet(index, FLOAT_TAG);
+        setFloatUnsafe(index, null, value);
+    }
+
+    @Override
+    public double getDouble(int index) throws FrameSlotTypeException {
+        boolean condition = verifyGet(index, DOUBLE_TAG);
+        return getDoubleUnsafe(index, null, condition);
+    }
+
+    @Override
+    public void setDouble(int index, double value) {
+        verifySet(index, DOUBLE_TAG);
+        setDoubleUnsafe(index, null, value);
+    }
+
+    @Override
+    public boolean isObject(int index) {
+        return getTag(index) == OBJECT_TAG;
+    }
+
+    @Override
+    public boolean isByte(int index) {
+        return getTag(index) == BYTE_TAG;
+    }
+
+    @Override
+    public boolean isBoolean(int index) {
+        return getTag(index) == BOOLEAN_TAG;
+    }
+
+    @Override
+    public boolean isInt(int index) {
+        return getTag(index) == INT_TAG;
+    }
+
+    @Override
+    public boolean isLong(int index) {
+        return getTag(index) == LONG_TAG;
+    }
+
+    @Override
+    public boolean isFloat(int index) {
+        return getTag(index) == FLOAT_TAG;
+    }
+
+    @Override
+    public boolean isDouble(int index) {
+        return getTag(index) == DOUBLE_TAG;
+    }
+
     @SuppressWarnings({"unchecked", "unused"})
     private static <T> T unsafeCast(Object value, Class<T> type, boolean condition, boolean nonNull, boolean exact) {
         return (T) value;
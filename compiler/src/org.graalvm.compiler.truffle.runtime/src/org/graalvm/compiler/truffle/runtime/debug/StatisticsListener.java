@@ -38,11 +38,13 @@ import java.util.LongSummaryStatistics;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.WeakHashMap;
 import java.util.function.Function;
 
 import org.graalvm.compiler.truffle.common.TruffleCompilerListener.CompilationResultInfo;
 import org.graalvm.compiler.truffle.common.TruffleCompilerListener.GraphInfo;
 import org.graalvm.compiler.truffle.runtime.AbstractGraalTruffleRuntimeListener;
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue;
 import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
 import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
 import org.graalvm.compiler.truffle.runtime.OptimizedCompilationProfile;
@@ -69,10 +71,14 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
     private int success;
     private int queues;
     private int dequeues;
+    private int staleDequeues;
     private int splits;
 
     private final LongSummaryStatistics timeToQueue = new LongSummaryStatistics();
     private final LongSummaryStatistics timeToCompilation = new LongSummaryStatistics();
+    private final LongSummaryStatistics timeInQueue = new LongSummaryStatistics();
+    private final IntSummaryStatistics queueLength = new IntSummaryStatistics();
+    private final Map<OptimizedCallTarget, Long> queuedTimes = new WeakHashMap<>();
 
     private final IntSummaryStatistics nodeCount = new IntSummaryStatistics();
     private final IntSummaryStatistics nodeCountTrivial = new IntSummaryStatistics();
@@ -136,15 +142,29 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
         if (firstCompilation == 0) {
             firstCompilation = System.nanoTime();
         }
+        long now = System.nanoTime();
         OptimizedCompilationProfile profile = target.getCompilationProfile();
         if (profile != null) {
-            timeToQueue.accept(System.nanoTime() - profile.getTimestamp());
+            timeToQueue.accept(now - profile.getTimestamp());
         }
+        queuedTimes.put(target, now);
+        queueLength.accept(runtime.getCompilationQueueSize());
     }
 
     @Override
     public synchronized void onCompilationDequeued(OptimizedCallTarget target, Object source, CharSequence reason) {
         dequeues++;
+        if (BackgroundCompileQueue.STALE_REQUEST_REASON.equals(reason)) {
+            staleDequeues++;
+        }
+        recordTimeInQueue(target, System.nanoTime());
+    }
+
+    private void recordTimeInQueue(OptimizedCallTarget target, long now) {
+        Long queuedTime = queuedTimes.remove(target);
+        if (queuedTime != null) {
+            timeInQueue.accept(now - queuedTime);
+        }
     }
 
     @Override
@@ -161,6 +181,7 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
         if (profile != null) {
             timeToCompilation.accept(times.compilationStarted - profile.getTimestamp());
         }
+        recordTimeInQueue(target, times.compilationStarted);
     }
 
     @Override
@@ -256,13 +277,16 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
         printStatistic(rt, "Invalidated", invalidations);
         printStatistic(rt, "Queues", queues);
         printStatistic(rt, "Dequeues", dequeues);
+        printStatistic(rt, "  Stale", staleDequeues);
         printStatistic(rt, "Splits", splits);
         printStatistic(rt, "Compilation Accuracy", 1.0 - invalidations / (double) compilations);
         printStatistic(rt, "Queue Accuracy", 1.0 - dequeues / (double) queues);
         printStatistic(rt, "Compilation Utilization", compilationTime.getSum() / (double) (endTime - firstCompilation));
         printStatistic(rt, "Remaining Compilation Queue", rt.getCompilationQueueSize());
+        printStatistic(rt, "Compilation Queue Length", queueLength);
 
         printStatisticTime(rt, "Time to queue", timeToQueue);
+        printStatisticTime(rt, "Time in queue", timeInQueue);
         printStatisticTime(rt, "Time to compilation", timeToCompilation);
 
         printStatisticTime(rt, "Compilation time", compilationTime);
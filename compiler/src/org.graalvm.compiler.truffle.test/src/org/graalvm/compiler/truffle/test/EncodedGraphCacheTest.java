@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import org.graalvm.compiler.truffle.compiler.EncodedGraphCache;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.test.nodes.AbstractTestNode;
+import org.graalvm.compiler.truffle.test.nodes.AddTestNode;
+import org.graalvm.compiler.truffle.test.nodes.ConstantTestNode;
+import org.graalvm.compiler.truffle.test.nodes.RootTestNode;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.frame.FrameDescriptor;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+public class EncodedGraphCacheTest extends PartialEvaluationTest {
+
+    public static Object constant42() {
+        return 42;
+    }
+
+    @Test
+    public void sharedBetweenCompilations() {
+        EncodedGraphCache cache = truffleCompiler.getPartialEvaluator().getEncodedGraphCache();
+        Assume.assumeNotNull(cache);
+
+        FrameDescriptor fd = new FrameDescriptor();
+        AbstractTestNode firstTree = new AddTestNode(new ConstantTestNode(40), new ConstantTestNode(2));
+        assertPartialEvalEquals("constant42", new RootTestNode(fd, "sharedBetweenCompilations1", firstTree));
+        Assert.assertNotEquals(0, cache.size());
+
+        long hits = cache.getHits();
+        AbstractTestNode secondTree = new AddTestNode(new ConstantTestNode(40), new ConstantTestNode(2));
+        assertPartialEvalEquals("constant42", new RootTestNode(fd, "sharedBetweenCompilations2", secondTree));
+        Assert.assertTrue(cache.toString(), cache.getHits() > hits);
+    }
+
+    static final class StaticCompilationFinalRootNode extends RootNode {
+
+        @CompilationFinal static int value;
+
+        StaticCompilationFinalRootNode() {
+            super(null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return value;
+        }
+    }
+
+    @Test
+    public void staticCompilationFinalFieldChange() {
+        Assume.assumeNotNull(truffleCompiler.getPartialEvaluator().getEncodedGraphCache());
+
+        StaticCompilationFinalRootNode.value = 1;
+        OptimizedCallTarget target = compileHelper("staticCompilationFinalFieldChange", new StaticCompilationFinalRootNode(), new Object[0]);
+        Assert.assertTrue(target.isValid());
+        Assert.assertEquals(1, target.call());
+
+        /* The cached graph of execute() must not have the old value folded in. */
+        StaticCompilationFinalRootNode.value = 2;
+        target.invalidate(this, "static @CompilationFinal field changed");
+        OptimizedCallTarget recompiled = compileHelper("staticCompilationFinalFieldChange", new StaticCompilationFinalRootNode(), new Object[0]);
+        Assert.assertTrue(recompiled.isValid());
+        Assert.assertEquals(2, recompiled.call());
+    }
+}
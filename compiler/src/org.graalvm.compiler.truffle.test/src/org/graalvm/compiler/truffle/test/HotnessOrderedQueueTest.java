@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue.HotnessOrderedQueue;
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue.Prioritized;
+import org.junit.Test;
+
+public class HotnessOrderedQueueTest {
+
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private static final class Task implements Runnable, Prioritized {
+        private final long id;
+        private final boolean firstTier;
+        private volatile double hotness;
+
+        Task(long id, boolean firstTier, double hotness) {
+            this.id = id;
+            this.firstTier = firstTier;
+            this.hotness = hotness;
+        }
+
+        @Override
+        public void run() {
+        }
+
+        @Override
+        public boolean isFirstTier() {
+            return firstTier;
+        }
+
+        @Override
+        public double hotness(long now) {
+            return hotness;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+    }
+
+    private static List<Runnable> takeAll(HotnessOrderedQueue queue) throws InterruptedException {
+        List<Runnable> result = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            result.add(queue.take());
+        }
+        return result;
+    }
+
+    @Test
+    public void testHotterTargetsFirst() throws InterruptedException {
+        HotnessOrderedQueue queue = new HotnessOrderedQueue(NEVER);
+        Task cold = new Task(0, false, 1);
+        Task warm = new Task(1, false, 100);
+        Task hot = new Task(2, false, 10000);
+        queue.add(cold);
+        queue.add(warm);
+        queue.add(hot);
+        assertEquals(3, queue.size());
+        List<Runnable> order = takeAll(queue);
+        assertSame(hot, order.get(0));
+        assertSame(warm, order.get(1));
+        assertSame(cold, order.get(2));
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testFirstTierBeforeHotness() throws InterruptedException {
+        HotnessOrderedQueue queue = new HotnessOrderedQueue(NEVER);
+        Task lastTier = new Task(0, false, 10000);
+        Task firstTier = new Task(1, true, 1);
+        queue.add(lastTier);
+        queue.add(firstTier);
+        assertSame(firstTier, queue.take());
+        assertSame(lastTier, queue.take());
+    }
+
+    @Test
+    public void testEqualHotnessIsFifo() throws InterruptedException {
+        HotnessOrderedQueue queue = new HotnessOrderedQueue(NEVER);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Task task = new Task(i, false, 42);
+            tasks.add(task);
+            queue.add(task);
+        }
+        assertEquals(tasks, takeAll(queue));
+    }
+
+    @Test
+    public void testHeadCoolingDownIsReprioritized() throws InterruptedException {
+        HotnessOrderedQueue queue = new HotnessOrderedQueue(NEVER);
+        Task cooled = new Task(0, false, 1000);
+        Task steady = new Task(1, false, 500);
+        queue.add(cooled);
+        queue.add(steady);
+        /* The head of the heap is re-evaluated when it is taken. */
+        cooled.hotness = 10;
+        assertSame(steady, queue.take());
+        assertSame(cooled, queue.take());
+    }
+
+    @Test
+    public void testTargetHeatingUpIsReprioritized() throws InterruptedException {
+        HotnessOrderedQueue queue = new HotnessOrderedQueue(0);
+        Task heated = new Task(0, false, 10);
+        Task steady = new Task(1, false, 500);
+        queue.add(heated);
+        queue.add(steady);
+        /* Tasks deep in the heap are re-evaluated once per interval. */
+        heated.hotness = 1000;
+        assertSame(heated, queue.take());
+        assertSame(steady, queue.take());
+    }
+
+    @Test
+    public void testRemove() throws InterruptedException {
+        HotnessOrderedQueue queue = new HotnessOrderedQueue(NEVER);
+        Task a = new Task(0, false, 1);
+        Task b = new Task(1, false, 2);
+        queue.add(a);
+        queue.add(b);
+        queue.remove(b);
+        assertEquals(1, queue.size());
+        assertSame(a, queue.take());
+    }
+}
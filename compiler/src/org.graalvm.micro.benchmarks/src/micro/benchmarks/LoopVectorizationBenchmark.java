@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package micro.benchmarks;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Kernels for the vectorization of counted loops over arrays, i.e., element-wise operations and
+ * integer sums.
+ */
+@State(Scope.Thread)
+public class LoopVectorizationBenchmark extends BenchmarkBase {
+
+    /** How many elements the arrays have. */
+    private static final int SIZE = 4099;
+
+    private int[] intA;
+    private int[] intB;
+    private int[] intDst;
+    private long[] longA;
+    private long[] longB;
+    private long[] longDst;
+    private float[] floatA;
+    private float[] floatB;
+    private float[] floatDst;
+    private double[] doubleA;
+    private double[] doubleB;
+    private double[] doubleDst;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        intA = new int[SIZE];
+        intB = new int[SIZE];
+        intDst = new int[SIZE];
+        longA = new long[SIZE];
+        longB = new long[SIZE];
+        longDst = new long[SIZE];
+        floatA = new float[SIZE];
+        floatB = new float[SIZE];
+        floatDst = new float[SIZE];
+        doubleA = new double[SIZE];
+        doubleB = new double[SIZE];
+        doubleDst = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            intA[i] = random.nextInt();
+            intB[i] = random.nextInt();
+            longA[i] = random.nextLong();
+            longB[i] = random.nextLong();
+            floatA[i] = random.nextFloat();
+            floatB[i] = random.nextFloat();
+            doubleA[i] = random.nextDouble();
+            doubleB[i] = random.nextDouble();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] addInts() {
+        int[] dst = intDst;
+        int[] a = intA;
+        int[] b = intB;
+        for (int i = 0; i < SIZE; i++) {
+            dst[i] = a[i] + b[i];
+        }
+        return dst;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int[] mulInts() {
+        int[] dst = intDst;
+        int[] a = intA;
+        int[] b = intB;
+        for (int i = 0; i < SIZE; i++) {
+            dst[i] = a[i] * b[i];
+        }
+        return dst;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long[] xorLongs() {
+        long[] dst = longDst;
+        long[] a = longA;
+        long[] b = longB;
+        for (int i = 0; i < SIZE; i++) {
+            dst[i] = a[i] ^ b[i];
+        }
+        return dst;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public float[] addFloats() {
+        float[] dst = floatDst;
+        float[] a = floatA;
+        float[] b = floatB;
+        for (int i = 0; i < SIZE; i++) {
+            dst[i] = a[i] + b[i];
+        }
+        return dst;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public double[] mulDoubles() {
+        double[] dst = doubleDst;
+        double[] a = doubleA;
+        double[] b = doubleB;
+        for (int i = 0; i < SIZE; i++) {
+            dst[i] = a[i] * b[i];
+        }
+        return dst;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public int sumInts() {
+        int[] a = intA;
+        int sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public long sumLongs() {
+        long[] a = longA;
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+}
@@ -64,6 +64,21 @@ suite = {
       "javaCompliance" : "8+",
       "workingSets" : "Truffle,Regex",
     },
+
+    "com.oracle.truffle.regex.benchmark" : {
+      "subDir" : "src",
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "com.oracle.truffle.regex",
+        "mx:JMH_1_21",
+      ],
+      "checkstyle" : "com.oracle.truffle.regex",
+      "javaCompliance" : "8+",
+      "testProject" : True,
+      "annotationProcessors" : ["mx:JMH_1_21"],
+      "workingSets" : "Truffle,Regex",
+      "jacoco" : "exclude",
+    },
   },
 
   "distributions" : {
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex.benchmark;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.truffle.regex.RegexEngine;
+import com.oracle.truffle.regex.RegexOptions;
+import com.oracle.truffle.regex.RegexSet;
+import com.oracle.truffle.regex.RegexSource;
+
+/**
+ * Compares searching for many expressions with a single {@link RegexSet} to searching for each
+ * expression separately.
+ */
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegexSetBenchmark {
+
+    @Param({"10", "100", "1000"}) private int patterns;
+
+    private RegexSet set;
+    private RegexSet[] individual;
+    private String input;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        RegexSource[] sources = new RegexSource[patterns];
+        for (int i = 0; i < patterns; i++) {
+            switch (i % 4) {
+                case 0:
+                    sources[i] = new RegexSource("user" + i + "=[0-9]+");
+                    break;
+                case 1:
+                    sources[i] = new RegexSource("GET /api/v" + i + "/[a-z]+");
+                    break;
+                case 2:
+                    sources[i] = new RegexSource("err(?:or)?-" + i + "[:;]", "i");
+                    break;
+                default:
+                    sources[i] = new RegexSource("^host-" + i + "\\.example\\.(?:com|org)");
+                    break;
+            }
+        }
+        RegexEngine engine = new RegexEngine(null, RegexOptions.DEFAULT);
+        set = engine.compileSet(sources);
+        individual = new RegexSet[patterns];
+        for (int i = 0; i < patterns; i++) {
+            individual[i] = engine.compileSet(sources[i]);
+        }
+        StringBuilder sb = new StringBuilder("host-3.example.com ");
+        while (sb.length() < 4096) {
+            int id = random.nextInt(patterns * 2);
+            sb.append("user").append(id).append('=').append(random.nextInt(1000)).append(" GET /api/v").append(id).append("/items ERR-").append(id).append(": ");
+        }
+        input = sb.toString();
+    }
+
+    @Benchmark
+    public int[] set() {
+        return set.findMatches(input, 0);
+    }
+
+    @Benchmark
+    public int individual() {
+        int matches = 0;
+        for (RegexSet s : individual) {
+            matches += s.findMatches(input, 0).length;
+        }
+        return matches;
+    }
+}
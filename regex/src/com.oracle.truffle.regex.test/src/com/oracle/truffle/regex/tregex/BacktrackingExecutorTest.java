@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex.tregex;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.regex.CompiledRegex;
+import com.oracle.truffle.regex.CompiledRegexObject;
+import com.oracle.truffle.regex.RegexObject;
+import com.oracle.truffle.regex.RegexOptions;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.result.RegexResult;
+import com.oracle.truffle.regex.result.SingleIndexArrayResult;
+import com.oracle.truffle.regex.result.SingleResult;
+import com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecRootNode;
+
+public class BacktrackingExecutorTest {
+
+    private static int[] exec(String pattern, String flags, String input) {
+        RegexSource source = new RegexSource(pattern, flags);
+        CompiledRegex compiledRegex = ((CompiledRegexObject) new TRegexCompiler(null, RegexOptions.DEFAULT).compile(source)).getCompiledRegex();
+        Assert.assertTrue(compiledRegex instanceof TRegexBacktrackingExecRootNode);
+        RegexObject regex = new RegexObject(null, source, null, flags.contains("u"), null);
+        RegexResult result = (RegexResult) compiledRegex.getRegexCallTarget().call(regex, input, 0);
+        if (result == RegexResult.NO_MATCH) {
+            return null;
+        }
+        if (result instanceof SingleResult) {
+            return new int[]{((SingleResult) result).getStart(), ((SingleResult) result).getEnd()};
+        }
+        return ((SingleIndexArrayResult) result).getIndices();
+    }
+
+    private static void test(String pattern, String flags, String input, int... expected) {
+        int[] actual = exec(pattern, flags, input);
+        Assert.assertArrayEquals(String.format("/%s/%s on \"%s\": %s", pattern, flags, input, Arrays.toString(actual)), expected, actual);
+    }
+
+    private static void testNoMatch(String pattern, String flags, String input) {
+        Assert.assertNull(exec(pattern, flags, input));
+    }
+
+    @Test
+    public void testBackReferences() {
+        test("(a|b)\\1+", "", "xabbb", 2, 5, 2, 3);
+        test("(\\d+)-\\1", "", "12-123", 0, 5, 0, 2);
+        test("\\1(a)", "", "aa", 0, 1, 0, 1);
+        test("(?:(a)|b)\\1", "", "b", 0, 1, -1, -1);
+        test("(A)\\1", "i", "Aa", 0, 2, 0, 1);
+        testNoMatch("(a)\\1", "", "ab");
+    }
+
+    @Test
+    public void testBackReferencesIgnoreCase() {
+        Locale defaultLocale = Locale.getDefault();
+        // case-insensitive back-references must not depend on the default locale
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            test("(i)\\1", "i", "iI", 0, 2, 0, 1);
+            test("(I)\\1", "i", "Ii", 0, 2, 0, 1);
+            test("(\u00e9)\\1", "i", "\u00e9\u00c9", 0, 2, 0, 1);
+            testNoMatch("(\u017f)\\1", "i", "\u017fs");
+            test("(\u017f)\\1", "iu", "\u017fs", 0, 2, 0, 1);
+            testNoMatch("(k)\\1", "i", "k\u212a");
+            test("(k)\\1", "iu", "k\u212a", 0, 2, 0, 1);
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void testNegativeLookAround() {
+        test("a(?!b)", "", "abac", 2, 3);
+        test("(?<!\\d)\\d{2}(?!\\d)", "", "123 45 6", 4, 6);
+        test("(?!(a))\\1b", "", "b", 0, 1, -1, -1);
+        testNoMatch("(?<!a)b", "", "ab");
+    }
+
+    @Test
+    public void testComplexLookBehind() {
+        test("(?<=a+)b", "", "xaab", 3, 4);
+        test("(?<=(\\d+)(\\d+))$", "", "1053", 4, 4, 0, 1, 1, 4);
+        test("(?<=\\1(a))b", "", "aab", 2, 3, 1, 2);
+        test("(?<=^.)b", "u", "\uD83D\uDE00b", 2, 3);
+    }
+
+    @Test
+    public void testCaptureGroupsInLoops() {
+        test("(?:(a)|b)+\\1", "", "ab", 0, 2, -1, -1);
+        test("(a*)+\\1", "", "b", 0, 0, 0, 0);
+        test("(a*)*\\1", "", "b", 0, 0, -1, -1);
+    }
+
+    @Test
+    public void testStickyAndMultiline() {
+        testNoMatch("(?<!a)b", "y", "cb");
+        test("(?<!a)b", "", "cb", 1, 2);
+        test("^b(?!c)", "m", "a\nb", 2, 3);
+    }
+
+    @Test
+    public void testExponentialBacktracking() {
+        testNoMatch("(?!x)(?:a|aa)+c", "", "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa");
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex.tregex;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.regex.RegexEngine;
+import com.oracle.truffle.regex.RegexOptions;
+import com.oracle.truffle.regex.RegexSet;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.RegexSyntaxException;
+import com.oracle.truffle.regex.UnsupportedRegexException;
+
+public class RegexSetTest {
+
+    private static RegexSet compile(String... patterns) {
+        RegexSource[] sources = new RegexSource[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            String pattern = patterns[i];
+            int flagsStart = pattern.lastIndexOf('/');
+            sources[i] = flagsStart < 0 ? new RegexSource(pattern) : new RegexSource(pattern.substring(0, flagsStart), pattern.substring(flagsStart + 1));
+        }
+        return new RegexEngine(null, RegexOptions.DEFAULT).compileSet(sources);
+    }
+
+    private static void testMatches(RegexSet set, String input, int... expected) {
+        int[] actual = set.findMatches(input, 0);
+        Assert.assertArrayEquals(String.format("\"%s\": %s", input, Arrays.toString(actual)), expected, actual);
+    }
+
+    private static void testMatchEnds(RegexSet set, String input, int fromIndex, int... expected) {
+        int[] actual = set.findMatchEnds(input, fromIndex);
+        Assert.assertArrayEquals(String.format("\"%s\" from %d: %s", input, fromIndex, Arrays.toString(actual)), expected, actual);
+    }
+
+    @Test
+    public void testLiterals() {
+        RegexSet set = compile("foo", "bar", "baz", "oba");
+        testMatches(set, "foobar", 0, 1, 3);
+        testMatches(set, "xbazx", 2);
+        testMatches(set, "");
+        testMatchEnds(set, "foobarbaz", 0, 3, 6, 9, 5);
+        testMatchEnds(set, "foobarbaz", 1, -1, 6, 9, 5);
+    }
+
+    @Test
+    public void testQuantifiersAndClasses() {
+        RegexSet set = compile("a+b", "[0-9]{2,3}x", "(?:ab|cd)*e", "\\u00e4.");
+        testMatches(set, "aaab", 0);
+        testMatches(set, "1x12x", 1);
+        testMatches(set, "cdcde", 2);
+        testMatches(set, "\u00e4\u00e4", 3);
+        testMatchEnds(set, "xaab 123x e", 0, 4, 9, 11, -1);
+    }
+
+    @Test
+    public void testEmptyMatches() {
+        RegexSet set = compile("", "x*", "b?");
+        testMatchEnds(set, "abc", 0, 0, 0, 0);
+        testMatchEnds(set, "abc", 3, 3, 3, 3);
+    }
+
+    @Test
+    public void testAnchors() {
+        RegexSet set = compile("^a", "b$", "^$", "^ab$");
+        testMatches(set, "ab", 0, 1, 3);
+        testMatches(set, "cab", 1);
+        testMatches(set, "", 2);
+        testMatches(set, "bc");
+        testMatchEnds(set, "aab", 1, -1, 3, -1, -1);
+    }
+
+    @Test
+    public void testFlags() {
+        RegexSet set = compile("abc/i", "b/y", "\\u{1F600}/u", "^\\u{1F600}/u");
+        testMatches(set, "xABC", 0);
+        testMatchEnds(set, "bb", 1, -1, 2, -1, -1);
+        testMatches(set, "x\uD83D\uDE00", 2);
+        testMatches(set, "\uD83D\uDE00", 2, 3);
+        testMatchEnds(set, "\uD83D\uDE00", 0, -1, -1, 2, 2);
+    }
+
+    @Test
+    public void testDeadPatterns() {
+        RegexSet set = compile("[]", "a");
+        testMatches(set, "a", 1);
+        testMatches(set, "b");
+    }
+
+    @Test
+    public void testManyPatterns() {
+        String[] patterns = new String[1000];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = "k" + i + "v";
+        }
+        RegexSet set = compile(patterns);
+        testMatches(set, "k1v k10v k999v k1000v", 1, 10, 999);
+        testMatches(set, "k12");
+    }
+
+    @Test
+    public void testUnsupported() {
+        for (String pattern : new String[]{"(a)\\1", "a(?=b)", "(?<!a)b", "\\bfoo", "^a/m"}) {
+            try {
+                compile("x", pattern);
+                Assert.fail(pattern);
+            } catch (UnsupportedRegexException e) {
+                Assert.assertEquals(pattern.replace("/m", ""), e.getRegex().getPattern());
+            }
+        }
+    }
+
+    @Test(expected = RegexSyntaxException.class)
+    public void testSyntaxError() {
+        compile("a", "(");
+    }
+}
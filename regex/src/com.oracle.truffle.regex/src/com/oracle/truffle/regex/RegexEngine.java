@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -34,6 +34,7 @@ import com.oracle.truffle.regex.runtime.nodes.ExpectStringNode;
 import com.oracle.truffle.regex.tregex.parser.RegexParser;
 import com.oracle.truffle.regex.tregex.parser.flavors.RegexFlavor;
 import com.oracle.truffle.regex.tregex.parser.flavors.RegexFlavorProcessor;
+import com.oracle.truffle.regex.tregex.set.RegexSetNFA;
 
 /**
  * {@link RegexEngine} is an executable {@link TruffleObject} that compiles regular expressions and
@@ -83,6 +84,19 @@ public class RegexEngine implements RegexLanguageObject {
         return regexObject;
     }
 
+    /**
+     * Compiles the given expressions into a {@link RegexSet} that searches for all of them in one
+     * pass over the input. Syntax errors are detected for every expression.
+     *
+     * @throws UnsupportedRegexException if one of the expressions uses a feature not supported by
+     *             {@link RegexSet}, see {@link UnsupportedRegexException#getRegex()} for the
+     *             offending expression.
+     */
+    public RegexSet compileSet(RegexSource... regexSources) throws RegexSyntaxException, UnsupportedRegexException {
+        RegexSource[] sources = regexSources.clone();
+        return new RegexSet(sources, RegexSetNFA.create(sources, options));
+    }
+
     public static boolean isInstance(TruffleObject object) {
         return object instanceof RegexEngine;
     }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex;
+
+import com.oracle.truffle.regex.tregex.set.RegexSetDFA;
+import com.oracle.truffle.regex.tregex.set.RegexSetNFA;
+
+/**
+ * A set of regular expressions that are searched for simultaneously. All expressions are compiled
+ * into one automaton, so an input string is scanned only once, no matter how many expressions the
+ * set contains. This is useful e.g. for routing or filtering tables, where a string has to be
+ * checked against a large number of expressions.
+ * <p>
+ * A {@link RegexSet} only reports <em>which</em> expressions match, and optionally the end index
+ * of each expression's first match. It does not support capture groups, back-references or
+ * look-around assertions. A {@link RegexSet} can be obtained via
+ * {@link RegexEngine#compileSet(RegexSource...)}. Instances are thread-safe.
+ */
+public final class RegexSet {
+
+    private final RegexSource[] sources;
+    private final RegexSetDFA dfa;
+
+    RegexSet(RegexSource[] sources, RegexSetNFA nfa) {
+        this.sources = sources;
+        this.dfa = new RegexSetDFA(nfa);
+    }
+
+    public int getNumberOfPatterns() {
+        return sources.length;
+    }
+
+    public RegexSource getSource(int patternIndex) {
+        return sources[patternIndex];
+    }
+
+    /**
+     * Returns the indices of all expressions that match in {@code input} at or after
+     * {@code fromIndex}, in ascending order.
+     */
+    public int[] findMatches(CharSequence input, int fromIndex) {
+        int[] matchEnds = new int[sources.length];
+        int[] matches = new int[dfa.execute(input, fromIndex, matchEnds)];
+        int n = 0;
+        for (int i = 0; i < matchEnds.length; i++) {
+            if (matchEnds[i] >= 0) {
+                matches[n++] = i;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns, for every expression in the set, the end index of the first match found in
+     * {@code input} at or after {@code fromIndex}, or {@code -1} if the expression does not
+     * match. The first match is the match with the smallest end index, which is not necessarily
+     * the match that a single-expression search would report.
+     */
+    public int[] findMatchEnds(CharSequence input, int fromIndex) {
+        int[] matchEnds = new int[sources.length];
+        dfa.execute(input, fromIndex, matchEnds);
+        return matchEnds;
+    }
+}
@@ -46,11 +46,14 @@ import com.oracle.truffle.regex.dead.DeadRegexExecRootNode;
 import com.oracle.truffle.regex.literal.LiteralRegexEngine;
 import com.oracle.truffle.regex.literal.LiteralRegexExecRootNode;
 import com.oracle.truffle.regex.result.PreCalculatedResultFactory;
+import com.oracle.truffle.regex.tregex.backtracking.BacktrackingProgramGenerator;
 import com.oracle.truffle.regex.tregex.buffer.CompilationBuffer;
 import com.oracle.truffle.regex.tregex.dfa.DFAGenerator;
 import com.oracle.truffle.regex.tregex.nfa.NFA;
 import com.oracle.truffle.regex.tregex.nfa.NFAGenerator;
 import com.oracle.truffle.regex.tregex.nfa.NFATraceFinderGenerator;
+import com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecRootNode;
+import com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.TRegexDFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.TRegexDFAExecutorProperties;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecRootNode;
@@ -84,6 +87,7 @@ final class TRegexCompilationRequest {
     private TRegexDFAExecutorNode executorNodeForward = null;
     private TRegexDFAExecutorNode executorNodeBackward = null;
     private TRegexDFAExecutorNode executorNodeCaptureGroups = null;
+    private TRegexBacktrackingExecutorNode backtrackingExecutor = null;
     private final CompilationBuffer compilationBuffer = new CompilationBuffer();
 
     TRegexCompilationRequest(TRegexCompiler tRegexCompiler, RegexSource source) {
@@ -110,10 +114,20 @@ final class TRegexCompilationRequest {
         LOG_TREGEX_COMPILATIONS.finer(() -> String.format("TRegex compiling %s\n%s", DebugUtil.jsStringEscape(source.toString()), new RegexUnifier(source).getUnifiedPattern()));
         createAST();
         RegexProperties properties = ast.getProperties();
-        checkFeatureSupport(properties);
+        if (properties.hasLargeCountedRepetitions()) {
+            // the parser does not expand large counted repetitions, so the resulting AST is
+            // incomplete and cannot be used by any of our executors.
+            throw new UnsupportedRegexException("bounds of range quantifier too high");
+        }
         if (ast.getRoot().isDead()) {
             return new DeadRegexExecRootNode(tRegexCompiler.getLanguage(), source);
         }
+        try {
+            checkFeatureSupport(properties);
+        } catch (UnsupportedRegexException e) {
+            LOG_BAILOUT_MESSAGES.fine(() -> "DFA: " + e.getReason() + ", using backtracking executor: " + source);
+            return createBacktrackingExecRootNode();
+        }
         LiteralRegexExecRootNode literal = LiteralRegexEngine.createNode(tRegexCompiler.getLanguage(), ast);
         if (literal != null) {
             return literal;
@@ -122,6 +136,17 @@ final class TRegexCompilationRequest {
         if (!(properties.hasAlternations() || properties.hasLookAroundAssertions())) {
             preCalculatedResults = new PreCalculatedResultFactory[]{PreCalcResultVisitor.createResultFactory(ast)};
         }
+        try {
+            return createDFAExecRootNode(properties, preCalculatedResults);
+        } catch (UnsupportedRegexException e) {
+            // NFA or DFA exceeded their size limits
+            LOG_BAILOUT_MESSAGES.fine(() -> "DFA: " + e.getReason() + ", using backtracking executor: " + source);
+            return createBacktrackingExecRootNode();
+        }
+    }
+
+    private CompiledRegex createDFAExecRootNode(RegexProperties properties, PreCalculatedResultFactory[] preCalculatedResultsArg) {
+        PreCalculatedResultFactory[] preCalculatedResults = preCalculatedResultsArg;
         createNFA();
         if (preCalculatedResults == null && TRegexOptions.TRegexEnableTraceFinder && !properties.hasLoops()) {
             try {
@@ -159,6 +184,19 @@ final class TRegexCompilationRequest {
                         executorNodeCaptureGroups);
     }
 
+    private CompiledRegex createBacktrackingExecRootNode() {
+        phaseStart("Backtracking");
+        backtrackingExecutor = BacktrackingProgramGenerator.createExecutor(ast, compilationBuffer);
+        phaseEnd("Backtracking");
+        return new TRegexBacktrackingExecRootNode(
+                        tRegexCompiler.getLanguage(),
+                        source,
+                        ast.getFlags(),
+                        BacktrackingProgramGenerator.isAnchored(ast),
+                        ast.getNumberOfCaptureGroups(),
+                        backtrackingExecutor);
+    }
+
     @TruffleBoundary
     TRegexDFAExecutorNode compileEagerDFAExecutor() {
         createAST();
@@ -320,6 +358,7 @@ final class TRegexCompilationRequest {
                         Json.prop("dfaStatesBck", executorNodeBackward == null ? 0 : executorNodeBackward.getNumberOfStates()),
                         Json.prop("dfaStatesCG", executorNodeCaptureGroups == null ? 0 : executorNodeCaptureGroups.getNumberOfStates()),
                         Json.prop("traceFinder", traceFinderNFA != null),
+                        Json.prop("backtrackingInstructions", backtrackingExecutor == null ? 0 : backtrackingExecutor.getNumberOfInstructions()),
                         Json.prop("compilerResult", compilerResultToString(result))).toString() + ",");
     }
 
@@ -328,6 +367,8 @@ final class TRegexCompilationRequest {
             return "tregex";
         } else if (result instanceof LiteralRegexExecRootNode) {
             return "literal";
+        } else if (result instanceof TRegexBacktrackingExecRootNode) {
+            return "backtracking";
         } else if (result instanceof DeadRegexExecRootNode) {
             return "dead";
         } else {
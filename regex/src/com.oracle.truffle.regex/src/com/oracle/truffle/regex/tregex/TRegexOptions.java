@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2016, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -140,6 +140,21 @@ public class TRegexOptions {
      */
     public static final int TRegexMaxNumberOfNFAStatesInOneDFATransition = 255;
 
+    /**
+     * Maximum size (in bits) of the table used by
+     * {@link com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode} to memoize
+     * failed (choice point, index) pairs. The table size is the number of choice points times the
+     * input length, if it exceeds this threshold, memoization is disabled for the given search.
+     */
+    public static final int TRegexMaxBacktrackingMemoBits = 1 << 20;
+
+    /**
+     * Maximum number of states cached by a
+     * {@link com.oracle.truffle.regex.tregex.set.RegexSetDFA}. When this number is reached, the
+     * cache is discarded and states are re-created on demand.
+     */
+    public static final int TRegexMaxRegexSetDFASize = 10_000;
+
     static {
         assert TRegexTraceFinderMaxNumberOfResults <= 254;
         assert TRegexMaxParseTreeSize <= Short.MAX_VALUE;
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex.tregex.backtracking;
+
+import static com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode.OP_BACK_REFERENCE;
+import static com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode.OP_CARET;
+import static com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode.OP_CHAR_CLASS;
+import static com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode.OP_CLEAR_REGISTERS;
+import static com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode.OP_DOLLAR;
+import static com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode.OP_EMPTY_CHECK;
+import static com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode.OP_FAIL;
+import static com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode.OP_JUMP;
+import static com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode.OP_LOOK_AROUND;
+import static com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode.OP_MATCH;
+import static com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode.OP_SET_REGISTER;
+import static com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode.OP_SPLIT;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.oracle.truffle.regex.tregex.buffer.CompilationBuffer;
+import com.oracle.truffle.regex.tregex.buffer.IntArrayBuffer;
+import com.oracle.truffle.regex.tregex.matchers.CharMatcher;
+import com.oracle.truffle.regex.tregex.nodes.TRegexBacktrackingExecutorNode;
+import com.oracle.truffle.regex.tregex.parser.ast.BackReference;
+import com.oracle.truffle.regex.tregex.parser.ast.CharacterClass;
+import com.oracle.truffle.regex.tregex.parser.ast.Group;
+import com.oracle.truffle.regex.tregex.parser.ast.LookAheadAssertion;
+import com.oracle.truffle.regex.tregex.parser.ast.LookAroundAssertion;
+import com.oracle.truffle.regex.tregex.parser.ast.MatchFound;
+import com.oracle.truffle.regex.tregex.parser.ast.PositionAssertion;
+import com.oracle.truffle.regex.tregex.parser.ast.RegexAST;
+import com.oracle.truffle.regex.tregex.parser.ast.Sequence;
+import com.oracle.truffle.regex.tregex.parser.ast.Term;
+
+/**
+ * Translates a {@link RegexAST} into the instruction format executed by
+ * {@link TRegexBacktrackingExecutorNode}. The translation follows the structure of the AST as
+ * produced by the parser, i.e. quantifiers have already been expanded into (looping) groups:
+ * <ul>
+ * <li>A group with alternatives {@code A1|A2|...|An} becomes a chain of {@code SPLIT}
+ * instructions, where the alternatives are tried in order of priority.</li>
+ * <li>Non-empty alternatives of a {@link Group#isLoop() looping group} jump back to the beginning
+ * of the group, empty alternatives leave it.</li>
+ * <li>Capture groups of {@link Group#isExpandedQuantifier() expanded quantifiers} are cleared
+ * before every iteration, as required by ECMAScript.</li>
+ * <li>Terms with an {@link Term#hasEmptyGuard() empty guard} fail if they match the empty string.
+ * The guard is omitted if the term cannot match the empty string anyway.</li>
+ * <li>Look-around assertions are compiled to separate executors. The bodies of look-behind
+ * assertions are compiled in backward direction, i.e. sequences are matched from right to
+ * left.</li>
+ * </ul>
+ * Registers {@code [0, 2 * numberOfCaptureGroups)} hold the capture group boundaries in the same
+ * layout as {@link com.oracle.truffle.regex.result.SingleIndexArrayResult}, the registers used by
+ * empty guards are allocated behind them.
+ */
+public final class BacktrackingProgramGenerator {
+
+    private final RegexAST ast;
+    private final CompilationBuffer compilationBuffer;
+    private int numberOfRegisters;
+
+    private BacktrackingProgramGenerator(RegexAST ast, CompilationBuffer compilationBuffer) {
+        this.ast = ast;
+        this.compilationBuffer = compilationBuffer;
+        this.numberOfRegisters = ast.getNumberOfCaptureGroups() * 2;
+    }
+
+    public static TRegexBacktrackingExecutorNode createExecutor(RegexAST ast, CompilationBuffer compilationBuffer) {
+        return new BacktrackingProgramGenerator(ast, compilationBuffer).generateRoot();
+    }
+
+    private TRegexBacktrackingExecutorNode generateRoot() {
+        ProgramBuilder builder = new ProgramBuilder(true);
+        builder.group(ast.getRoot());
+        builder.emit(OP_MATCH);
+        // Failed (choice point, index) pairs may be memoized only if the success of a match
+        // attempt depends on nothing but the current instruction and index. This does not hold
+        // if the outcome also depends on register contents, i.e. in the presence of
+        // back-references or empty guards.
+        boolean memoize = !ast.getProperties().hasBackReferences() && !builder.hasEmptyChecks;
+        return builder.build(memoize);
+    }
+
+    private final class ProgramBuilder {
+
+        private final boolean forward;
+        private final IntArrayBuffer code = new IntArrayBuffer();
+        private final IntArrayBuffer backtrackTargets = new IntArrayBuffer();
+        private final List<CharMatcher> matchers = new ArrayList<>();
+        private final List<TRegexBacktrackingExecutorNode> lookArounds = new ArrayList<>();
+        private int numberOfSplits = 0;
+        private boolean hasEmptyChecks = false;
+
+        ProgramBuilder(boolean forward) {
+            this.forward = forward;
+        }
+
+        TRegexBacktrackingExecutorNode build(boolean memoize) {
+            return new TRegexBacktrackingExecutorNode(
+                            code.toArray(),
+                            backtrackTargets.toArray(),
+                            matchers.toArray(new CharMatcher[matchers.size()]),
+                            lookArounds.toArray(new TRegexBacktrackingExecutorNode[lookArounds.size()]),
+                            forward,
+                            ast.getFlags().isIgnoreCase(),
+                            ast.getFlags().isUnicode(),
+                            numberOfSplits,
+                            numberOfRegisters,
+                            memoize);
+        }
+
+        void emit(int opcode) {
+            code.add(opcode);
+        }
+
+        void emit(int opcode, int operand) {
+            code.add(opcode);
+            code.add(operand);
+        }
+
+        void emit(int opcode, int operand1, int operand2) {
+            code.add(opcode);
+            code.add(operand1);
+            code.add(operand2);
+        }
+
+        /**
+         * Emits a {@code SPLIT} instruction continuing at the next instruction.
+         *
+         * @return the position of the {@code alternative} operand, to be patched with
+         *         {@link #patchSplit(int)}.
+         */
+        int emitSplit() {
+            code.add(OP_SPLIT);
+            code.add(code.size() + 3);
+            int alternativePos = code.size();
+            code.add(-1);
+            code.add(numberOfSplits++);
+            return alternativePos;
+        }
+
+        void patchSplit(int alternativePos) {
+            code.set(alternativePos, code.size());
+            backtrackTargets.add(code.size());
+        }
+
+        /**
+         * Emits a {@code JUMP} instruction.
+         *
+         * @return the position of the {@code target} operand, to be patched with
+         *         {@link #patchJump(int)}.
+         */
+        int emitJump() {
+            code.add(OP_JUMP);
+            code.add(-1);
+            return code.size() - 1;
+        }
+
+        void patchJump(int targetPos) {
+            code.set(targetPos, code.size());
+        }
+
+        void group(Group group) {
+            if (group.isDead()) {
+                emit(OP_FAIL);
+                return;
+            }
+            if (group.isExpandedQuantifier()) {
+                int from = (group.isCapturing() ? group.getGroupNumber() : group.getEnclosedCaptureGroupsLow()) * 2;
+                int to = group.getEnclosedCaptureGroupsHigh() * 2;
+                if (from < to) {
+                    emit(OP_CLEAR_REGISTERS, from, to);
+                }
+            }
+            if (group.isCapturing()) {
+                emit(OP_SET_REGISTER, forward ? group.getBoundaryIndexStart() : group.getBoundaryIndexEnd());
+            }
+            final int groupStart = code.size();
+            final ArrayList<Sequence> alternatives = group.getAlternatives();
+            final List<Integer> exitJumps = new ArrayList<>();
+            for (int i = 0; i < alternatives.size(); i++) {
+                final Sequence alternative = alternatives.get(i);
+                final boolean last = i == alternatives.size() - 1;
+                int splitPos = last ? -1 : emitSplit();
+                sequence(alternative);
+                if (group.isLoop() && !alternative.isEmpty()) {
+                    emit(OP_JUMP, groupStart);
+                } else if (!last) {
+                    exitJumps.add(emitJump());
+                }
+                if (!last) {
+                    patchSplit(splitPos);
+                }
+            }
+            for (int jump : exitJumps) {
+                patchJump(jump);
+            }
+            if (group.isCapturing()) {
+                emit(OP_SET_REGISTER, forward ? group.getBoundaryIndexEnd() : group.getBoundaryIndexStart());
+            }
+        }
+
+        void sequence(Sequence sequence) {
+            if (sequence.isDead()) {
+                emit(OP_FAIL);
+                return;
+            }
+            final ArrayList<Term> terms = sequence.getTerms();
+            if (forward) {
+                for (int i = 0; i < terms.size(); i++) {
+                    term(terms.get(i));
+                }
+            } else {
+                for (int i = terms.size() - 1; i >= 0; i--) {
+                    term(terms.get(i));
+                }
+            }
+        }
+
+        void term(Term term) {
+            if (term instanceof MatchFound) {
+                return;
+            }
+            final boolean emptyGuard = term.hasEmptyGuard() && canMatchEmpty(term);
+            int guardRegister = -1;
+            if (emptyGuard) {
+                guardRegister = numberOfRegisters++;
+                hasEmptyChecks = true;
+                emit(OP_SET_REGISTER, guardRegister);
+            }
+            if (term.isDead()) {
+                emit(OP_FAIL);
+            } else if (term instanceof CharacterClass) {
+                characterClass((CharacterClass) term);
+            } else if (term instanceof Group) {
+                group((Group) term);
+            } else if (term instanceof BackReference) {
+                emit(OP_BACK_REFERENCE, ((BackReference) term).getGroupNr());
+            } else if (term instanceof PositionAssertion) {
+                emit(((PositionAssertion) term).type == PositionAssertion.Type.CARET ? OP_CARET : OP_DOLLAR);
+            } else if (term instanceof LookAroundAssertion) {
+                lookAround((LookAroundAssertion) term);
+            } else {
+                throw new IllegalStateException("unexpected term: " + term);
+            }
+            if (emptyGuard) {
+                emit(OP_EMPTY_CHECK, guardRegister);
+            }
+        }
+
+        void characterClass(CharacterClass characterClass) {
+            if (characterClass.getMatcherBuilder().matchesNothing()) {
+                emit(OP_FAIL);
+                return;
+            }
+            matchers.add(characterClass.getMatcherBuilder().createMatcher(compilationBuffer));
+            emit(OP_CHAR_CLASS, matchers.size() - 1);
+        }
+
+        void lookAround(LookAroundAssertion lookAround) {
+            ProgramBuilder body = new ProgramBuilder(lookAround instanceof LookAheadAssertion);
+            body.group(lookAround.getGroup());
+            body.emit(OP_MATCH);
+            lookArounds.add(body.build(false));
+            emit(OP_LOOK_AROUND, lookArounds.size() - 1, lookAround.isNegated() ? 1 : 0);
+        }
+    }
+
+    /**
+     * Returns {@code true} if every alternative of the expression starts with a {@code ^}
+     * assertion outside of any look-around assertion, i.e. a match can only start at index 0.
+     */
+    public static boolean isAnchored(RegexAST ast) {
+        return isAnchored(ast.getRoot());
+    }
+
+    private static boolean isAnchored(Group group) {
+        if (group.isLoop() || group.getAlternatives().isEmpty()) {
+            return false;
+        }
+        for (Sequence alternative : group.getAlternatives()) {
+            if (alternative.isEmpty()) {
+                return false;
+            }
+            Term first = alternative.getFirstTerm();
+            boolean anchored = first instanceof PositionAssertion && ((PositionAssertion) first).type == PositionAssertion.Type.CARET ||
+                            first instanceof Group && isAnchored((Group) first);
+            if (!anchored) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean canMatchEmpty(Term term) {
+        if (term.isDead()) {
+            return false;
+        }
+        if (term instanceof CharacterClass) {
+            return false;
+        }
+        if (term instanceof Group) {
+            for (Sequence alternative : ((Group) term).getAlternatives()) {
+                if (canMatchEmpty(alternative)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        // back-references, position assertions and look-around assertions
+        return true;
+    }
+
+    private static boolean canMatchEmpty(Sequence sequence) {
+        if (sequence.isDead()) {
+            return false;
+        }
+        for (Term term : sequence.getTerms()) {
+            if (!canMatchEmpty(term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex.tregex.buffer;
+
+import java.util.Arrays;
+
+/**
+ * This class is designed as a "scratchpad" for generating int arrays of unknown size. In contrast
+ * to {@link ShortArrayBuffer}, it allows overwriting already added values, which is useful for
+ * back-patching forward references while generating code.
+ *
+ * @see ShortArrayBuffer
+ */
+public class IntArrayBuffer extends AbstractArrayBuffer {
+
+    private int[] buf;
+
+    public IntArrayBuffer() {
+        this(16);
+    }
+
+    public IntArrayBuffer(int initialSize) {
+        buf = new int[initialSize];
+    }
+
+    @Override
+    int getBufferSize() {
+        return buf.length;
+    }
+
+    @Override
+    void grow(int newSize) {
+        buf = Arrays.copyOf(buf, newSize);
+    }
+
+    public int get(int i) {
+        return buf[i];
+    }
+
+    public void set(int i, int value) {
+        assert i < size;
+        buf[i] = value;
+    }
+
+    public void add(int i) {
+        if (size == buf.length) {
+            grow(size * 2);
+        }
+        buf[size] = i;
+        size++;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(buf, size);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex.tregex.nodes;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.regex.CompiledRegex;
+import com.oracle.truffle.regex.RegexExecRootNode;
+import com.oracle.truffle.regex.RegexFlags;
+import com.oracle.truffle.regex.RegexLanguage;
+import com.oracle.truffle.regex.RegexObject;
+import com.oracle.truffle.regex.RegexRootNode;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.result.RegexResult;
+import com.oracle.truffle.regex.result.SingleIndexArrayResult;
+import com.oracle.truffle.regex.result.SingleResult;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.tregex.nodes.input.InputCharAtNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputLengthNode;
+
+/**
+ * Executes regular expressions that are not supported by the DFA-based {@link TRegexExecRootNode}
+ * with a {@link TRegexBacktrackingExecutorNode}. Match attempts are started at every position from
+ * {@code fromIndex} on, until the first one succeeds.
+ */
+public final class TRegexBacktrackingExecRootNode extends RegexExecRootNode implements CompiledRegex {
+
+    private final CallTarget regexCallTarget;
+    private final boolean sticky;
+    private final boolean anchored;
+    private final int numberOfCaptureGroups;
+
+    @Child private TRegexBacktrackingExecutorNode executor;
+    @Child private InputLengthNode inputLengthNode = InputLengthNode.create();
+    @Child private InputCharAtNode charAtNode = InputCharAtNode.create();
+
+    public TRegexBacktrackingExecRootNode(RegexLanguage language, RegexSource source, RegexFlags flags, boolean anchored, int numberOfCaptureGroups,
+                    TRegexBacktrackingExecutorNode executor) {
+        super(language, source);
+        this.sticky = flags.isSticky();
+        this.anchored = anchored;
+        this.numberOfCaptureGroups = numberOfCaptureGroups;
+        this.executor = executor;
+        this.regexCallTarget = Truffle.getRuntime().createCallTarget(new RegexRootNode(language, this));
+    }
+
+    @Override
+    protected RegexResult execute(VirtualFrame frame, RegexObject regex, Object input, int fromIndex) {
+        final int inputLength = inputLengthNode.execute(input);
+        if (anchored && fromIndex > 0) {
+            return RegexResult.NO_MATCH;
+        }
+        final TRegexBacktrackingExecutorNode.State state = executor.createState(inputLength, TRegexOptions.TRegexMaxBacktrackingMemoBits);
+        int start = fromIndex;
+        while (true) {
+            state.reset();
+            final int end = executor.execute(state, input, start, inputLength);
+            if (end != TRegexBacktrackingExecutorNode.NO_MATCH) {
+                return createResult(regex, input, state.getRegisters());
+            }
+            if (sticky || anchored || start >= inputLength) {
+                return RegexResult.NO_MATCH;
+            }
+            start = nextStart(input, start, inputLength);
+        }
+    }
+
+    private int nextStart(Object input, int start, int inputLength) {
+        if (executor.isUnicode() && start + 1 < inputLength && Character.isHighSurrogate(charAtNode.execute(input, start)) &&
+                        Character.isLowSurrogate(charAtNode.execute(input, start + 1))) {
+            return start + 2;
+        }
+        return start + 1;
+    }
+
+    private RegexResult createResult(RegexObject regex, Object input, int[] registers) {
+        if (numberOfCaptureGroups == 1) {
+            return new SingleResult(regex, input, registers[0], registers[1]);
+        }
+        return new SingleIndexArrayResult(regex, input, Arrays.copyOf(registers, numberOfCaptureGroups * 2));
+    }
+
+    public TRegexBacktrackingExecutorNode getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public CallTarget getRegexCallTarget() {
+        return regexCallTarget;
+    }
+
+    @Override
+    protected String getEngineLabel() {
+        return "TRegex backtracking";
+    }
+}
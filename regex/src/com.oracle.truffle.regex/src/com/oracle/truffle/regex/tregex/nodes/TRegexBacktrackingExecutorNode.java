@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex.tregex.nodes;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.regex.chardata.CodePointSet;
+import com.oracle.truffle.regex.tregex.matchers.CharMatcher;
+import com.oracle.truffle.regex.tregex.nodes.input.InputCharAtNode;
+import com.oracle.truffle.regex.tregex.parser.CaseFoldTable;
+import com.oracle.truffle.regex.tregex.parser.CaseFoldTable.CaseFoldingAlgorithm;
+
+/**
+ * Backtracking interpreter for a regular expression that was translated to a flat instruction
+ * array by {@link com.oracle.truffle.regex.tregex.backtracking.BacktrackingProgramGenerator}. This
+ * executor is used for expressions the DFA pipeline cannot handle, such as back-references,
+ * negative look-around assertions and complex look-behind assertions.
+ * <p>
+ * Choice points are kept on an explicit stack in {@link State} instead of the Java call stack, and
+ * all modifications of capture group registers are recorded in a trail, which allows undoing them
+ * when backtracking. The instruction array and the set of backtracking targets are
+ * {@link CompilationFinal compilation final}, so the main loop can be partially evaluated with
+ * {@link ExplodeLoop.LoopExplosionKind#MERGE_EXPLODE}: every instruction pointer is a partial
+ * evaluation constant, including the ones popped from the backtracking stack, which are resolved
+ * by comparing against all possible {@link #backtrackTargets}.
+ * <p>
+ * Look-around assertions are executed by child executors, which share the {@link State} of their
+ * parent. Their results are atomic, i.e. choice points created inside a look-around assertion are
+ * discarded once the assertion succeeds.
+ */
+public final class TRegexBacktrackingExecutorNode extends Node {
+
+    public static final int NO_MATCH = -1;
+
+    /**
+     * {@code CHAR_CLASS matcher}: consume one character matching {@code matchers[matcher]}.
+     */
+    public static final int OP_CHAR_CLASS = 0;
+    /**
+     * {@code SPLIT target alternative splitId}: continue at {@code target} and push a choice point
+     * continuing at {@code alternative}.
+     */
+    public static final int OP_SPLIT = 1;
+    /**
+     * {@code JUMP target}: continue at {@code target}.
+     */
+    public static final int OP_JUMP = 2;
+    /**
+     * {@code SET_REGISTER register}: store the current index in {@code register}.
+     */
+    public static final int OP_SET_REGISTER = 3;
+    /**
+     * {@code CLEAR_REGISTERS from to}: reset registers {@code [from, to)} to {@link #NO_MATCH}.
+     */
+    public static final int OP_CLEAR_REGISTERS = 4;
+    /**
+     * {@code EMPTY_CHECK register}: fail if the current index equals the value of
+     * {@code register}.
+     */
+    public static final int OP_EMPTY_CHECK = 5;
+    /**
+     * {@code BACK_REFERENCE groupNumber}: match the text last captured by the given group.
+     */
+    public static final int OP_BACK_REFERENCE = 6;
+    /**
+     * {@code CARET}: match at the beginning of the input.
+     */
+    public static final int OP_CARET = 7;
+    /**
+     * {@code DOLLAR}: match at the end of the input.
+     */
+    public static final int OP_DOLLAR = 8;
+    /**
+     * {@code LOOK_AROUND subExecutor negated}: run {@code lookArounds[subExecutor]} at the current
+     * index.
+     */
+    public static final int OP_LOOK_AROUND = 9;
+    /**
+     * {@code FAIL}: backtrack unconditionally.
+     */
+    public static final int OP_FAIL = 10;
+    /**
+     * {@code MATCH}: report a successful match ending at the current index.
+     */
+    public static final int OP_MATCH = 11;
+
+    private static final int STACK_ENTRY_SIZE = 3;
+
+    @CompilationFinal(dimensions = 1) private final int[] code;
+    @CompilationFinal(dimensions = 1) private final int[] backtrackTargets;
+    @Children private final CharMatcher[] matchers;
+    @Children private final TRegexBacktrackingExecutorNode[] lookArounds;
+    @Child private InputCharAtNode charAtNode = InputCharAtNode.create();
+    private final boolean forward;
+    private final boolean ignoreCase;
+    private final boolean unicode;
+    private final int numberOfSplits;
+    private final int numberOfRegisters;
+    private final boolean memoize;
+
+    public TRegexBacktrackingExecutorNode(int[] code, int[] backtrackTargets, CharMatcher[] matchers, TRegexBacktrackingExecutorNode[] lookArounds, boolean forward, boolean ignoreCase,
+                    boolean unicode, int numberOfSplits, int numberOfRegisters, boolean memoize) {
+        this.code = code;
+        this.backtrackTargets = backtrackTargets;
+        this.matchers = matchers;
+        this.lookArounds = lookArounds;
+        this.forward = forward;
+        this.ignoreCase = ignoreCase;
+        this.unicode = unicode;
+        this.numberOfSplits = numberOfSplits;
+        this.numberOfRegisters = numberOfRegisters;
+        this.memoize = memoize;
+    }
+
+    public int getNumberOfInstructions() {
+        return code.length;
+    }
+
+    public int getNumberOfRegisters() {
+        return numberOfRegisters;
+    }
+
+    public boolean isUnicode() {
+        return unicode;
+    }
+
+    /**
+     * Creates a fresh {@link State} for one search. Memoization of failed (choice point, index)
+     * pairs is only enabled if the generator proved it to be sound for this program and the memo
+     * table stays below {@code maxMemoBits}.
+     */
+    public State createState(int inputLength, int maxMemoBits) {
+        long memoBits = (long) numberOfSplits * (inputLength + 1);
+        return new State(numberOfRegisters, memoize && memoBits <= maxMemoBits ? new long[(int) ((memoBits + 63) >>> 6)] : null, inputLength);
+    }
+
+    /**
+     * Tries to match the program at {@code fromIndex}.
+     *
+     * @return the index at which the match ended, or {@link #NO_MATCH}.
+     */
+    @ExplodeLoop(kind = ExplodeLoop.LoopExplosionKind.MERGE_EXPLODE)
+    public int execute(State state, Object input, int fromIndex, int inputLength) {
+        CompilerAsserts.compilationConstant(code);
+        CompilerAsserts.compilationConstant(backtrackTargets);
+        final int stackBase = state.sp;
+        int index = fromIndex;
+        int pc = 0;
+        outer: while (true) {
+            CompilerAsserts.partialEvaluationConstant(pc);
+            boolean fail = false;
+            switch (code[pc]) {
+                case OP_CHAR_CLASS:
+                    if (forward) {
+                        if (index < inputLength && matchers[code[pc + 1]].execute(charAtNode.execute(input, index), false)) {
+                            index++;
+                        } else {
+                            fail = true;
+                        }
+                    } else {
+                        if (index > 0 && matchers[code[pc + 1]].execute(charAtNode.execute(input, index - 1), false)) {
+                            index--;
+                        } else {
+                            fail = true;
+                        }
+                    }
+                    pc += 2;
+                    break;
+                case OP_SPLIT:
+                    if (memoize && state.memo != null && state.checkAndSetMemo(code[pc + 3], index)) {
+                        fail = true;
+                    } else {
+                        state.push(code[pc + 2], index);
+                        pc = code[pc + 1];
+                    }
+                    break;
+                case OP_JUMP:
+                    pc = code[pc + 1];
+                    break;
+                case OP_SET_REGISTER:
+                    state.setRegister(code[pc + 1], index);
+                    pc += 2;
+                    break;
+                case OP_CLEAR_REGISTERS:
+                    for (int i = code[pc + 1]; i < code[pc + 2]; i++) {
+                        state.setRegister(i, NO_MATCH);
+                    }
+                    pc += 3;
+                    break;
+                case OP_EMPTY_CHECK:
+                    if (state.registers[code[pc + 1]] == index) {
+                        fail = true;
+                    }
+                    pc += 2;
+                    break;
+                case OP_BACK_REFERENCE:
+                    index = matchBackReference(state, input, index, inputLength, code[pc + 1]);
+                    if (index == NO_MATCH) {
+                        fail = true;
+                    }
+                    pc += 2;
+                    break;
+                case OP_CARET:
+                    if (index != 0) {
+                        fail = true;
+                    }
+                    pc += 1;
+                    break;
+                case OP_DOLLAR:
+                    if (index != inputLength) {
+                        fail = true;
+                    }
+                    pc += 1;
+                    break;
+                case OP_LOOK_AROUND:
+                    final int trailBefore = state.tp;
+                    final boolean negated = code[pc + 2] != 0;
+                    final boolean lookAroundMatched = lookArounds[code[pc + 1]].execute(state, input, index, inputLength) != NO_MATCH;
+                    if (negated || !lookAroundMatched) {
+                        // only successful positive look-around assertions may leave their
+                        // captures behind
+                        state.undoTrail(trailBefore);
+                    }
+                    if (lookAroundMatched == negated) {
+                        fail = true;
+                    }
+                    pc += 3;
+                    break;
+                case OP_FAIL:
+                    fail = true;
+                    break;
+                case OP_MATCH:
+                    // look-around assertions and the overall match are atomic: drop all choice
+                    // points created by this execution.
+                    state.sp = stackBase;
+                    return index;
+                default:
+                    throw shouldNotReachHere();
+            }
+            if (fail) {
+                if (state.sp == stackBase) {
+                    return NO_MATCH;
+                }
+                final int target = state.pop();
+                index = state.poppedIndex;
+                for (int i = 0; i < backtrackTargets.length; i++) {
+                    if (backtrackTargets[i] == target) {
+                        pc = backtrackTargets[i];
+                        continue outer;
+                    }
+                }
+                throw shouldNotReachHere();
+            }
+        }
+    }
+
+    private static RuntimeException shouldNotReachHere() {
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        throw new IllegalStateException();
+    }
+
+    private int matchBackReference(State state, Object input, int index, int inputLength, int groupNumber) {
+        final int groupStart = state.registers[groupNumber * 2];
+        final int groupEnd = state.registers[groupNumber * 2 + 1];
+        if (groupStart == NO_MATCH || groupEnd == NO_MATCH) {
+            // back-references to groups that did not participate in the match succeed on the
+            // empty string.
+            return index;
+        }
+        final int length = groupEnd - groupStart;
+        final int matchStart = forward ? index : index - length;
+        if (matchStart < 0 || matchStart + length > inputLength) {
+            return NO_MATCH;
+        }
+        for (int i = 0; i < length; i++) {
+            char expected = charAtNode.execute(input, groupStart + i);
+            char actual = charAtNode.execute(input, matchStart + i);
+            if (expected != actual && !(ignoreCase && equalsIgnoreCase(expected, actual, unicode))) {
+                return NO_MATCH;
+            }
+        }
+        return forward ? index + length : matchStart;
+    }
+
+    /**
+     * Case-insensitive comparison for back-references, using the same case folding tables as the
+     * {@link com.oracle.truffle.regex.tregex.parser.RegexLexer} uses for character classes.
+     */
+    @TruffleBoundary
+    private static boolean equalsIgnoreCase(char a, char b, boolean unicode) {
+        CaseFoldingAlgorithm caseFolding = unicode ? CaseFoldingAlgorithm.ECMAScriptUnicode : CaseFoldingAlgorithm.ECMAScriptNonUnicode;
+        return CaseFoldTable.applyCaseFold(CodePointSet.create(a), caseFolding).contains(b);
+    }
+
+    /**
+     * Mutable state of one search: capture group and empty check registers, the backtracking stack,
+     * the trail of register modifications and the optional memoization table.
+     */
+    public static final class State {
+
+        final int[] registers;
+        private int[] stack = new int[STACK_ENTRY_SIZE * 16];
+        int sp = 0;
+        private int[] trail = new int[32];
+        int tp = 0;
+        int poppedIndex;
+        final long[] memo;
+        private final int memoStride;
+
+        State(int numberOfRegisters, long[] memo, int inputLength) {
+            this.registers = new int[numberOfRegisters];
+            this.memo = memo;
+            this.memoStride = inputLength + 1;
+            reset();
+        }
+
+        /**
+         * Prepares this state for another match attempt. The memoization table is kept, since a
+         * choice point that failed at a given index will fail again regardless of where the match
+         * attempt started.
+         */
+        public void reset() {
+            Arrays.fill(registers, NO_MATCH);
+            sp = 0;
+            tp = 0;
+        }
+
+        public int[] getRegisters() {
+            return registers;
+        }
+
+        void setRegister(int register, int value) {
+            if (tp + 2 > trail.length) {
+                growTrail();
+            }
+            trail[tp] = register;
+            trail[tp + 1] = registers[register];
+            tp += 2;
+            registers[register] = value;
+        }
+
+        void undoTrail(int trailSize) {
+            while (tp > trailSize) {
+                tp -= 2;
+                registers[trail[tp]] = trail[tp + 1];
+            }
+        }
+
+        void push(int target, int index) {
+            if (sp + STACK_ENTRY_SIZE > stack.length) {
+                growStack();
+            }
+            stack[sp] = target;
+            stack[sp + 1] = index;
+            stack[sp + 2] = tp;
+            sp += STACK_ENTRY_SIZE;
+        }
+
+        int pop() {
+            sp -= STACK_ENTRY_SIZE;
+            undoTrail(stack[sp + 2]);
+            poppedIndex = stack[sp + 1];
+            return stack[sp];
+        }
+
+        boolean checkAndSetMemo(int splitId, int index) {
+            final int bit = splitId * memoStride + index;
+            final long mask = 1L << (bit & 63);
+            if ((memo[bit >>> 6] & mask) != 0) {
+                return true;
+            }
+            memo[bit >>> 6] |= mask;
+            return false;
+        }
+
+        @TruffleBoundary
+        private void growStack() {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+
+        @TruffleBoundary
+        private void growTrail() {
+            trail = Arrays.copyOf(trail, trail.length * 2);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex.tregex.set;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.util.CompilationFinalBitSet;
+
+/**
+ * Lazily constructed DFA over a {@link RegexSetNFA}. Each DFA state is the set of NFA states of
+ * all expressions that are active at a given index, so a single pass over the input is enough to
+ * find out which expressions match, regardless of how many expressions the set contains.
+ * <p>
+ * In contrast to {@link com.oracle.truffle.regex.tregex.dfa.DFAGenerator}, which builds the
+ * complete automaton of a single expression ahead of time and stops expanding a DFA state as soon
+ * as its highest-priority match is found, this DFA has no notion of priority and only creates the
+ * states and transitions actually visited by the inputs it is run on. The number of cached states
+ * is capped at {@link TRegexOptions#TRegexMaxRegexSetDFASize}; once the cap is reached, the cache
+ * is discarded and rebuilt on demand.
+ * <p>
+ * This class is thread-safe. Transitions already in the cache are followed without
+ * synchronization; computing new ones is serialized.
+ */
+public final class RegexSetDFA {
+
+    private final RegexSetNFA nfa;
+    private final HashMap<CompilationFinalBitSet, RegexSetDFAState> states = new HashMap<>();
+    private volatile RegexSetDFAState anchoredInitialState;
+    private volatile RegexSetDFAState unAnchoredInitialState;
+
+    public RegexSetDFA(RegexSetNFA nfa) {
+        this.nfa = nfa;
+    }
+
+    public RegexSetNFA getNfa() {
+        return nfa;
+    }
+
+    /**
+     * Searches {@code input} starting at {@code fromIndex} for all expressions of the set at once.
+     * For every expression, the end index of its first match (the match that ends first) is
+     * written to {@code matchEnds}, or {@code -1} if it does not match. The scan stops as soon as
+     * all expressions have matched.
+     *
+     * @return the number of expressions that matched.
+     */
+    public int execute(CharSequence input, int fromIndex, int[] matchEnds) {
+        assert matchEnds.length == nfa.getNumberOfPatterns();
+        Arrays.fill(matchEnds, -1);
+        int matchable = nfa.getNumberOfMatchablePatterns();
+        int matched = 0;
+        int length = input.length();
+        int index = fromIndex;
+        RegexSetDFAState state = getInitialState(fromIndex);
+        while (true) {
+            matched += recordMatches(state.getMatches(), matchEnds, index);
+            if (index == length) {
+                matched += recordMatches(state.getMatchesAtEnd(), matchEnds, index);
+                return matched;
+            }
+            if (matched == matchable || state.isDead()) {
+                return matched;
+            }
+            char c = input.charAt(index++);
+            RegexSetDFAState successor = state.getCachedSuccessor(c);
+            state = successor == null ? computeSuccessor(state, c) : successor;
+        }
+    }
+
+    private static int recordMatches(int[] patterns, int[] matchEnds, int index) {
+        int newMatches = 0;
+        for (int p : patterns) {
+            if (matchEnds[p] < 0) {
+                matchEnds[p] = index;
+                newMatches++;
+            }
+        }
+        return newMatches;
+    }
+
+    private RegexSetDFAState getInitialState(int fromIndex) {
+        RegexSetDFAState initialState = fromIndex == 0 ? anchoredInitialState : unAnchoredInitialState;
+        if (initialState != null) {
+            return initialState;
+        }
+        synchronized (this) {
+            CompilationFinalBitSet stateSet = new CompilationFinalBitSet(nfa.getNumberOfStates());
+            for (int s : nfa.getInitialStates(fromIndex)) {
+                stateSet.set(s);
+            }
+            initialState = lookupState(stateSet);
+            if (fromIndex == 0) {
+                anchoredInitialState = initialState;
+            } else {
+                unAnchoredInitialState = initialState;
+            }
+            return initialState;
+        }
+    }
+
+    private synchronized RegexSetDFAState computeSuccessor(RegexSetDFAState state, char c) {
+        RegexSetDFAState successor = state.getSuccessor(c);
+        if (successor != null) {
+            return successor;
+        }
+        CompilationFinalBitSet stateSet = new CompilationFinalBitSet(nfa.getNumberOfStates());
+        for (int s : state.getNfaStates()) {
+            for (int target : nfa.getNext(s)) {
+                if (!stateSet.get(target) && nfa.canConsume(target, c)) {
+                    stateSet.set(target);
+                }
+            }
+        }
+        for (int s : nfa.getSearchInitialStates()) {
+            stateSet.set(s);
+        }
+        successor = lookupState(stateSet);
+        state.setSuccessor(c, successor);
+        return successor;
+    }
+
+    private RegexSetDFAState lookupState(CompilationFinalBitSet stateSet) {
+        assert Thread.holdsLock(this);
+        RegexSetDFAState state = states.get(stateSet);
+        if (state != null) {
+            return state;
+        }
+        if (states.size() >= TRegexOptions.TRegexMaxRegexSetDFASize) {
+            // States still referenced by running searches stay valid, they are just no longer
+            // shared with new searches.
+            states.clear();
+            anchoredInitialState = null;
+            unAnchoredInitialState = null;
+        }
+        int[] nfaStates = stateSet.stream().toArray();
+        CompilationFinalBitSet matches = new CompilationFinalBitSet(nfa.getNumberOfPatterns());
+        CompilationFinalBitSet matchesAtEnd = new CompilationFinalBitSet(nfa.getNumberOfPatterns());
+        for (int s : nfaStates) {
+            if (nfa.matchesUnAnchored(s)) {
+                matches.set(nfa.getPatternIndex(s));
+            }
+            if (nfa.matchesAnchored(s)) {
+                matchesAtEnd.set(nfa.getPatternIndex(s));
+            }
+        }
+        matchesAtEnd.subtract(matches);
+        state = new RegexSetDFAState(nfaStates, matches.stream().toArray(), matchesAtEnd.stream().toArray());
+        states.put(stateSet, state);
+        return state;
+    }
+}
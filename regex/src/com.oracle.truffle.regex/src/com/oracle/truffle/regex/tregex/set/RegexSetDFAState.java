@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex.tregex.set;
+
+import java.util.HashMap;
+
+/**
+ * A state of the {@link RegexSetDFA}, i.e. a set of active {@link RegexSetNFA} states.
+ */
+final class RegexSetDFAState {
+
+    private final int[] nfaStates;
+    private final int[] matches;
+    private final int[] matchesAtEnd;
+    /**
+     * Successors for ASCII characters. Entries are written under the lock of the owning
+     * {@link RegexSetDFA}, but may be read without it.
+     */
+    private final RegexSetDFAState[] asciiSuccessors = new RegexSetDFAState[128];
+    /**
+     * Successors for all other characters. Must only be accessed under the lock of the owning
+     * {@link RegexSetDFA}.
+     */
+    private final HashMap<Character, RegexSetDFAState> successors = new HashMap<>();
+
+    RegexSetDFAState(int[] nfaStates, int[] matches, int[] matchesAtEnd) {
+        this.nfaStates = nfaStates;
+        this.matches = matches;
+        this.matchesAtEnd = matchesAtEnd;
+    }
+
+    int[] getNfaStates() {
+        return nfaStates;
+    }
+
+    /**
+     * Indices of the expressions that match at the index this state is reached at.
+     */
+    int[] getMatches() {
+        return matches;
+    }
+
+    /**
+     * Indices of the expressions that additionally match if this state is reached at the end of
+     * the input.
+     */
+    int[] getMatchesAtEnd() {
+        return matchesAtEnd;
+    }
+
+    boolean isDead() {
+        return nfaStates.length == 0;
+    }
+
+    RegexSetDFAState getCachedSuccessor(char c) {
+        return c < asciiSuccessors.length ? asciiSuccessors[c] : null;
+    }
+
+    RegexSetDFAState getSuccessor(char c) {
+        return c < asciiSuccessors.length ? asciiSuccessors[c] : successors.get(c);
+    }
+
+    void setSuccessor(char c, RegexSetDFAState successor) {
+        if (c < asciiSuccessors.length) {
+            asciiSuccessors[c] = successor;
+        } else {
+            successors.put(c, successor);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.regex.tregex.set;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.oracle.truffle.regex.RegexOptions;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.UnsupportedRegexException;
+import com.oracle.truffle.regex.tregex.buffer.CompilationBuffer;
+import com.oracle.truffle.regex.tregex.nfa.NFA;
+import com.oracle.truffle.regex.tregex.nfa.NFAGenerator;
+import com.oracle.truffle.regex.tregex.nfa.NFAState;
+import com.oracle.truffle.regex.tregex.nfa.NFAStateTransition;
+import com.oracle.truffle.regex.tregex.parser.RegexParser;
+import com.oracle.truffle.regex.tregex.parser.RegexProperties;
+import com.oracle.truffle.regex.tregex.parser.ast.RegexAST;
+import com.oracle.truffle.regex.tregex.parser.flavors.RegexFlavor;
+
+/**
+ * Union of the forward {@link NFA}s of all expressions in a regex set. The states of the individual
+ * automata are renumbered into one id space, so that any set of active states of all expressions
+ * can be represented as a single bit set, which is what {@link RegexSetDFA} uses as its DFA states.
+ * <p>
+ * Unlike the NFAs used by the regular TRegex executors, this automaton does not track priorities
+ * or capture groups: every expression is only interested in <em>whether</em> and <em>where</em> it
+ * matches first. Expressions containing back-references or look-around assertions (including
+ * {@code \b}, {@code \B} and {@code ^}/{@code $} in multiline mode, which the parser expands to
+ * look-around assertions) are therefore rejected.
+ */
+public final class RegexSetNFA {
+
+    private static final int[] NO_STATES = {};
+
+    private final int numberOfPatterns;
+    private final int numberOfMatchablePatterns;
+    /**
+     * Pattern index of every state.
+     */
+    private final int[] patternIndex;
+    /**
+     * Character ranges (pairs of inclusive bounds) a state must consume to be entered.
+     */
+    private final char[][] ranges;
+    /**
+     * Successors of every state, only containing states that consume a character.
+     */
+    private final int[][] next;
+    private final boolean[] matchesUnAnchored;
+    private final boolean[] matchesAnchored;
+    /**
+     * Initial states of all expressions at index 0, including states reachable only via {@code ^}.
+     */
+    private final int[] anchoredInitialStates;
+    /**
+     * Initial states of all expressions at the start index of a search.
+     */
+    private final int[] unAnchoredInitialStates;
+    /**
+     * Initial states re-entered at every index after the start index, i.e. those of all
+     * non-sticky expressions.
+     */
+    private final int[] searchInitialStates;
+
+    private RegexSetNFA(NFA[] nfas) {
+        numberOfPatterns = nfas.length;
+        int[] offsets = new int[nfas.length];
+        int size = 0;
+        int matchable = 0;
+        for (int i = 0; i < nfas.length; i++) {
+            offsets[i] = size;
+            if (nfas[i] != null) {
+                size += nfas[i].getNumberOfStates();
+                matchable++;
+            }
+        }
+        numberOfMatchablePatterns = matchable;
+        patternIndex = new int[size];
+        ranges = new char[size][];
+        next = new int[size][];
+        matchesUnAnchored = new boolean[size];
+        matchesAnchored = new boolean[size];
+        Arrays.fill(ranges, new char[0]);
+        Arrays.fill(next, NO_STATES);
+        ArrayList<Integer> anchored = new ArrayList<>();
+        ArrayList<Integer> unAnchored = new ArrayList<>();
+        ArrayList<Integer> search = new ArrayList<>();
+        for (int i = 0; i < nfas.length; i++) {
+            NFA nfa = nfas[i];
+            if (nfa == null) {
+                continue;
+            }
+            int offset = offsets[i];
+            for (NFAState s : nfa.getStates()) {
+                if (s == null) {
+                    continue;
+                }
+                int id = offset + s.getId();
+                patternIndex[id] = i;
+                ranges[id] = s.getMatcherBuilder().getRanges();
+                matchesUnAnchored[id] = s.hasTransitionToUnAnchoredFinalState(true);
+                matchesAnchored[id] = s.hasTransitionToAnchoredFinalState(true);
+                int[] successors = new int[s.getNext().size()];
+                int n = 0;
+                for (NFAStateTransition t : s.getNext()) {
+                    NFAState target = t.getTarget();
+                    if (!target.isFinalState(true) && target.getMatcherBuilder().matchesSomething()) {
+                        successors[n++] = offset + target.getId();
+                    }
+                }
+                next[id] = Arrays.copyOf(successors, n);
+            }
+            boolean sticky = nfa.getAst().getFlags().isSticky();
+            NFAState anchoredInitialState = nfa.getAnchoredEntry()[0].getTarget();
+            if (isLive(nfa, anchoredInitialState)) {
+                anchored.add(offset + anchoredInitialState.getId());
+            }
+            NFAState unAnchoredInitialState = nfa.getUnAnchoredEntry()[0].getTarget();
+            if (isLive(nfa, unAnchoredInitialState)) {
+                anchored.add(offset + unAnchoredInitialState.getId());
+                unAnchored.add(offset + unAnchoredInitialState.getId());
+                if (!sticky) {
+                    search.add(offset + unAnchoredInitialState.getId());
+                }
+            }
+        }
+        anchoredInitialStates = toSortedArray(anchored);
+        unAnchoredInitialStates = toSortedArray(unAnchored);
+        searchInitialStates = toSortedArray(search);
+    }
+
+    /**
+     * Compiles the given expressions into a single {@link RegexSetNFA}.
+     *
+     * @throws UnsupportedRegexException if one of the expressions uses features not supported in
+     *             regex sets. The exception's {@link UnsupportedRegexException#getRegex() regex}
+     *             denotes the offending expression.
+     */
+    public static RegexSetNFA create(RegexSource[] sources, RegexOptions options) {
+        CompilationBuffer compilationBuffer = new CompilationBuffer();
+        NFA[] nfas = new NFA[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            nfas[i] = createNFA(sources[i], options, compilationBuffer);
+        }
+        return new RegexSetNFA(nfas);
+    }
+
+    private static NFA createNFA(RegexSource source, RegexOptions options, CompilationBuffer compilationBuffer) {
+        RegexFlavor flavor = options.getFlavor();
+        RegexSource ecmascriptSource = flavor == null ? source : flavor.forRegex(source).toECMAScriptRegex();
+        RegexAST ast = new RegexParser(ecmascriptSource, options).parse();
+        RegexProperties properties = ast.getProperties();
+        if (properties.hasBackReferences()) {
+            throw new UnsupportedRegexException("backreferences not supported in regex sets", source);
+        }
+        if (properties.hasLookAroundAssertions()) {
+            throw new UnsupportedRegexException("lookaround assertions not supported in regex sets", source);
+        }
+        if (properties.hasLargeCountedRepetitions()) {
+            throw new UnsupportedRegexException("bounds of range quantifier too high", source);
+        }
+        if (ast.getRoot().isDead()) {
+            return null;
+        }
+        assert ast.getWrappedPrefixLength() == 0;
+        try {
+            return NFAGenerator.createNFA(ast, compilationBuffer);
+        } catch (UnsupportedRegexException e) {
+            e.setRegex(source);
+            throw e;
+        }
+    }
+
+    private static boolean isLive(NFA nfa, NFAState state) {
+        // initial states without successors are removed from the NFA as dead states
+        return nfa.getState(state.getId()) == state;
+    }
+
+    private static int[] toSortedArray(ArrayList<Integer> list) {
+        return list.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+    }
+
+    public int getNumberOfPatterns() {
+        return numberOfPatterns;
+    }
+
+    /**
+     * Number of expressions that can match at all, i.e. excluding expressions that were found to
+     * be dead during parsing.
+     */
+    public int getNumberOfMatchablePatterns() {
+        return numberOfMatchablePatterns;
+    }
+
+    public int getNumberOfStates() {
+        return patternIndex.length;
+    }
+
+    public int getPatternIndex(int state) {
+        return patternIndex[state];
+    }
+
+    public int[] getNext(int state) {
+        return next[state];
+    }
+
+    /**
+     * Returns {@code true} if the given state can be entered by consuming {@code c}.
+     */
+    public boolean canConsume(int state, char c) {
+        char[] r = ranges[state];
+        int lo = 0;
+        int hi = (r.length >> 1) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (c < r[mid << 1]) {
+                hi = mid - 1;
+            } else if (c > r[(mid << 1) + 1]) {
+                lo = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if the state's expression matches at the current index.
+     */
+    public boolean matchesUnAnchored(int state) {
+        return matchesUnAnchored[state];
+    }
+
+    /**
+     * Returns {@code true} if the state's expression matches at the current index, provided that
+     * it is the end of the input.
+     */
+    public boolean matchesAnchored(int state) {
+        return matchesAnchored[state];
+    }
+
+    public int[] getInitialStates(int fromIndex) {
+        return fromIndex == 0 ? anchoredInitialStates : unAnchoredInitialStates;
+    }
+
+    public int[] getSearchInitialStates() {
+        return searchInitialStates;
+    }
+}
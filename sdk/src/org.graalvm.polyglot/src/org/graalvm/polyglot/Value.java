@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -174,6 +174,56 @@ public final class Value {
         impl.setArrayElement(receiver, index, value);
     }
 
+    /**
+     * Copies <code>length</code> array elements starting at array index <code>index</code> into the
+     * Java array <code>destination</code>, starting at <code>offset</code>. Each element is
+     * converted to the component type of the destination array as if by {@link #as(Class)}. Unlike
+     * repeated calls to {@link #getArrayElement(long)}, the whole range is transferred with a
+     * single context enter and without allocating a {@link Value} per element. If this value is a
+     * host array with the same component type, the elements are copied directly.
+     *
+     * @throws ArrayIndexOutOfBoundsException if an array index of the range does not exist.
+     * @throws IndexOutOfBoundsException if <code>offset</code> or <code>length</code> are out of
+     *             the bounds of the destination array.
+     * @throws IllegalArgumentException if the destination is not a Java array.
+     * @throws ClassCastException if an element cannot be converted to the component type of the
+     *             destination array.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasArrayElements() array elements} or if an element of the range is not
+     *             readable.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 1.0
+     */
+    public void readArrayElements(long index, Object destination, int offset, int length) {
+        impl.readArrayElements(receiver, index, destination, offset, length);
+    }
+
+    /**
+     * Copies <code>length</code> elements of the Java array <code>source</code>, starting at
+     * <code>offset</code>, into the array elements of this value starting at array index
+     * <code>index</code>. The elements are subject to polyglot value mapping rules as described in
+     * {@link Context#asValue(Object)}. Unlike repeated calls to
+     * {@link #setArrayElement(long, Object)}, the whole range is transferred with a single context
+     * enter. If this value is a host array with the same component type, the elements are copied
+     * directly.
+     *
+     * @throws ArrayIndexOutOfBoundsException if an array index of the range does not exist.
+     * @throws IndexOutOfBoundsException if <code>offset</code> or <code>length</code> are out of
+     *             the bounds of the source array.
+     * @throws IllegalArgumentException if the source is not a Java array.
+     * @throws ClassCastException if an element is not accepted by the array.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasArrayElements() array elements} or if an element of the range is not
+     *             modifiable.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 1.0
+     */
+    public void writeArrayElements(long index, Object source, int offset, int length) {
+        impl.writeArrayElements(receiver, index, source, offset, length);
+    }
+
     /**
      * Removes an array element at a given index. Returns <code>true</code> if the underlying array
      * element could be removed, otherwise <code>false</code>.
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -375,6 +375,9 @@ public abstract class AbstractPolyglotImpl {
 
         public abstract String getImplementationName();
 
+        // hits, misses and evictions of the source cache of the language
+        public abstract long[] getSourceCacheStatistics(String languageId);
+
     }
 
     public abstract static class AbstractExceptionImpl {
@@ -492,6 +495,10 @@ public abstract class AbstractPolyglotImpl {
 
         public abstract void setArrayElement(Object receiver, long index, Object value);
 
+        public abstract void readArrayElements(Object receiver, long index, Object destination, int offset, int length);
+
+        public abstract void writeArrayElements(Object receiver, long index, Object source, int offset, int length);
+
         public abstract boolean removeArrayElement(Object receiver, long index);
 
         public abstract long getArraySize(Object receiver);
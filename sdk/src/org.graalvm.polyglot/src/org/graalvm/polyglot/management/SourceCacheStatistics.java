@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.polyglot.management;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.impl.AbstractPolyglotImpl;
+
+/**
+ * A snapshot of the hit, miss and eviction counts of the cache of parsed {@link Source sources} of
+ * one language of an engine. The cache is shared by all contexts of the engine. A lookup of a
+ * {@link Source#isCached() cached} source that finds a parsed result is a hit, one that needs to
+ * parse the source is a miss. Evictions only happen if the size of the cache is limited with the
+ * <code>engine.SourceCacheSize</code> option.
+ * <p>
+ * The counters are meant to help tune the size of the source cache, for example:
+ *
+ * <pre>
+ * SourceCacheStatistics statistics = SourceCacheStatistics.get(context.getEngine(), "js");
+ * if (statistics.getEvictions() &gt; statistics.getHits()) {
+ *     // the cache is too small for the working set of sources
+ * }
+ * </pre>
+ *
+ * @since 1.0
+ */
+public final class SourceCacheStatistics {
+
+    private final String languageId;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    private SourceCacheStatistics(String languageId, long hits, long misses, long evictions) {
+        this.languageId = languageId;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     * Returns the current counts of the source cache of a language of an engine.
+     *
+     * @param engine the engine whose source cache is queried
+     * @param languageId the id of an installed language of the engine
+     * @throws IllegalArgumentException if the language is not installed
+     * @throws IllegalStateException if the engine is closed
+     * @since 1.0
+     */
+    public static SourceCacheStatistics get(Engine engine, String languageId) {
+        Objects.requireNonNull(engine);
+        Objects.requireNonNull(languageId);
+        long[] counts = IMPL.getAPIAccess().getImpl(engine).getSourceCacheStatistics(languageId);
+        return new SourceCacheStatistics(languageId, counts[0], counts[1], counts[2]);
+    }
+
+    /**
+     * Returns the id of the language of the source cache.
+     *
+     * @since 1.0
+     */
+    public String getLanguageId() {
+        return languageId;
+    }
+
+    /**
+     * Returns the number of lookups that found a parsed source in the cache.
+     *
+     * @since 1.0
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to parse the source.
+     *
+     * @since 1.0
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of parsed sources that were removed from a full cache to make room for
+     * another one.
+     *
+     * @since 1.0
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 1.0
+     */
+    @Override
+    public String toString() {
+        return "SourceCacheStatistics[language=" + languageId + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+    }
+
+    private static final AbstractPolyglotImpl IMPL = initImpl();
+
+    private static AbstractPolyglotImpl initImpl() {
+        try {
+            Method method = Engine.class.getDeclaredMethod("getImpl");
+            method.setAccessible(true);
+            return (AbstractPolyglotImpl) method.invoke(null);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to initialize source cache statistics class.", e);
+        }
+    }
+}
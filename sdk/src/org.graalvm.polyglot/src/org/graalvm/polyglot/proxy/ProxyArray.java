@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,7 +40,10 @@
  */
 package org.graalvm.polyglot.proxy;
 
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
 import java.util.List;
+import java.util.Objects;
 
 import org.graalvm.polyglot.Value;
 
@@ -167,4 +170,45 @@ public interface ProxyArray extends Proxy {
         };
     }
 
+    /**
+     * Creates a proxy array that exposes the bytes of a {@link ByteBuffer} without copying them.
+     * The array elements are the bytes from index zero up to the {@link ByteBuffer#limit() limit}
+     * of the buffer, independent of its position. Guest language reads and writes access the
+     * buffer directly, so changes are visible on both sides. Set values must fit into a byte.
+     *
+     * @since 1.0
+     */
+    static ProxyArray fromByteBuffer(ByteBuffer buffer) {
+        Objects.requireNonNull(buffer);
+        return new ProxyArray() {
+
+            @Override
+            public Object get(long index) {
+                checkIndex(index);
+                return buffer.get((int) index);
+            }
+
+            @Override
+            public void set(long index, Value value) {
+                checkIndex(index);
+                try {
+                    buffer.put((int) index, value.asByte());
+                } catch (ReadOnlyBufferException e) {
+                    throw new UnsupportedOperationException("set() not supported for read-only buffers.");
+                }
+            }
+
+            private void checkIndex(long index) {
+                if (index >= buffer.limit() || index < 0) {
+                    throw new ArrayIndexOutOfBoundsException("invalid index.");
+                }
+            }
+
+            @Override
+            public long getSize() {
+                return buffer.limit();
+            }
+        };
+    }
+
 }
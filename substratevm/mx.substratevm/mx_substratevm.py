@@ -565,6 +565,9 @@ native_image_context.hosted_assertions = ['-J-ea', '-J-esa']
 def svm_gate_body(args, tasks):
     with Task('Build native-image image', tasks, tags=[GraalTags.build, GraalTags.helloworld]) as t:
         if t: build_native_image_image()
+    with Task('hosted unittests', tasks, tags=[GraalTags.test]) as t:
+        if t:
+            mx_unittest.unittest(['--suite', 'substratevm', 'com.oracle.svm.hosted.test'])
     with native_image_context(IMAGE_ASSERTION_FLAGS) as native_image:
         with Task('image demos', tasks, tags=[GraalTags.helloworld]) as t:
             if t:
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -76,6 +76,7 @@ import com.oracle.graal.pointsto.meta.AnalysisType;
 import com.oracle.graal.pointsto.meta.AnalysisUniverse;
 import com.oracle.graal.pointsto.meta.HostedProviders;
 import com.oracle.graal.pointsto.typestate.PointsToStats;
+import com.oracle.graal.pointsto.typestate.TypeStateCache;
 import com.oracle.graal.pointsto.typestate.TypeState;
 import com.oracle.graal.pointsto.util.CompletionExecutor;
 import com.oracle.graal.pointsto.util.CompletionExecutor.DebugContextRunnable;
@@ -108,6 +109,8 @@ public abstract class BigBang {
     protected final boolean trackTypeFlowInputs;
     protected final boolean reportAnalysisStatistics;
 
+    private final TypeStateCache typeStateCache;
+
     /**
      * Processing queue.
      */
@@ -125,6 +128,7 @@ public abstract class BigBang {
     public BigBang(OptionValues options, AnalysisUniverse universe, HostedProviders providers, HostVM hostVM, ForkJoinPool executorService,
                     UnsupportedFeatures unsupportedFeatures) {
         this.options = options;
+        this.typeStateCache = new TypeStateCache(options);
         this.debugHandlerFactories = Collections.singletonList(new GraalDebugHandlersFactory(providers.getSnippetReflection()));
         this.debug = DebugContext.create(options, debugHandlerFactories);
         this.hostVM = hostVM;
@@ -169,6 +173,10 @@ public abstract class BigBang {
         return reportAnalysisStatistics;
     }
 
+    public TypeStateCache getTypeStateCache() {
+        return typeStateCache;
+    }
+
     public OptionValues getOptions() {
         return options;
     }
@@ -257,6 +265,7 @@ public abstract class BigBang {
         unknownTypeFlow = null;
 
         ConstantObjectsProfiler.constantTypes.clear();
+        typeStateCache.clear();
 
         universe.getTypes().forEach(AnalysisType::cleanupAfterAnalysis);
         universe.getFields().forEach(AnalysisField::cleanupAfterAnalysis);
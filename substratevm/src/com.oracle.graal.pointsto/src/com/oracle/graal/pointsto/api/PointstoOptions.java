@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -98,6 +98,14 @@ public class PointstoOptions {
     @Option(help = "Report analysis statistics.")//
     public static final OptionKey<Boolean> ReportAnalysisStatistics = new OptionKey<>(false);
 
+    @Option(help = "Analysis: Share equal type states and memoize the results of type state unions. Off by default because every new type state then costs a hash, " +
+                    "an equality check and a synchronized table lookup, and the savings depend on how many equal states the analysis of an image creates. " +
+                    "Use -H:+ReportAnalysisStatistics to see the hit rates of both caches for an image.")//
+    public static final OptionKey<Boolean> CanonicalizeTypeStates = new OptionKey<>(false);
+
+    @Option(help = "Analysis: Number of entries in the type state union cache. 0 disables the cache. The cache is only used with CanonicalizeTypeStates.")//
+    public static final OptionKey<Integer> TypeStateUnionCacheSize = new OptionKey<>(4096);
+
     @Option(help = "Path to the contents of the Inspect web server.")//
     public static final OptionKey<String> InspectServerContentPath = new OptionKey<>("inspect");
 
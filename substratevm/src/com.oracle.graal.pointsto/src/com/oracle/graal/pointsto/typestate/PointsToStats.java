@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -105,7 +105,7 @@ public class PointsToStats {
         reportStatistics = bb.reportAnalysisStatistics();
     }
 
-    public static void report(@SuppressWarnings("unused") BigBang bb, String reportNameRoot) {
+    public static void report(BigBang bb, String reportNameRoot) {
 
         try {
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
@@ -116,6 +116,7 @@ public class PointsToStats {
             doReport(statsDirectory, reportNameRoot, "union operation stats", timeStamp, PointsToStats::reportUnionOpertationsStats);
             doReport(statsDirectory, reportNameRoot, "type flow stats", timeStamp, PointsToStats::reportTypeFlowStats);
             doReport(statsDirectory, reportNameRoot, "pruned type flow stats", timeStamp, PointsToStats::reportPrunedTypeFlows);
+            doReport(statsDirectory, reportNameRoot, "type state cache stats", timeStamp, out -> reportTypeStateCacheStats(bb.getTypeStateCache(), out));
 
         } catch (IOException e) {
             throw JVMCIError.shouldNotReachHere(e);
@@ -413,6 +414,21 @@ public class PointsToStats {
                         });
     }
 
+    private static void reportTypeStateCacheStats(TypeStateCache cache, BufferedWriter out) {
+
+        doWrite(out, String.format("%-25s\t%10s\t%10s\t%10s\n", "Cache", "Hits", "Misses", "HitRate"));
+        doWrite(out, String.format("%-25s\t%10d\t%10d\t%9.2f%%\n", "Canonicalization", cache.canonicalizationHits(), cache.canonicalizationMisses(),
+                        hitRate(cache.canonicalizationHits(), cache.canonicalizationMisses())));
+        doWrite(out, String.format("%-25s\t%10d\t%10d\t%9.2f%%\n", "Union", cache.unionHits(), cache.unionMisses(),
+                        hitRate(cache.unionHits(), cache.unionMisses())));
+        doWrite(out, String.format("%-25s\t%10d\n", "Canonical states", cache.canonicalStatesCount()));
+    }
+
+    private static double hitRate(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : 100.0 * hits / total;
+    }
+
     static class UnionOperation {
         int state1Id;
         int state2Id;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -425,7 +425,19 @@ public abstract class TypeState {
             return s1;
         } else if (s2.isNull()) {
             return s1.forCanBeNull(bb, true);
-        } else if (s1 instanceof SingleTypeState && s2 instanceof SingleTypeState) {
+        }
+
+        TypeStateCache cache = bb.getTypeStateCache();
+        TypeState result = cache.lookupUnion(s1, s2);
+        if (result == null) {
+            result = cache.canonicalize(dispatchUnion(bb, s1, s2));
+            cache.recordUnion(s1, s2, result);
+        }
+        return result;
+    }
+
+    private static TypeState dispatchUnion(BigBang bb, TypeState s1, TypeState s2) {
+        if (s1 instanceof SingleTypeState && s2 instanceof SingleTypeState) {
             return doUnion(bb, (SingleTypeState) s1, (SingleTypeState) s2);
         } else if (s1 instanceof SingleTypeState && s2 instanceof MultiTypeState) {
             return doUnion(bb, (MultiTypeState) s2, (SingleTypeState) s1);
@@ -458,14 +470,14 @@ public abstract class TypeState {
         } else if (s2.isNull()) {
             return s2.forCanBeNull(bb, s1.canBeNull());
         } else if (s1 instanceof SingleTypeState && s2 instanceof SingleTypeState) {
-            return doIntersection(bb, (SingleTypeState) s1, (SingleTypeState) s2);
+            return bb.getTypeStateCache().canonicalize(doIntersection(bb, (SingleTypeState) s1, (SingleTypeState) s2));
         } else if (s1 instanceof SingleTypeState && s2 instanceof MultiTypeState) {
-            return doIntersection(bb, (SingleTypeState) s1, (MultiTypeState) s2);
+            return bb.getTypeStateCache().canonicalize(doIntersection(bb, (SingleTypeState) s1, (MultiTypeState) s2));
         } else if (s1 instanceof MultiTypeState && s2 instanceof SingleTypeState) {
-            return doIntersection(bb, (MultiTypeState) s1, (SingleTypeState) s2);
+            return bb.getTypeStateCache().canonicalize(doIntersection(bb, (MultiTypeState) s1, (SingleTypeState) s2));
         } else {
             assert s1 instanceof MultiTypeState && s2 instanceof MultiTypeState;
-            return doIntersection(bb, (MultiTypeState) s1, (MultiTypeState) s2);
+            return bb.getTypeStateCache().canonicalize(doIntersection(bb, (MultiTypeState) s1, (MultiTypeState) s2));
         }
     }
 
@@ -486,14 +498,14 @@ public abstract class TypeState {
         } else if (s2.isNull()) {
             return s1.forCanBeNull(bb, false);
         } else if (s1 instanceof SingleTypeState && s2 instanceof SingleTypeState) {
-            return doSubtraction(bb, (SingleTypeState) s1, (SingleTypeState) s2);
+            return bb.getTypeStateCache().canonicalize(doSubtraction(bb, (SingleTypeState) s1, (SingleTypeState) s2));
         } else if (s1 instanceof SingleTypeState && s2 instanceof MultiTypeState) {
-            return doSubtraction(bb, (SingleTypeState) s1, (MultiTypeState) s2);
+            return bb.getTypeStateCache().canonicalize(doSubtraction(bb, (SingleTypeState) s1, (MultiTypeState) s2));
         } else if (s1 instanceof MultiTypeState && s2 instanceof SingleTypeState) {
-            return doSubtraction(bb, (MultiTypeState) s1, (SingleTypeState) s2);
+            return bb.getTypeStateCache().canonicalize(doSubtraction(bb, (MultiTypeState) s1, (SingleTypeState) s2));
         } else {
             assert s1 instanceof MultiTypeState && s2 instanceof MultiTypeState;
-            return doSubtraction(bb, (MultiTypeState) s1, (MultiTypeState) s2);
+            return bb.getTypeStateCache().canonicalize(doSubtraction(bb, (MultiTypeState) s1, (MultiTypeState) s2));
         }
     }
 
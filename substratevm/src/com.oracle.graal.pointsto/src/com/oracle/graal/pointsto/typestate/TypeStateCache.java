@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.pointsto.typestate;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.graalvm.compiler.options.OptionValues;
+
+import com.oracle.graal.pointsto.api.PointstoOptions;
+
+/**
+ * Canonicalizes the type states produced by the type state operations and memoizes the results of
+ * recent union operations.
+ *
+ * Many flows end up with equal multi type states, each holding its own objects array and types bit
+ * set. Canonicalization replaces a newly created state by an equal state that already exists, so
+ * the duplicate becomes garbage right away. The canonical states are held weakly: a state that is
+ * no longer referenced by any flow is dropped from the table instead of being kept alive for the
+ * rest of the analysis. The table is split into stripes, each guarded by its own lock, to limit
+ * contention between analysis threads. Since canonical states are unique, union results can
+ * then be memoized by the identity of the inputs. The union cache is a fixed size, direct mapped
+ * and lossy table: concurrent updates may overwrite each other, which only costs a recomputation.
+ * Entries are immutable, so a racy read observes either a complete entry or none.
+ */
+public final class TypeStateCache {
+
+    private static final class UnionEntry {
+        final TypeState s1;
+        final TypeState s2;
+        final TypeState result;
+
+        UnionEntry(TypeState s1, TypeState s2, TypeState result) {
+            this.s1 = s1;
+            this.s2 = s2;
+            this.result = result;
+        }
+    }
+
+    private static final int CANONICAL_STRIPES = 64;
+
+    /**
+     * The values refer to the keys, so they must be weak too. Otherwise an entry would keep its own
+     * key reachable.
+     */
+    private final WeakHashMap<MultiTypeState, WeakReference<MultiTypeState>>[] canonicalStates;
+    private final UnionEntry[] unionCache;
+    private final boolean collectStatistics;
+
+    private final LongAdder canonicalizationHits = new LongAdder();
+    private final LongAdder canonicalizationMisses = new LongAdder();
+    private final LongAdder unionHits = new LongAdder();
+    private final LongAdder unionMisses = new LongAdder();
+    /** Number of canonical states when the cache was cleared, for the statistics report. */
+    private int canonicalStatesAtClear;
+
+    @SuppressWarnings("unchecked")
+    public TypeStateCache(OptionValues options) {
+        if (PointstoOptions.CanonicalizeTypeStates.getValue(options)) {
+            this.canonicalStates = new WeakHashMap[CANONICAL_STRIPES];
+            for (int i = 0; i < CANONICAL_STRIPES; i++) {
+                canonicalStates[i] = new WeakHashMap<>();
+            }
+        } else {
+            this.canonicalStates = null;
+        }
+        int unionCacheSize = PointstoOptions.TypeStateUnionCacheSize.getValue(options);
+        if (canonicalStates != null && unionCacheSize > 0) {
+            /* Round up to a power of two so that the index is a simple mask. */
+            this.unionCache = new UnionEntry[unionCacheSize == 1 ? 1 : Integer.highestOneBit(unionCacheSize - 1) << 1];
+        } else {
+            this.unionCache = null;
+        }
+        this.collectStatistics = PointstoOptions.ReportAnalysisStatistics.getValue(options);
+    }
+
+    /** Returns an existing state equal to the given one, or registers the given state. */
+    TypeState canonicalize(TypeState state) {
+        if (canonicalStates == null || !(state instanceof MultiTypeState)) {
+            return state;
+        }
+        MultiTypeState multiState = (MultiTypeState) state;
+        MultiTypeState canonical;
+        WeakHashMap<MultiTypeState, WeakReference<MultiTypeState>> stripe = canonicalStates[stripeIndex(multiState)];
+        synchronized (stripe) {
+            WeakReference<MultiTypeState> ref = stripe.get(multiState);
+            canonical = ref == null ? null : ref.get();
+            if (canonical == null) {
+                stripe.put(multiState, new WeakReference<>(multiState));
+            }
+        }
+        if (canonical == null) {
+            count(canonicalizationMisses);
+            return multiState;
+        } else if (canonical.properties != multiState.properties) {
+            /* The equality does not consider the properties, keep the state as is. */
+            count(canonicalizationMisses);
+            return multiState;
+        } else {
+            count(canonicalizationHits);
+            return canonical;
+        }
+    }
+
+    private static int stripeIndex(MultiTypeState state) {
+        int hash = state.hashCode();
+        hash ^= hash >>> 16;
+        return hash & (CANONICAL_STRIPES - 1);
+    }
+
+    /** Returns the memoized union of the two states, or null if it is not cached. */
+    TypeState lookupUnion(TypeState s1, TypeState s2) {
+        if (unionCache == null) {
+            return null;
+        }
+        UnionEntry entry = unionCache[index(s1, s2)];
+        if (entry != null && ((entry.s1 == s1 && entry.s2 == s2) || (entry.s1 == s2 && entry.s2 == s1))) {
+            count(unionHits);
+            return entry.result;
+        }
+        count(unionMisses);
+        return null;
+    }
+
+    void recordUnion(TypeState s1, TypeState s2, TypeState result) {
+        if (unionCache != null) {
+            unionCache[index(s1, s2)] = new UnionEntry(s1, s2, result);
+        }
+    }
+
+    private int index(TypeState s1, TypeState s2) {
+        /* Union is commutative, so the index must not depend on the order of the inputs. */
+        int hash = System.identityHashCode(s1) ^ System.identityHashCode(s2);
+        hash ^= hash >>> 16;
+        return hash & (unionCache.length - 1);
+    }
+
+    private void count(LongAdder counter) {
+        if (collectStatistics) {
+            counter.increment();
+        }
+    }
+
+    /** Drops all cached states, which are no longer needed once the analysis is finished. */
+    public void clear() {
+        if (canonicalStates != null) {
+            canonicalStatesAtClear = liveCanonicalStates();
+            for (WeakHashMap<MultiTypeState, WeakReference<MultiTypeState>> stripe : canonicalStates) {
+                synchronized (stripe) {
+                    stripe.clear();
+                }
+            }
+        }
+        if (unionCache != null) {
+            for (int i = 0; i < unionCache.length; i++) {
+                unionCache[i] = null;
+            }
+        }
+    }
+
+    private int liveCanonicalStates() {
+        int count = 0;
+        for (WeakHashMap<MultiTypeState, WeakReference<MultiTypeState>> stripe : canonicalStates) {
+            synchronized (stripe) {
+                count += stripe.size();
+            }
+        }
+        return count;
+    }
+
+    int canonicalStatesCount() {
+        return canonicalStates == null ? 0 : Math.max(liveCanonicalStates(), canonicalStatesAtClear);
+    }
+
+    long canonicalizationHits() {
+        return canonicalizationHits.sum();
+    }
+
+    long canonicalizationMisses() {
+        return canonicalizationMisses.sum();
+    }
+
+    long unionHits() {
+        return unionHits.sum();
+    }
+
+    long unionMisses() {
+        return unionMisses.sum();
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2014, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2014, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -52,6 +52,13 @@ public abstract class CollectionPolicy {
          */
         @Option(help = "Percentage of time that should be spent in young generation collections.")//
         public static final RuntimeOptionKey<Integer> PercentTimeInIncrementalCollection = new RuntimeOptionKey<>(50);
+
+        /**
+         * Growth of the old generation, relative to its size after the last complete collection,
+         * that causes a complete collection with the {@link ByOldGenerationGrowth} policy.
+         */
+        @Option(help = "Percentage the old generation may grow after a complete collection before the next complete collection.")//
+        public static final RuntimeOptionKey<Integer> PercentOldGenerationGrowth = new RuntimeOptionKey<>(50);
     }
 
     @Platforms(Platform.HOSTED_ONLY.class)
@@ -297,4 +304,123 @@ public abstract class CollectionPolicy {
             return veto;
         }
     }
+
+    /**
+     * A collection policy that keeps the peak footprint of complete collections down for heaps
+     * dominated by long-lived objects.
+     *
+     * A complete collection copies the whole old generation, so while it runs the heap needs room
+     * for the old objects in use and a copy of the surviving ones. Rather than waiting until the
+     * heap is nearly full, this policy requests a complete collection as soon as the old
+     * generation has grown by a fixed percentage over what survived the last complete collection.
+     * That bounds the garbage that accumulates in the old generation, and with it the amount of
+     * memory that is committed when the copy happens.
+     */
+    public static class ByOldGenerationGrowth extends CollectionPolicy {
+
+        @Override
+        public boolean collectIncrementally() {
+            return true;
+        }
+
+        @Override
+        public boolean collectCompletely() {
+            final Log trace = Log.noopLog().string("[CollectionPolicy.ByOldGenerationGrowth.collectCompletely:").newline();
+            final boolean result = decideToCollectCompletely(trace);
+            trace.string("  returns: ").bool(result).string("]").newline();
+            return result;
+        }
+
+        @Override
+        public void nameToLog(Log log) {
+            log.string("by old generation growth: ").signed(Options.PercentOldGenerationGrowth.getValue()).string("% since last complete collection");
+        }
+
+        /** Cascading tests for whether to do a complete collection. */
+        private static boolean decideToCollectCompletely(Log trace) {
+            /* A vote for a complete collection if a copy of the old generation would not fit. */
+            if (voteOnCopyReserve(trace)) {
+                return true;
+            }
+            /* A veto of a complete collection based on the minimum heap size. */
+            if (vetoOnMinimumSpace(trace)) {
+                return false;
+            }
+            return voteOnGrowth(trace);
+        }
+
+        /**
+         * If the heap does not have room for the young generation, the old objects in use, and a
+         * copy of the young generation, then the next incremental collection might not be able to
+         * promote the survivors. Request a complete collection now, while it can still succeed.
+         */
+        private static boolean voteOnCopyReserve(Log trace) {
+            final UnsignedWord youngSize = HeapPolicy.getMaximumYoungGenerationSize();
+            final UnsignedWord oldInUse = getAccounting().getOldGenerationAfterChunkBytes();
+            final UnsignedWord maxHeapSize = HeapPolicy.getMaximumHeapSize();
+            final boolean vote = exceedsCopyReserve(youngSize, oldInUse, maxHeapSize);
+            trace.string("  youngSize: ").unsigned(youngSize)
+                            .string("  oldInUse: ").unsigned(oldInUse)
+                            .string("  maxHeapSize: ").unsigned(maxHeapSize)
+                            .string("  vote: ").bool(vote)
+                            .newline();
+            return vote;
+        }
+
+        /**
+         * Returns true if a heap of {@code maxHeapSize} bytes cannot hold a young generation of
+         * {@code youngSize} bytes, {@code oldInUse} bytes of old objects, and a copy of the young
+         * generation, which is the most that an incremental collection promotes.
+         */
+        static boolean exceedsCopyReserve(UnsignedWord youngSize, UnsignedWord oldInUse, UnsignedWord maxHeapSize) {
+            final UnsignedWord withCopyReserve = youngSize.add(youngSize).add(oldInUse);
+            return maxHeapSize.belowThan(withCopyReserve);
+        }
+
+        /** If the heap is not yet full enough, then veto a complete collection. */
+        private static boolean vetoOnMinimumSpace(Log trace) {
+            final UnsignedWord youngSize = HeapPolicy.getMaximumYoungGenerationSize();
+            final UnsignedWord oldInUse = getAccounting().getOldGenerationAfterChunkBytes();
+            final UnsignedWord heapInUse = youngSize.add(oldInUse);
+            final UnsignedWord minHeapSize = HeapPolicy.getMinimumHeapSize();
+            final boolean veto = heapInUse.belowThan(minHeapSize);
+            trace.string("  heapInUse: ").unsigned(heapInUse)
+                            .string("  minHeapSize: ").unsigned(minHeapSize)
+                            .string("  veto: ").bool(veto)
+                            .newline();
+            return veto;
+        }
+
+        /**
+         * If the old generation has grown by more than the requested percentage since the last
+         * complete collection, then request a complete collection.
+         */
+        private static boolean voteOnGrowth(Log trace) {
+            final int growthPercent = Options.PercentOldGenerationGrowth.getValue();
+            assert 0 <= growthPercent : "PercentOldGenerationGrowth should not be negative.";
+
+            final UnsignedWord oldInUse = getAccounting().getOldGenerationAfterChunkBytes();
+            final UnsignedWord lastLive = getAccounting().getLastCompleteCollectionChunkBytesAfter();
+            final boolean vote = exceedsGrowth(lastLive, oldInUse, growthPercent);
+            trace.string("  growthPercent: ").signed(growthPercent)
+                            .string("  oldInUse: ").unsigned(oldInUse)
+                            .string("  lastLive: ").unsigned(lastLive)
+                            .string("  vote: ").bool(vote)
+                            .newline();
+            return vote;
+        }
+
+        /**
+         * Returns true if the old generation has grown from {@code lastLive} to {@code oldInUse}
+         * bytes by more than {@code growthPercent} percent. Without a baseline, i.e., while
+         * {@code lastLive} is zero, there is no growth to measure.
+         */
+        static boolean exceedsGrowth(UnsignedWord lastLive, UnsignedWord oldInUse, int growthPercent) {
+            if (lastLive.equal(0)) {
+                return false;
+            }
+            final UnsignedWord allowed = lastLive.add(lastLive.multiply(growthPercent).unsignedDivide(100));
+            return allowed.belowThan(oldInUse);
+        }
+    }
 }
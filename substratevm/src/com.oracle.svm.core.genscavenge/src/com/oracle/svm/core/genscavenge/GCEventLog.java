@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.genscavenge;
+
+import java.util.Arrays;
+
+import javax.management.ObjectName;
+
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+
+import com.oracle.svm.core.genscavenge.GCImpl.Timer;
+import com.oracle.svm.core.heap.GCEvent;
+import com.oracle.svm.core.heap.GCEventLogMXBean;
+
+//Checkstyle: stop
+import sun.management.Util;
+//Checkstyle: resume
+
+/**
+ * A ring buffer of the most recent collections. All storage is allocated at image build time, so
+ * that a collection can record itself without allocating.
+ *
+ * There is only one writer, the collector, which runs in a VMOperation. Readers are not blocked:
+ * the writer makes {@link #sequence} odd while it updates a record, and readers retry if the
+ * sequence was odd or changed while they copied the records.
+ */
+final class GCEventLog implements GCEventLogMXBean {
+
+    private static final int HISTOGRAM_BUCKETS = 64;
+
+    private final int capacity;
+    private final String[] phaseNames;
+
+    private final long[] epochs;
+    private final String[] causes;
+    private final boolean[] completes;
+    private final long[] startNanos;
+    private final long[] pauseNanos;
+    private final long[] promotedBytes;
+    private final long[] survivedBytes;
+    /** The phase times of record {@code i} are at {@code [i * phaseNames.length, ...)}. */
+    private final long[] phaseNanos;
+    private final long[] pauseHistogram;
+
+    private long recordedCount;
+    private volatile long sequence;
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    GCEventLog(int capacity, Timer[] phaseTimers) {
+        this.capacity = capacity;
+        this.phaseNames = new String[phaseTimers.length];
+        for (int i = 0; i < phaseTimers.length; i++) {
+            phaseNames[i] = phaseTimers[i].getName();
+        }
+        this.epochs = new long[capacity];
+        this.causes = new String[capacity];
+        this.completes = new boolean[capacity];
+        this.startNanos = new long[capacity];
+        this.pauseNanos = new long[capacity];
+        this.promotedBytes = new long[capacity];
+        this.survivedBytes = new long[capacity];
+        this.phaseNanos = new long[capacity * phaseTimers.length];
+        this.pauseHistogram = new long[HISTOGRAM_BUCKETS];
+    }
+
+    /** Record a collection. Called by the collector, so this must not allocate. */
+    void record(long epoch, String cause, boolean complete, long start, long pause, long promoted, long survived, Timer[] phaseTimers) {
+        sequence = sequence + 1;
+        pauseHistogram[HISTOGRAM_BUCKETS - 1 - Long.numberOfLeadingZeros(Math.max(pause, 1L))] += 1;
+        if (capacity > 0) {
+            int idx = (int) (recordedCount % capacity);
+            epochs[idx] = epoch;
+            causes[idx] = cause;
+            completes[idx] = complete;
+            startNanos[idx] = start;
+            pauseNanos[idx] = pause;
+            promotedBytes[idx] = promoted;
+            survivedBytes[idx] = survived;
+            for (int i = 0; i < phaseNames.length; i++) {
+                phaseNanos[idx * phaseNames.length + i] = phaseTimers[i].getCollectedNanos();
+            }
+        }
+        recordedCount += 1;
+        sequence = sequence + 1;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public long getRecordedCount() {
+        while (true) {
+            long seq = sequence;
+            long result = recordedCount;
+            if ((seq & 1) == 0 && sequence == seq) {
+                return result;
+            }
+            Thread.yield();
+        }
+    }
+
+    @Override
+    public String[] getPhaseNames() {
+        return phaseNames.clone();
+    }
+
+    @Override
+    public GCEvent[] getEvents() {
+        while (true) {
+            long seq = sequence;
+            if ((seq & 1) == 0) {
+                int count = (int) Math.min(recordedCount, capacity);
+                long first = recordedCount - count;
+                GCEvent[] result = new GCEvent[count];
+                for (int i = 0; i < count; i++) {
+                    int idx = (int) ((first + i) % capacity);
+                    long[] phases = Arrays.copyOfRange(phaseNanos, idx * phaseNames.length, (idx + 1) * phaseNames.length);
+                    result[i] = new GCEvent(epochs[idx], causes[idx], completes[idx], startNanos[idx], pauseNanos[idx], promotedBytes[idx], survivedBytes[idx], phases);
+                }
+                if (sequence == seq) {
+                    return result;
+                }
+            }
+            Thread.yield();
+        }
+    }
+
+    @Override
+    public long getPausePercentileNanos(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long[] pauses;
+        while (true) {
+            long seq = sequence;
+            if ((seq & 1) == 0) {
+                pauses = Arrays.copyOf(pauseNanos, (int) Math.min(recordedCount, capacity));
+                if (sequence == seq) {
+                    break;
+                }
+            }
+            Thread.yield();
+        }
+        if (pauses.length == 0) {
+            return -1;
+        }
+        Arrays.sort(pauses);
+        /* Nearest-rank method. */
+        int rank = (int) Math.ceil(percentile / 100 * pauses.length);
+        return pauses[Math.max(rank - 1, 0)];
+    }
+
+    @Override
+    public long[] getPauseHistogram() {
+        while (true) {
+            long seq = sequence;
+            long[] result = pauseHistogram.clone();
+            if ((seq & 1) == 0 && sequence == seq) {
+                return result;
+            }
+            Thread.yield();
+        }
+    }
+
+    @Override
+    public ObjectName getObjectName() {
+        return Util.newObjectName(OBJECT_NAME);
+    }
+}
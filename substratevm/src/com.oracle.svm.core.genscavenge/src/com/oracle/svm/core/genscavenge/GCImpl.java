@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -56,6 +56,7 @@ import com.oracle.svm.core.heap.CollectionWatcher;
 import com.oracle.svm.core.heap.DiscoverableReference;
 import com.oracle.svm.core.heap.FramePointerMapWalker;
 import com.oracle.svm.core.heap.GC;
+import com.oracle.svm.core.heap.GCEventLogMXBean;
 import com.oracle.svm.core.heap.NativeImageInfo;
 import com.oracle.svm.core.heap.NoAllocationVerifier;
 import com.oracle.svm.core.heap.ObjectReferenceWalker;
@@ -84,6 +85,9 @@ public class GCImpl implements GC {
 
         @Option(help = "How much history to maintain about garbage collections.")//
         public static final HostedOptionKey<Integer> GCHistory = new HostedOptionKey<>(1);
+
+        @Option(help = "How many of the most recent collections the GC event log retains.")//
+        public static final HostedOptionKey<Integer> GCEventLogSize = new HostedOptionKey<>(256);
     }
 
     private static final int DECIMALS_IN_TIME_PRINTING = 7;
@@ -134,6 +138,10 @@ public class GCImpl implements GC {
 
     private final GarbageCollectorManagementFactory gcManagementFactory;
 
+    /** The timers whose values are recorded for each collection in the event log. */
+    private final Timer[] eventLogTimers;
+    private final GCEventLog eventLog;
+
     /*
      * Mutable state.
      */
@@ -186,6 +194,11 @@ public class GCImpl implements GC {
         this.mutatorTimer = new Timer("Mutator");
         this.walkRegisteredMemoryTimer = new Timer("walkRegisteredMemory");
 
+        this.eventLogTimers = new Timer[]{collectionTimer, rootScanTimer, cheneyScanFromRootsTimer, cheneyScanFromDirtyRootsTimer, blackenStackRootsTimer, blackenBootImageRootsTimer,
+                        blackenDirtyCardRootsTimer, scanGreyObjectsTimer, promotePinnedObjectsTimer, discoverableReferenceTimer, releaseSpacesTimer, verifyBeforeTimer, verifyAfterTimer,
+                        watchersBeforeTimer, watchersAfterTimer};
+        this.eventLog = new GCEventLog(Options.GCEventLogSize.getValue(), eventLogTimers);
+
         RuntimeSupport.getRuntimeSupport().addShutdownHook(this::printGCSummary);
     }
 
@@ -237,6 +250,8 @@ public class GCImpl implements GC {
         resetTimers();
         incrementCollectionEpoch();
 
+        /* Sample the allocation rate of the threads, before their TLABs are retired. */
+        ThreadLocalAllocation.updateAllocationStatistics();
         /* Flush chunks from thread-local lists to global lists. */
         ThreadLocalAllocation.disableThreadLocalAllocation();
         /* Report the heap before the collection. */
@@ -253,6 +268,10 @@ public class GCImpl implements GC {
         final OutOfMemoryError result = checkIfOutOfMemory();
         /* Run any collection watchers after the collection. */
         visitWatchersAfter();
+        /* Record the collection in the event log. */
+        final long pauseStart = mutatorTimer.getFinish();
+        eventLog.record(getCollectionEpoch().rawValue(), cause, completeCollection, Timer.getTimeSinceFirstAllocation(pauseStart), System.nanoTime() - pauseStart,
+                        getAccounting().getLastPromotedChunkBytes().rawValue(), getAccounting().getOldGenerationAfterChunkBytes().rawValue(), eventLogTimers);
         /* Reset for the next collection. */
         HeapPolicy.bytesAllocatedSinceLastCollection.set(WordFactory.zero());
         /* Print the heap after the collection. */
@@ -1154,6 +1173,7 @@ public class GCImpl implements GC {
         private UnsignedWord oldChunkBytesAfter;
         private UnsignedWord pinnedChunkBytesBefore;
         private UnsignedWord pinnedChunkBytesAfter;
+        private UnsignedWord lastCompleteCollectionChunkBytesAfter;
         /* History of promotions and copies. */
         private int history;
         private UnsignedWord[] promotedUnpinnedChunkBytes;
@@ -1190,6 +1210,7 @@ public class GCImpl implements GC {
             this.oldChunkBytesAfter = WordFactory.zero();
             this.pinnedChunkBytesBefore = WordFactory.zero();
             this.pinnedChunkBytesAfter = WordFactory.zero();
+            this.lastCompleteCollectionChunkBytesAfter = WordFactory.zero();
             /* Initialize histories. */
             this.promotedUnpinnedChunkBytes = historyFactory(WordFactory.zero());
             this.promotedPinnedChunkBytes = historyFactory(WordFactory.zero());
@@ -1276,6 +1297,21 @@ public class GCImpl implements GC {
             return oldChunkBytesAfter.add(pinnedChunkBytesAfter);
         }
 
+        /** Growth of the unpinned old generation in the most recent collection. */
+        UnsignedWord getLastPromotedChunkBytes() {
+            return oldChunkBytesAfter.aboveThan(oldChunkBytesBefore) ? oldChunkBytesAfter.subtract(oldChunkBytesBefore) : WordFactory.zero();
+        }
+
+        /**
+         * Bytes held in the old generation after the most recent complete collection. Until the
+         * first complete collection, this is the size of the old generation after the first
+         * incremental collection that promoted anything, so that growth can be measured from the
+         * start. It is zero while there is no such baseline.
+         */
+        UnsignedWord getLastCompleteCollectionChunkBytesAfter() {
+            return lastCompleteCollectionChunkBytesAfter;
+        }
+
         /** Average promoted unpinned chunk bytes. */
         UnsignedWord averagePromotedUnpinnedChunkBytes() {
             return averageOfHistory(promotedUnpinnedChunkBytes);
@@ -1408,6 +1444,10 @@ public class GCImpl implements GC {
             /* Incremental collections only promote. */
             setHistoryOf(promotedUnpinnedChunkBytes, oldChunkBytesAfter.subtract(oldChunkBytesBefore));
             promotedTotalChunkBytes = promotedTotalChunkBytes.add(getHistoryOf(promotedUnpinnedChunkBytes)).add(getHistoryOf(promotedPinnedChunkBytes));
+            if (completeCollectionCount == 0 && lastCompleteCollectionChunkBytesAfter.equal(0)) {
+                /* Seed the baseline for growth-based policies before any complete collection. */
+                lastCompleteCollectionChunkBytesAfter = getOldGenerationAfterChunkBytes();
+            }
             incrementalCollectionTotalNanos += collectionTimer.getCollectedNanos();
             trace.string("  incrementalCollectionCount: ").signed(incrementalCollectionCount)
                             .string("  oldChunkBytesAfter: ").unsigned(oldChunkBytesAfter)
@@ -1425,6 +1465,7 @@ public class GCImpl implements GC {
             setHistoryOf(copiedUnpinnedChunkBytes, oldChunkBytesAfter);
             setHistoryOf(copiedPinnedChunkBytes, pinnedChunkBytesAfter);
             copiedTotalChunkBytes = copiedTotalChunkBytes.add(oldChunkBytesAfter).add(pinnedChunkBytesAfter);
+            lastCompleteCollectionChunkBytesAfter = getOldGenerationAfterChunkBytes();
             completeCollectionTotalNanos += collectionTimer.getCollectedNanos();
             trace.string("  completeCollectionCount: ").signed(completeCollectionCount)
                             .string("  oldChunkBytesAfter: ").unsigned(oldChunkBytesAfter)
@@ -1702,6 +1743,11 @@ public class GCImpl implements GC {
         return gcManagementFactory.getGCBeanList();
     }
 
+    @Override
+    public GCEventLogMXBean getEventLogMXBean() {
+        return eventLog;
+    }
+
     public static class UnpinnedObjectReferenceWalkerException extends RuntimeException {
 
         UnpinnedObjectReferenceWalkerException() {
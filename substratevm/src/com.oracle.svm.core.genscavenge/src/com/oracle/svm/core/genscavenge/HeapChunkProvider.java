@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -122,6 +122,18 @@ class HeapChunkProvider {
      * Produce a new AlignedHeapChunk, either from the free list or from the operating system.
      */
     AlignedHeader produceAlignedChunk() {
+        AlignedHeader result = tryProduceAlignedChunk();
+        if (result.isNull()) {
+            throw AllocatorOutOfMemoryError.throwError("No virtual memory for aligned chunk");
+        }
+        return result;
+    }
+
+    /**
+     * Produce a new AlignedHeapChunk like {@link #produceAlignedChunk()}, but return null instead
+     * of throwing an OutOfMemoryError if there is no memory for it.
+     */
+    AlignedHeader tryProduceAlignedChunk() {
         UnsignedWord chunkSize = HeapPolicy.getAlignedHeapChunkSize();
         log().string("[HeapChunkProvider.produceAlignedChunk  chunk size: ").unsigned(chunkSize).newline();
 
@@ -133,7 +145,8 @@ class HeapChunkProvider {
             noteFirstAllocationTime();
             result = (AlignedHeader) CommittedMemoryProvider.get().allocate(chunkSize, HeapPolicy.getAlignedHeapChunkAlignment(), false);
             if (result.isNull()) {
-                throw AllocatorOutOfMemoryError.throwError("No virtual memory for aligned chunk");
+                log().string("  no virtual memory for aligned chunk  ]").newline();
+                return WordFactory.nullPointer();
             }
             log().string("  new chunk: ").hex(result).newline();
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -155,6 +155,11 @@ public class HeapImpl extends Heap {
         ThreadLocalAllocation.disableThreadLocalAllocation(vmThread);
     }
 
+    @Override
+    public UnsignedWord getThreadAllocatedBytes(IsolateThread vmThread) {
+        return ThreadLocalAllocation.getAllocatedBytes(vmThread);
+    }
+
     /*
      * Allocation methods from Heap.
      */
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -53,6 +53,14 @@ public class HeapPolicyOptions {
     @Option(help = "How many bytes is enough to allocate an unaligned chunk for an array?  0 implies (AlignedHeapChunkSize / 8).") //
     public static final HostedOptionKey<Long> LargeArrayThreshold = new HostedOptionKey<>(HeapPolicy.LARGE_ARRAY_THRESHOLD_SENTINEL_VALUE);
 
+    /* Thread-local allocation */
+
+    @Option(help = "The number of refills a thread should need between two collections. Threads that allocate more take several aligned chunks per refill.") //
+    public static final RuntimeOptionKey<Integer> ThreadLocalAllocationTargetRefills = new RuntimeOptionKey<>(50);
+
+    @Option(help = "The maximum number of aligned chunks a thread takes per refill.") //
+    public static final RuntimeOptionKey<Integer> ThreadLocalAllocationMaxRefillChunks = new RuntimeOptionKey<>(8);
+
     /* Zapping */
 
     /* - Should chunks be zapped? */
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -56,6 +56,7 @@ import com.oracle.svm.core.thread.VMOperation;
 import com.oracle.svm.core.thread.VMThreads;
 import com.oracle.svm.core.threadlocal.FastThreadLocalBytes;
 import com.oracle.svm.core.threadlocal.FastThreadLocalFactory;
+import com.oracle.svm.core.threadlocal.FastThreadLocalInt;
 import com.oracle.svm.core.threadlocal.FastThreadLocalWord;
 import com.oracle.svm.core.util.VMError;
 
@@ -95,6 +96,30 @@ public final class ThreadLocalAllocation {
 
         @RawField
         void setAllocationEnd(Pointer end, LocationIdentity endIdentity);
+
+        /**
+         * The allocation top of the current allocation chunk at the time it became the allocation
+         * chunk, i.e., the start of the memory allocated by this TLAB in that chunk.
+         */
+        @RawField
+        @UniqueLocationIdentity
+        Pointer getAllocationStart();
+
+        @RawField
+        @UniqueLocationIdentity
+        void setAllocationStart(Pointer start);
+
+        /**
+         * Bytes allocated by this TLAB in retired allocation chunks and in unaligned chunks. The
+         * bytes allocated in the current allocation chunk are not included.
+         */
+        @RawField
+        @UniqueLocationIdentity
+        UnsignedWord getAllocatedBytes();
+
+        @RawField
+        @UniqueLocationIdentity
+        void setAllocatedBytes(UnsignedWord bytes);
     }
 
     public static final LocationIdentity TOP_IDENTITY = NamedLocationIdentity.mutable("Allocator.top");
@@ -110,6 +135,21 @@ public final class ThreadLocalAllocation {
     /** A thread-local free list of aligned chunks. */
     private static final FastThreadLocalWord<AlignedHeader> freeList = FastThreadLocalFactory.createWord();
 
+    /** The allocated bytes of the thread at the last collection. */
+    private static final FastThreadLocalWord<UnsignedWord> allocatedBytesAtLastCollection = FastThreadLocalFactory.createWord();
+
+    /** The weighted average of the bytes allocated by the thread between two collections. */
+    private static final FastThreadLocalWord<UnsignedWord> averageAllocatedBytes = FastThreadLocalFactory.createWord();
+
+    /**
+     * How many aligned chunks the thread takes from the heap chunk provider when its thread-local
+     * free list is empty. Computed from {@link #averageAllocatedBytes} after each collection.
+     */
+    private static final FastThreadLocalInt refillChunks = FastThreadLocalFactory.createInt();
+
+    /** Weight (in percent) of the most recent sample in {@link #averageAllocatedBytes}. */
+    private static final int ALLOCATION_AVERAGE_WEIGHT = 35;
+
     private static final OutOfMemoryError arrayAllocationTooLarge = new OutOfMemoryError("Array allocation too large.");
 
     private ThreadLocalAllocation() {
@@ -278,6 +318,7 @@ public final class ThreadLocalAllocation {
         /* Register the new chunk in the TLAB linked list of unaligned chunks. */
         uChunk.setNext(tlab.getUnalignedChunk());
         tlab.setUnalignedChunk(uChunk);
+        tlab.setAllocatedBytes(tlab.getAllocatedBytes().add(size));
 
         /* Allocate the memory. We must have a chunk, otherwise we already threw an exception. */
         Pointer memory = UnalignedHeapChunk.allocateMemory(uChunk, size);
@@ -338,10 +379,87 @@ public final class ThreadLocalAllocation {
         retireToSpace(regularTLAB.getAddress(vmThread), HeapImpl.getHeapImpl().getAllocationSpace());
 
         // Flush the thread-local free list to the global unused list.
-        for (AlignedHeader alignedChunk = popFromThreadLocalFreeList(); alignedChunk.isNonNull(); alignedChunk = popFromThreadLocalFreeList()) {
+        flushToChunkProvider(freeList.get(vmThread));
+        freeList.set(vmThread, WordFactory.nullPointer());
+        retireToSpace(pinnedTLAB.getAddress(vmThread), HeapImpl.getHeapImpl().getOldGeneration().getPinnedFromSpace());
+    }
+
+    private static void flushToChunkProvider(AlignedHeader firstChunk) {
+        AlignedHeader alignedChunk = firstChunk;
+        while (alignedChunk.isNonNull()) {
+            AlignedHeader next = alignedChunk.getNext();
+            alignedChunk.setNext(WordFactory.nullPointer());
             HeapChunkProvider.get().consumeAlignedChunk(alignedChunk);
+            alignedChunk = next;
+        }
+    }
+
+    /**
+     * Sample the allocation rate of every thread and size the next refills accordingly. Called
+     * once per collection, before the TLABs are retired.
+     */
+    static void updateAllocationStatistics() {
+        VMOperation.guaranteeInProgress("ThreadLocalAllocation.updateAllocationStatistics");
+
+        if (SubstrateOptions.MultiThreaded.getValue()) {
+            for (IsolateThread vmThread = VMThreads.firstThread(); VMThreads.isNonNullThread(vmThread); vmThread = VMThreads.nextThread(vmThread)) {
+                updateAllocationStatistics(vmThread);
+            }
+        } else {
+            updateAllocationStatistics(WordFactory.nullPointer());
         }
-        retireToSpace(pinnedTLAB.getAddress(vmThread), HeapImpl.getHeapImpl().getOldGeneration().getPinnedFromSpace());
+    }
+
+    private static void updateAllocationStatistics(IsolateThread vmThread) {
+        UnsignedWord allocatedBytes = getAllocatedBytes(vmThread);
+        UnsignedWord sample = allocatedBytes.subtract(allocatedBytesAtLastCollection.get(vmThread));
+        allocatedBytesAtLastCollection.set(vmThread, allocatedBytes);
+
+        UnsignedWord average = weightedAverage(averageAllocatedBytes.get(vmThread), sample);
+        averageAllocatedBytes.set(vmThread, average);
+        refillChunks.set(vmThread, refillChunks(average, HeapPolicyOptions.ThreadLocalAllocationTargetRefills.getValue(), HeapPolicy.getAlignedHeapChunkSize(),
+                        HeapPolicy.getMaximumYoungGenerationSize(), HeapPolicyOptions.ThreadLocalAllocationMaxRefillChunks.getValue()));
+    }
+
+    /** Folds the bytes allocated since the last collection into the weighted average. */
+    static UnsignedWord weightedAverage(UnsignedWord average, UnsignedWord sample) {
+        return average.unsignedDivide(100).multiply(100 - ALLOCATION_AVERAGE_WEIGHT).add(sample.unsignedDivide(100).multiply(ALLOCATION_AVERAGE_WEIGHT));
+    }
+
+    /**
+     * Returns how many aligned chunks a thread that allocates {@code average} bytes between two
+     * collections should take per refill.
+     */
+    static int refillChunks(UnsignedWord average, int targetRefills, UnsignedWord chunkSize, UnsignedWord maxYoungSize, int maxRefillChunks) {
+        /*
+         * Like HotSpot, aim for a fixed number of refills per thread between two collections. Since
+         * a TLAB never shares an aligned chunk with another TLAB, the refill size is a number of
+         * chunks, bounded so that a single thread cannot claim a large part of the young
+         * generation ahead of time.
+         */
+        UnsignedWord desiredRefill = average.unsignedDivide(targetRefills);
+        UnsignedWord maxChunks = maxYoungSize.unsignedDivide(chunkSize).unsignedDivide(8);
+        long chunks = desiredRefill.unsignedDivide(chunkSize).rawValue();
+        chunks = Math.min(chunks, Math.min(maxChunks.rawValue(), maxRefillChunks));
+        return (int) Math.max(chunks, 1);
+    }
+
+    /**
+     * Returns the number of bytes allocated by the thread so far. The thread must either be the
+     * current thread or be stopped at a safepoint.
+     */
+    static UnsignedWord getAllocatedBytes(IsolateThread vmThread) {
+        return getAllocatedBytes(regularTLAB.getAddress(vmThread)).add(getAllocatedBytes(pinnedTLAB.getAddress(vmThread)));
+    }
+
+    @Uninterruptible(reason = "Reads the TLAB that may be modified by the owning thread.")
+    private static UnsignedWord getAllocatedBytes(Descriptor tlab) {
+        UnsignedWord result = tlab.getAllocatedBytes();
+        Pointer allocationTop = tlab.getAllocationTop(TOP_IDENTITY);
+        if (allocationTop.isNonNull()) {
+            result = result.add(allocationTop.subtract(tlab.getAllocationStart()));
+        }
+        return result;
     }
 
     /** Return all allocated virtual memory chunks to HeapChunkProvider. */
@@ -571,6 +689,7 @@ public final class ThreadLocalAllocation {
         AlignedHeader newChunk = popFromThreadLocalFreeList();
         if (newChunk.isNull()) {
             newChunk = HeapChunkProvider.get().produceAlignedChunk();
+            prefetchAlignedChunks(refillChunks.get() - 1);
         }
 
         /*
@@ -580,6 +699,28 @@ public final class ThreadLocalAllocation {
         return newChunk;
     }
 
+    /**
+     * Threads that allocate a lot take several chunks at once, so that they need to go to the heap
+     * chunk provider less often. The extra chunks go to the thread-local free list. They are
+     * charged to the young generation when they are produced, and a thread takes no more of them
+     * than the young generation has left, so that prefetching cannot delay a collection. Running
+     * out of memory just ends the prefetching, because the allocation already has its chunk.
+     */
+    private static void prefetchAlignedChunks(int count) {
+        final UnsignedWord chunkSize = HeapPolicy.getAlignedHeapChunkSize();
+        final UnsignedWord maxYoungSize = HeapPolicy.getMaximumYoungGenerationSize();
+        for (int i = 0; i < count; i++) {
+            if (HeapPolicy.getBytesAllocatedSinceLastCollection().add(chunkSize).aboveThan(maxYoungSize)) {
+                break;
+            }
+            final AlignedHeader chunk = HeapChunkProvider.get().tryProduceAlignedChunk();
+            if (chunk.isNull()) {
+                break;
+            }
+            pushToThreadLocalFreeList(chunk);
+        }
+    }
+
     @Uninterruptible(reason = "Modifies TLAB")
     private static void registerNewAllocationChunk(Descriptor tlab, AlignedHeader newChunk) {
         /* Register the new chunk in the TLAB linked list of aligned chunks. */
@@ -607,6 +748,8 @@ public final class ThreadLocalAllocation {
              * and only set in the top aligned chunk when it is retired.
              */
             alignedChunk.setTop(allocationTop);
+            tlab.setAllocatedBytes(tlab.getAllocatedBytes().add(allocationTop.subtract(tlab.getAllocationStart())));
+            tlab.setAllocationStart(WordFactory.nullPointer());
             tlab.setAllocationTop(WordFactory.nullPointer(), TOP_IDENTITY);
             tlab.setAllocationEnd(WordFactory.nullPointer(), END_IDENTITY);
         }
@@ -623,6 +766,7 @@ public final class ThreadLocalAllocation {
         AlignedHeader alignedChunk = tlab.getAlignedChunk();
         if (alignedChunk.isNonNull()) {
             tlab.setAllocationTop(alignedChunk.getTop(), TOP_IDENTITY);
+            tlab.setAllocationStart(alignedChunk.getTop());
             tlab.setAllocationEnd(alignedChunk.getEnd(), END_IDENTITY);
             alignedChunk.setTop(WordFactory.nullPointer());
         }
@@ -34,6 +34,11 @@ import org.graalvm.nativeimage.Platforms;
  * data, if any. This class also serves as an SPI - subclasses shall override the
  * {@link #computeProfiles()} method to return their collected image profiles. There can be at most
  * single implementation of this type, registered in {@link ImageSingletons}.
+ * <p>
+ * Profiles written in the format described by
+ * {@code com.oracle.svm.hosted.profile.ImageProfileData} can be fed back into a subsequent image
+ * build with the {@code -H:ProfileGuidedOptimizationInput} option to guide inlining and block
+ * layout.
  *
  */
 public abstract class ImageProfiles {
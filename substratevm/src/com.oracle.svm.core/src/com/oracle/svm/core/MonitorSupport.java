@@ -62,28 +62,53 @@ import com.oracle.svm.core.util.VMError;
  * UniverseBuilder.canHaveMonitorFields(AnalysisType) for details.
  * <p>
  * Synchronization on {@link String}, arrays, and other types not detected by the static analysis
- * (like synchronization via JNI) fall back to a monitor stored in {@link #additionalMonitors}.
+ * (like synchronization via JNI) fall back to a monitor stored in {@link #additionalMonitors}. That
+ * secondary storage is split into stripes selected by the identity hash code of the object, so that
+ * synchronization on unrelated objects does not serialize on a single lock.
  * <p>
  * Because so few objects are receivers of {@link #wait()} and {@link #notify()} calls[citation
  * needed], condition variables for those objects are kept in {@link #additionalConditions}.
  */
 public class MonitorSupport {
 
+    /** Number of stripes of the secondary storage. Must be a power of two. */
+    private static final int ADDITIONAL_STORAGE_STRIPES = 64;
+
     /**
      * Secondary storage for monitor slots.
      *
-     * Synchronized to prevent concurrent access and modification.
+     * Each stripe is synchronized to prevent concurrent access and modification.
      */
-    private final Map<Object, ReentrantLock> additionalMonitors = new WeakIdentityHashMap<>();
-    private final ReentrantLock additionalMonitorsLock = new ReentrantLock();
+    private final SecondaryStorage<ReentrantLock>[] additionalMonitors = createSecondaryStorage();
 
     /**
      * Secondary storage for condition variable slots.
      *
-     * Synchronized to prevent concurrent access and modification.
+     * Each stripe is synchronized to prevent concurrent access and modification.
      */
-    private final Map<Object, Condition> additionalConditions = new WeakIdentityHashMap<>();
-    private final ReentrantLock additionalConditionsLock = new ReentrantLock();
+    private final SecondaryStorage<Condition>[] additionalConditions = createSecondaryStorage();
+
+    /** One stripe of the secondary storage: a weak identity map and the lock that guards it. */
+    private static final class SecondaryStorage<V> {
+        final Map<Object, V> map = new WeakIdentityHashMap<>();
+        final ReentrantLock lock = new ReentrantLock();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <V> SecondaryStorage<V>[] createSecondaryStorage() {
+        SecondaryStorage<V>[] result = new SecondaryStorage[ADDITIONAL_STORAGE_STRIPES];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new SecondaryStorage<>();
+        }
+        return result;
+    }
+
+    private static <V> SecondaryStorage<V> stripeFor(SecondaryStorage<V>[] storage, Object obj) {
+        int hash = System.identityHashCode(obj);
+        /* Spread the higher bits, the hash codes of neighboring allocations can be similar. */
+        hash ^= hash >>> 16;
+        return storage[hash & (storage.length - 1)];
+    }
 
     /**
      * Implements the monitorenter bytecode. The null check for the parameter must have already been
@@ -327,12 +352,13 @@ public class MonitorSupport {
         } else {
             /* No memory reserved for a lock in the object, fall back to our secondary storage. */
             /*
-             * Lock the monitor map and maybe add a monitor for this object. This serialization
-             * might be a scalability problem.
+             * Lock the stripe of the monitor map for this object and maybe add a monitor for this
+             * object. Objects that hash to the same stripe are serialized.
              */
-            additionalMonitorsLock.lock();
+            final SecondaryStorage<ReentrantLock> stripe = stripeFor(additionalMonitors, obj);
+            stripe.lock.lock();
             try {
-                final ReentrantLock existingEntry = additionalMonitors.get(obj);
+                final ReentrantLock existingEntry = stripe.map.get(obj);
                 if (existingEntry != null) {
                     return existingEntry;
                 }
@@ -341,11 +367,11 @@ public class MonitorSupport {
                     return null;
                 }
                 final ReentrantLock newEntry = new ReentrantLock();
-                final ReentrantLock previousEntry = additionalMonitors.put(obj, newEntry);
+                final ReentrantLock previousEntry = stripe.map.put(obj, newEntry);
                 VMError.guarantee(previousEntry == null, "MonitorSupport.getOrCreateMonitor: Replaced monitor");
                 return newEntry;
             } finally {
-                additionalMonitorsLock.unlock();
+                stripe.lock.unlock();
             }
         }
     }
@@ -357,12 +383,13 @@ public class MonitorSupport {
     private Condition getOrCreateCondition(Object obj, ReentrantLock lock, boolean createIfNotExisting) {
         /* No memory reserved for a condition in the object, use secondary storage. */
         /*
-         * Lock the condition map and maybe add a condition for this object. This serialization
-         * might be a scalability problem.
+         * Lock the stripe of the condition map for this object and maybe add a condition for this
+         * object. Objects that hash to the same stripe are serialized.
          */
-        additionalConditionsLock.lock();
+        final SecondaryStorage<Condition> stripe = stripeFor(additionalConditions, obj);
+        stripe.lock.lock();
         try {
-            final Condition existingEntry = additionalConditions.get(obj);
+            final Condition existingEntry = stripe.map.get(obj);
             if (existingEntry != null) {
                 return existingEntry;
             }
@@ -371,11 +398,11 @@ public class MonitorSupport {
                 return null;
             }
             final Condition newEntry = lock.newCondition();
-            final Condition previousEntry = additionalConditions.put(obj, newEntry);
+            final Condition previousEntry = stripe.map.put(obj, newEntry);
             VMError.guarantee(previousEntry == null, "MonitorSupport.getOrCreateCondition: Replaced condition");
             return newEntry;
         } finally {
-            additionalConditionsLock.unlock();
+            stripe.lock.unlock();
         }
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -54,4 +54,7 @@ public interface GC {
 
     /** Get the list of GarbageCollectorMXBeans for this collector. */
     List<GarbageCollectorMXBean> getGarbageCollectorMXBeanList();
+
+    /** Get the log of the most recent collections. */
+    GCEventLogMXBean getEventLogMXBean();
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.heap;
+
+/** A garbage collection as recorded by the {@link GCEventLogMXBean}. */
+public final class GCEvent {
+
+    private final long epoch;
+    private final String cause;
+    private final boolean complete;
+    private final long startNanos;
+    private final long pauseNanos;
+    private final long promotedBytes;
+    private final long survivedBytes;
+    private final long[] phaseNanos;
+
+    public GCEvent(long epoch, String cause, boolean complete, long startNanos, long pauseNanos, long promotedBytes, long survivedBytes, long[] phaseNanos) {
+        this.epoch = epoch;
+        this.cause = cause;
+        this.complete = complete;
+        this.startNanos = startNanos;
+        this.pauseNanos = pauseNanos;
+        this.promotedBytes = promotedBytes;
+        this.survivedBytes = survivedBytes;
+        this.phaseNanos = phaseNanos;
+    }
+
+    /** The collection epoch. */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public String getCause() {
+        return cause;
+    }
+
+    /** Whether the collection was complete, i.e., also collected the old generation. */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /** The start of the pause, in nanoseconds since the heap was initialized. */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /** The time the mutator threads were stopped for the collection. */
+    public long getPauseNanos() {
+        return pauseNanos;
+    }
+
+    /** The growth of the old generation by the collection, in chunk bytes. */
+    public long getPromotedBytes() {
+        return promotedBytes;
+    }
+
+    /** The size of the old generation after the collection, in chunk bytes. */
+    public long getSurvivedBytes() {
+        return survivedBytes;
+    }
+
+    /** The time spent in each phase, see {@link GCEventLogMXBean#getPhaseNames()}. */
+    public long[] getPhaseNanos() {
+        return phaseNanos.clone();
+    }
+}
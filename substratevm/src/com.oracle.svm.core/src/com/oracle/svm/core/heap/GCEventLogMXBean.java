@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.heap;
+
+import java.lang.management.PlatformManagedObject;
+
+/**
+ * The most recent garbage collections, kept in a bounded in-memory ring buffer, so that pause
+ * distributions, promotion and per-phase times can be inspected without verbose GC logging. The
+ * bean is available via {@code ManagementFactory.getPlatformMXBean(GCEventLogMXBean.class)}.
+ */
+public interface GCEventLogMXBean extends PlatformManagedObject {
+
+    String OBJECT_NAME = "com.oracle.svm:type=GCEventLog";
+
+    /** The maximum number of collections that are retained. */
+    int getCapacity();
+
+    /** The number of collections recorded since the start, including those no longer retained. */
+    long getRecordedCount();
+
+    /** The names of the phases, in the order of {@link GCEvent#getPhaseNanos()}. */
+    String[] getPhaseNames();
+
+    /** The retained collections, oldest first. */
+    GCEvent[] getEvents();
+
+    /**
+     * The pause time at the given percentile (between 0 and 100) of the retained collections, or
+     * -1 if no collection is retained.
+     */
+    long getPausePercentileNanos(double percentile);
+
+    /**
+     * The pause times of all collections since the start. Element {@code i} counts the pauses of at
+     * least 2<sup>i</sup> and less than 2<sup>i+1</sup> nanoseconds.
+     */
+    long[] getPauseHistogram();
+}
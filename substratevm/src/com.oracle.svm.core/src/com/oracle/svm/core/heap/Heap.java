@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2014, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2014, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -32,6 +32,7 @@ import org.graalvm.nativeimage.ImageSingletons;
 import org.graalvm.nativeimage.IsolateThread;
 import org.graalvm.nativeimage.Platform;
 import org.graalvm.nativeimage.Platforms;
+import org.graalvm.word.UnsignedWord;
 
 import com.oracle.svm.core.annotate.Uninterruptible;
 
@@ -56,6 +57,12 @@ public abstract class Heap {
 
     public abstract void disableAllocation(IsolateThread vmThread);
 
+    /**
+     * Returns the number of bytes allocated by the thread since it was started. The thread must
+     * either be the current thread or be stopped at a safepoint.
+     */
+    public abstract UnsignedWord getThreadAllocatedBytes(IsolateThread vmThread);
+
     /** Allocation is disallowed if ... */
     @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     public abstract boolean isAllocationDisallowed();
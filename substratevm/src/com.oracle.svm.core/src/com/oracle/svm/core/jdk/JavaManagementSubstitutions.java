@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -38,6 +38,7 @@ import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -50,16 +51,21 @@ import javax.management.MBeanServerConnection;
 import javax.management.ObjectName;
 
 import org.graalvm.compiler.serviceprovider.GraalServices;
+import org.graalvm.nativeimage.CurrentIsolate;
 import org.graalvm.nativeimage.Feature;
 import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.IsolateThread;
 import org.graalvm.nativeimage.ProcessProperties;
 
 import com.oracle.svm.core.JavaMainWrapper.JavaMainSupport;
 import com.oracle.svm.core.annotate.AutomaticFeature;
 import com.oracle.svm.core.annotate.Substitute;
 import com.oracle.svm.core.annotate.TargetClass;
+import com.oracle.svm.core.heap.GCEventLogMXBean;
 import com.oracle.svm.core.heap.Heap;
 import com.oracle.svm.core.thread.JavaThreads;
+import com.oracle.svm.core.thread.VMOperation;
+import com.oracle.svm.core.thread.VMThreads;
 import com.oracle.svm.core.util.UserError;
 import com.oracle.svm.core.util.VMError;
 
@@ -128,11 +134,17 @@ final class Target_java_lang_management_ManagementFactory {
 
     @Substitute
     private static <T extends PlatformManagedObject> T getPlatformMXBean(Class<T> mxbeanInterface) {
+        if (mxbeanInterface == GCEventLogMXBean.class) {
+            return mxbeanInterface.cast(Heap.getHeap().getGC().getEventLogMXBean());
+        }
         return null;
     }
 
     @Substitute
     private static <T extends PlatformManagedObject> List<T> getPlatformMXBeans(Class<T> mxbeanInterface) {
+        if (mxbeanInterface == GCEventLogMXBean.class) {
+            return Collections.singletonList(mxbeanInterface.cast(Heap.getHeap().getGC().getEventLogMXBean()));
+        }
         return Collections.emptyList();
     }
 
@@ -361,6 +373,8 @@ final class SubstrateThreadMXBean implements com.sun.management.ThreadMXBean {
 
     private static final String MSG = "ThreadMXBean methods";
 
+    private volatile boolean allocatedMemoryEnabled = true;
+
     SubstrateThreadMXBean() {
     }
 
@@ -371,12 +385,51 @@ final class SubstrateThreadMXBean implements com.sun.management.ThreadMXBean {
 
     @Override
     public boolean isThreadAllocatedMemoryEnabled() {
-        return false;
+        return allocatedMemoryEnabled;
     }
 
     @Override
     public boolean isThreadAllocatedMemorySupported() {
-        return false;
+        return true;
+    }
+
+    @Override
+    public void setThreadAllocatedMemoryEnabled(boolean enable) {
+        allocatedMemoryEnabled = enable;
+    }
+
+    @Override
+    public long getThreadAllocatedBytes(long id) {
+        return getThreadAllocatedBytes(new long[]{id})[0];
+    }
+
+    @Override
+    public long[] getThreadAllocatedBytes(long[] ids) {
+        long[] result = new long[ids.length];
+        Arrays.fill(result, -1);
+        if (!allocatedMemoryEnabled) {
+            return result;
+        }
+        if (ids.length == 1 && ids[0] == Thread.currentThread().getId()) {
+            /* The current thread can read its own counters without a safepoint. */
+            result[0] = Heap.getHeap().getThreadAllocatedBytes(CurrentIsolate.getCurrentThread()).rawValue();
+            return result;
+        }
+        /* The TLABs of other threads can only be read while they are stopped. */
+        VMOperation.enqueueBlockingSafepoint("getThreadAllocatedBytes", () -> {
+            for (IsolateThread cur = VMThreads.firstThread(); VMThreads.isNonNullThread(cur); cur = VMThreads.nextThread(cur)) {
+                Thread thread = JavaThreads.singleton().fromVMThread(cur);
+                if (thread == null) {
+                    continue;
+                }
+                for (int i = 0; i < ids.length; i++) {
+                    if (ids[i] == thread.getId()) {
+                        result[i] = Heap.getHeap().getThreadAllocatedBytes(cur).rawValue();
+                    }
+                }
+            }
+        });
+        return result;
     }
 
     @Override
@@ -515,16 +568,6 @@ final class SubstrateThreadMXBean implements com.sun.management.ThreadMXBean {
         throw VMError.unsupportedFeature(MSG);
     }
 
-    @Override
-    public long getThreadAllocatedBytes(long arg0) {
-        throw VMError.unsupportedFeature(MSG);
-    }
-
-    @Override
-    public long[] getThreadAllocatedBytes(long[] arg0) {
-        throw VMError.unsupportedFeature(MSG);
-    }
-
     @Override
     public long[] getThreadCpuTime(long[] arg0) {
         throw VMError.unsupportedFeature(MSG);
@@ -534,11 +577,6 @@ final class SubstrateThreadMXBean implements com.sun.management.ThreadMXBean {
     public long[] getThreadUserTime(long[] arg0) {
         throw VMError.unsupportedFeature(MSG);
     }
-
-    @Override
-    public void setThreadAllocatedMemoryEnabled(boolean arg0) {
-        throw VMError.unsupportedFeature(MSG);
-    }
 }
 
 class SubstrateClassLoadingMXBean implements ClassLoadingMXBean {
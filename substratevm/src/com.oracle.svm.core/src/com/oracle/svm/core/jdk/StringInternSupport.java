@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2015, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2015, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -24,60 +24,304 @@
  */
 package com.oracle.svm.core.jdk;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.graalvm.nativeimage.Platform;
 import org.graalvm.nativeimage.Platforms;
 
 import com.oracle.svm.core.annotate.UnknownObjectField;
+import com.oracle.svm.core.util.VMError;
 
 public final class StringInternSupport {
 
-    /** The String intern table at run time. */
-    private final ConcurrentHashMap<String, String> internedStrings;
+    /** The number of independently locked stripes of the run-time intern table. */
+    private static final int STRIPE_COUNT = 32;
+    private static final int STRIPE_SHIFT = Integer.numberOfTrailingZeros(STRIPE_COUNT);
+
+    /** The average number of image strings per bucket of the perfect hash function. */
+    private static final int STRINGS_PER_BUCKET = 4;
+
+    /**
+     * The String intern table at run time. Strings are hashed to one of the stripes, each of which
+     * is an open-addressing table that holds its strings weakly.
+     */
+    private final InternTableStripe[] internedStrings;
 
     /**
      * The native image contains a lot of interned strings. All Java String literals, and all class
      * names, are interned per Java specification. We don't want the memory overhead of an hash
-     * table entry, so we store them (sorted) in this String[] array. When a string is interned at
-     * run time, it is added to the real hash map, so we pay the (logarithmic) cost of the array
-     * access only once per string.
+     * table entry, so we store them in this String[] array, ordered by a minimal perfect hash
+     * function that is computed at image build time. Looking up a string is then a hash
+     * computation, two array accesses, and one {@link String#equals} call.
      *
-     * The field is set late during image generation, so the value is not available during static
-     * analysis and compilation.
+     * The fields are set late during image generation, so the values are not available during
+     * static analysis and compilation.
      */
     @UnknownObjectField(types = {String[].class}) private String[] imageInternedStrings;
 
+    /**
+     * The displacement of each bucket of the perfect hash function. A negative value encodes the
+     * index of the only string of the bucket as {@code -(index + 1)}.
+     */
+    @UnknownObjectField(types = {int[].class}) private int[] imageInternedDisplacements;
+
+    /**
+     * Image strings that have the same {@link String#hashCode} as another image string, and
+     * therefore cannot be placed by the perfect hash function. This array is sorted and usually
+     * very short.
+     */
+    @UnknownObjectField(types = {String[].class}) private String[] imageInternedCollisions;
+
     @Platforms(Platform.HOSTED_ONLY.class)
     public StringInternSupport() {
-        this.internedStrings = new ConcurrentHashMap<>(16, 0.75f, 1);
+        this.internedStrings = new InternTableStripe[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            internedStrings[i] = new InternTableStripe();
+        }
     }
 
+    /**
+     * Computes the perfect hash function for the interned strings of the image, using the
+     * hash-and-displace approach: the strings are distributed into buckets, and the buckets are
+     * placed, largest first, by searching for a displacement that maps all strings of a bucket to
+     * free slots.
+     */
     @Platforms(Platform.HOSTED_ONLY.class)
     public void setImageInternedStrings(String[] newImageInternedStrings) {
-        this.imageInternedStrings = newImageInternedStrings;
+        List<String> hashed = new ArrayList<>();
+        List<String> collisions = new ArrayList<>();
+        Set<Integer> hashCodes = new HashSet<>();
+        for (String str : newImageInternedStrings) {
+            if (hashCodes.add(str.hashCode())) {
+                hashed.add(str);
+            } else {
+                collisions.add(str);
+            }
+        }
+
+        int stringCount = hashed.size();
+        int bucketCount = Math.max(1, stringCount / STRINGS_PER_BUCKET);
+        List<List<String>> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (String str : hashed) {
+            buckets.get(bucketIndex(str.hashCode(), bucketCount)).add(str);
+        }
+        Integer[] bucketOrder = new Integer[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            bucketOrder[i] = i;
+        }
+        Arrays.sort(bucketOrder, (b1, b2) -> buckets.get(b2).size() - buckets.get(b1).size());
+
+        String[] table = new String[stringCount];
+        int[] displacements = new int[bucketCount];
+        int[] slots = new int[bucketCount == 0 ? 0 : buckets.get(bucketOrder[0]).size()];
+        int nextFreeSlot = 0;
+        for (int bucketIdx : bucketOrder) {
+            List<String> bucket = buckets.get(bucketIdx);
+            if (bucket.size() == 1) {
+                /* Single strings do not need a search: they go to any free slot. */
+                while (table[nextFreeSlot] != null) {
+                    nextFreeSlot++;
+                }
+                table[nextFreeSlot] = bucket.get(0);
+                displacements[bucketIdx] = -(nextFreeSlot + 1);
+            } else if (bucket.size() > 1) {
+                int displacement = findDisplacement(bucket, table, slots);
+                for (int i = 0; i < bucket.size(); i++) {
+                    table[slots[i]] = bucket.get(i);
+                }
+                displacements[bucketIdx] = displacement;
+            }
+        }
+
+        String[] sortedCollisions = collisions.toArray(new String[0]);
+        Arrays.sort(sortedCollisions);
+
+        this.imageInternedStrings = table;
+        this.imageInternedDisplacements = displacements;
+        this.imageInternedCollisions = sortedCollisions;
+    }
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    private static int findDisplacement(List<String> bucket, String[] table, int[] slots) {
+        for (int displacement = 1; displacement > 0; displacement++) {
+            if (tryDisplacement(bucket, table, slots, displacement)) {
+                return displacement;
+            }
+        }
+        throw VMError.shouldNotReachHere("No perfect hash displacement found for interned strings");
+    }
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    private static boolean tryDisplacement(List<String> bucket, String[] table, int[] slots, int displacement) {
+        for (int i = 0; i < bucket.size(); i++) {
+            int slot = slotIndex(bucket.get(i).hashCode(), displacement, table.length);
+            if (table[slot] != null) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (slots[j] == slot) {
+                    return false;
+                }
+            }
+            slots[i] = slot;
+        }
+        return true;
+    }
+
+    /** The arrays that must be written to the image heap after the interned strings are set. */
+    @Platforms(Platform.HOSTED_ONLY.class)
+    public Object[] getImageInternedStringsTables() {
+        return new Object[]{imageInternedStrings, imageInternedDisplacements, imageInternedCollisions};
+    }
+
+    private static int bucketIndex(int hash, int bucketCount) {
+        int h = hash * 0x85EBCA6B;
+        return ((h ^ (h >>> 16)) & Integer.MAX_VALUE) % bucketCount;
+    }
+
+    private static int slotIndex(int hash, int displacement, int slotCount) {
+        int h = (hash ^ displacement) * 0x9E3779B9;
+        return ((h ^ (h >>> 16)) & Integer.MAX_VALUE) % slotCount;
+    }
+
+    /** The hash of the run-time table: the low bits select the stripe, the rest the slot. */
+    private static int spread(int hashCode) {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
     }
 
     protected String intern(String str) {
-        String result = internedStrings.get(str);
+        String result = lookupImageString(str);
         if (result != null) {
             return result;
-        } else {
-            return doIntern(str);
         }
+        int hash = spread(str.hashCode());
+        InternTableStripe stripe = internedStrings[hash & (STRIPE_COUNT - 1)];
+        result = stripe.get(str, hash >>> STRIPE_SHIFT);
+        if (result != null) {
+            return result;
+        }
+        return stripe.intern(str, hash >>> STRIPE_SHIFT);
+    }
+
+    private String lookupImageString(String str) {
+        String[] strings = imageInternedStrings;
+        if (strings.length > 0) {
+            int hash = str.hashCode();
+            int displacement = imageInternedDisplacements[bucketIndex(hash, imageInternedDisplacements.length)];
+            int slot = displacement < 0 ? -displacement - 1 : slotIndex(hash, displacement, strings.length);
+            String candidate = strings[slot];
+            if (candidate.hashCode() == hash && candidate.equals(str)) {
+                return candidate;
+            }
+        }
+        if (imageInternedCollisions.length > 0) {
+            int idx = Arrays.binarySearch(imageInternedCollisions, str);
+            if (idx >= 0) {
+                return imageInternedCollisions[idx];
+            }
+        }
+        return null;
     }
 
-    private String doIntern(String str) {
-        String result = str;
-        int imageIdx = Arrays.binarySearch(imageInternedStrings, str);
-        if (imageIdx >= 0) {
-            result = imageInternedStrings[imageIdx];
+    /**
+     * One stripe of the run-time intern table: an open-addressing table with linear probing that
+     * references the strings weakly. Slots of collected strings are reused by later insertions, and
+     * dropped when the table is rehashed.
+     *
+     * Lookups do not lock: the table array is published by a volatile write, and a lookup that
+     * races with an insertion only misses, in which case {@link #intern} repeats it under the lock.
+     */
+    private static final class InternTableStripe {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private volatile WeakReference<?>[] table;
+        /** The number of non-null slots, including slots whose string was collected. */
+        private int occupied;
+
+        @Platforms(Platform.HOSTED_ONLY.class)
+        InternTableStripe() {
+            this.table = new WeakReference<?>[INITIAL_CAPACITY];
+        }
+
+        String get(String str, int hash) {
+            WeakReference<?>[] t = table;
+            int mask = t.length - 1;
+            for (int i = hash & mask;; i = (i + 1) & mask) {
+                WeakReference<?> ref = t[i];
+                if (ref == null) {
+                    return null;
+                }
+                Object value = ref.get();
+                if (str.equals(value)) {
+                    return (String) value;
+                }
+            }
         }
-        String oldValue = internedStrings.putIfAbsent(result, result);
-        if (oldValue != null) {
-            result = oldValue;
+
+        synchronized String intern(String str, int hash) {
+            if (occupied >= table.length - (table.length >> 2)) {
+                rehash();
+            }
+            WeakReference<?>[] t = table;
+            int mask = t.length - 1;
+            int insertIdx = -1;
+            int i = hash & mask;
+            for (WeakReference<?> ref = t[i]; ref != null; i = (i + 1) & mask, ref = t[i]) {
+                Object value = ref.get();
+                if (value == null) {
+                    if (insertIdx < 0) {
+                        insertIdx = i;
+                    }
+                } else if (str.equals(value)) {
+                    return (String) value;
+                }
+            }
+            if (insertIdx < 0) {
+                insertIdx = i;
+                occupied++;
+            }
+            t[insertIdx] = new WeakReference<>(str);
+            return str;
+        }
+
+        private void rehash() {
+            WeakReference<?>[] oldTable = table;
+            int live = 0;
+            for (WeakReference<?> ref : oldTable) {
+                if (ref != null && ref.get() != null) {
+                    live++;
+                }
+            }
+            int capacity = INITIAL_CAPACITY;
+            while (capacity - (capacity >> 2) <= live * 2) {
+                capacity <<= 1;
+            }
+            WeakReference<?>[] newTable = new WeakReference<?>[capacity];
+            int mask = capacity - 1;
+            int newOccupied = 0;
+            for (WeakReference<?> ref : oldTable) {
+                Object value = ref == null ? null : ref.get();
+                if (value != null) {
+                    int i = (spread(value.hashCode()) >>> STRIPE_SHIFT) & mask;
+                    while (newTable[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    newTable[i] = ref;
+                    newOccupied++;
+                }
+            }
+            occupied = newOccupied;
+            table = newTable;
         }
-        return result;
     }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.genscavenge;
+
+import org.graalvm.compiler.word.Word;
+import org.graalvm.word.UnsignedWord;
+import org.graalvm.word.WordFactory;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.oracle.svm.core.genscavenge.CollectionPolicy.ByOldGenerationGrowth;
+
+public class CollectionPolicyTest {
+
+    private static final long MB = 1024L * 1024L;
+
+    @BeforeClass
+    public static void initializeWords() {
+        /* Word values are boxed outside of compiled code, as during image generation. */
+        Word.ensureInitialized();
+    }
+
+    private static UnsignedWord mb(long n) {
+        return WordFactory.unsigned(n * MB);
+    }
+
+    @Test
+    public void testCopyReserveFitsYoungCopy() {
+        /* 32 MB young, its copy, and 400 MB old fit into 512 MB. */
+        Assert.assertFalse(ByOldGenerationGrowth.exceedsCopyReserve(mb(32), mb(400), mb(512)));
+        /* A copy of the whole old generation is not needed, so this must not vote. */
+        Assert.assertFalse(ByOldGenerationGrowth.exceedsCopyReserve(mb(32), mb(300), mb(512)));
+    }
+
+    @Test
+    public void testCopyReserveExceeded() {
+        Assert.assertTrue(ByOldGenerationGrowth.exceedsCopyReserve(mb(32), mb(449), mb(512)));
+        Assert.assertFalse(ByOldGenerationGrowth.exceedsCopyReserve(mb(32), mb(448), mb(512)));
+    }
+
+    @Test
+    public void testGrowthWithoutBaseline() {
+        Assert.assertFalse(ByOldGenerationGrowth.exceedsGrowth(WordFactory.zero(), mb(1), 50));
+        Assert.assertFalse(ByOldGenerationGrowth.exceedsGrowth(WordFactory.zero(), mb(1000), 0));
+    }
+
+    @Test
+    public void testGrowth() {
+        Assert.assertFalse(ByOldGenerationGrowth.exceedsGrowth(mb(100), mb(100), 50));
+        Assert.assertFalse(ByOldGenerationGrowth.exceedsGrowth(mb(100), mb(150), 50));
+        Assert.assertTrue(ByOldGenerationGrowth.exceedsGrowth(mb(100), mb(151), 50));
+        Assert.assertTrue(ByOldGenerationGrowth.exceedsGrowth(mb(100), mb(101), 0));
+    }
+
+    @Test
+    public void testShrinkingOldGeneration() {
+        Assert.assertFalse(ByOldGenerationGrowth.exceedsGrowth(mb(100), mb(10), 50));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.genscavenge;
+
+import org.graalvm.compiler.word.Word;
+import org.graalvm.word.UnsignedWord;
+import org.graalvm.word.WordFactory;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ThreadLocalAllocationTest {
+
+    private static final long MB = 1024L * 1024L;
+
+    private static final long CHUNK_SIZE = MB;
+    private static final long MAX_YOUNG = 256 * MB;
+    private static final int TARGET_REFILLS = 50;
+    private static final int MAX_REFILL_CHUNKS = 8;
+
+    @BeforeClass
+    public static void initializeWords() {
+        /* Word values are boxed outside of compiled code, as during image generation. */
+        Word.ensureInitialized();
+    }
+
+    private static int refillChunks(long average, long maxYoungSize) {
+        return ThreadLocalAllocation.refillChunks(WordFactory.unsigned(average), TARGET_REFILLS, WordFactory.unsigned(CHUNK_SIZE), WordFactory.unsigned(maxYoungSize), MAX_REFILL_CHUNKS);
+    }
+
+    private static int refillChunks(long average) {
+        return refillChunks(average, MAX_YOUNG);
+    }
+
+    @Test
+    public void testWeightedAverage() {
+        UnsignedWord average = WordFactory.zero();
+        for (int i = 0; i < 50; i++) {
+            average = ThreadLocalAllocation.weightedAverage(average, WordFactory.unsigned(100 * MB));
+        }
+        /* The average converges to a steady allocation rate. */
+        Assert.assertEquals(100 * MB, average.rawValue(), MB);
+
+        average = ThreadLocalAllocation.weightedAverage(average, WordFactory.zero());
+        Assert.assertEquals(65 * MB, average.rawValue(), MB);
+    }
+
+    @Test
+    public void testRefillAtLeastOneChunk() {
+        Assert.assertEquals(1, refillChunks(0));
+        Assert.assertEquals(1, refillChunks(10 * MB));
+    }
+
+    @Test
+    public void testRefillGrowsWithAllocationRate() {
+        /* 50 refills of 2 MB each. */
+        Assert.assertEquals(2, refillChunks(100 * MB));
+        Assert.assertEquals(4, refillChunks(200 * MB));
+    }
+
+    @Test
+    public void testRefillIsCapped() {
+        Assert.assertEquals(MAX_REFILL_CHUNKS, refillChunks(10000 * MB));
+        /* A thread must not claim more than an eighth of a small young generation. */
+        Assert.assertEquals(2, refillChunks(10000 * MB, 16 * MB));
+    }
+}
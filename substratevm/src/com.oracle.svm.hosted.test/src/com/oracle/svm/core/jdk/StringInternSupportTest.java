@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.jdk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+public class StringInternSupportTest {
+
+    private static StringInternSupport build(String... imageStrings) {
+        StringInternSupport support = new StringInternSupport();
+        support.setImageInternedStrings(imageStrings);
+        return support;
+    }
+
+    private static void checkLookup(StringInternSupport support, String[] imageStrings) {
+        for (String str : imageStrings) {
+            /* Intern an equal copy, the image table must return the image instance. */
+            Assert.assertSame(str, support.intern(new String(str)));
+        }
+    }
+
+    /** A string that is not in the image is interned as itself at run time. */
+    private static void checkMissing(StringInternSupport support, String str) {
+        String copy = new String(str);
+        Assert.assertSame(copy, support.intern(copy));
+    }
+
+    private static String[] randomStrings(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add("str" + i + "_" + Long.toHexString(random.nextLong()));
+        }
+        return result.toArray(new String[0]);
+    }
+
+    @Test
+    public void testEmpty() {
+        StringInternSupport support = build();
+        checkMissing(support, "a");
+        checkMissing(support, "");
+    }
+
+    @Test
+    public void testSmallTables() {
+        for (int count = 1; count <= 9; count++) {
+            String[] strings = randomStrings(count, count);
+            StringInternSupport support = build(strings);
+            checkLookup(support, strings);
+            checkMissing(support, "missing");
+        }
+    }
+
+    @Test
+    public void testLargeTable() {
+        String[] strings = randomStrings(20000, 42);
+        StringInternSupport support = build(strings);
+        checkLookup(support, strings);
+        for (String str : randomStrings(1000, 43)) {
+            checkMissing(support, str);
+        }
+    }
+
+    @Test
+    public void testCollidingHashCodes() {
+        /* "Aa" and "BB" have the same hash code, and so have all their concatenations. */
+        String[] strings = {"Aa", "BB", "AaAa", "AaBB", "BBAa", "BBBB", "", "x"};
+        Assert.assertEquals("Aa".hashCode(), "BB".hashCode());
+        Assert.assertEquals("AaAa".hashCode(), "BBBB".hashCode());
+        StringInternSupport support = build(strings);
+        checkLookup(support, strings);
+        checkMissing(support, "AaAaAa");
+        checkMissing(support, "BBBBBB");
+    }
+
+    @Test
+    public void testOnlyCollisions() {
+        String[] strings = {"AaAa", "AaBB", "BBAa", "BBBB"};
+        StringInternSupport support = build(strings);
+        checkLookup(support, strings);
+    }
+
+    @Test
+    public void testImageStringsAreInterned() {
+        String[] strings = randomStrings(100, 7);
+        StringInternSupport support = build(strings);
+        for (String str : strings) {
+            Assert.assertSame(str, support.intern(new String(str)));
+        }
+    }
+
+    @Test
+    public void testRuntimeInternIsCanonical() throws InterruptedException {
+        StringInternSupport support = build("image");
+        int threadCount = 4;
+        int stringCount = 10000;
+        /* Enough strings to cover every stripe and to make each stripe rehash several times. */
+        ConcurrentHashMap<String, String> canonical = new ConcurrentHashMap<>();
+        List<Throwable> failures = new ArrayList<>();
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < stringCount; i++) {
+                        String str = new String("runtime" + i);
+                        String interned = support.intern(str);
+                        Assert.assertEquals(str, interned);
+                        String previous = canonical.putIfAbsent(str, interned);
+                        if (previous != null) {
+                            Assert.assertSame(previous, interned);
+                        }
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertTrue(failures.toString(), failures.isEmpty());
+        Assert.assertEquals(stringCount, canonical.size());
+        for (String str : canonical.values()) {
+            Assert.assertSame(str, support.intern(new String(str)));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted.profile;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.svm.core.util.UserError.UserException;
+import com.oracle.svm.hosted.profile.ImageProfileData.BytecodeProfile;
+import com.oracle.svm.hosted.profile.ImageProfileData.MethodProfile;
+
+public class ImageProfileDataTest {
+
+    private static final String METHOD = "com.example.Foo.bar(int, java.lang.Object)";
+
+    private static ImageProfileData parse(String text) throws IOException {
+        return ImageProfileData.parse(new StringReader(text), "test.profile");
+    }
+
+    private static void assertMalformed(String text) throws IOException {
+        try {
+            parse(text);
+            Assert.fail("expected a parse error for: " + text);
+        } catch (UserException ex) {
+            Assert.assertTrue(ex.getMessage(), ex.getMessage().contains("test.profile"));
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        Assert.assertNull(parse("").lookup(METHOD));
+        Assert.assertNull(parse("# only a comment\n\n   \n").lookup(METHOD));
+    }
+
+    @Test
+    public void testAllRecordKinds() throws IOException {
+        ImageProfileData data = parse("# profile\n" +
+                        METHOD + "\tbranch\t4\t0.25\n" +
+                        METHOD + "\tswitch\t10\t0.5,0.25,0.25\n" +
+                        METHOD + "\tcount\t20\t12345\n" +
+                        METHOD + "\treceiver\t20\tjava.lang.String=0.75,java.lang.Integer=0.25\n");
+        MethodProfile method = data.lookup(METHOD);
+        Assert.assertNotNull(method);
+
+        Assert.assertEquals(0.25, method.lookup(4).getBranchTakenProbability(), 0);
+        Assert.assertEquals(-1, method.lookup(4).getExecutionCount());
+        Assert.assertArrayEquals(new double[]{0.5, 0.25, 0.25}, method.lookup(10).getSwitchProbabilities(), 0);
+
+        BytecodeProfile invoke = method.lookup(20);
+        Assert.assertEquals(12345, invoke.getExecutionCount());
+        Assert.assertEquals(0.75, invoke.getReceiverProbability("java.lang.String"), 0);
+        Assert.assertEquals(0, invoke.getReceiverProbability("java.lang.Long"), 0);
+        Assert.assertEquals(-1, method.lookup(4).getReceiverProbability("java.lang.String"), 0);
+
+        Assert.assertNull(method.lookup(5));
+        Assert.assertNull(data.lookup("com.example.Foo.baz()"));
+    }
+
+    @Test
+    public void testPartialInput() throws IOException {
+        /* The last record has no line terminator, and only some kinds are recorded. */
+        MethodProfile method = parse(METHOD + "\tcount\t3\t7\n\n" + METHOD + "\tbranch\t9\t1").lookup(METHOD);
+        Assert.assertEquals(7, method.lookup(3).getExecutionCount());
+        Assert.assertNull(method.lookup(3).getSwitchProbabilities());
+        Assert.assertEquals(1, method.lookup(9).getBranchTakenProbability(), 0);
+        Assert.assertEquals(-1, method.lookup(9).getExecutionCount());
+    }
+
+    @Test
+    public void testMalformedInput() throws IOException {
+        assertMalformed(METHOD + "\tbranch\t4\n");
+        assertMalformed(METHOD + "\tbranch\t4\t0.5\textra\n");
+        assertMalformed(METHOD + " branch 4 0.5\n");
+        assertMalformed(METHOD + "\tbranch\tfour\t0.5\n");
+        assertMalformed(METHOD + "\tbranch\t-1\t0.5\n");
+        assertMalformed(METHOD + "\tbranch\t4\t1.5\n");
+        assertMalformed(METHOD + "\tbranch\t4\tNaN\n");
+        assertMalformed(METHOD + "\tswitch\t4\t0.5,,0.5\n");
+        assertMalformed(METHOD + "\tcount\t4\tmany\n");
+        assertMalformed(METHOD + "\treceiver\t4\tjava.lang.String\n");
+        assertMalformed(METHOD + "\treceiver\t4\t=0.5\n");
+        assertMalformed(METHOD + "\tloop\t4\t0.5\n");
+        /* A malformed record after valid ones still rejects the file. */
+        assertMalformed(METHOD + "\tcount\t3\t7\n" + METHOD + "\tcount\t");
+    }
+
+    @Test
+    public void testWriterRoundTrip() throws IOException {
+        StringWriter text = new StringWriter();
+        ImageProfileWriter writer = new ImageProfileWriter(text);
+        writer.writeBranch(METHOD, 4, 0.125);
+        writer.writeSwitch(METHOD, 10, new double[]{0.5, 0.5});
+        writer.writeCount(METHOD, 20, 1L << 40);
+        writer.writeReceivers(METHOD, 20, new String[]{"java.lang.String"}, new double[]{1});
+        writer.flush();
+
+        MethodProfile method = parse(text.toString()).lookup(METHOD);
+        Assert.assertEquals(0.125, method.lookup(4).getBranchTakenProbability(), 0);
+        Assert.assertArrayEquals(new double[]{0.5, 0.5}, method.lookup(10).getSwitchProbabilities(), 0);
+        Assert.assertEquals(Integer.MAX_VALUE, method.lookup(20).getExecutionCount());
+        Assert.assertEquals(1, method.lookup(20).getReceiverProbability("java.lang.String"), 0);
+    }
+}
@@ -46,6 +46,8 @@ import com.oracle.svm.hosted.meta.HostedField;
 import com.oracle.svm.hosted.meta.HostedInstanceClass;
 import com.oracle.svm.hosted.meta.HostedMetaAccess;
 import com.oracle.svm.hosted.meta.HostedUniverse;
+import com.oracle.svm.hosted.profile.ImageProfileData;
+import com.oracle.svm.hosted.profile.ProfileGuidedStaticAnalysisResultsBuilder;
 
 public class HostedConfiguration {
 
@@ -94,6 +96,10 @@ public class HostedConfiguration {
     }
 
     public StaticAnalysisResultsBuilder createStaticAnalysisResultsBuilder(BigBang bigbang, HostedUniverse universe) {
+        ImageProfileData profileData = ImageProfileData.loadFromOptions();
+        if (profileData != null) {
+            return new ProfileGuidedStaticAnalysisResultsBuilder(bigbang, universe, profileData);
+        }
         return new StaticAnalysisResultsBuilder(bigbang, universe);
     }
 
@@ -539,7 +539,7 @@ public class NativeImageGenerator {
                     throw UserError.abort("Warning: no entry points found, i.e., no method annotated with @" + CEntryPoint.class.getSimpleName());
                 }
 
-                heap = new NativeImageHeap(aUniverse, hUniverse, hMetaAccess);
+                heap = new NativeImageHeap(aUniverse, hUniverse, hMetaAccess, compilationExecutor);
 
                 BeforeCompilationAccessImpl config = new BeforeCompilationAccessImpl(featureHandler, loader, aUniverse, hUniverse, hMetaAccess, heap, debug);
                 featureHandler.forEachFeature(feature -> feature.beforeCompilation(config));
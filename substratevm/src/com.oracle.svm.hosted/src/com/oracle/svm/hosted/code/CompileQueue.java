@@ -107,6 +107,7 @@ import org.graalvm.nativeimage.ImageSingletons;
 import com.oracle.graal.pointsto.infrastructure.GraphProvider.Purpose;
 import com.oracle.graal.pointsto.meta.HostedProviders;
 import com.oracle.graal.pointsto.phases.SubstrateIntrinsicGraphBuilder;
+import com.oracle.graal.pointsto.results.StaticAnalysisResults;
 import com.oracle.graal.pointsto.util.CompletionExecutor;
 import com.oracle.graal.pointsto.util.CompletionExecutor.DebugContextRunnable;
 import com.oracle.graal.pointsto.util.Timer;
@@ -141,6 +142,7 @@ import com.oracle.svm.hosted.meta.HostedUniverse;
 import com.oracle.svm.hosted.phases.DevirtualizeCallsPhase;
 import com.oracle.svm.hosted.phases.HostedGraphBuilderPhase;
 import com.oracle.svm.hosted.phases.StrengthenStampsPhase;
+import com.oracle.svm.hosted.profile.ImageProfileData;
 import com.oracle.svm.hosted.substitute.DeletedMethod;
 
 import jdk.vm.ci.code.BytecodeFrame;
@@ -602,9 +604,32 @@ public class CompileQueue {
         if (callee.compilationInfo.isTrivialMethod()) {
             return true;
         }
+        if (isHotCallSite(invoke, callee)) {
+            return true;
+        }
         return false;
     }
 
+    /**
+     * Call sites that were executed frequently in the run of an instrumented image are inlined
+     * even when the callee is not trivial, as long as neither the callee nor the caller are too
+     * large. Without a profile, the execution count is unknown and this check never succeeds.
+     */
+    private static boolean isHotCallSite(Invoke invoke, HostedMethod callee) {
+        int minExecutionCount = ImageProfileData.Options.ProfileGuidedInliningMinExecutionCount.getValue();
+        FrameState stateAfter = invoke.stateAfter();
+        if (minExecutionCount < 0 || stateAfter == null || !(stateAfter.getMethod() instanceof HostedMethod)) {
+            return false;
+        }
+        StaticAnalysisResults profilingInfo = ((HostedMethod) stateAfter.getMethod()).getProfilingInfo();
+        if (profilingInfo == null || profilingInfo.getExecutionCount(invoke.bci()) < minExecutionCount) {
+            return false;
+        }
+        StructuredGraph calleeGraph = callee.compilationInfo.getGraph();
+        return calleeGraph != null && calleeGraph.getNodeCount() <= ImageProfileData.Options.ProfileGuidedInliningMaxCalleeNodes.getValue() &&
+                        invoke.asNode().graph().getNodeCount() <= ImageProfileData.Options.ProfileGuidedInliningMaxCallerNodes.getValue();
+    }
+
     private static boolean mustNotAllocateCallee(HostedMethod method) {
         return ImageSingletons.lookup(RestrictHeapAccessCallees.class).mustNotAllocate(method);
     }
@@ -28,6 +28,7 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.oracle.svm.hosted.NativeImageOptions;
 import com.oracle.svm.hosted.image.NativeImageHeap.ObjectInfo;
@@ -93,6 +94,13 @@ public class HeapHistogram {
         }
     }
 
+    /** Prints the time spent scanning, laying out and writing the native image heap. */
+    public static void printPhaseTimes(long scanNanos, long layoutNanos, long writeNanos) {
+        assert NativeImageOptions.PrintHeapHistogram.getValue();
+        System.out.format("\n=== Image heap phases:  scan: %d ms  layout: %d ms  write: %d ms ===\n",
+                        TimeUnit.NANOSECONDS.toMillis(scanNanos), TimeUnit.NANOSECONDS.toMillis(layoutNanos), TimeUnit.NANOSECONDS.toMillis(writeNanos));
+    }
+
     public long getTotalSize() {
         long totalSize = 0;
         for (HistogramEntry entry : data.values()) {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -29,30 +29,37 @@ import static com.oracle.svm.core.util.VMError.shouldNotReachHere;
 import java.lang.reflect.Array;
 import java.lang.reflect.Modifier;
 import java.nio.ByteBuffer;
-import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collections;
-import java.util.Deque;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 import org.graalvm.compiler.api.replacements.Fold;
 import org.graalvm.compiler.core.common.CompressEncoding;
 import org.graalvm.compiler.core.common.NumUtil;
 import org.graalvm.compiler.core.common.SuppressFBWarnings;
 import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.DebugHandlersFactory;
 import org.graalvm.compiler.debug.Indent;
+import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.nativeimage.ImageSingletons;
 import org.graalvm.nativeimage.c.function.CFunctionPointer;
 import org.graalvm.nativeimage.c.function.RelocatedPointer;
 import org.graalvm.word.WordBase;
 
 import com.oracle.graal.pointsto.meta.AnalysisUniverse;
+import com.oracle.graal.pointsto.util.CompletionExecutor;
+import com.oracle.graal.pointsto.util.CompletionExecutor.DebugContextRunnable;
 import com.oracle.svm.core.FrameAccess;
 import com.oracle.svm.core.StaticFieldsSupport;
 import com.oracle.svm.core.SubstrateOptions;
@@ -65,6 +72,7 @@ import com.oracle.svm.core.hub.LayoutEncoding;
 import com.oracle.svm.core.jdk.StringInternSupport;
 import com.oracle.svm.core.meta.SubstrateObjectConstant;
 import com.oracle.svm.core.util.HostedStringDeduplication;
+import com.oracle.svm.core.util.InterruptImageBuilding;
 import com.oracle.svm.core.util.UserError;
 import com.oracle.svm.core.util.VMError;
 import com.oracle.svm.hosted.NativeImageOptions;
@@ -118,6 +126,7 @@ public final class NativeImageHeap {
              * Ensure that the hub of the String[] array (used for the interned objects) is written.
              */
             addObject(getMetaAccess().lookupJavaType(String[].class).getHub(), false, "internedStrings table");
+            addObject(getMetaAccess().lookupJavaType(int[].class).getHub(), false, "internedStrings table");
             /*
              * We are no longer allowed to add new interned strings, because that would modify the
              * table we are about to write.
@@ -129,9 +138,12 @@ public final class NativeImageHeap {
              */
             String[] imageInternedStrings = internedStrings.keySet().toArray(new String[0]);
             Arrays.sort(imageInternedStrings);
-            ImageSingletons.lookup(StringInternSupport.class).setImageInternedStrings(imageInternedStrings);
+            StringInternSupport stringInternSupport = ImageSingletons.lookup(StringInternSupport.class);
+            stringInternSupport.setImageInternedStrings(imageInternedStrings);
 
-            addObject(imageInternedStrings, true, "internedStrings table");
+            for (Object table : stringInternSupport.getImageInternedStringsTables()) {
+                addObject(table, true, "internedStrings table");
+            }
 
             // Process any objects that were transitively added to the heap.
             processAddObjectWorklist();
@@ -226,7 +238,8 @@ public final class NativeImageHeap {
      * If necessary, add an object to the model of the native image heap.
      *
      * Various transformations are done from objects in the hosted heap to the native image heap.
-     * Not every object is added to the heap, for various reasons.
+     * Not every object is added to the heap, for various reasons. The object and everything
+     * reachable from it is scanned and laid out by the next {@link #processAddObjectWorklist()}.
      */
     public void addObject(final Object original, boolean immutableFromParent, final Object reason) {
         assert addObjectsPhase.isAllowed() : "Objects cannot be added at phase: " + addObjectsPhase.toString() + " with reason: " + reason;
@@ -234,6 +247,13 @@ public final class NativeImageHeap {
         if (original == null || original instanceof WordBase) {
             return;
         }
+        if (!objects.containsKey(original)) {
+            addObjectWorklist.add(new AddObjectData(original, immutableFromParent, reason, addObjectWorklist.size()));
+        }
+    }
+
+    /** Checks that an object can be written to the native image heap. */
+    private void checkObject(final Object original, final Object reason) {
         if (original instanceof Class) {
             throw VMError.shouldNotReachHere("Must not have Class in native image heap: " + original);
         }
@@ -254,7 +274,9 @@ public final class NativeImageHeap {
                                             "or reset the cache using a field value recomputation.%n  class: %s%n  reachable through:%n%s",
                             original, fillReasonStack(new StringBuilder(), reason)));
         }
+    }
 
+    private int computeIdentityHashCode(final Object original) {
         int identityHashCode;
         if (original instanceof DynamicHub) {
             /*
@@ -267,15 +289,7 @@ public final class NativeImageHeap {
             identityHashCode = System.identityHashCode(original);
         }
         VMError.guarantee(identityHashCode != 0, "0 is used as a marker value for 'hash code not yet computed'");
-
-        if (original instanceof String) {
-            handleImageString((String) original);
-        }
-
-        final ObjectInfo existing = objects.get(original);
-        if (existing == null) {
-            addObjectToBootImageHeap(original, immutableFromParent, identityHashCode, reason);
-        }
+        return identityHashCode;
     }
 
     /**
@@ -285,17 +299,17 @@ public final class NativeImageHeap {
     @SuppressWarnings("try")
     public void writeHeap(DebugContext debug, final RelocatableBuffer roBuffer, final RelocatableBuffer rwBuffer) {
         try (Indent perHeapIndent = debug.logAndIndent("BootImageHeap.writeHeap:")) {
-            for (ObjectInfo info : objects.values()) {
-                assert !blacklist.contains(info.getObject());
-                writeObject(info, roBuffer, rwBuffer);
-            }
+            long writeStart = System.nanoTime();
+            writeObjects(roBuffer, rwBuffer);
             // Only static fields that are writable get written to the native image heap,
             // the read-only static fields have been inlined into the code.
             writeStaticFields(rwBuffer);
             patchPartitionBoundaries(debug, roBuffer, rwBuffer);
+            writeNanos += System.nanoTime() - writeStart;
         }
 
         if (NativeImageOptions.PrintHeapHistogram.getValue()) {
+            HeapHistogram.printPhaseTimes(scanNanos, layoutNanos, writeNanos);
             // A histogram for the whole heap.
             ObjectGroupHistogram.print(this);
             // Histograms for each partition.
@@ -314,6 +328,27 @@ public final class NativeImageHeap {
         }
     }
 
+    /**
+     * Writes the objects of each partition in parallel. Objects occupy disjoint ranges of the
+     * buffers, so only the relocation maps of the buffers need synchronization.
+     */
+    private void writeObjects(final RelocatableBuffer roBuffer, final RelocatableBuffer rwBuffer) {
+        Map<HeapPartition, List<ObjectInfo>> objectsByPartition = new HashMap<>();
+        for (ObjectInfo info : objects.values()) {
+            assert !blacklist.contains(info.getObject());
+            objectsByPartition.computeIfAbsent(info.getPartition(), p -> new ArrayList<>()).add(info);
+        }
+
+        executor.init();
+        for (List<ObjectInfo> partitionObjects : objectsByPartition.values()) {
+            for (int start = 0; start < partitionObjects.size(); start += WRITE_CHUNK_SIZE) {
+                List<ObjectInfo> chunk = partitionObjects.subList(start, Math.min(start + WRITE_CHUNK_SIZE, partitionObjects.size()));
+                executor.execute(new HeapTask(() -> chunk.forEach(info -> writeObject(info, roBuffer, rwBuffer))));
+            }
+        }
+        runExecutor();
+    }
+
     public ObjectInfo getObjectInfo(Object obj) {
         return objects.get(obj);
     }
@@ -337,10 +372,19 @@ public final class NativeImageHeap {
 
     /**
      * It has been determined that an object should be added to the model of the native image heap.
-     * This is the mechanics of recursively adding the object and all its fields and array elements
-     * to the model of the native image heap.
+     * This computes the size and the partition of the object and discovers all its fields and array
+     * elements, which are added to the next wave of {@link #processAddObjectWorklist()}. This
+     * method is executed in parallel for all objects of a wave, so it must not modify
+     * {@link #objects}.
      */
-    private void addObjectToBootImageHeap(final Object object, boolean immutableFromParent, final int identityHashCode, final Object reason) {
+    private void scanObject(final AddObjectData data, final int indexInWave, final ObjectInfo[] infos, final HeapPartition[] partitions) {
+        final Object object = data.original;
+        final Object reason = data.reason;
+        checkObject(object, reason);
+        final int identityHashCode = computeIdentityHashCode(object);
+        if (object instanceof String) {
+            handleImageString((String) object);
+        }
 
         final Optional<HostedType> optionalType = getMetaAccess().optionalLookupJavaType(object.getClass());
         if (!optionalType.isPresent() || !optionalType.get().isInstantiated()) {
@@ -355,8 +399,9 @@ public final class NativeImageHeap {
         final HostedType type = optionalType.get();
         final DynamicHub hub = type.getHub();
         final ObjectInfo info;
+        final ChildCollector children = new ChildCollector(indexInWave);
 
-        boolean immutable = immutableFromParent || isKnownImmutable(object);
+        boolean immutable = data.immutableFromParent || isKnownImmutable(object);
         boolean written = false;
         boolean references = false;
         boolean relocatable = false; /* always false when !spawnIsolates() */
@@ -377,11 +422,7 @@ public final class NativeImageHeap {
             final long size;
 
             if (HybridLayout.isHybrid(clazz)) {
-                HybridLayout<?> hybridLayout = hybridLayouts.get(clazz);
-                if (hybridLayout == null) {
-                    hybridLayout = new HybridLayout<>(clazz, layout);
-                    hybridLayouts.put(clazz, hybridLayout);
-                }
+                HybridLayout<?> hybridLayout = hybridLayouts.computeIfAbsent(clazz, c -> new HybridLayout<>(clazz, layout));
 
                 /*
                  * The hybrid array and bit set are written within the hybrid object. So they may
@@ -407,8 +448,8 @@ public final class NativeImageHeap {
                 size = LayoutEncoding.getInstanceSize(hub.getLayoutEncoding()).rawValue();
             }
 
-            info = addToImageHeap(object, clazz, size, identityHashCode, reason);
-            recursiveAddObject(hub, false, info);
+            info = new ObjectInfo(object, size, clazz, identityHashCode, reason);
+            children.add(hub, false, info);
             // Recursively add all the fields of the object.
             final boolean fieldsAreImmutable = object instanceof String;
             for (HostedField field : clazz.getInstanceFields(true)) {
@@ -422,7 +463,7 @@ public final class NativeImageHeap {
                             if (spawnIsolates()) {
                                 fieldRelocatable = fieldValue instanceof RelocatedPointer;
                             }
-                            recursiveAddObject(fieldValue, fieldsAreImmutable, info);
+                            children.add(fieldValue, fieldsAreImmutable, info);
                             references = true;
                         }
                     }
@@ -437,16 +478,16 @@ public final class NativeImageHeap {
 
             }
             if (hybridArray instanceof Object[]) {
-                relocatable = addArrayElements((Object[]) hybridArray, relocatable, info);
+                relocatable = addArrayElements((Object[]) hybridArray, relocatable, info, children);
                 references = true;
             }
         } else if (type.isArray()) {
             HostedArrayClass clazz = (HostedArrayClass) type;
             final long size = layout.getArraySize(type.getComponentType().getStorageKind(), Array.getLength(object));
-            info = addToImageHeap(object, clazz, size, identityHashCode, reason);
-            recursiveAddObject(hub, false, info);
+            info = new ObjectInfo(object, size, clazz, identityHashCode, reason);
+            children.add(hub, false, info);
             if (object instanceof Object[]) {
-                relocatable = addArrayElements((Object[]) object, false, info);
+                relocatable = addArrayElements((Object[]) object, false, info, children);
                 references = true;
             }
             written = true; /* How to know if any of the array elements are written? */
@@ -454,8 +495,8 @@ public final class NativeImageHeap {
             throw shouldNotReachHere();
         }
 
-        final HeapPartition partition = choosePartition(object, !written || immutable, references, relocatable);
-        info.assignToHeapPartition(partition, layout);
+        infos[indexInWave] = info;
+        partitions[indexInWave] = choosePartition(object, !written || immutable, references, relocatable);
     }
 
     /** Determine if an object in the host heap will be immutable in the native image heap. */
@@ -469,14 +510,6 @@ public final class NativeImageHeap {
         return UniverseBuilder.isKnownImmutableType(obj.getClass()) || knownImmutableObjects.contains(obj);
     }
 
-    /** Add an object to the model of the native image heap. */
-    private ObjectInfo addToImageHeap(Object object, HostedClass clazz, long size, int identityHashCode, Object reason) {
-        ObjectInfo info = new ObjectInfo(object, size, clazz, identityHashCode, reason);
-        assert !objects.containsKey(object);
-        objects.put(object, info);
-        return info;
-    }
-
     private HeapPartition choosePartition(Object object, boolean immutable, boolean references, boolean relocatable) {
         if (SubstrateOptions.UseOnlyWritableBootImageHeap.getValue()) {
             assert !spawnIsolates();
@@ -498,32 +531,100 @@ public final class NativeImageHeap {
     }
 
     // Deep-copy an array from the host heap to the model of the native image heap.
-    private boolean addArrayElements(Object[] array, boolean otherFieldsRelocatable, Object reason) {
+    private boolean addArrayElements(Object[] array, boolean otherFieldsRelocatable, ObjectInfo reason, ChildCollector children) {
         boolean relocatable = otherFieldsRelocatable;
         for (Object element : array) {
             Object value = aUniverse.replaceObject(element);
             if (spawnIsolates()) {
                 relocatable = relocatable || value instanceof RelocatedPointer;
             }
-            recursiveAddObject(value, false, reason);
+            children.add(value, false, reason);
         }
         return relocatable;
     }
 
-    /*
-     * Break recursion using a worklist, to support large object graphs that would lead to a stack
-     * overflow.
+    /**
+     * Collects the objects referenced by one object of a wave into {@link #discoveredObjects}. An
+     * object that is referenced from several objects of the same wave is added on behalf of the
+     * first one in wave order, so that the layout does not depend on the scheduling of the scan.
      */
-    private void recursiveAddObject(Object original, boolean immutableFromParent, Object reason) {
-        if (original != null) {
-            addObjectWorklist.push(new AddObjectData(original, immutableFromParent, reason));
+    private final class ChildCollector {
+        private final long indexInWave;
+        private int childCount;
+
+        ChildCollector(int indexInWave) {
+            this.indexInWave = indexInWave;
+        }
+
+        void add(Object original, boolean immutableFromParent, ObjectInfo reason) {
+            if (original == null || original instanceof WordBase || objects.containsKey(original)) {
+                return;
+            }
+            long order = (indexInWave << 32) | childCount++;
+            discoveredObjects.merge(new IdentityKey(original), new AddObjectData(original, immutableFromParent, reason, order), AddObjectData::first);
         }
     }
 
+    /**
+     * Scans and lays out all objects added since the last invocation. Objects are processed in
+     * waves: all objects of a wave are scanned in parallel, then they are assigned to their
+     * partitions in the deterministic wave order, and the objects discovered by the scan form the
+     * next wave. This breaks the recursion of the object graph and supports large object graphs
+     * that would lead to a stack overflow.
+     */
     private void processAddObjectWorklist() {
-        while (!addObjectWorklist.isEmpty()) {
-            AddObjectData data = addObjectWorklist.pop();
-            addObject(data.original, data.immutableFromParent, data.reason);
+        AddObjectData[] wave = rootsWave();
+        while (wave.length > 0) {
+            ObjectInfo[] infos = new ObjectInfo[wave.length];
+            HeapPartition[] partitions = new HeapPartition[wave.length];
+
+            long scanStart = System.nanoTime();
+            executor.init();
+            for (int start = 0; start < wave.length; start += SCAN_CHUNK_SIZE) {
+                int from = start;
+                int to = Math.min(start + SCAN_CHUNK_SIZE, wave.length);
+                AddObjectData[] currentWave = wave;
+                executor.execute(new HeapTask(() -> {
+                    for (int i = from; i < to; i++) {
+                        scanObject(currentWave[i], i, infos, partitions);
+                    }
+                }));
+            }
+            runExecutor();
+            long layoutStart = System.nanoTime();
+            scanNanos += layoutStart - scanStart;
+
+            for (int i = 0; i < wave.length; i++) {
+                assert !objects.containsKey(wave[i].original);
+                objects.put(wave[i].original, infos[i]);
+                infos[i].assignToHeapPartition(partitions[i], layout);
+            }
+            wave = discoveredObjects.values().stream()
+                            .filter(data -> !objects.containsKey(data.original))
+                            .sorted(Comparator.comparingLong(data -> data.order))
+                            .toArray(AddObjectData[]::new);
+            discoveredObjects.clear();
+            layoutNanos += System.nanoTime() - layoutStart;
+        }
+    }
+
+    /** The objects passed to {@link #addObject}, without duplicates, in the order of addition. */
+    private AddObjectData[] rootsWave() {
+        Set<Object> roots = Collections.newSetFromMap(new IdentityHashMap<>());
+        AddObjectData[] wave = addObjectWorklist.stream()
+                        .filter(data -> !objects.containsKey(data.original) && roots.add(data.original))
+                        .toArray(AddObjectData[]::new);
+        addObjectWorklist.clear();
+        return wave;
+    }
+
+    private void runExecutor() {
+        try {
+            executor.start();
+            executor.complete();
+            executor.shutdown();
+        } catch (InterruptedException ie) {
+            throw new InterruptImageBuilding();
         }
     }
 
@@ -644,15 +745,18 @@ public final class NativeImageHeap {
     private void addDirectRelocationWithoutAddend(RelocatableBuffer buffer, int index, int size, Object target) {
         assert !spawnIsolates() || index >= readOnlyRelocatable.offsetInSection() && index < readOnlyRelocatable.offsetInSection(readOnlyRelocatable.getSize());
         buffer.addDirectRelocationWithoutAddend(index, size, target);
-        if (firstRelocatablePointerOffsetInSection == -1) {
-            firstRelocatablePointerOffsetInSection = index;
-        }
+        recordRelocatablePointer(index);
     }
 
     private void addDirectRelocationWithAddend(RelocatableBuffer buffer, int index, DynamicHub target, long objectHeaderBits) {
         assert !spawnIsolates() || index >= readOnlyRelocatable.offsetInSection() && index < readOnlyRelocatable.offsetInSection(readOnlyRelocatable.getSize());
         buffer.addDirectRelocationWithAddend(index, referenceSize(), objectHeaderBits, target);
-        if (firstRelocatablePointerOffsetInSection == -1) {
+        recordRelocatablePointer(index);
+    }
+
+    /** Objects are written in parallel, so remember the lowest offset to be deterministic. */
+    private synchronized void recordRelocatablePointer(int index) {
+        if (firstRelocatablePointerOffsetInSection == -1 || index < firstRelocatablePointerOffsetInSection) {
             firstRelocatablePointerOffsetInSection = index;
         }
     }
@@ -894,11 +998,12 @@ public final class NativeImageHeap {
         return metaAccess;
     }
 
-    public NativeImageHeap(AnalysisUniverse aUniverse, HostedUniverse universe, HostedMetaAccess metaAccess) {
+    public NativeImageHeap(AnalysisUniverse aUniverse, HostedUniverse universe, HostedMetaAccess metaAccess, ForkJoinPool executorService) {
         this.aUniverse = aUniverse;
         this.universe = universe;
         this.metaAccess = metaAccess;
         this.layout = ConfigurationValues.getObjectLayout();
+        this.executor = new CompletionExecutor(universe.getBigBang(), executorService);
 
         readOnlyPrimitive = HeapPartition.factory("readOnlyPrimitive", this, false);
         readOnlyReference = HeapPartition.factory("readOnlyReference", this, false);
@@ -922,6 +1027,17 @@ public final class NativeImageHeap {
     private final AnalysisUniverse aUniverse;
     private final HostedMetaAccess metaAccess;
     private final ObjectLayout layout;
+    private final CompletionExecutor executor;
+
+    /** The number of objects scanned by one task of {@link #processAddObjectWorklist()}. */
+    private static final int SCAN_CHUNK_SIZE = 256;
+    /** The number of objects written by one task of {@link #writeObjects}. */
+    private static final int WRITE_CHUNK_SIZE = 1024;
+
+    /** Time spent in the phases of building the native image heap, for the heap histogram. */
+    private long scanNanos;
+    private long layoutNanos;
+    private long writeNanos;
 
     /**
      * A Map from objects at construction-time to native image objects.
@@ -931,20 +1047,26 @@ public final class NativeImageHeap {
     protected final Map<Object, ObjectInfo> objects = new IdentityHashMap<>();
 
     /** Objects that must not be written to the native image heap. */
-    private final Set<Object> blacklist = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Object> blacklist = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
 
     /** A map from hosted classes to classes that have hybrid layouts in the native image heap. */
-    private final Map<HostedClass, HybridLayout<?>> hybridLayouts = new HashMap<>();
+    private final Map<HostedClass, HybridLayout<?>> hybridLayouts = new ConcurrentHashMap<>();
 
     /** A Map to build what will be the String intern map in the native image heap. */
-    private final Map<String, String> internedStrings = new HashMap<>();
+    private final Map<String, String> internedStrings = new ConcurrentHashMap<>();
 
     // Phase variables.
     private final Phase addObjectsPhase = Phase.factory();
     private final Phase internStringsPhase = Phase.factory();
 
-    /** A queue of objects that need to be added to the native image heap, to avoid recursion. */
-    private final Deque<AddObjectData> addObjectWorklist = new ArrayDeque<>();
+    /** The objects passed to {@link #addObject} that have not been scanned yet. */
+    private final List<AddObjectData> addObjectWorklist = new ArrayList<>();
+
+    /**
+     * The objects discovered by the scan of the current wave, i.e., the next wave of
+     * {@link #processAddObjectWorklist()}. Filled concurrently by the scan tasks.
+     */
+    private final ConcurrentHashMap<IdentityKey, AddObjectData> discoveredObjects = new ConcurrentHashMap<>();
 
     /** Objects that are known to be immutable in the native image heap. */
     private final Set<Object> knownImmutableObjects = Collections.newSetFromMap(new IdentityHashMap<>());
@@ -975,16 +1097,61 @@ public final class NativeImageHeap {
 
     static class AddObjectData {
 
-        AddObjectData(Object original, boolean immutableFromParent, Object reason) {
+        AddObjectData(Object original, boolean immutableFromParent, Object reason, long order) {
             super();
             this.original = original;
             this.immutableFromParent = immutableFromParent;
             this.reason = reason;
+            this.order = order;
         }
 
         final Object original;
         final boolean immutableFromParent;
         final Object reason;
+        /** The position of this object in its wave. */
+        final long order;
+
+        static AddObjectData first(AddObjectData a, AddObjectData b) {
+            return a.order <= b.order ? a : b;
+        }
+    }
+
+    /** A key of {@link #discoveredObjects} that compares objects by identity. */
+    static final class IdentityKey {
+        final Object object;
+
+        IdentityKey(Object object) {
+            this.object = object;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof IdentityKey && ((IdentityKey) other).object == object;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(object);
+        }
+    }
+
+    /** A task of the parallel heap scan or heap write that does not need a debug context. */
+    static final class HeapTask implements DebugContextRunnable {
+        private final Runnable action;
+
+        HeapTask(Runnable action) {
+            this.action = action;
+        }
+
+        @Override
+        public void run(DebugContext debug) {
+            action.run();
+        }
+
+        @Override
+        public DebugContext getDebug(OptionValues options, List<DebugHandlersFactory> factories) {
+            return DebugContext.DISABLED;
+        }
     }
 
     public static final class ObjectInfo {
@@ -84,8 +84,8 @@ public final class RelocatableBuffer {
         return getMap().entrySet();
     }
 
-    /** Raw map access. */
-    private RelocatableBuffer.Info putInfo(final int key, final RelocatableBuffer.Info value) {
+    /** Raw map access. Synchronized because the native image heap is written in parallel. */
+    private synchronized RelocatableBuffer.Info putInfo(final int key, final RelocatableBuffer.Info value) {
         return getMap().put(key, value);
     }
 
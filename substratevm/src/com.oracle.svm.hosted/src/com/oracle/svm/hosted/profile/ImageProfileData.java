@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted.profile;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionType;
+
+import com.oracle.svm.core.ImageProfiles;
+import com.oracle.svm.core.option.HostedOptionKey;
+import com.oracle.svm.core.util.UserError;
+import com.oracle.svm.core.util.UserError.UserException;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Profiling data recorded by a previous run of the application that is used to guide the
+ * compilation of the image that is currently being built. {@link ImageProfileWriter} produces such
+ * a profile from a run of the application on HotSpot. {@link ImageProfiles} implementations of an
+ * instrumented image can return the same format from {@link ImageProfiles#dumpProfiles()}.
+ *
+ * The profile is a text file with one record per line. Empty lines and lines starting with
+ * {@code #} are ignored. The fields of a record are separated by tabs:
+ *
+ * <pre>
+ * method   branch    bci   takenProbability
+ * method   switch    bci   probability,probability,...,defaultProbability
+ * method   count     bci   executionCount
+ * method   receiver  bci   typeName=probability,typeName=probability,...
+ * </pre>
+ *
+ * The method is formatted as {@code method.format("%H.%n(%P)")}. Branch probabilities are about
+ * the conditional bytecode at the given bci, i.e., before the bytecode parser canonicalizes the
+ * condition. Execution counts are used both for invocation counts of call sites and for loop
+ * back-edge counts. Type names are formatted as {@code type.toJavaName(true)}.
+ */
+public final class ImageProfileData {
+
+    public static class Options {
+        @Option(help = "File with profiles, e.g., written by com.oracle.svm.hosted.profile.ImageProfileWriter, that are used to guide inlining and block layout", type = OptionType.User)//
+        public static final HostedOptionKey<String> ProfileGuidedOptimizationInput = new HostedOptionKey<>("");
+
+        @Option(help = "Minimum profiled execution count of a call site so that its callee is inlined regardless of being trivial, or -1 to disable.")//
+        public static final HostedOptionKey<Integer> ProfileGuidedInliningMinExecutionCount = new HostedOptionKey<>(10000);
+
+        @Option(help = "Maximum number of nodes in a callee so that it is inlined into a hot call site.")//
+        public static final HostedOptionKey<Integer> ProfileGuidedInliningMaxCalleeNodes = new HostedOptionKey<>(200);
+
+        @Option(help = "Maximum number of nodes in a caller so that hot call sites are still inlined into it.")//
+        public static final HostedOptionKey<Integer> ProfileGuidedInliningMaxCallerNodes = new HostedOptionKey<>(5000);
+    }
+
+    /** The profiling data recorded for one bytecode. Missing values are {@code -1} or null. */
+    public static final class BytecodeProfile {
+        double branchTakenProbability = -1;
+        double[] switchProbabilities;
+        int executionCount = -1;
+        String[] receiverTypeNames;
+        double[] receiverProbabilities;
+
+        public double getBranchTakenProbability() {
+            return branchTakenProbability;
+        }
+
+        public double[] getSwitchProbabilities() {
+            return switchProbabilities;
+        }
+
+        public int getExecutionCount() {
+            return executionCount;
+        }
+
+        /**
+         * Returns the recorded probability of the receiver type with the given name, {@code 0} if
+         * receiver types were recorded but not the given one, or {@code -1} if no receiver types
+         * were recorded at all.
+         */
+        public double getReceiverProbability(String typeName) {
+            if (receiverTypeNames == null) {
+                return -1;
+            }
+            for (int i = 0; i < receiverTypeNames.length; i++) {
+                if (receiverTypeNames[i].equals(typeName)) {
+                    return receiverProbabilities[i];
+                }
+            }
+            return 0;
+        }
+    }
+
+    /** The profiling data recorded for one method, sorted by bci. */
+    public static final class MethodProfile {
+        private final int[] bcis;
+        private final BytecodeProfile[] profiles;
+
+        MethodProfile(TreeMap<Integer, BytecodeProfile> entries) {
+            bcis = new int[entries.size()];
+            profiles = new BytecodeProfile[entries.size()];
+            int i = 0;
+            for (Map.Entry<Integer, BytecodeProfile> entry : entries.entrySet()) {
+                bcis[i] = entry.getKey();
+                profiles[i] = entry.getValue();
+                i++;
+            }
+        }
+
+        /** Returns the profile of the bytecode with the given bci, or {@code null}. */
+        public BytecodeProfile lookup(int bci) {
+            int idx = Arrays.binarySearch(bcis, bci);
+            return idx < 0 ? null : profiles[idx];
+        }
+
+        int size() {
+            return bcis.length;
+        }
+
+        int bciAt(int index) {
+            return bcis[index];
+        }
+
+        BytecodeProfile profileAt(int index) {
+            return profiles[index];
+        }
+    }
+
+    private final Map<String, MethodProfile> methods;
+
+    private ImageProfileData(Map<String, MethodProfile> methods) {
+        this.methods = methods;
+    }
+
+    /**
+     * Loads the profile file specified with {@link Options#ProfileGuidedOptimizationInput}, or
+     * returns {@code null} if no profile file was specified.
+     */
+    public static ImageProfileData loadFromOptions() {
+        String fileName = Options.ProfileGuidedOptimizationInput.getValue();
+        if (fileName.isEmpty()) {
+            return null;
+        }
+        try (Reader reader = new FileReader(fileName)) {
+            return parse(reader, fileName);
+        } catch (FileNotFoundException ex) {
+            throw UserError.abort("Profile file " + fileName + " not found.");
+        } catch (IOException ex) {
+            throw UserError.abort("Could not read profile file " + fileName + ": " + ex.getMessage());
+        }
+    }
+
+    public static ImageProfileData parse(Reader reader, String fileName) throws IOException {
+        Map<String, TreeMap<Integer, BytecodeProfile>> entries = new HashMap<>();
+        BufferedReader in = new BufferedReader(reader);
+        int lineNumber = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t");
+            if (fields.length != 4) {
+                throw parseError(fileName, lineNumber, "expected 4 tab-separated fields but found " + fields.length);
+            }
+            int bci = parseInt(fields[2], fileName, lineNumber);
+            if (bci < 0) {
+                throw parseError(fileName, lineNumber, "invalid bci " + bci);
+            }
+            BytecodeProfile profile = entries.computeIfAbsent(fields[0], k -> new TreeMap<>()).computeIfAbsent(bci, k -> new BytecodeProfile());
+            switch (fields[1]) {
+                case "branch":
+                    profile.branchTakenProbability = parseProbability(fields[3], fileName, lineNumber);
+                    break;
+                case "switch":
+                    String[] values = fields[3].split(",");
+                    profile.switchProbabilities = new double[values.length];
+                    for (int i = 0; i < values.length; i++) {
+                        profile.switchProbabilities[i] = parseProbability(values[i], fileName, lineNumber);
+                    }
+                    break;
+                case "count":
+                    profile.executionCount = parseInt(fields[3], fileName, lineNumber);
+                    break;
+                case "receiver":
+                    String[] receivers = fields[3].split(",");
+                    profile.receiverTypeNames = new String[receivers.length];
+                    profile.receiverProbabilities = new double[receivers.length];
+                    for (int i = 0; i < receivers.length; i++) {
+                        int separator = receivers[i].lastIndexOf('=');
+                        if (separator <= 0) {
+                            throw parseError(fileName, lineNumber, "expected typeName=probability but found " + receivers[i]);
+                        }
+                        profile.receiverTypeNames[i] = receivers[i].substring(0, separator);
+                        profile.receiverProbabilities[i] = parseProbability(receivers[i].substring(separator + 1), fileName, lineNumber);
+                    }
+                    break;
+                default:
+                    throw parseError(fileName, lineNumber, "unknown record kind " + fields[1]);
+            }
+        }
+
+        Map<String, MethodProfile> methods = new HashMap<>();
+        for (Map.Entry<String, TreeMap<Integer, BytecodeProfile>> entry : entries.entrySet()) {
+            methods.put(entry.getKey(), new MethodProfile(entry.getValue()));
+        }
+        return new ImageProfileData(methods);
+    }
+
+    /** Returns the profile recorded for the given method, or {@code null}. */
+    public MethodProfile lookup(ResolvedJavaMethod method) {
+        return lookup(method.format("%H.%n(%P)"));
+    }
+
+    /** Returns the profile of the method with the given formatted name, or {@code null}. */
+    public MethodProfile lookup(String methodName) {
+        return methods.get(methodName);
+    }
+
+    private static int parseInt(String value, String fileName, int lineNumber) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw parseError(fileName, lineNumber, "invalid number " + value);
+        }
+    }
+
+    private static double parseProbability(String value, String fileName, int lineNumber) {
+        double result;
+        try {
+            result = Double.parseDouble(value.trim());
+        } catch (NumberFormatException ex) {
+            throw parseError(fileName, lineNumber, "invalid probability " + value);
+        }
+        if (!(result >= 0 && result <= 1)) {
+            throw parseError(fileName, lineNumber, "probability out of range " + value);
+        }
+        return result;
+    }
+
+    private static UserException parseError(String fileName, int lineNumber, String message) {
+        return UserError.abort("Could not parse profile file " + fileName + " at line " + lineNumber + ": " + message);
+    }
+}
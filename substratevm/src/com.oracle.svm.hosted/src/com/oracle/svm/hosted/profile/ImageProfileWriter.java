@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted.profile;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import org.graalvm.compiler.bytecode.BytecodeStream;
+import org.graalvm.compiler.bytecode.Bytecodes;
+
+import jdk.vm.ci.meta.JavaTypeProfile;
+import jdk.vm.ci.meta.JavaTypeProfile.ProfiledType;
+import jdk.vm.ci.meta.MetaAccessProvider;
+import jdk.vm.ci.meta.ProfilingInfo;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+import jdk.vm.ci.runtime.JVMCI;
+
+/**
+ * Writes profiles in the format read by {@link ImageProfileData}.
+ *
+ * Besides writing individual records, this class can dump the profiles that HotSpot collected for
+ * methods while they ran in the interpreter and in tier 1 or 2 code. That is the supported way to
+ * produce a profile for an image: run a representative workload of the application on the JVM that
+ * is used for image building, with this class as the main class:
+ *
+ * <pre>
+ * java -XX:+UnlockExperimentalVMOptions -XX:+EnableJVMCI -XX:-UseJVMCICompiler
+ *     -cp &lt;builder and application class path&gt;
+ *     com.oracle.svm.hosted.profile.ImageProfileWriter
+ *     &lt;profile file&gt; &lt;main class&gt; [arguments...]
+ * </pre>
+ *
+ * After the main method of the application returns, the profiles of all methods of the classes in
+ * the directories and jar files of {@code -Dsvm.profile.classpath}, or of the class path if that
+ * property is not set, are written to the profile file. The file is then passed to the image build
+ * with {@code -H:ProfileGuidedOptimizationInput}.
+ */
+public final class ImageProfileWriter {
+
+    private final PrintWriter out;
+
+    public ImageProfileWriter(Writer out) {
+        this.out = new PrintWriter(out);
+    }
+
+    public void writeBranch(String method, int bci, double takenProbability) {
+        out.print(method + "\tbranch\t" + bci + "\t" + takenProbability + "\n");
+    }
+
+    public void writeSwitch(String method, int bci, double[] probabilities) {
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < probabilities.length; i++) {
+            values.append(i == 0 ? "" : ",").append(probabilities[i]);
+        }
+        out.print(method + "\tswitch\t" + bci + "\t" + values + "\n");
+    }
+
+    public void writeCount(String method, int bci, long executionCount) {
+        out.print(method + "\tcount\t" + bci + "\t" + Math.min(executionCount, Integer.MAX_VALUE) + "\n");
+    }
+
+    public void writeReceivers(String method, int bci, String[] typeNames, double[] probabilities) {
+        assert typeNames.length == probabilities.length && typeNames.length > 0;
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < typeNames.length; i++) {
+            values.append(i == 0 ? "" : ",").append(typeNames[i]).append('=').append(probabilities[i]);
+        }
+        out.print(method + "\treceiver\t" + bci + "\t" + values + "\n");
+    }
+
+    /** Writes the profile that HotSpot collected for the given method, if any. */
+    public void writeHotSpotProfile(ResolvedJavaMethod method) {
+        byte[] code = method.getCode();
+        if (code == null) {
+            return;
+        }
+        ProfilingInfo info = method.getProfilingInfo();
+        String name = method.format("%H.%n(%P)");
+        BytecodeStream stream = new BytecodeStream(code);
+        while (stream.currentBC() != Bytecodes.END) {
+            int bci = stream.currentBCI();
+            int opcode = stream.currentBC();
+            if (Bytecodes.isIfBytecode(opcode)) {
+                double probability = info.getBranchTakenProbability(bci);
+                if (probability >= 0 && probability <= 1) {
+                    writeBranch(name, bci, probability);
+                }
+            } else if (opcode == Bytecodes.TABLESWITCH || opcode == Bytecodes.LOOKUPSWITCH) {
+                double[] probabilities = info.getSwitchProbabilities(bci);
+                if (probabilities != null) {
+                    writeSwitch(name, bci, probabilities);
+                }
+            } else if (Bytecodes.isInvoke(opcode)) {
+                int count = info.getExecutionCount(bci);
+                if (count >= 0) {
+                    writeCount(name, bci, count);
+                }
+                JavaTypeProfile typeProfile = opcode == Bytecodes.INVOKEVIRTUAL || opcode == Bytecodes.INVOKEINTERFACE ? info.getTypeProfile(bci) : null;
+                if (typeProfile != null && typeProfile.getTypes().length > 0) {
+                    ProfiledType[] types = typeProfile.getTypes();
+                    String[] typeNames = new String[types.length];
+                    double[] probabilities = new double[types.length];
+                    for (int i = 0; i < types.length; i++) {
+                        typeNames[i] = types[i].getType().toJavaName(true);
+                        probabilities[i] = types[i].getProbability();
+                    }
+                    writeReceivers(name, bci, typeNames, probabilities);
+                }
+            }
+            stream.next();
+        }
+    }
+
+    public void flush() {
+        out.flush();
+    }
+
+    public static void main(String[] args) throws Throwable {
+        if (args.length < 2) {
+            System.err.println("Usage: ImageProfileWriter <profile file> <main class> [arguments...]");
+            System.exit(1);
+        }
+        Class<?> mainClass = Class.forName(args[1]);
+        Method main = mainClass.getMethod("main", String[].class);
+        main.invoke(null, (Object) Arrays.copyOfRange(args, 2, args.length));
+
+        String classPath = System.getProperty("svm.profile.classpath", System.getProperty("java.class.path"));
+        MetaAccessProvider metaAccess = JVMCI.getRuntime().getHostJVMCIBackend().getMetaAccess();
+        try (Writer writer = new FileWriter(args[0])) {
+            ImageProfileWriter profileWriter = new ImageProfileWriter(writer);
+            for (String className : listClasses(classPath)) {
+                Class<?> clazz;
+                try {
+                    clazz = Class.forName(className, false, mainClass.getClassLoader());
+                } catch (ClassNotFoundException | LinkageError ex) {
+                    continue;
+                }
+                ResolvedJavaType type = metaAccess.lookupJavaType(clazz);
+                for (ResolvedJavaMethod method : type.getDeclaredMethods()) {
+                    profileWriter.writeHotSpotProfile(method);
+                }
+                for (ResolvedJavaMethod method : type.getDeclaredConstructors()) {
+                    profileWriter.writeHotSpotProfile(method);
+                }
+            }
+            profileWriter.flush();
+        }
+    }
+
+    private static List<String> listClasses(String classPath) throws IOException {
+        List<String> classNames = new ArrayList<>();
+        for (String entry : classPath.split(File.pathSeparator)) {
+            Path path = Paths.get(entry);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.walk(path)) {
+                    files.map(path::relativize).map(Path::toString).filter(f -> f.endsWith(".class")).forEach(f -> classNames.add(toClassName(f.replace(File.separatorChar, '/'))));
+                }
+            } else if (Files.isRegularFile(path) && entry.endsWith(".jar")) {
+                try (JarFile jar = new JarFile(path.toFile())) {
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        String name = entries.nextElement().getName();
+                        if (name.endsWith(".class")) {
+                            classNames.add(toClassName(name));
+                        }
+                    }
+                }
+            }
+        }
+        return classNames;
+    }
+
+    private static String toClassName(String fileName) {
+        return fileName.substring(0, fileName.length() - ".class".length()).replace('/', '.');
+    }
+}
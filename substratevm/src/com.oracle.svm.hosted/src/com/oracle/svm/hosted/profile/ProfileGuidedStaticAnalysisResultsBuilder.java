@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted.profile;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import com.oracle.graal.pointsto.BigBang;
+import com.oracle.graal.pointsto.meta.AnalysisMethod;
+import com.oracle.graal.pointsto.results.StaticAnalysisResults;
+import com.oracle.graal.pointsto.results.StaticAnalysisResults.BytecodeEntry;
+import com.oracle.graal.pointsto.results.StaticAnalysisResultsBuilder;
+import com.oracle.svm.hosted.meta.HostedUniverse;
+import com.oracle.svm.hosted.profile.ImageProfileData.BytecodeProfile;
+import com.oracle.svm.hosted.profile.ImageProfileData.MethodProfile;
+
+import jdk.vm.ci.meta.JavaMethodProfile;
+import jdk.vm.ci.meta.JavaTypeProfile;
+import jdk.vm.ci.meta.JavaTypeProfile.ProfiledType;
+
+/**
+ * Combines the results of the static analysis with the {@link ImageProfileData profiles} recorded
+ * by an instrumented image. The static analysis determines which receiver types are possible, the
+ * profile determines how likely they are. Branch probabilities and execution counts are only
+ * available from the profile.
+ */
+public class ProfileGuidedStaticAnalysisResultsBuilder extends StaticAnalysisResultsBuilder {
+
+    private final ImageProfileData profileData;
+
+    public ProfileGuidedStaticAnalysisResultsBuilder(BigBang bb, HostedUniverse universe, ImageProfileData profileData) {
+        super(bb, universe);
+        this.profileData = profileData;
+    }
+
+    @Override
+    protected BytecodeEntry createBytecodeEntry(AnalysisMethod method, int bci, JavaTypeProfile typeProfile, JavaMethodProfile methodProfile, JavaTypeProfile invokeResultTypeProfile) {
+        JavaTypeProfile profiledTypeProfile = typeProfile;
+        MethodProfile methodData = profileData.lookup(method);
+        if (methodData != null && typeProfile != null) {
+            BytecodeProfile bytecodeData = methodData.lookup(bci);
+            if (bytecodeData != null) {
+                profiledTypeProfile = applyReceiverProbabilities(typeProfile, bytecodeData);
+            }
+        }
+        return super.createBytecodeEntry(method, bci, profiledTypeProfile, methodProfile, invokeResultTypeProfile);
+    }
+
+    /**
+     * Replaces the uniform probabilities of the statically computed type profile with the recorded
+     * ones. Types that were never recorded remain in the profile, because the static analysis
+     * proved that they are possible, but with probability 0.
+     */
+    private static JavaTypeProfile applyReceiverProbabilities(JavaTypeProfile typeProfile, BytecodeProfile bytecodeData) {
+        ProfiledType[] types = typeProfile.getTypes();
+        double[] probabilities = new double[types.length];
+        double sum = 0;
+        for (int i = 0; i < types.length; i++) {
+            probabilities[i] = bytecodeData.getReceiverProbability(types[i].getType().toJavaName(true));
+            if (probabilities[i] < 0) {
+                /* No receiver types were recorded for this bytecode. */
+                return typeProfile;
+            }
+            sum += probabilities[i];
+        }
+        if (sum == 0) {
+            /* The profile does not match the static analysis results, keep the static profile. */
+            return typeProfile;
+        }
+
+        ProfiledType[] profiledTypes = new ProfiledType[types.length];
+        for (int i = 0; i < types.length; i++) {
+            profiledTypes[i] = new ProfiledType(types[i].getType(), probabilities[i] / sum);
+        }
+        Arrays.sort(profiledTypes, Comparator.comparingDouble(ProfiledType::getProbability).reversed());
+        return new JavaTypeProfile(typeProfile.getNullSeen(), 0, profiledTypes);
+    }
+
+    @Override
+    protected StaticAnalysisResults createStaticAnalysisResults(AnalysisMethod method, JavaTypeProfile[] parameterTypeProfiles, JavaTypeProfile resultTypeProfile, BytecodeEntry first) {
+        MethodProfile methodData = profileData.lookup(method);
+        if (methodData == null || method.getCode() == null) {
+            return super.createStaticAnalysisResults(method, parameterTypeProfiles, resultTypeProfile, first);
+        }
+        return new ProfiledStaticAnalysisResults(method.getCodeSize(), parameterTypeProfiles, resultTypeProfile, first, method.getCode(), methodData);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted.profile;
+
+import java.util.Arrays;
+
+import org.graalvm.compiler.bytecode.BytecodeLookupSwitch;
+import org.graalvm.compiler.bytecode.BytecodeStream;
+import org.graalvm.compiler.bytecode.BytecodeSwitch;
+import org.graalvm.compiler.bytecode.BytecodeTableSwitch;
+import org.graalvm.compiler.bytecode.Bytecodes;
+
+import com.oracle.graal.pointsto.results.StaticAnalysisResults;
+import com.oracle.svm.hosted.profile.ImageProfileData.BytecodeProfile;
+import com.oracle.svm.hosted.profile.ImageProfileData.MethodProfile;
+
+import jdk.vm.ci.meta.JavaTypeProfile;
+
+/**
+ * Static analysis results that additionally provide the branch probabilities and execution counts
+ * recorded by an instrumented image. Recorded data that does not match the bytecode of the method,
+ * e.g., because the profile was recorded with a different version of the code, is dropped.
+ */
+public class ProfiledStaticAnalysisResults extends StaticAnalysisResults {
+
+    private final int[] bcis;
+    private final double[] branchTakenProbabilities;
+    private final double[][] switchProbabilities;
+    private final int[] executionCounts;
+
+    public ProfiledStaticAnalysisResults(int codeSize, JavaTypeProfile[] parameterTypeProfiles, JavaTypeProfile resultTypeProfile, BytecodeEntry first, byte[] code,
+                    MethodProfile methodData) {
+        super(codeSize, parameterTypeProfiles, resultTypeProfile, first);
+
+        int[] validBcis = new int[methodData.size()];
+        double[] validBranchTakenProbabilities = new double[methodData.size()];
+        double[][] validSwitchProbabilities = new double[methodData.size()][];
+        int[] validExecutionCounts = new int[methodData.size()];
+        int count = 0;
+        BytecodeStream stream = new BytecodeStream(code);
+        for (int i = 0; i < methodData.size(); i++) {
+            int bci = methodData.bciAt(i);
+            if (bci >= code.length) {
+                continue;
+            }
+            BytecodeProfile profile = methodData.profileAt(i);
+            int opcode = code[bci] & 0xff;
+            double branchTakenProbability = Bytecodes.isIfBytecode(opcode) ? profile.getBranchTakenProbability() : -1;
+            double[] switchProbability = null;
+            if (profile.getSwitchProbabilities() != null && (opcode == Bytecodes.TABLESWITCH || opcode == Bytecodes.LOOKUPSWITCH)) {
+                BytecodeSwitch bs = opcode == Bytecodes.TABLESWITCH ? new BytecodeTableSwitch(stream, bci) : new BytecodeLookupSwitch(stream, bci);
+                if (profile.getSwitchProbabilities().length == bs.numberOfCases() + 1) {
+                    switchProbability = profile.getSwitchProbabilities();
+                }
+            }
+            if (branchTakenProbability >= 0 || switchProbability != null || profile.getExecutionCount() >= 0) {
+                validBcis[count] = bci;
+                validBranchTakenProbabilities[count] = branchTakenProbability;
+                validSwitchProbabilities[count] = switchProbability;
+                validExecutionCounts[count] = profile.getExecutionCount();
+                count++;
+            }
+        }
+        this.bcis = Arrays.copyOf(validBcis, count);
+        this.branchTakenProbabilities = Arrays.copyOf(validBranchTakenProbabilities, count);
+        this.switchProbabilities = Arrays.copyOf(validSwitchProbabilities, count);
+        this.executionCounts = Arrays.copyOf(validExecutionCounts, count);
+    }
+
+    @Override
+    public double getBranchTakenProbability(int bci) {
+        int idx = Arrays.binarySearch(bcis, bci);
+        return idx < 0 ? -1 : branchTakenProbabilities[idx];
+    }
+
+    @Override
+    public double[] getSwitchProbabilities(int bci) {
+        int idx = Arrays.binarySearch(bcis, bci);
+        return idx < 0 || switchProbabilities[idx] == null ? null : switchProbabilities[idx].clone();
+    }
+
+    @Override
+    public int getExecutionCount(int bci) {
+        int idx = Arrays.binarySearch(bcis, bci);
+        return idx < 0 ? -1 : executionCounts[idx];
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2019, 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sun.management.ThreadMXBean;
+
+public class ThreadAllocatedBytesTest {
+
+    private static final long MB = 1024L * 1024L;
+
+    static volatile Object sink;
+
+    private static long currentThreadAllocatedBytes() {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Test
+    public void testThreadAllocatedBytes() {
+        long before = currentThreadAllocatedBytes();
+        for (int i = 0; i < 1000; i++) {
+            sink = new Object[16];
+        }
+        long afterSmall = currentThreadAllocatedBytes();
+        Assert.assertTrue("small arrays are counted", afterSmall - before >= 1000 * 16 * 4);
+
+        /* Large arrays are allocated in unaligned chunks. */
+        sink = new byte[(int) (4 * MB)];
+        long afterLarge = currentThreadAllocatedBytes();
+        Assert.assertTrue("large array is counted", afterLarge - afterSmall >= 4 * MB);
+    }
+
+    @Test
+    public void testOtherThreadsAreNotCounted() throws InterruptedException {
+        long before = currentThreadAllocatedBytes();
+        Thread allocator = new Thread(() -> {
+            for (int i = 0; i < 16; i++) {
+                sink = new byte[(int) MB];
+            }
+        });
+        allocator.start();
+        allocator.join();
+        long after = currentThreadAllocatedBytes();
+        Assert.assertTrue("allocation of another thread is not counted", after - before < 16 * MB);
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -30,7 +30,9 @@ import static org.graalvm.compiler.java.BytecodeParserOptions.InlineDuringParsin
 import static org.graalvm.compiler.nodes.graphbuilderconf.InlineInvokePlugin.InlineInfo.createStandardInlineInfo;
 
 import java.lang.reflect.Executable;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
@@ -74,6 +76,7 @@ import org.graalvm.compiler.nodes.spi.Replacements;
 import org.graalvm.compiler.options.Option;
 import org.graalvm.compiler.options.OptionKey;
 import org.graalvm.compiler.phases.util.Providers;
+import org.graalvm.compiler.serviceprovider.GraalServices;
 import org.graalvm.compiler.truffle.compiler.PartialEvaluator;
 import org.graalvm.compiler.truffle.compiler.SharedTruffleCompilerOptions;
 import org.graalvm.compiler.truffle.compiler.nodes.asserts.NeverPartOfCompilationNode;
@@ -93,14 +96,17 @@ import com.oracle.svm.core.annotate.Alias;
 import com.oracle.svm.core.annotate.NeverInline;
 import com.oracle.svm.core.annotate.RecomputeFieldValue;
 import com.oracle.svm.core.annotate.RecomputeFieldValue.Kind;
+import com.oracle.svm.core.annotate.Substitute;
 import com.oracle.svm.core.annotate.TargetClass;
 import com.oracle.svm.core.deopt.Deoptimizer;
 import com.oracle.svm.core.heap.Heap;
 import com.oracle.svm.core.jdk.FilesFeature;
 import com.oracle.svm.core.jdk.FilesSupport;
+import com.oracle.svm.core.jdk.Package_jdk_internal_reflect;
 import com.oracle.svm.core.option.HostedOptionKey;
 import com.oracle.svm.core.option.HostedOptionValues;
 import com.oracle.svm.core.option.SubstrateOptionsParser;
+import com.oracle.svm.core.snippets.KnownIntrinsics;
 import com.oracle.svm.core.stack.JavaStackWalker;
 import com.oracle.svm.core.util.UserError;
 import com.oracle.svm.core.util.VMError;
@@ -181,6 +187,7 @@ public final class TruffleFeature implements com.oracle.svm.core.graal.GraalFeat
     private final Set<ResolvedJavaMethod> warnMethods;
     private final Set<GraalFeature.CallTreeNode> warnViolations;
     private final Set<GraalFeature.CallTreeNode> neverPartOfCompilationViolations;
+    private final Set<ResolvedJavaType> reflectionAccessorTypes;
 
     public TruffleFeature() {
         blacklistMethods = new HashSet<>();
@@ -188,6 +195,7 @@ public final class TruffleFeature implements com.oracle.svm.core.graal.GraalFeat
         warnMethods = new HashSet<>();
         warnViolations = new TreeSet<>(TruffleFeature::blacklistViolationComparator);
         neverPartOfCompilationViolations = new TreeSet<>(TruffleFeature::blacklistViolationComparator);
+        reflectionAccessorTypes = new HashSet<>();
     }
 
     public static TruffleFeature getSingleton() {
@@ -403,6 +411,7 @@ public final class TruffleFeature implements com.oracle.svm.core.graal.GraalFeat
             }
 
             initializeMethodBlacklist(config.getMetaAccess());
+            initializeReflectionAccessorTypes(config.getMetaAccess());
 
             /*
              * Stack frames that are visited by Truffle-level stack walking must have full frame
@@ -519,6 +528,13 @@ public final class TruffleFeature implements com.oracle.svm.core.graal.GraalFeat
             blacklistViolations.add(new GraalFeature.CallTreeNode(calleeNode.getTargetMethod(), calleeNode.getTargetMethod(), calleeNode.getParent(), calleeNode.getLevel(),
                             calleeNode.getSourceReference()));
             return false;
+        } else if (calleeNode != null && calleeNode.getParent() != null && isReflectionAccessor(calleeNode.getParent().getImplementationMethod())) {
+            /*
+             * Host methods invoked through their direct invocation stub, i.e., the accessor
+             * generated for reflection, are inlined only up to the stub. The host method itself
+             * remains a direct call.
+             */
+            return false;
         } else if (isBlacklisted(implementationMethod)) {
             if (calleeNode != null) {
                 blacklistViolations.add(calleeNode);
@@ -546,6 +562,26 @@ public final class TruffleFeature implements com.oracle.svm.core.graal.GraalFeat
         return blacklistMethods.contains(method);
     }
 
+    private boolean isReflectionAccessor(ResolvedJavaMethod method) {
+        for (ResolvedJavaType accessorType : reflectionAccessorTypes) {
+            if (accessorType.isAssignableFrom(method.getDeclaringClass())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void initializeReflectionAccessorTypes(MetaAccessProvider metaAccess) {
+        String packageName = GraalServices.Java8OrEarlier ? "sun.reflect." : "jdk.internal.reflect.";
+        for (String accessorName : new String[]{"MethodAccessor", "ConstructorAccessor"}) {
+            try {
+                reflectionAccessorTypes.add(metaAccess.lookupJavaType(Class.forName(packageName + accessorName)));
+            } catch (ClassNotFoundException ex) {
+                throw VMError.shouldNotReachHere(ex);
+            }
+        }
+    }
+
     @SuppressWarnings("deprecation")
     private boolean deoptimizeOnException(ResolvedJavaMethod method) {
         if (method == null) {
@@ -766,3 +802,69 @@ final class Target_com_oracle_truffle_polyglot_PolyglotContextImpl {
 @TargetClass(className = "com.oracle.truffle.polyglot.PolyglotContextImpl$SingleContextState", onlyWith = TruffleFeature.IsEnabled.class)
 final class Target_com_oracle_truffle_polyglot_PolyglotContextImpl_SingleContextState {
 }
+
+@TargetClass(className = "com.oracle.truffle.polyglot.HostMethodDesc$SingleMethod$MethodStubImpl", onlyWith = TruffleFeature.IsEnabled.class)
+final class Target_com_oracle_truffle_polyglot_HostMethodDesc_SingleMethod_MethodStubImpl {
+
+    @Alias Method reflectionMethod;
+
+    /**
+     * The accessor generated at image build time for every method registered for reflection is
+     * the direct invocation stub: it unboxes the arguments and calls the method directly.
+     */
+    @Substitute
+    Object makeStub() {
+        return KnownIntrinsics.unsafeCast(reflectionMethod, Target_java_lang_reflect_Method.class).acquireMethodAccessor();
+    }
+
+    /** Not a boundary, so that partial evaluation inlines the constant accessor. */
+    @Substitute
+    Object invokeStub(Object target, Object receiver, Object[] arguments) throws IllegalArgumentException, InvocationTargetException {
+        return KnownIntrinsics.unsafeCast(target, Target_jdk_internal_reflect_MethodAccessor.class).invoke(receiver, arguments);
+    }
+}
+
+@TargetClass(className = "com.oracle.truffle.polyglot.HostMethodDesc$SingleMethod$ConstructorStubImpl", onlyWith = TruffleFeature.IsEnabled.class)
+final class Target_com_oracle_truffle_polyglot_HostMethodDesc_SingleMethod_ConstructorStubImpl {
+
+    @Alias Constructor<?> reflectionConstructor;
+
+    @Substitute
+    Object makeStub() {
+        return KnownIntrinsics.unsafeCast(reflectionConstructor, Target_java_lang_reflect_Constructor.class).acquireConstructorAccessor();
+    }
+
+    @Substitute
+    @SuppressWarnings("unused")
+    Object invokeStub(Object target, Object receiver, Object[] arguments) throws InstantiationException, IllegalArgumentException, InvocationTargetException {
+        return KnownIntrinsics.unsafeCast(target, Target_jdk_internal_reflect_ConstructorAccessor.class).newInstance(arguments);
+    }
+}
+
+@TargetClass(value = Method.class, onlyWith = TruffleFeature.IsEnabled.class)
+final class Target_java_lang_reflect_Method {
+
+    @Alias
+    native Target_jdk_internal_reflect_MethodAccessor acquireMethodAccessor();
+}
+
+@TargetClass(value = Constructor.class, onlyWith = TruffleFeature.IsEnabled.class)
+final class Target_java_lang_reflect_Constructor {
+
+    @Alias
+    native Target_jdk_internal_reflect_ConstructorAccessor acquireConstructorAccessor();
+}
+
+@TargetClass(classNameProvider = Package_jdk_internal_reflect.class, className = "MethodAccessor", onlyWith = TruffleFeature.IsEnabled.class)
+final class Target_jdk_internal_reflect_MethodAccessor {
+
+    @Alias
+    native Object invoke(Object obj, Object[] args) throws IllegalArgumentException, InvocationTargetException;
+}
+
+@TargetClass(classNameProvider = Package_jdk_internal_reflect.class, className = "ConstructorAccessor", onlyWith = TruffleFeature.IsEnabled.class)
+final class Target_jdk_internal_reflect_ConstructorAccessor {
+
+    @Alias
+    native Object newInstance(Object[] args) throws InstantiationException, IllegalArgumentException, InvocationTargetException;
+}
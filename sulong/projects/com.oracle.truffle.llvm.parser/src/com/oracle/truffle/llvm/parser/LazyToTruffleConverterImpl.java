@@ -44,13 +44,17 @@ import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.llvm.parser.LLVMLivenessAnalysis.LLVMLivenessAnalysisResult;
 import com.oracle.truffle.llvm.parser.LLVMPhiManager.Phi;
 import com.oracle.truffle.llvm.parser.metadata.debuginfo.DebugInfoFunctionProcessor;
+import com.oracle.truffle.llvm.parser.model.SymbolImpl;
 import com.oracle.truffle.llvm.parser.model.attributes.Attribute;
 import com.oracle.truffle.llvm.parser.model.attributes.Attribute.Kind;
 import com.oracle.truffle.llvm.parser.model.attributes.Attribute.KnownAttribute;
 import com.oracle.truffle.llvm.parser.model.blocks.InstructionBlock;
 import com.oracle.truffle.llvm.parser.model.functions.FunctionDefinition;
 import com.oracle.truffle.llvm.parser.model.functions.FunctionParameter;
+import com.oracle.truffle.llvm.parser.model.functions.FunctionSymbol;
 import com.oracle.truffle.llvm.parser.model.functions.LazyFunctionParser;
+import com.oracle.truffle.llvm.parser.model.symbols.instructions.FunctionStart;
+import com.oracle.truffle.llvm.parser.model.symbols.instructions.Instruction;
 import com.oracle.truffle.llvm.parser.nodes.LLVMSymbolReadResolver;
 import com.oracle.truffle.llvm.runtime.GetStackSpaceFactory;
 import com.oracle.truffle.llvm.runtime.LLVMFunctionDescriptor.LazyToTruffleConverter;
@@ -61,6 +65,7 @@ import com.oracle.truffle.llvm.runtime.memory.LLVMStack;
 import com.oracle.truffle.llvm.runtime.memory.LLVMStack.UniquesRegion;
 import com.oracle.truffle.llvm.runtime.nodes.api.LLVMExpressionNode;
 import com.oracle.truffle.llvm.runtime.nodes.api.LLVMStatementNode;
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
 import com.oracle.truffle.llvm.runtime.types.PointerType;
 import com.oracle.truffle.llvm.runtime.types.PrimitiveType;
 import com.oracle.truffle.llvm.runtime.types.StructureType;
@@ -72,8 +77,10 @@ public class LazyToTruffleConverterImpl implements LazyToTruffleConverter {
     private final Source source;
     private final LazyFunctionParser parser;
     private final DebugInfoFunctionProcessor diProcessor;
+    private final Object lock;
 
-    private RootCallTarget resolved;
+    private volatile RootCallTarget resolved;
+    private List<String> callees;
 
     LazyToTruffleConverterImpl(LLVMParserRuntime runtime, FunctionDefinition method, Source source, LazyFunctionParser parser,
                     DebugInfoFunctionProcessor diProcessor) {
@@ -83,18 +90,33 @@ public class LazyToTruffleConverterImpl implements LazyToTruffleConverter {
         this.parser = parser;
         this.diProcessor = diProcessor;
         this.resolved = null;
+        // with parallel parsing, functions may also be converted on a background thread, and the
+        // functions of a module share the scanner of the module, so per context only one thread
+        // must do any parsing
+        this.lock = runtime.getContext().getEnv().getOptions().get(SulongEngineOption.PARALLEL_PARSING) ? runtime.getContext().getGlobalScope() : this;
     }
 
     @Override
     public RootCallTarget convert() {
         CompilerAsserts.neverPartOfCompilation();
 
-        synchronized (this) {
-            if (resolved == null) {
-                resolved = generateCallTarget();
+        RootCallTarget result = resolved;
+        if (result == null) {
+            synchronized (lock) {
+                result = resolved;
+                if (result == null) {
+                    result = generateCallTarget();
+                    resolved = result;
+                }
             }
-            return resolved;
         }
+        return result;
+    }
+
+    @Override
+    public List<String> getCallees() {
+        convert();
+        return callees;
     }
 
     private RootCallTarget generateCallTarget() {
@@ -132,6 +154,7 @@ public class LazyToTruffleConverterImpl implements LazyToTruffleConverter {
 
         RootNode rootNode = runtime.getContext().getNodeFactory().createFunctionStartNode(body, frame, method.getName(), method.getSourceName(),
                         method.getParameters().size(), source, location);
+        callees = collectCallees(method);
         method.onAfterParse();
 
         return Truffle.getRuntime().createCallTarget(rootNode);
@@ -143,6 +166,22 @@ public class LazyToTruffleConverterImpl implements LazyToTruffleConverter {
         return method.getSourceFunction().getSourceType();
     }
 
+    private static List<String> collectCallees(FunctionDefinition function) {
+        List<String> result = new ArrayList<>();
+        for (InstructionBlock block : function.getBlocks()) {
+            for (int i = 0; i < block.getInstructionCount(); i++) {
+                Instruction instruction = block.getInstruction(i);
+                if (instruction instanceof FunctionStart) {
+                    SymbolImpl target = ((FunctionStart) instruction).getCallTarget();
+                    if (target instanceof FunctionSymbol && !result.contains(((FunctionSymbol) target).getName())) {
+                        result.add(((FunctionSymbol) target).getName());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
     private static FrameSlot[][] getNullableFrameSlots(FrameSlot[] frameSlots, BitSet[] nullablePerBlock, List<FrameSlot> notNullable) {
         FrameSlot[][] result = new FrameSlot[nullablePerBlock.length][];
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates.
  *
  * All rights reserved.
  *
@@ -36,6 +36,7 @@ import com.oracle.truffle.llvm.parser.metadata.MDString;
 import com.oracle.truffle.llvm.parser.metadata.MetadataValueList;
 import com.oracle.truffle.llvm.parser.metadata.MetadataVisitor;
 import com.oracle.truffle.llvm.runtime.LLVMContext;
+import com.oracle.truffle.llvm.runtime.debug.LLVMSourceContext;
 import com.oracle.truffle.llvm.runtime.debug.scope.LLVMSourceLocation;
 
 final class ImportsProcessor implements MetadataVisitor {
@@ -68,12 +69,16 @@ final class ImportsProcessor implements MetadataVisitor {
             return;
         }
 
-        final LLVMSourceLocation importedScope = context.getSourceContext().getExportedScope(name);
-        if (importedScope != null) {
-            cache.importScope(scopeNode, importedScope);
-        } else {
-            final LLVMSourceLocation exportableScope = cache.buildLocation(scopeNode);
-            context.getSourceContext().exportScope(name, exportableScope);
+        final LLVMSourceContext sourceContext = context.getSourceContext();
+        // modules may be scanned concurrently, so the lookup and the export must be atomic
+        synchronized (sourceContext) {
+            final LLVMSourceLocation importedScope = sourceContext.getExportedScope(name);
+            if (importedScope != null) {
+                cache.importScope(scopeNode, importedScope);
+            } else {
+                final LLVMSourceLocation exportableScope = cache.buildLocation(scopeNode);
+                sourceContext.exportScope(name, exportableScope);
+            }
         }
     }
 
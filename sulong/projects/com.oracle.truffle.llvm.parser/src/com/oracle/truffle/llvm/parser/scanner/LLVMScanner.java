@@ -30,6 +30,7 @@
 
 package com.oracle.truffle.llvm.parser.scanner;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -79,6 +80,8 @@ public final class LLVMScanner {
 
     private long offset;
 
+    private ScanCache.Recorder recorder;
+
     private LLVMScanner(BitStream bitstream, ParserListener listener) {
         this.bitstream = bitstream;
         this.parser = listener;
@@ -157,7 +160,19 @@ public final class LLVMScanner {
             throw new LLVMParserException("Not a valid Bitcode File!");
         }
 
-        scanner.scanToEnd();
+        final ScanCache cache = ScanCache.lookup(context, bitcode);
+        final ByteBuffer cachedEvents = cache != null ? cache.load() : null;
+        if (cachedEvents != null) {
+            scanner.replay(cachedEvents);
+        } else if (cache != null) {
+            scanner.recorder = new ScanCache.Recorder();
+            scanner.scanToEnd();
+            scanner.recorder.end();
+            cache.store(scanner.recorder);
+            scanner.recorder = null;
+        } else {
+            scanner.scanToEnd();
+        }
 
         // the root block does not exist in the LLVM file and is therefore never exited by the
         // scanner
@@ -203,6 +218,7 @@ public final class LLVMScanner {
 
     private void scanToOffset(long to) {
         while (offset < to) {
+            final long idOffset = offset;
             final int id = (int) read(idSize);
 
             switch (id) {
@@ -211,7 +227,7 @@ public final class LLVMScanner {
                     break;
 
                 case BuiltinIDs.ENTER_SUBBLOCK:
-                    enterSubBlock();
+                    enterSubBlock(idOffset);
                     break;
 
                 case BuiltinIDs.DEFINE_ABBREV:
@@ -338,7 +354,7 @@ public final class LLVMScanner {
         abbreviationDefinitions.add(operandScanners);
     }
 
-    private void enterSubBlock() {
+    private void enterSubBlock(long idOffset) {
         final long blockId = read(Primitive.SUBBLOCK_ID);
         final long newIdSize = read(Primitive.SUBBLOCK_ID_SIZE);
         alignInt();
@@ -351,10 +367,16 @@ public final class LLVMScanner {
         } else if (subBlock.parseLazily()) {
             final long endingOffset = offset + (numWords * Integer.SIZE);
             final LazyScanner lazyScanner = new LazyScanner(new HashMap<>(defaultAbbreviations), offset, endingOffset, (int) newIdSize, subBlock);
+            if (recorder != null) {
+                recorder.skip(subBlock, offset, endingOffset, (int) newIdSize);
+            }
             offset = endingOffset;
             parser.skip(subBlock, lazyScanner);
 
         } else {
+            if (recorder != null) {
+                recorder.enter(subBlock, block, idSize, idOffset);
+            }
             final int localAbbreviationDefinitionsOffset = defaultAbbreviations.getOrDefault(block, Collections.emptyList()).size();
             parents.push(new ScannerState(subList(abbreviationDefinitions, localAbbreviationDefinitionsOffset), block, idSize, parser));
             parser = parser.enter(subBlock);
@@ -410,6 +432,9 @@ public final class LLVMScanner {
 
     private void exitBlock() {
         alignInt();
+        if (recorder != null) {
+            recorder.exit(block, offset);
+        }
         parser.exit();
 
         if (parents.isEmpty()) {
@@ -429,10 +454,78 @@ public final class LLVMScanner {
     }
 
     private void passRecordToParser() {
-        parser.record(recordBuffer.getId(), recordBuffer.getOps());
+        final long id = recordBuffer.getId();
+        final long[] ops = recordBuffer.getOps();
+        if (recorder != null) {
+            recorder.record(id, ops);
+        }
+        parser.record(id, ops);
         recordBuffer.invalidate();
     }
 
+    /**
+     * Passes the events recorded by a previous scan of the same bitcode to the parser listeners.
+     * See {@link ScanCache}.
+     */
+    private void replay(ByteBuffer events) {
+        final Block[] blocks = Block.values();
+        final Deque<ParserListener> listeners = new ArrayDeque<>(MAX_BLOCK_DEPTH);
+        while (true) {
+            final byte event = events.get();
+            switch (event) {
+                case ScanCache.EVENT_END:
+                    return;
+
+                case ScanCache.EVENT_ENTER: {
+                    final Block subBlock = blocks[(int) ScanCache.readVarLong(events)];
+                    listeners.push(parser);
+                    parser = parser.enter(subBlock);
+                    break;
+                }
+
+                case ScanCache.EVENT_EXIT:
+                    parser.exit();
+                    parser = listeners.pop();
+                    break;
+
+                case ScanCache.EVENT_RECORD: {
+                    final long id = ScanCache.readVarLong(events);
+                    final long[] args = new long[(int) ScanCache.readVarLong(events)];
+                    for (int i = 0; i < args.length; i++) {
+                        args[i] = ScanCache.readVarLong(events);
+                    }
+                    parser.record(id, args);
+                    break;
+                }
+
+                case ScanCache.EVENT_SKIP: {
+                    final Block subBlock = blocks[(int) ScanCache.readVarLong(events)];
+                    final long startingOffset = ScanCache.readVarLong(events);
+                    final long endingOffset = ScanCache.readVarLong(events);
+                    final int startingIdSize = (int) ScanCache.readVarLong(events);
+                    parser.skip(subBlock, new LazyScanner(new HashMap<>(defaultAbbreviations), startingOffset, endingOffset, startingIdSize, subBlock));
+                    break;
+                }
+
+                case ScanCache.EVENT_BLOCKINFO: {
+                    // scan the block again to restore the default abbreviations
+                    block = blocks[(int) ScanCache.readVarLong(events)];
+                    idSize = (int) ScanCache.readVarLong(events);
+                    offset = ScanCache.readVarLong(events);
+                    final long endingOffset = ScanCache.readVarLong(events);
+                    abbreviationDefinitions.clear();
+                    abbreviationDefinitions.addAll(defaultAbbreviations.getOrDefault(block, Collections.emptyList()));
+                    scanToOffset(endingOffset);
+                    assert parents.isEmpty();
+                    break;
+                }
+
+                default:
+                    throw new LLVMParserException("Invalid event in scan cache: " + event);
+            }
+        }
+    }
+
     private void unabbreviatedRecord() {
         final long recordId = read(Primitive.UNABBREVIATED_RECORD_ID);
         recordBuffer.addOp(recordId);
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.parser.scanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import org.graalvm.polyglot.io.ByteSequence;
+
+import com.oracle.truffle.llvm.runtime.LLVMContext;
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
+
+/**
+ * On-disk cache of the output of the {@link LLVMScanner}, keyed by the SHA-256 hash of the
+ * bitcode.
+ *
+ * A cache file stores the sequence of events the scanner passed to the parser listeners, i.e.,
+ * blocks that were entered and exited and the already decoded operands of every record. Replaying
+ * it rebuilds the same model without decoding the bitstream and its abbreviations. Lazily parsed
+ * blocks are stored as their bit range in the original bitcode, so function bodies are still
+ * parsed on demand. The few BLOCKINFO blocks, which define the abbreviations needed by lazily
+ * parsed blocks, are scanned again from the bitcode during replay.
+ *
+ * The file starts with a fixed size header that allows to validate a file before it is used:
+ *
+ * <pre>
+ * int    magic
+ * int    format version
+ * long   length of the bitcode in bytes
+ * byte[] SHA-256 hash of the bitcode
+ * int    length of the events
+ * int    CRC32 of the events
+ * byte[] events
+ * </pre>
+ *
+ * Errors while reading or writing cache files are ignored, the bitcode is scanned instead.
+ */
+final class ScanCache {
+
+    private static final int MAGIC = 0x534c4243; // 'SLBC'
+
+    /**
+     * Must be incremented whenever the events produced by the scanner change, e.g., if a block is
+     * no longer skipped.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HASH_LENGTH = 32;
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES + HASH_LENGTH + Integer.BYTES + Integer.BYTES;
+
+    static final byte EVENT_END = 0;
+    static final byte EVENT_ENTER = 1;
+    static final byte EVENT_EXIT = 2;
+    static final byte EVENT_RECORD = 3;
+    static final byte EVENT_SKIP = 4;
+    static final byte EVENT_BLOCKINFO = 5;
+
+    private final Path file;
+    private final long bitcodeLength;
+    private final byte[] hash;
+
+    private ScanCache(Path file, long bitcodeLength, byte[] hash) {
+        this.file = file;
+        this.bitcodeLength = bitcodeLength;
+        this.hash = hash;
+    }
+
+    /**
+     * @return the cache entry for {@code bitcode}, or null if caching is disabled
+     */
+    static ScanCache lookup(LLVMContext context, ByteSequence bitcode) {
+        String directory = context.getEnv().getOptions().get(SulongEngineOption.PARSE_CACHE);
+        if (directory.isEmpty()) {
+            return null;
+        }
+        byte[] hash = sha256(bitcode.toByteArray());
+        StringBuilder name = new StringBuilder(HASH_LENGTH * 2 + 5);
+        for (byte b : hash) {
+            name.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        name.append(".scan");
+        return new ScanCache(Paths.get(directory, name.toString()), bitcode.length(), hash);
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the cached events positioned at the first event, or null if there is no valid cache
+     *         file
+     */
+    ByteBuffer load() {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION || buffer.getLong() != bitcodeLength) {
+                return null;
+            }
+            byte[] fileHash = new byte[HASH_LENGTH];
+            buffer.get(fileHash);
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (!Arrays.equals(hash, fileHash) || length != size - HEADER_SIZE) {
+                return null;
+            }
+            ByteBuffer events = buffer.slice();
+            CRC32 crc = new CRC32();
+            crc.update(events.duplicate());
+            return (int) crc.getValue() == checksum ? events : null;
+        } catch (IOException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the cache file. The file is written to a temporary file first and then moved, so
+     * concurrent readers and writers never see a partially written file.
+     */
+    void store(Recorder recorder) {
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            ByteBuffer events = ByteBuffer.wrap(recorder.buffer, 0, recorder.size);
+            CRC32 crc = new CRC32();
+            crc.update(events.duplicate());
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(bitcodeLength).put(hash).putInt(recorder.size).putInt((int) crc.getValue());
+            header.flip();
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while (events.hasRemaining()) {
+                    channel.write(events);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            tmp = null;
+        } catch (IOException | SecurityException | UnsupportedOperationException e) {
+            // the module is scanned again next time
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException | SecurityException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    static long readVarLong(ByteBuffer events) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = events.get();
+            value |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * Collects the events of a scanner. Events inside of BLOCKINFO blocks are not recorded, the
+     * block is replayed by scanning it again.
+     */
+    static final class Recorder {
+
+        private byte[] buffer = new byte[1024];
+        private int size;
+        private boolean inBlockInfo;
+
+        void enter(Block subBlock, Block parentBlock, int parentIdSize, long idOffset) {
+            assert !inBlockInfo;
+            if (subBlock == Block.BLOCKINFO) {
+                inBlockInfo = true;
+                putByte(EVENT_BLOCKINFO);
+                putVarLong(parentBlock.ordinal());
+                putVarLong(parentIdSize);
+                putVarLong(idOffset);
+            } else {
+                putByte(EVENT_ENTER);
+                putVarLong(subBlock.ordinal());
+            }
+        }
+
+        void exit(Block block, long endOffset) {
+            if (block == Block.BLOCKINFO) {
+                assert inBlockInfo;
+                inBlockInfo = false;
+                putVarLong(endOffset);
+            } else {
+                putByte(EVENT_EXIT);
+            }
+        }
+
+        void skip(Block subBlock, long startOffset, long endOffset, int idSize) {
+            putByte(EVENT_SKIP);
+            putVarLong(subBlock.ordinal());
+            putVarLong(startOffset);
+            putVarLong(endOffset);
+            putVarLong(idSize);
+        }
+
+        void record(long id, long[] args) {
+            if (!inBlockInfo) {
+                putByte(EVENT_RECORD);
+                putVarLong(id);
+                putVarLong(args.length);
+                for (long arg : args) {
+                    putVarLong(arg);
+                }
+            }
+        }
+
+        void end() {
+            putByte(EVENT_END);
+        }
+
+        private void putByte(int b) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[size++] = (byte) b;
+        }
+
+        private void putVarLong(long value) {
+            long v = value;
+            while ((v & ~0x7fL) != 0) {
+                putByte((int) ((v & 0x7f) | 0x80));
+                v >>>= 7;
+            }
+            putByte((int) v);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.runtime;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
+
+/**
+ * Background threads used for {@link SulongEngineOption#PARALLEL_PARSING}.
+ *
+ * Bitcode files are scanned on a pool of scanner threads while the loading thread links the
+ * already scanned files in the dynamic linking order. Scanning never takes the lock of the global
+ * scope, so the loading thread may wait for a scanner while holding it. Lazily parsed functions
+ * that are likely to be called soon are converted to Truffle ASTs on a single converter thread.
+ *
+ * All threads are polyglot threads of the context. They terminate when they are idle, and are
+ * joined when the context is finalized. If the context does not allow to create threads, scanning
+ * is done on the calling thread and speculative conversions are dropped.
+ */
+public final class LLVMBackgroundParser {
+
+    private static final long KEEP_ALIVE_MILLIS = 500;
+
+    private final Env env;
+
+    private ThreadPoolExecutor scanners;
+    private ThreadPoolExecutor converter;
+    private boolean threadsAvailable = true;
+    private boolean disposed;
+
+    LLVMBackgroundParser(Env env) {
+        this.env = env;
+    }
+
+    /**
+     * Runs {@code task} on a scanner thread, or on the calling thread if no thread can be created.
+     */
+    public <T> Future<T> scan(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        if (!submit(getScanners(), future)) {
+            future.run();
+        }
+        return future;
+    }
+
+    /**
+     * Runs {@code task} on the converter thread. The task is dropped if no thread can be created.
+     */
+    public void convert(Runnable task) {
+        submit(getConverter(), new FutureTask<>(task, null));
+    }
+
+    private synchronized ThreadPoolExecutor getScanners() {
+        if (scanners == null) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            scanners = createExecutor(threads, "Sulong Bitcode Scanner");
+        }
+        return scanners;
+    }
+
+    private synchronized ThreadPoolExecutor getConverter() {
+        if (converter == null) {
+            converter = createExecutor(1, "Sulong Background Converter");
+        }
+        return converter;
+    }
+
+    private ThreadPoolExecutor createExecutor(int threads, String name) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = env.createThread(r);
+            thread.setName(name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private synchronized boolean submit(ThreadPoolExecutor executor, FutureTask<?> task) {
+        if (!threadsAvailable || disposed) {
+            return false;
+        }
+        try {
+            executor.execute(task);
+            return true;
+        } catch (IllegalStateException | RejectedExecutionException e) {
+            /*
+             * The context does not support additional threads (e.g., because a single-threaded
+             * language is active). The task may already have been queued, but running a FutureTask
+             * twice is harmless.
+             */
+            threadsAvailable = false;
+            return false;
+        }
+    }
+
+    /**
+     * Stops the background threads and waits until they have terminated. The engine requires all
+     * polyglot threads of a context to be completed before the context is disposed, so this is
+     * called when the context is finalized. Afterwards, scanning runs on the calling thread.
+     */
+    void shutdown() {
+        ThreadPoolExecutor[] executors;
+        synchronized (this) {
+            disposed = true;
+            executors = new ThreadPoolExecutor[]{scanners, converter};
+        }
+        for (ThreadPoolExecutor executor : executors) {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        boolean interrupted = false;
+        for (ThreadPoolExecutor executor : executors) {
+            while (executor != null) {
+                try {
+                    if (executor.awaitTermination(KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -143,6 +143,7 @@ public final class LLVMContext {
 
     private boolean initialized;
     private boolean cleanupNecessary;
+    private LLVMBackgroundParser backgroundParser;
 
     private final NodeFactory nodeFactory;
 
@@ -664,6 +665,27 @@ public final class LLVMContext {
         return sourceContext;
     }
 
+    /**
+     * Terminates the threads of the background parser, which must not outlive the finalization of
+     * the context.
+     */
+    public void finalizeContext() {
+        LLVMBackgroundParser parser;
+        synchronized (this) {
+            parser = backgroundParser;
+        }
+        if (parser != null) {
+            parser.shutdown();
+        }
+    }
+
+    public synchronized LLVMBackgroundParser getBackgroundParser() {
+        if (backgroundParser == null) {
+            backgroundParser = new LLVMBackgroundParser(env);
+        }
+        return backgroundParser;
+    }
+
     @TruffleBoundary
     public LLVMGlobal findGlobal(LLVMPointer pointer) {
         return globalsReverseMap.get(pointer);
@@ -29,7 +29,9 @@
  */
 package com.oracle.truffle.llvm.runtime;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.oracle.truffle.api.Assumption;
@@ -199,6 +201,18 @@ public final class LLVMFunctionDescriptor implements LLVMSymbol, LLVMInternalTru
             final LLVMSourceFunctionType sourceType = converter.getSourceType();
             descriptor.setFunction(new LLVMIRFunction(callTarget, sourceType));
         }
+
+        /**
+         * Converts the function without installing it, so that a later {@link #resolve} does not
+         * have to wait for the parser. Used to convert functions speculatively on a background
+         * thread.
+         *
+         * @return the names of the functions that are called directly by this function
+         */
+        public List<String> prepare() {
+            converter.convert();
+            return converter.getCallees();
+        }
     }
 
     public static final class LLVMIRFunction extends ManagedFunction {
@@ -312,6 +326,16 @@ public final class LLVMFunctionDescriptor implements LLVMSymbol, LLVMInternalTru
          * @return the function's source-level type
          */
         LLVMSourceFunctionType getSourceType();
+
+        /**
+         * Get the names of the functions that are called directly by the already converted
+         * function.
+         *
+         * @return the callee names, or an empty list if they are unknown
+         */
+        default List<String> getCallees() {
+            return Collections.emptyList();
+        }
     }
 
     public void resolveIfLazyLLVMIRFunction() {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2018, Oracle and/or its affiliates.
+ * Copyright (c) 2016, 2019, Oracle and/or its affiliates.
  *
  * All rights reserved.
  *
@@ -94,6 +94,14 @@ public final class SulongEngineOption {
     public static final String LAZY_PARSING_NAME = "llvm.lazyParsing";
     public static final String LAZY_PARSING_INFO = "Enable lazy parsing of LLVM bitcode files.";
 
+    public static final OptionKey<Boolean> PARALLEL_PARSING = new OptionKey<>(false);
+    public static final String PARALLEL_PARSING_NAME = "llvm.parallelParsing";
+    public static final String PARALLEL_PARSING_INFO = "Scan dependencies in parallel and, with lazy parsing, convert functions that are likely to be called early on background threads.";
+
+    public static final OptionKey<String> PARSE_CACHE = new OptionKey<>("");
+    public static final String PARSE_CACHE_NAME = "llvm.parseCache";
+    public static final String PARSE_CACHE_INFO = "Directory in which scanned bitcode modules are cached across contexts and processes. Caching is disabled if empty.";
+
     public static final OptionKey<Boolean> LL_DEBUG = new OptionKey<>(false);
     public static final String LL_DEBUG_NAME = "llvm.llDebug";
     public static final String LL_DEBUG_INFO = "Enable IR-level debugging of LLVM bitcode files.";
@@ -120,6 +128,8 @@ public final class SulongEngineOption {
         options.add(OptionDescriptor.newBuilder(PARSE_ONLY, PARSE_ONLY_NAME).help(PARSE_ONLY_INFO).category(OptionCategory.EXPERT).build());
         options.add(OptionDescriptor.newBuilder(ENABLE_LVI, ENABLE_LVI_NAME).help(ENABLE_LVI_INFO).category(OptionCategory.DEBUG).build());
         options.add(OptionDescriptor.newBuilder(LAZY_PARSING, LAZY_PARSING_NAME).help(LAZY_PARSING_INFO).category(OptionCategory.EXPERT).build());
+        options.add(OptionDescriptor.newBuilder(PARALLEL_PARSING, PARALLEL_PARSING_NAME).help(PARALLEL_PARSING_INFO).category(OptionCategory.EXPERT).build());
+        options.add(OptionDescriptor.newBuilder(PARSE_CACHE, PARSE_CACHE_NAME).help(PARSE_CACHE_INFO).category(OptionCategory.EXPERT).build());
         options.add(OptionDescriptor.newBuilder(LL_DEBUG, LL_DEBUG_NAME).help(LL_DEBUG_INFO).category(OptionCategory.DEBUG).build());
         options.add(OptionDescriptor.newBuilder(LL_DEBUG_SOURCES, LL_DEBUG_SOURCES_NAME).help(LL_DEBUG_SOURCES_INFO).category(OptionCategory.DEBUG).build());
         options.add(OptionDescriptor.newBuilder(STACKTRACE_ON_ABORT, STACKTRACE_ON_ABORT_NAME).help(STACKTRACE_ON_ABORT_INFO).category(OptionCategory.DEBUG).build());
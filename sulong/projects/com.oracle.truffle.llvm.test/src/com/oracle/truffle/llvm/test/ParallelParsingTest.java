@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.llvm.runtime.LLVMLanguage;
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
+import com.oracle.truffle.llvm.test.options.TestOptions;
+
+/**
+ * Checks that the background threads of {@link SulongEngineOption#PARALLEL_PARSING} do not prevent
+ * closing the context right after parsing.
+ */
+public class ParallelParsingTest {
+
+    private static final File BITCODE = Paths.get(TestOptions.TEST_SUITE_PATH, "interop", "fitsIn", "O0_MEM2REG.bc").toFile();
+
+    private static Context createContext(boolean lazyParsing) {
+        return Context.newBuilder().option(SulongEngineOption.PARALLEL_PARSING_NAME, String.valueOf(true)).option("llvm.lazyParsing", String.valueOf(lazyParsing)).allowAllAccess(true).build();
+    }
+
+    @Test
+    public void testCloseAfterParsing() throws IOException {
+        try (Context context = createContext(true)) {
+            context.eval(Source.newBuilder(LLVMLanguage.ID, BITCODE).build());
+        }
+    }
+
+    @Test
+    public void testCloseAfterParsingEagerly() throws IOException {
+        try (Context context = createContext(false)) {
+            context.eval(Source.newBuilder(LLVMLanguage.ID, BITCODE).build());
+        }
+    }
+
+    @Test
+    public void testCloseAfterCall() throws IOException {
+        try (Context context = createContext(true)) {
+            Value library = context.eval(Source.newBuilder(LLVMLanguage.ID, BITCODE).build());
+            Assert.assertEquals(1 | 2 | 4 | 8 | 16 | 32, library.getMember("test_fits_in").execute(42).asInt());
+        }
+    }
+}
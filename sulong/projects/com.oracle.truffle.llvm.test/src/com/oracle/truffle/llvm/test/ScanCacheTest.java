@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.oracle.truffle.llvm.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.llvm.runtime.LLVMLanguage;
+import com.oracle.truffle.llvm.runtime.options.SulongEngineOption;
+import com.oracle.truffle.llvm.test.options.TestOptions;
+
+/**
+ * Checks that {@link SulongEngineOption#PARSE_CACHE} replays a scanned module with the same result
+ * as scanning it, and that invalid cache files are ignored and replaced by a new scan.
+ */
+public class ScanCacheTest {
+
+    private static final File BITCODE = Paths.get(TestOptions.TEST_SUITE_PATH, "interop", "fitsIn", "O0_MEM2REG.bc").toFile();
+    private static final int EXPECTED = 1 | 2 | 4 | 8 | 16 | 32;
+
+    /* Offsets into the header of a cache file, see ScanCache. */
+    private static final int VERSION_OFFSET = 4;
+    private static final int EVENTS_OFFSET = 56;
+
+    private static final FileTime OLD = FileTime.fromMillis(0);
+
+    private Path cacheDirectory;
+
+    @Before
+    public void createCacheDirectory() throws IOException {
+        cacheDirectory = Files.createTempDirectory("sulong-scan-cache");
+    }
+
+    @After
+    public void deleteCacheDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private int run() throws IOException {
+        try (Context context = Context.newBuilder().option(SulongEngineOption.PARSE_CACHE_NAME, cacheDirectory.toString()).allowAllAccess(true).build()) {
+            return context.eval(Source.newBuilder(LLVMLanguage.ID, BITCODE).build()).getMember("test_fits_in").execute(42).asInt();
+        }
+    }
+
+    /**
+     * Returns the cache file of {@link #BITCODE}. The default libraries are cached in the same
+     * directory, so the file is identified by the hash of the bitcode.
+     */
+    private Path cacheFile() throws IOException {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(BITCODE.toPath()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+        StringBuilder name = new StringBuilder();
+        for (byte b : hash) {
+            name.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        Path file = cacheDirectory.resolve(name.append(".scan").toString());
+        Assert.assertTrue(file.toString(), Files.isRegularFile(file));
+        return file;
+    }
+
+    /**
+     * Scans the module once and returns the contents of the cache file. The modification time of
+     * the file is reset, so that a later rewrite can be told apart from a replay.
+     */
+    private byte[] populateCache() throws IOException {
+        Assert.assertEquals(EXPECTED, run());
+        Path file = cacheFile();
+        Files.setLastModifiedTime(file, OLD);
+        return Files.readAllBytes(file);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        byte[] contents = populateCache();
+        Assert.assertTrue(contents.length > EVENTS_OFFSET);
+
+        Assert.assertEquals(EXPECTED, run());
+        Path file = cacheFile();
+        Assert.assertEquals("a valid cache file must be replayed, not rewritten", OLD, Files.getLastModifiedTime(file));
+        Assert.assertArrayEquals(contents, Files.readAllBytes(file));
+    }
+
+    private void assertRescanned(byte[] validContents, byte[] corruptContents) throws IOException {
+        Path file = cacheFile();
+        Files.write(file, corruptContents);
+        Files.setLastModifiedTime(file, OLD);
+
+        Assert.assertEquals(EXPECTED, run());
+        file = cacheFile();
+        Assert.assertNotEquals("an invalid cache file must be replaced", OLD, Files.getLastModifiedTime(file));
+        Assert.assertArrayEquals(validContents, Files.readAllBytes(file));
+    }
+
+    @Test
+    public void testStaleHeader() throws IOException {
+        byte[] contents = populateCache();
+        byte[] stale = Arrays.copyOf(contents, contents.length);
+        stale[VERSION_OFFSET + 3]++;
+        assertRescanned(contents, stale);
+    }
+
+    @Test
+    public void testChecksumMismatch() throws IOException {
+        byte[] contents = populateCache();
+        byte[] corrupt = Arrays.copyOf(contents, contents.length);
+        corrupt[EVENTS_OFFSET + (corrupt.length - EVENTS_OFFSET) / 2] ^= 0x55;
+        assertRescanned(contents, corrupt);
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        byte[] contents = populateCache();
+        assertRescanned(contents, Arrays.copyOf(contents, EVENTS_OFFSET - 1));
+    }
+}
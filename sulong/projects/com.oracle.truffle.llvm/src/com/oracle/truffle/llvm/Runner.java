@@ -42,6 +42,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.graalvm.collections.EconomicMap;
 import org.graalvm.collections.EconomicSet;
@@ -84,6 +86,7 @@ import com.oracle.truffle.llvm.parser.StackManager;
 import com.oracle.truffle.llvm.parser.model.ModelModule;
 import com.oracle.truffle.llvm.parser.model.SymbolImpl;
 import com.oracle.truffle.llvm.parser.model.functions.FunctionSymbol;
+import com.oracle.truffle.llvm.parser.model.symbols.constants.CastConstant;
 import com.oracle.truffle.llvm.parser.model.symbols.constants.aggregate.ArrayConstant;
 import com.oracle.truffle.llvm.parser.model.symbols.constants.aggregate.StructureConstant;
 import com.oracle.truffle.llvm.parser.model.symbols.globals.GlobalVariable;
@@ -92,9 +95,11 @@ import com.oracle.truffle.llvm.parser.scanner.LLVMScanner;
 import com.oracle.truffle.llvm.parser.util.Pair;
 import com.oracle.truffle.llvm.runtime.GetStackSpaceFactory;
 import com.oracle.truffle.llvm.runtime.LLVMAlias;
+import com.oracle.truffle.llvm.runtime.LLVMBackgroundParser;
 import com.oracle.truffle.llvm.runtime.LLVMContext;
 import com.oracle.truffle.llvm.runtime.LLVMContext.ExternalLibrary;
 import com.oracle.truffle.llvm.runtime.LLVMFunctionDescriptor;
+import com.oracle.truffle.llvm.runtime.LLVMFunctionDescriptor.LazyLLVMIRFunction;
 import com.oracle.truffle.llvm.runtime.LLVMIntrinsicProvider;
 import com.oracle.truffle.llvm.runtime.LLVMLanguage;
 import com.oracle.truffle.llvm.runtime.LLVMScope;
@@ -141,6 +146,7 @@ public final class Runner {
     private static final String CONSTRUCTORS_VARNAME = "@llvm.global_ctors";
     private static final String DESTRUCTORS_VARNAME = "@llvm.global_dtors";
     private static final int LEAST_CONSTRUCTOR_PRIORITY = 65535;
+    private static final int SPECULATIVE_CALL_DEPTH = 2;
 
     private static final Comparator<Pair<Integer, ?>> ASCENDING_PRIORITY = (p1, p2) -> p1.getFirst() - p2.getFirst();
     private static final Comparator<Pair<Integer, ?>> DESCENDING_PRIORITY = (p1, p2) -> p2.getFirst() - p1.getFirst();
@@ -322,9 +328,12 @@ public final class Runner {
     }
 
     private final LLVMContext context;
+    private final LLVMBackgroundParser backgroundParser;
+    private final EconomicMap<ExternalLibrary, Future<ScannedModule>> scannedLibraries = EconomicMap.create(Equivalence.IDENTITY);
 
     public Runner(LLVMContext context) {
         this.context = context;
+        this.backgroundParser = context.getEnv().getOptions().get(SulongEngineOption.PARALLEL_PARSING) ? context.getBackgroundParser() : null;
     }
 
     /**
@@ -450,7 +459,7 @@ public final class Runner {
         List<LLVMParserResult> parserResults = new ArrayList<>();
         ArrayDeque<ExternalLibrary> dependencyQueue = new ArrayDeque<>();
 
-        parse(parserResults, dependencyQueue, source, library, bytes);
+        parse(parserResults, dependencyQueue, source, library, scan(source, library, bytes));
         assert !library.isNative() && !parserResults.isEmpty();
 
         ExternalLibrary[] sulongLibraries = parseDependencies(parserResults, dependencyQueue);
@@ -462,7 +471,9 @@ public final class Runner {
         InitializationOrder initializationOrder = computeInitializationOrder(parserResults, sulongLibraries);
         overrideSulongLibraryFunctionsWithIntrinsics(initializationOrder.sulongLibraries);
 
-        return createLibraryCallTarget(source.getName(), parserResults, initializationOrder);
+        CallTarget callTarget = createLibraryCallTarget(source.getName(), parserResults, initializationOrder);
+        convertFunctionsSpeculatively(parserResults);
+        return callTarget;
     }
 
     private abstract static class AllocGlobalNode extends LLVMNode {
@@ -672,6 +683,7 @@ public final class Runner {
         ExternalLibrary[] sulongLibraries = new ExternalLibrary[sulongLibraryNames.length];
         for (int i = 0; i < sulongLibraries.length; i++) {
             sulongLibraries[i] = context.addInternalLibrary(sulongLibraryNames[i], false);
+            scanInBackground(sulongLibraries[i]);
         }
 
         // parse all libraries that were passed on the command-line
@@ -810,11 +822,24 @@ public final class Runner {
     }
 
     private LLVMParserResult parse(List<LLVMParserResult> parserResults, ArrayDeque<ExternalLibrary> dependencyQueue, ExternalLibrary lib) {
+        Future<ScannedModule> scannedLibrary = scannedLibraries.removeKey(lib);
+        ScannedModule scanned = scannedLibrary != null ? waitForScan(scannedLibrary) : scan(lib);
+        if (scanned == null) {
+            // lets assume that this is not a bitcode file and the NFI is going to handle it
+            return null;
+        }
+        return parse(parserResults, dependencyQueue, scanned.source, lib, scanned.module);
+    }
+
+    /**
+     * Reads and scans a library. This does not modify any state that depends on the order in which
+     * libraries are loaded, so it may run on a background thread.
+     */
+    private ScannedModule scan(ExternalLibrary lib) {
         if (lib.getPath() == null || !lib.getPath().toFile().isFile()) {
             if (!lib.isNative()) {
                 throw new LLVMParserException("'" + lib.getPath() + "' is not a file or does not exist.");
             } else {
-                // lets assume that this is not a bitcode file and the NFI is going to handle it
                 return null;
             }
         }
@@ -827,12 +852,43 @@ public final class Runner {
         } catch (IOException | SecurityException | OutOfMemoryError ex) {
             throw new LLVMParserException("Error reading file " + path + ".");
         }
-        return parse(parserResults, dependencyQueue, source, lib, source.getBytes());
+        ModelModule module = scan(source, lib, source.getBytes());
+        return module != null ? new ScannedModule(source, module) : null;
     }
 
-    private LLVMParserResult parse(List<LLVMParserResult> parserResults, ArrayDeque<ExternalLibrary> dependencyQueue, Source source,
-                    ExternalLibrary library, ByteSequence bytes) {
+    private ModelModule scan(Source source, ExternalLibrary library, ByteSequence bytes) {
         ModelModule module = LLVMScanner.parse(bytes, source, context);
+        if (module == null && !library.isNative()) {
+            throw new LLVMParserException("The file '" + source.getName() + "' is not a bitcode file nor an ELF File with an .llvmbc section.");
+        }
+        return module;
+    }
+
+    private void scanInBackground(ExternalLibrary lib) {
+        if (backgroundParser != null && !scannedLibraries.containsKey(lib)) {
+            scannedLibraries.put(lib, backgroundParser.scan(() -> scan(lib)));
+        }
+    }
+
+    private static ScannedModule waitForScan(Future<ScannedModule> scannedLibrary) {
+        try {
+            return scannedLibrary.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LLVMParserException("Interrupted while waiting for a library to be scanned.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private LLVMParserResult parse(List<LLVMParserResult> parserResults, ArrayDeque<ExternalLibrary> dependencyQueue, Source source,
+                    ExternalLibrary library, ModelModule module) {
         if (module != null) {
             library.setIsNative(false);
             context.addLibraryPaths(module.getLibraryPaths());
@@ -841,6 +897,7 @@ public final class Runner {
                 ExternalLibrary dependency = context.addExternalLibrary(lib, true);
                 if (dependency != null) {
                     dependencyQueue.addLast(dependency);
+                    scanInBackground(dependency);
                 }
             }
             LLVMScope fileScope = new LLVMScope();
@@ -849,8 +906,6 @@ public final class Runner {
             LLVMParserResult parserResult = parser.parse(module);
             parserResults.add(parserResult);
             return parserResult;
-        } else if (!library.isNative()) {
-            throw new LLVMParserException("The file '" + source.getName() + "' is not a bitcode file nor an ELF File with an .llvmbc section.");
         } else {
             return null;
         }
@@ -1273,6 +1328,126 @@ public final class Runner {
         }
     }
 
+    /**
+     * Queues the functions that are likely to be called first for conversion on a background
+     * thread: the main function, the constructors, the functions they call, and then all functions
+     * exported by non-internal libraries.
+     */
+    private void convertFunctionsSpeculatively(List<LLVMParserResult> parserResults) {
+        if (backgroundParser == null || !context.getEnv().getOptions().get(SulongEngineOption.LAZY_PARSING)) {
+            return;
+        }
+
+        SpeculativeConversion conversion = new SpeculativeConversion(parserResults);
+        conversion.addHot(findMainMethod(parserResults), 0);
+        for (LLVMParserResult parserResult : parserResults) {
+            for (GlobalVariable globalVariable : parserResult.getDefinedGlobals()) {
+                if (globalVariable.getName().equals(CONSTRUCTORS_VARNAME) && globalVariable.getValue() instanceof ArrayConstant) {
+                    LLVMScope fileScope = parserResult.getRuntime().getFileScope();
+                    ArrayConstant constructors = (ArrayConstant) globalVariable.getValue();
+                    for (int i = 0; i < constructors.getElementCount(); i++) {
+                        SymbolImpl constructor = ((StructureConstant) constructors.getElement(i)).getElement(1);
+                        if (constructor instanceof CastConstant) {
+                            constructor = ((CastConstant) constructor).getValue();
+                        }
+                        if (constructor instanceof FunctionSymbol) {
+                            conversion.addHot(fileScope.get(((FunctionSymbol) constructor).getName()), 0);
+                        }
+                    }
+                }
+            }
+        }
+        for (LLVMParserResult parserResult : parserResults) {
+            if (!parserResult.getRuntime().getLibrary().isInternal()) {
+                LLVMScope fileScope = parserResult.getRuntime().getFileScope();
+                for (LLVMSymbol symbol : fileScope.values()) {
+                    if (symbol instanceof LLVMFunctionDescriptor && fileScope.exports(context, symbol.getName())) {
+                        conversion.addExported((LLVMFunctionDescriptor) symbol);
+                    }
+                }
+            }
+        }
+        backgroundParser.convert(conversion);
+    }
+
+    private final class SpeculativeConversion implements Runnable {
+        private final EconomicMap<ExternalLibrary, LLVMScope> fileScopes = EconomicMap.create(Equivalence.IDENTITY);
+        private final EconomicSet<LLVMFunctionDescriptor> queued = EconomicSet.create(Equivalence.IDENTITY);
+        private final ArrayDeque<Pair<LLVMFunctionDescriptor, Integer>> hot = new ArrayDeque<>();
+        private final ArrayDeque<LLVMFunctionDescriptor> exported = new ArrayDeque<>();
+
+        private SpeculativeConversion(List<LLVMParserResult> parserResults) {
+            for (LLVMParserResult parserResult : parserResults) {
+                fileScopes.put(parserResult.getRuntime().getLibrary(), parserResult.getRuntime().getFileScope());
+            }
+        }
+
+        private void addHot(LLVMSymbol symbol, int depth) {
+            if (symbol != null && symbol.isFunction() && queued.add(symbol.asFunction())) {
+                hot.addLast(new Pair<>(symbol.asFunction(), depth));
+            }
+        }
+
+        private void addExported(LLVMFunctionDescriptor function) {
+            if (queued.add(function)) {
+                exported.addLast(function);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                LLVMFunctionDescriptor function;
+                int depth;
+                if (!hot.isEmpty()) {
+                    Pair<LLVMFunctionDescriptor, Integer> next = hot.removeFirst();
+                    function = next.getFirst();
+                    depth = next.getSecond();
+                } else if (!exported.isEmpty()) {
+                    function = exported.removeFirst();
+                    depth = SPECULATIVE_CALL_DEPTH;
+                } else {
+                    return;
+                }
+                // the lock is released after each function, so the loading thread never has to
+                // wait for more than one conversion
+                synchronized (context.getGlobalScope()) {
+                    convert(function, depth);
+                }
+            }
+        }
+
+        private void convert(LLVMFunctionDescriptor function, int depth) {
+            if (!(function.getFunction() instanceof LazyLLVMIRFunction)) {
+                return;
+            }
+            List<String> callees;
+            try {
+                callees = ((LazyLLVMIRFunction) function.getFunction()).prepare();
+            } catch (RuntimeException e) {
+                // the error is reported when the function is called
+                return;
+            }
+            if (depth < SPECULATIVE_CALL_DEPTH) {
+                LLVMScope fileScope = fileScopes.get(function.getLibrary());
+                for (String callee : callees) {
+                    LLVMSymbol symbol = fileScope != null ? fileScope.get(callee) : null;
+                    addHot(symbol != null ? symbol : context.getGlobalScope().get(callee), depth + 1);
+                }
+            }
+        }
+    }
+
+    private static final class ScannedModule {
+        private final Source source;
+        private final ModelModule module;
+
+        private ScannedModule(Source source, ModelModule module) {
+            this.source = source;
+            this.module = module;
+        }
+    }
+
     private static final class InitializationOrder {
         private final List<LLVMParserResult> sulongLibraries;
         private final List<LLVMParserResult> otherLibraries;
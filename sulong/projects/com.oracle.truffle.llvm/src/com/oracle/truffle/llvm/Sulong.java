@@ -121,6 +121,11 @@ public final class Sulong extends LLVMLanguage {
         return newContext;
     }
 
+    @Override
+    protected void finalizeContext(LLVMContext context) {
+        context.finalizeContext();
+    }
+
     @Override
     protected void disposeContext(LLVMContext context) {
         LLVMMemory memory = getCapability(LLVMMemory.class);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -105,6 +105,51 @@ public class SLInspectProfileTest {
         tester.finish();
     }
 
+    @Test
+    public void testStreamingCPUProfiler() throws Exception {
+        tester = InspectorTester.start(false);
+        Source source = Source.newBuilder("sl", CODE1, "SLTest.sl").build();
+        tester.sendMessage("{\"id\":1,\"method\":\"Runtime.enable\"}");
+        assertEquals("{\"result\":{},\"id\":1}", tester.getMessages(true).trim());
+        tester.sendMessage("{\"id\":2,\"method\":\"Profiler.enable\"}");
+        assertEquals("{\"result\":{},\"id\":2}", tester.getMessages(true).trim());
+        tester.sendMessage("{\"id\":3,\"method\":\"Profiler.startStreaming\",\"params\":{\"reportInterval\":10}}");
+        // Profile chunks may already be reported before the command result
+        tester.receiveMessages("", "{\"result\":{},\"id\":3}\n");
+        assertTrue(tester.shouldWaitForClose());
+        // Restarting the stream replaces the reporting of the first one
+        tester.sendMessage("{\"id\":4,\"method\":\"Profiler.startStreaming\",\"params\":{\"reportInterval\":10}}");
+        tester.receiveMessages("", "{\"result\":{},\"id\":4}\n");
+        tester.eval(source).get();
+        tester.receiveMessages("", "{\"method\":\"Profiler.profileChunk\",\"params\":{\"profile\":", "}}\n");
+        tester.sendMessage("{\"id\":5,\"method\":\"Profiler.stop\"}");
+        tester.receiveMessages("", "\"id\":5}\n");
+        // No chunks are reported once the stream is stopped
+        tester.sendMessage("{\"id\":6,\"method\":\"Profiler.disable\"}");
+        assertEquals("{\"result\":{},\"id\":6}", tester.getMessages(true).trim());
+        tester.finish();
+    }
+
+    @Test
+    public void testHeapSnapshot() throws Exception {
+        tester = InspectorTester.start(false);
+        Source source = Source.newBuilder("sl", CODE1, "SLTest.sl").build();
+        tester.sendMessage("{\"id\":1,\"method\":\"Runtime.enable\"}");
+        assertEquals("{\"result\":{},\"id\":1}", tester.getMessages(true).trim());
+        tester.sendMessage("{\"id\":2,\"method\":\"HeapProfiler.enable\"}");
+        assertEquals("{\"result\":{},\"id\":2}", tester.getMessages(true).trim());
+        tester.eval(source).get();
+        tester.sendMessage("{\"id\":3,\"method\":\"HeapProfiler.takeHeapSnapshot\",\"params\":{\"reportProgress\":true}}");
+        tester.receiveMessages(
+                        "{\"method\":\"HeapProfiler.",
+                        "{\"method\":\"HeapProfiler.addHeapSnapshotChunk\",\"params\":{\"chunk\":\"{\\\"snapshot\\\":",
+                        "\"finished\":true",
+                        "{\"result\":{},\"id\":3}\n");
+        tester.sendMessage("{\"id\":4,\"method\":\"HeapProfiler.disable\"}");
+        assertEquals("{\"result\":{},\"id\":4}", tester.getMessages(true).trim());
+        tester.finish();
+    }
+
     @Test
     public void testCodeCoverage() throws Exception {
         tester = InspectorTester.start(false);
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.chromeinspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.oracle.truffle.api.nodes.LanguageInfo;
+import com.oracle.truffle.tools.profiler.HeapSummary;
+
+/**
+ * Writes a heap summary of the {@link com.oracle.truffle.tools.profiler.HeapMonitor} in the V8 heap
+ * snapshot format, in chunks of limited size, so that neither the snapshot nor its JSON text has
+ * to be held in memory as a whole.
+ * <p>
+ * The snapshot has a synthetic root with one synthetic node per language. Each language node
+ * references one object node per alive instance, named by the instance's meta object and sized by
+ * the average alive size of its meta object. Node and edge positions are computed from the
+ * summaries, so that the nodes and the edges are written in two passes over the same summaries.
+ */
+final class HeapSnapshotWriter {
+
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private static final int NODE_FIELD_COUNT = 6;
+    private static final int NODE_TYPE_OBJECT = 3;
+    private static final int NODE_TYPE_SYNTHETIC = 9;
+    private static final int EDGE_TYPE_ELEMENT = 1;
+
+    private static final String META = "{\"node_fields\":[\"type\",\"name\",\"id\",\"self_size\",\"edge_count\",\"trace_node_id\"]," +
+                    "\"node_types\":[[\"hidden\",\"array\",\"string\",\"object\",\"code\",\"closure\",\"regexp\",\"number\",\"native\",\"synthetic\",\"concatenated string\",\"sliced string\"]," +
+                    "\"string\",\"number\",\"number\",\"number\",\"number\"]," +
+                    "\"edge_fields\":[\"type\",\"name_or_index\",\"to_node\"]," +
+                    "\"edge_types\":[[\"context\",\"element\",\"property\",\"internal\",\"hidden\",\"shortcut\",\"weak\"],\"string_or_number\",\"node\"]," +
+                    "\"trace_function_info_fields\":[],\"trace_node_fields\":[],\"sample_fields\":[],\"location_fields\":[]}";
+
+    private final Map<LanguageInfo, Map<String, HeapSummary>> summaries;
+    private final Consumer<String> chunkConsumer;
+    private final ProgressListener progressListener;
+    private final StringBuilder chunk = new StringBuilder(CHUNK_SIZE + 256);
+    private final List<String> strings = new ArrayList<>();
+    private final long totalNodes;
+    private long writtenNodes;
+    private boolean firstElement;
+
+    interface ProgressListener {
+
+        void progress(long done, long total, boolean finished);
+    }
+
+    HeapSnapshotWriter(Map<LanguageInfo, Map<String, HeapSummary>> summaries, Consumer<String> chunkConsumer, ProgressListener progressListener) {
+        this.summaries = summaries;
+        this.chunkConsumer = chunkConsumer;
+        this.progressListener = progressListener;
+        long count = 1 + summaries.size();
+        for (Map<String, HeapSummary> byMetaObject : summaries.values()) {
+            for (HeapSummary summary : byMetaObject.values()) {
+                count += Math.max(0, summary.getAliveInstances());
+            }
+        }
+        this.totalNodes = count;
+    }
+
+    void write() {
+        long edgeCount = totalNodes - 1;
+        append("{\"snapshot\":{\"meta\":").append(META);
+        append(",\"node_count\":").append(totalNodes).append(",\"edge_count\":").append(edgeCount).append(",\"trace_function_count\":0}");
+
+        append(",\"nodes\":[");
+        firstElement = true;
+        long nextId = 1;
+        writeNode(NODE_TYPE_SYNTHETIC, stringIndex("(root)"), nextId, 0, summaries.size());
+        nextId += 2;
+        for (Map.Entry<LanguageInfo, Map<String, HeapSummary>> language : summaries.entrySet()) {
+            long languageEdges = 0;
+            for (HeapSummary summary : language.getValue().values()) {
+                languageEdges += Math.max(0, summary.getAliveInstances());
+            }
+            writeNode(NODE_TYPE_SYNTHETIC, stringIndex("(" + language.getKey().getName() + ")"), nextId, 0, languageEdges);
+            nextId += 2;
+            for (Map.Entry<String, HeapSummary> metaObject : language.getValue().entrySet()) {
+                HeapSummary summary = metaObject.getValue();
+                long instances = Math.max(0, summary.getAliveInstances());
+                if (instances == 0) {
+                    continue;
+                }
+                int name = stringIndex(metaObject.getKey());
+                long bytes = Math.max(0, summary.getAliveBytes());
+                long averageSize = bytes / instances;
+                long remainder = bytes % instances;
+                for (long i = 0; i < instances; i++) {
+                    writeNode(NODE_TYPE_OBJECT, name, nextId, averageSize + (i < remainder ? 1 : 0), 0);
+                    nextId += 2;
+                }
+            }
+        }
+        append("]");
+
+        append(",\"edges\":[");
+        firstElement = true;
+        long languageNodeIndex = 1;
+        int index = 1;
+        for (Map<String, HeapSummary> byMetaObject : summaries.values()) {
+            writeEdge(EDGE_TYPE_ELEMENT, index++, languageNodeIndex);
+            for (HeapSummary summary : byMetaObject.values()) {
+                languageNodeIndex += Math.max(0, summary.getAliveInstances());
+            }
+            languageNodeIndex++;
+        }
+        long nodeIndex = 1;
+        for (Map<String, HeapSummary> byMetaObject : summaries.values()) {
+            nodeIndex++;
+            int elementIndex = 1;
+            for (HeapSummary summary : byMetaObject.values()) {
+                long instances = Math.max(0, summary.getAliveInstances());
+                for (long i = 0; i < instances; i++) {
+                    writeEdge(EDGE_TYPE_ELEMENT, elementIndex++, nodeIndex++);
+                }
+            }
+        }
+        append("]");
+
+        append(",\"trace_function_infos\":[],\"trace_tree\":[],\"samples\":[],\"locations\":[]");
+        append(",\"strings\":[");
+        for (int i = 0; i < strings.size(); i++) {
+            if (i > 0) {
+                append(",");
+            }
+            appendQuoted(strings.get(i));
+        }
+        append("]}");
+        flush();
+        progressListener.progress(totalNodes, totalNodes, true);
+    }
+
+    private int stringIndex(String string) {
+        strings.add(string);
+        return strings.size() - 1;
+    }
+
+    private void writeNode(int type, int name, long id, long selfSize, long edgeCount) {
+        if (!firstElement) {
+            append(",");
+        }
+        firstElement = false;
+        append(type).append(",").append(name).append(",").append(id).append(",").append(selfSize).append(",").append(edgeCount).append(",0");
+        writtenNodes++;
+        if (chunk.length() >= CHUNK_SIZE) {
+            flush();
+            progressListener.progress(writtenNodes, totalNodes, false);
+        }
+    }
+
+    private void writeEdge(int type, int nameOrIndex, long toNodeIndex) {
+        if (!firstElement) {
+            append(",");
+        }
+        firstElement = false;
+        append(type).append(",").append(nameOrIndex).append(",").append(toNodeIndex * NODE_FIELD_COUNT);
+        if (chunk.length() >= CHUNK_SIZE) {
+            flush();
+        }
+    }
+
+    private StringBuilder append(String string) {
+        return chunk.append(string);
+    }
+
+    private StringBuilder append(long value) {
+        return chunk.append(value);
+    }
+
+    private void appendQuoted(String string) {
+        chunk.append('"');
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            switch (c) {
+                case '"':
+                    chunk.append("\\\"");
+                    break;
+                case '\\':
+                    chunk.append("\\\\");
+                    break;
+                case '\n':
+                    chunk.append("\\n");
+                    break;
+                case '\r':
+                    chunk.append("\\r");
+                    break;
+                case '\t':
+                    chunk.append("\\t");
+                    break;
+                default:
+                    if (c < ' ') {
+                        chunk.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        chunk.append(c);
+                    }
+            }
+        }
+        chunk.append('"');
+        if (chunk.length() >= CHUNK_SIZE) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (chunk.length() > 0) {
+            chunkConsumer.accept(chunk.toString());
+            chunk.setLength(0);
+        }
+    }
+}
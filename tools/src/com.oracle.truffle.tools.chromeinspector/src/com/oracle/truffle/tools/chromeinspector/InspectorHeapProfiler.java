@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.chromeinspector;
+
+import java.util.Collection;
+
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.tools.utils.json.JSONArray;
+import com.oracle.truffle.tools.utils.json.JSONObject;
+
+import com.oracle.truffle.tools.chromeinspector.commands.Params;
+import com.oracle.truffle.tools.chromeinspector.domains.HeapProfilerDomain;
+import com.oracle.truffle.tools.chromeinspector.events.Event;
+import com.oracle.truffle.tools.chromeinspector.server.ConnectionWatcher;
+import com.oracle.truffle.tools.chromeinspector.types.RuntimeCallFrame;
+import com.oracle.truffle.tools.chromeinspector.types.SamplingHeapProfileNode;
+import com.oracle.truffle.tools.chromeinspector.types.Script;
+
+import com.oracle.truffle.tools.profiler.HeapMonitor;
+import com.oracle.truffle.tools.profiler.MemoryTracer;
+import com.oracle.truffle.tools.profiler.ProfilerNode;
+import com.oracle.truffle.tools.profiler.impl.HeapMonitorInstrument;
+import com.oracle.truffle.tools.profiler.impl.MemoryTracerInstrument;
+
+public final class InspectorHeapProfiler extends HeapProfilerDomain {
+
+    private HeapMonitor heapMonitor;
+    private MemoryTracer memoryTracer;
+    private ScriptsHandler slh;
+    private boolean oldHeapMonitorCollecting;
+    private boolean heapMonitorStarted;
+
+    private final InspectorExecutionContext context;
+    private final ConnectionWatcher connectionWatcher;
+
+    public InspectorHeapProfiler(InspectorExecutionContext context, ConnectionWatcher connectionWatcher) {
+        this.context = context;
+        this.connectionWatcher = connectionWatcher;
+    }
+
+    @Override
+    public void enable() {
+        if (slh == null) {
+            slh = context.acquireScriptsHandler();
+            heapMonitor = context.getEnv().lookup(context.getEnv().getInstruments().get(HeapMonitorInstrument.ID), HeapMonitor.class);
+            memoryTracer = context.getEnv().lookup(context.getEnv().getInstruments().get(MemoryTracerInstrument.ID), MemoryTracer.class);
+        }
+    }
+
+    /**
+     * Switches on the collection of the heap monitor, which instruments every allocation. This
+     * happens only once heap objects are tracked or a snapshot is requested, not when the domain
+     * is enabled.
+     */
+    private void startHeapMonitor() {
+        if (!heapMonitorStarted) {
+            oldHeapMonitorCollecting = heapMonitor.isCollecting();
+            heapMonitor.setCollecting(true);
+            heapMonitorStarted = true;
+        }
+    }
+
+    @Override
+    public void disable() {
+        if (slh != null) {
+            context.releaseScriptsHandler();
+            slh = null;
+            if (heapMonitorStarted) {
+                heapMonitor.setCollecting(oldHeapMonitorCollecting);
+                heapMonitorStarted = false;
+            }
+            heapMonitor = null;
+            synchronized (memoryTracer) {
+                memoryTracer.setCollecting(false);
+                memoryTracer.clearData();
+            }
+            memoryTracer = null;
+        }
+    }
+
+    @Override
+    public void collectGarbage() {
+        System.gc();
+    }
+
+    /**
+     * The heap monitor only sees objects that were allocated while it was collecting. A snapshot
+     * therefore reflects only the objects allocated since heap objects are tracked or since the
+     * first snapshot was requested, so the first snapshot without tracking is empty.
+     */
+    @Override
+    public void takeHeapSnapshot(boolean reportProgress) {
+        startHeapMonitor();
+        HeapSnapshotWriter writer = new HeapSnapshotWriter(heapMonitor.takeMetaObjectSummary(), chunk -> {
+            JSONObject json = new JSONObject();
+            json.put("chunk", chunk);
+            eventHandler.event(new Event("HeapProfiler.addHeapSnapshotChunk", new Params(json)));
+        }, (done, total, finished) -> {
+            if (reportProgress) {
+                JSONObject json = new JSONObject();
+                json.put("done", done);
+                json.put("total", total);
+                if (finished) {
+                    json.put("finished", true);
+                }
+                eventHandler.event(new Event("HeapProfiler.reportHeapSnapshotProgress", new Params(json)));
+            }
+        });
+        writer.write();
+    }
+
+    @Override
+    public void startTrackingHeapObjects() {
+        connectionWatcher.setWaitForClose();
+        startHeapMonitor();
+    }
+
+    @Override
+    public void stopTrackingHeapObjects(boolean reportProgress) {
+        takeHeapSnapshot(reportProgress);
+    }
+
+    @Override
+    public void startSampling() {
+        connectionWatcher.setWaitForClose();
+        synchronized (memoryTracer) {
+            memoryTracer.setFilter(SourceSectionFilter.newBuilder().includeInternal(context.isInspectInternal()).build());
+            memoryTracer.setCollecting(true);
+        }
+    }
+
+    @Override
+    public Params stopSampling() {
+        synchronized (memoryTracer) {
+            Params profile = getSamplingProfile(memoryTracer.getRootNodes());
+            memoryTracer.setCollecting(false);
+            memoryTracer.clearData();
+            return profile;
+        }
+    }
+
+    @Override
+    public Params getSamplingProfile() {
+        synchronized (memoryTracer) {
+            return getSamplingProfile(memoryTracer.getRootNodes());
+        }
+    }
+
+    private Params getSamplingProfile(Collection<ProfilerNode<MemoryTracer.Payload>> rootProfilerNodes) {
+        int[] counter = {1};
+        SamplingHeapProfileNode root = new SamplingHeapProfileNode(counter[0]++, new RuntimeCallFrame("(root)", 0, "", 0, 0), 0);
+        fillChildren(root, rootProfilerNodes, counter);
+        JSONObject profile = new JSONObject();
+        profile.put("head", root.toJSON());
+        profile.put("samples", new JSONArray());
+        JSONObject json = new JSONObject();
+        json.put("profile", profile);
+        return new Params(json);
+    }
+
+    private void fillChildren(SamplingHeapProfileNode node, Collection<ProfilerNode<MemoryTracer.Payload>> childProfilerNodes, int[] counter) {
+        for (ProfilerNode<MemoryTracer.Payload> childProfilerNode : childProfilerNodes) {
+            SourceSection sourceSection = childProfilerNode.getSourceSection();
+            int scriptId = slh.getScriptId(sourceSection.getSource());
+            Script script = scriptId < 0 ? null : slh.getScript(scriptId);
+            long selfSize = 0;
+            for (MemoryTracer.AllocationEventInfo info : childProfilerNode.getPayload().getEvents()) {
+                selfSize += info.getAllocated();
+            }
+            SamplingHeapProfileNode childNode = new SamplingHeapProfileNode(counter[0]++, new RuntimeCallFrame(childProfilerNode.getRootName(), script != null ? script.getId() : 0,
+                            script != null ? script.getUrl() : "", sourceSection.getStartLine(), sourceSection.getStartColumn()), selfSize);
+            node.addChild(childNode);
+            fillChildren(childNode, childProfilerNode.getChildren(), counter);
+        }
+    }
+}
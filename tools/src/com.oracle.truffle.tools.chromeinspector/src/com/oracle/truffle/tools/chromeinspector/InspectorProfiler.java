@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -32,6 +32,8 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import com.oracle.truffle.tools.utils.json.JSONArray;
@@ -45,6 +47,7 @@ import com.oracle.truffle.api.source.SourceSection;
 
 import com.oracle.truffle.tools.chromeinspector.commands.Params;
 import com.oracle.truffle.tools.chromeinspector.domains.ProfilerDomain;
+import com.oracle.truffle.tools.chromeinspector.events.Event;
 import com.oracle.truffle.tools.chromeinspector.instrument.Enabler;
 import com.oracle.truffle.tools.chromeinspector.instrument.TypeProfileInstrument;
 import com.oracle.truffle.tools.chromeinspector.server.ConnectionWatcher;
@@ -73,6 +76,7 @@ public final class InspectorProfiler extends ProfilerDomain {
     private ScriptsHandler slh;
     private long startTimestamp;
     private boolean oldGatherSelfHitTimes;
+    private ScheduledExecutorService streamingExecutor;
 
     private final InspectorExecutionContext context;
     private final ConnectionWatcher connectionWatcher;
@@ -103,6 +107,7 @@ public final class InspectorProfiler extends ProfilerDomain {
     @Override
     public void disable() {
         if (slh != null) {
+            stopStreaming();
             context.releaseScriptsHandler();
             slh = null;
             sampler = null;
@@ -122,25 +127,85 @@ public final class InspectorProfiler extends ProfilerDomain {
     public void start() {
         connectionWatcher.setWaitForClose();
         synchronized (sampler) {
+            if (sampler.isCollecting()) {
+                /*
+                 * Already profiling, e.g. when a stream is restarted. The sampler keeps running:
+                 * it cannot be reconfigured while collecting, and the settings to restore on stop
+                 * were saved when the collection started.
+                 */
+                return;
+            }
             oldGatherSelfHitTimes = sampler.isGatherSelfHitTimes();
             sampler.setGatherSelfHitTimes(true);
             sampler.setMode(CPUSampler.Mode.ROOTS);
             sampler.setFilter(SourceSectionFilter.newBuilder().includeInternal(context.isInspectInternal()).build());
             sampler.setCollecting(true);
+            startTimestamp = System.currentTimeMillis();
         }
-        startTimestamp = System.currentTimeMillis();
     }
 
     @Override
-    public Params stop() {
+    public void startStreaming(long reportInterval) {
+        stopStreaming();
+        start();
+        long interval = reportInterval > 0 ? reportInterval : 1000;
+        streamingExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Inspector Profile Streaming");
+            thread.setDaemon(true);
+            return thread;
+        });
+        streamingExecutor.scheduleAtFixedRate(this::reportProfileChunk, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopStreaming() {
+        if (streamingExecutor != null) {
+            streamingExecutor.shutdownNow();
+            try {
+                streamingExecutor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            streamingExecutor = null;
+        }
+    }
+
+    private void reportProfileChunk() {
+        CPUSampler s = sampler;
+        if (s == null) {
+            return;
+        }
+        Params chunk;
+        synchronized (s) {
+            if (!s.isCollecting()) {
+                return;
+            }
+            chunk = takeProfile(false);
+        }
+        eventHandler.event(new Event("Profiler.profileChunk", chunk));
+    }
+
+    /**
+     * Returns the samples taken since the start, or since the last streamed chunk, and clears
+     * them. Must be called with the sampler lock held.
+     */
+    private Params takeProfile(boolean stopCollecting) {
         long time = System.currentTimeMillis();
-        synchronized (sampler) {
+        if (stopCollecting) {
             sampler.setCollecting(false);
             sampler.setGatherSelfHitTimes(oldGatherSelfHitTimes);
-            long idleHitCount = (time - startTimestamp) / sampler.getPeriod() - sampler.getSampleCount();
-            Params profile = getProfile(sampler.getRootNodes(), idleHitCount, startTimestamp, time);
-            sampler.clearData();
-            return profile;
+        }
+        long idleHitCount = (time - startTimestamp) / sampler.getPeriod() - sampler.getSampleCount();
+        Params profile = getProfile(sampler.getRootNodes(), idleHitCount, startTimestamp, time);
+        sampler.clearData();
+        startTimestamp = time;
+        return profile;
+    }
+
+    @Override
+    public Params stop() {
+        stopStreaming();
+        synchronized (sampler) {
+            return takeProfile(true);
         }
     }
 
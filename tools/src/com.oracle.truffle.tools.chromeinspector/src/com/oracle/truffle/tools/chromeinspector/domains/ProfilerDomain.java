@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -39,6 +39,12 @@ public abstract class ProfilerDomain extends Domain {
 
     public abstract void start();
 
+    /**
+     * Start profiling, and report the samples taken since the previous report every
+     * <code>reportInterval</code> milliseconds in a <code>Profiler.profileChunk</code> event.
+     */
+    public abstract void startStreaming(long reportInterval);
+
     public abstract Params stop();
 
     public abstract void startPreciseCoverage(boolean callCount, boolean detailed);
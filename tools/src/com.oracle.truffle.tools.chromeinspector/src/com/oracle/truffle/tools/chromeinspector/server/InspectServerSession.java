@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -38,6 +38,7 @@ import com.oracle.truffle.tools.utils.json.JSONException;
 import com.oracle.truffle.tools.utils.json.JSONObject;
 
 import com.oracle.truffle.tools.chromeinspector.InspectorDebugger;
+import com.oracle.truffle.tools.chromeinspector.InspectorHeapProfiler;
 import com.oracle.truffle.tools.chromeinspector.InspectorExecutionContext;
 import com.oracle.truffle.tools.chromeinspector.InspectorProfiler;
 import com.oracle.truffle.tools.chromeinspector.InspectorRuntime;
@@ -46,6 +47,7 @@ import com.oracle.truffle.tools.chromeinspector.commands.ErrorResponse;
 import com.oracle.truffle.tools.chromeinspector.commands.Params;
 import com.oracle.truffle.tools.chromeinspector.commands.Result;
 import com.oracle.truffle.tools.chromeinspector.domains.DebuggerDomain;
+import com.oracle.truffle.tools.chromeinspector.domains.HeapProfilerDomain;
 import com.oracle.truffle.tools.chromeinspector.domains.ProfilerDomain;
 import com.oracle.truffle.tools.chromeinspector.domains.RuntimeDomain;
 import com.oracle.truffle.tools.chromeinspector.events.Event;
@@ -58,16 +60,18 @@ public final class InspectServerSession implements MessageEndpoint {
     private final RuntimeDomain runtime;
     private final DebuggerDomain debugger;
     private final ProfilerDomain profiler;
+    private final HeapProfilerDomain heapProfiler;
     private final InspectorExecutionContext context;
     private volatile MessageEndpoint messageEndpoint;
     private volatile JSONMessageListener jsonMessageListener;
     private CommandProcessThread processThread;
 
-    private InspectServerSession(RuntimeDomain runtime, DebuggerDomain debugger, ProfilerDomain profiler,
+    private InspectServerSession(RuntimeDomain runtime, DebuggerDomain debugger, ProfilerDomain profiler, HeapProfilerDomain heapProfiler,
                     InspectorExecutionContext context) {
         this.runtime = runtime;
         this.debugger = debugger;
         this.profiler = profiler;
+        this.heapProfiler = heapProfiler;
         this.context = context;
     }
 
@@ -75,7 +79,8 @@ public final class InspectServerSession implements MessageEndpoint {
         RuntimeDomain runtime = new InspectorRuntime(context);
         DebuggerDomain debugger = new InspectorDebugger(context, debugBreak);
         ProfilerDomain profiler = new InspectorProfiler(context, connectionWatcher);
-        return new InspectServerSession(runtime, debugger, profiler, context);
+        HeapProfilerDomain heapProfiler = new InspectorHeapProfiler(context, connectionWatcher);
+        return new InspectServerSession(runtime, debugger, profiler, heapProfiler, context);
     }
 
     @Override
@@ -83,6 +88,7 @@ public final class InspectServerSession implements MessageEndpoint {
         runtime.disable();
         debugger.disable();
         profiler.disable();
+        heapProfiler.disable();
         context.reset();
         messageEndpoint = null;
         processThread.dispose();
@@ -96,6 +102,7 @@ public final class InspectServerSession implements MessageEndpoint {
             runtime.setEventHandler(eh);
             debugger.setEventHandler(eh);
             profiler.setEventHandler(eh);
+            heapProfiler.setEventHandler(eh);
             processThread = new CommandProcessThread();
             processThread.start();
         }
@@ -108,6 +115,7 @@ public final class InspectServerSession implements MessageEndpoint {
             runtime.setEventHandler(eh);
             debugger.setEventHandler(eh);
             profiler.setEventHandler(eh);
+            heapProfiler.setEventHandler(eh);
             processThread = new CommandProcessThread();
             processThread.start();
         }
@@ -341,6 +349,10 @@ public final class InspectServerSession implements MessageEndpoint {
             case "Profiler.start":
                 profiler.start();
                 break;
+            case "Profiler.startStreaming":
+                Params streamingParams = cmd.getParams();
+                profiler.startStreaming(streamingParams != null ? streamingParams.getJSONObject().optLong("reportInterval") : 0);
+                break;
             case "Profiler.stop":
                 resultParams = profiler.stop();
                 break;
@@ -371,6 +383,33 @@ public final class InspectServerSession implements MessageEndpoint {
             case "Profiler.takeTypeProfile":
                 resultParams = profiler.takeTypeProfile();
                 break;
+            case "HeapProfiler.enable":
+                heapProfiler.enable();
+                break;
+            case "HeapProfiler.disable":
+                heapProfiler.disable();
+                break;
+            case "HeapProfiler.collectGarbage":
+                heapProfiler.collectGarbage();
+                break;
+            case "HeapProfiler.takeHeapSnapshot":
+                heapProfiler.takeHeapSnapshot(getReportProgress(cmd.getParams()));
+                break;
+            case "HeapProfiler.startTrackingHeapObjects":
+                heapProfiler.startTrackingHeapObjects();
+                break;
+            case "HeapProfiler.stopTrackingHeapObjects":
+                heapProfiler.stopTrackingHeapObjects(getReportProgress(cmd.getParams()));
+                break;
+            case "HeapProfiler.startSampling":
+                heapProfiler.startSampling();
+                break;
+            case "HeapProfiler.stopSampling":
+                resultParams = heapProfiler.stopSampling();
+                break;
+            case "HeapProfiler.getSamplingProfile":
+                resultParams = heapProfiler.getSamplingProfile();
+                break;
             case "Schema.getDomains":
                 resultParams = getDomains();
                 break;
@@ -380,11 +419,16 @@ public final class InspectServerSession implements MessageEndpoint {
         return resultParams;
     }
 
+    private static boolean getReportProgress(Params params) {
+        return params != null && params.getJSONObject().optBoolean("reportProgress");
+    }
+
     private static Params getDomains() {
         JSONArray domains = new JSONArray();
         domains.put(createJsonDomain("Runtime"));
         domains.put(createJsonDomain("Debugger"));
         domains.put(createJsonDomain("Profiler"));
+        domains.put(createJsonDomain("HeapProfiler"));
         domains.put(createJsonDomain("Schema"));
         JSONObject domainsObj = new JSONObject();
         domainsObj.put("domains", domains);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * This code is free software; you can redistribute it and/or modify it
@@ -144,6 +144,12 @@ public class CPUSamplerTest extends AbstractProfilerTest {
         Assert.assertTrue(children.size() == 0);
     }
 
+    @Test
+    public void testCorrectRootStructureStackWalking() {
+        sampler.setStackWalking(true);
+        testCorrectRootStructure();
+    }
+
     final Source defaultRecursiveSourceForSampling = makeSource("ROOT(" +
                     "DEFINE(rfoo,ROOT(BLOCK(RECURSIVE_CALL(foo, 10),SLEEP(1))))," +
                     "DEFINE(rbar,ROOT(BLOCK(STATEMENT,LOOP(10, CALL(foo)))))," +
@@ -541,6 +547,40 @@ public class CPUSamplerTest extends AbstractProfilerTest {
         traverseAndCompareForSameSource(rootNodes, threadToNodesMap.get(first), threadToNodesMap.get(second));
     }
 
+    @Test
+    public void testMultiThreadedStackWalking() throws InterruptedException {
+        sampler.setStackWalking(true);
+        sampler.setFilter(NO_INTERNAL_ROOT_TAG_FILTER);
+        sampler.setCollecting(true);
+        Runnable runnable = new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < executionCount; i++) {
+                    eval(defaultSourceForSampling);
+                }
+            }
+        };
+        // both threads answer the same sampling requests
+        Thread first = new Thread(runnable);
+        Thread second = new Thread(runnable);
+        first.start();
+        second.start();
+        first.join();
+        second.join();
+        Map<Thread, Collection<ProfilerNode<CPUSampler.Payload>>> threadToNodesMap = sampler.getThreadToNodesMap();
+        Assert.assertNotNull("first thread was not sampled", threadToNodesMap.get(first));
+        Assert.assertNotNull("second thread was not sampled", threadToNodesMap.get(second));
+        traverseAndCompareForSameSource(sampler.getRootNodes(), threadToNodesMap.get(first), threadToNodesMap.get(second));
+
+        // sampling continues after the sampled threads terminated
+        long sampleCount = sampler.getSampleCount();
+        for (int i = 0; i < executionCount; i++) {
+            eval(defaultSourceForSampling);
+        }
+        Assert.assertTrue(sampler.getSampleCount() > sampleCount);
+        Assert.assertNotNull("current thread was not sampled", sampler.getThreadToNodesMap().get(Thread.currentThread()));
+    }
+
     private void traverseAndCompareForSameSource(Collection<ProfilerNode<CPUSampler.Payload>> rootNodes, Collection<ProfilerNode<CPUSampler.Payload>> profilerNodes1,
                     Collection<ProfilerNode<CPUSampler.Payload>> profilerNodes2) {
         for (ProfilerNode<CPUSampler.Payload> node : rootNodes) {
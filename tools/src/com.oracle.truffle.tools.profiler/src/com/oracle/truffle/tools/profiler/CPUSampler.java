@@ -63,7 +63,9 @@ import com.oracle.truffle.tools.profiler.impl.ProfilerToolFactory;
  * <p>
  * The sampler keeps a shadow stack during execution. This shadow stack is sampled at regular
  * intervals, i.e. the state of the stack is copied and saved into trees of {@linkplain ProfilerNode
- * nodes}, which represent the profile of the execution.
+ * nodes}, which represent the profile of the execution. Alternatively the sampler can be configured
+ * to {@linkplain #setStackWalking(boolean) walk the stack} at each sample instead of maintaining a
+ * shadow stack.
  * <p>
  * Usage example: {@codesnippet CPUSamplerSnippets#example}
  *
@@ -212,6 +214,7 @@ public final class CPUSampler implements Closeable {
     private TimerTask samplerTask;
 
     private volatile ShadowStack shadowStack;
+    private volatile StackWalkSampler stackWalkSampler;
     private volatile EventBinding<?> stacksBinding;
 
     private final Map<Thread, ProfilerNode<Payload>> rootNodes = new HashMap<>();
@@ -220,6 +223,8 @@ public final class CPUSampler implements Closeable {
 
     private boolean gatherSelfHitTimes = false;
 
+    private boolean stackWalking = false;
+
     private volatile boolean nonInternalLanguageContextInitialized = false;
 
     private boolean delaySamplingUntilNonInternalLangInit = true;
@@ -383,6 +388,41 @@ public final class CPUSampler implements Closeable {
         this.delaySamplingUntilNonInternalLangInit = delaySamplingUntilNonInternalLangInit;
     }
 
+    /**
+     * Sets whether the sampler walks the stack of each thread at every sample instead of keeping a
+     * shadow stack during execution.
+     * <p>
+     * With a shadow stack every call and return of an instrumented location is recorded, which is
+     * precise but slows down the profiled program, in particular in compiled code. In stack walking
+     * mode the instrumented locations only check whether a sample was requested, and the stack is
+     * reconstructed from the {@linkplain com.oracle.truffle.api.TruffleRuntime#iterateFrames
+     * frames} of the thread only when a sample is due. The targeted overhead of this mode is below
+     * 2% of the execution time with the default period. The resulting {@linkplain ProfilerNode
+     * trees} have the same structure as with a shadow stack, with the following differences:
+     * <ul>
+     * <li>A thread answers a sample request when it reaches the next instrumented location, so
+     * samples are biased towards those locations and threads that are blocked are not sampled.
+     * <li>Inlined roots are always reported, so {@link Mode#EXCLUDE_INLINED_ROOTS} behaves like
+     * {@link Mode#ROOTS}.
+     * </ul>
+     *
+     * @param stackWalking <code>true</code> to walk the stack, <code>false</code> to use a shadow
+     *            stack (the default)
+     * @since 1.0
+     */
+    public synchronized void setStackWalking(boolean stackWalking) {
+        enterChangeConfig();
+        this.stackWalking = stackWalking;
+    }
+
+    /**
+     * @return whether the sampler walks the stack instead of keeping a shadow stack
+     * @since 1.0
+     */
+    public synchronized boolean isStackWalking() {
+        return stackWalking;
+    }
+
     /**
      * @return The filter describing which part of the source code to sample
      * @since 0.30
@@ -541,6 +581,9 @@ public final class CPUSampler implements Closeable {
      * @since 1.0
      */
     public Map<Thread, List<StackTraceEntry>> takeSample() {
+        if (stackWalking) {
+            return takeStackWalkSample();
+        }
         ShadowStack localShadowStack = shadowStack;
         if (localShadowStack == null) {
             localShadowStack = initializeShadowStack();
@@ -566,6 +609,34 @@ public final class CPUSampler implements Closeable {
         return Collections.unmodifiableMap(stacks);
     }
 
+    private Map<Thread, List<StackTraceEntry>> takeStackWalkSample() {
+        StackWalkSampler localSampler = stackWalkSampler;
+        if (localSampler == null) {
+            localSampler = initializeStackWalkSampler();
+        }
+        if (delaySamplingUntilNonInternalLangInit && !nonInternalLanguageContextInitialized) {
+            return Collections.emptyMap();
+        }
+        if (!collecting) {
+            // nobody else requests samples, the threads answer with their next poll
+            localSampler.request();
+        }
+        Map<Thread, List<StackTraceEntry>> stacks = new HashMap<>();
+        for (StackWalkSampler.ThreadSample sample : localSampler.getSamples()) {
+            if (sample.hasStackOverflowed()) {
+                stackOverflowed = true;
+                continue;
+            }
+            StackTraceEntry[] strace = sample.getStack();
+            if (strace != null && strace.length > 0 && sample.getThread().isAlive()) {
+                final List<StackTraceEntry> stackTraceEntries = Arrays.asList(strace.clone());
+                Collections.reverse(stackTraceEntries);
+                stacks.put(sample.getThread(), Collections.unmodifiableList(stackTraceEntries));
+            }
+        }
+        return Collections.unmodifiableMap(stacks);
+    }
+
     static Map<Thread, StackTraceElement[]> toStackTraceElement(Map<Thread, List<StackTraceEntry>> sample) {
         Map<Thread, StackTraceElement[]> converted = new HashMap<>();
         for (Entry<Thread, List<StackTraceEntry>> entry : sample.entrySet()) {
@@ -588,6 +659,20 @@ public final class CPUSampler implements Closeable {
         return localShadowStack;
     }
 
+    private synchronized StackWalkSampler initializeStackWalkSampler() {
+        StackWalkSampler localSampler = stackWalkSampler;
+        if (localSampler == null) {
+            assert stacksBinding == null;
+            SourceSectionFilter f = this.filter;
+            if (f == null) {
+                f = DEFAULT_FILTER;
+            }
+            this.stackWalkSampler = localSampler = new StackWalkSampler(stackLimit, combine(f, mode), env.getInstrumenter(), TruffleLogger.getLogger(CPUSamplerInstrument.ID));
+            this.stacksBinding = localSampler.install();
+        }
+        return localSampler;
+    }
+
     private void resetSampling() {
         assert Thread.holdsLock(this);
         cleanup();
@@ -599,7 +684,11 @@ public final class CPUSampler implements Closeable {
             samplerThread = new Timer("Sampling thread", true);
         }
         this.stackOverflowed = false;
-        initializeShadowStack();
+        if (stackWalking) {
+            initializeStackWalkSampler();
+        } else {
+            initializeShadowStack();
+        }
         this.samplerTask = new SamplingTimerTask();
         this.samplerThread.schedule(samplerTask, delay, period);
     }
@@ -637,16 +726,15 @@ public final class CPUSampler implements Closeable {
     }
 
     private void invalidateStack() {
-        ShadowStack localShadowStack = this.shadowStack;
-        if (localShadowStack != null) {
+        if (this.shadowStack != null || this.stackWalkSampler != null) {
             synchronized (this) {
-                localShadowStack = this.shadowStack;
-                if (localShadowStack != null) {
+                if (this.shadowStack != null || this.stackWalkSampler != null) {
                     if (stacksBinding != null) {
                         stacksBinding.dispose();
                         stacksBinding = null;
                     }
                     shadowStack = null;
+                    stackWalkSampler = null;
                 } else {
                     assert stacksBinding == null;
                 }
@@ -666,23 +754,40 @@ public final class CPUSampler implements Closeable {
             ShadowStack localShadowStack = shadowStack;
             if (localShadowStack != null) {
                 for (ShadowStack.ThreadLocalStack stack : localShadowStack.getStacks()) {
-                    ProfilerNode<Payload> threadNode;
-                    synchronized (CPUSampler.this) {
-                        threadNode = rootNodes.computeIfAbsent(stack.getThread(), new Function<Thread, ProfilerNode<Payload>>() {
-                            @Override
-                            public ProfilerNode<Payload> apply(Thread thread) {
-                                return new ProfilerNode<>();
-                            }
-                        });
+                    sampleTaken |= sample(stack, timestamp, getThreadNode(stack.getThread()));
+                }
+            }
+            StackWalkSampler localSampler = stackWalkSampler;
+            if (localSampler != null) {
+                // record the stacks captured in answer to the previous request
+                for (StackWalkSampler.ThreadSample sample : localSampler.getSamples()) {
+                    if (sample.hasStackOverflowed()) {
+                        stackOverflowed = true;
+                        continue;
+                    }
+                    StackTraceEntry[] stackFrames = sample.consumeStack();
+                    if (stackFrames != null) {
+                        sampleTaken |= sample(stackFrames, sample.getTimestamp(), getThreadNode(sample.getThread()));
                     }
-                    sampleTaken |= sample(stack, timestamp, threadNode);
                 }
+                localSampler.request();
             }
             if (sampleTaken) {
                 samplesTaken.incrementAndGet();
             }
         }
 
+        private ProfilerNode<Payload> getThreadNode(Thread currentThread) {
+            synchronized (CPUSampler.this) {
+                return rootNodes.computeIfAbsent(currentThread, new Function<Thread, ProfilerNode<Payload>>() {
+                    @Override
+                    public ProfilerNode<Payload> apply(Thread thread) {
+                        return new ProfilerNode<>();
+                    }
+                });
+            }
+        }
+
         boolean sample(ShadowStack.ThreadLocalStack stack, long timestamp, ProfilerNode<Payload> threadNode) {
             if (stack.hasStackOverflowed()) {
                 stackOverflowed = true;
@@ -692,7 +797,10 @@ public final class CPUSampler implements Closeable {
                 // nothing on the stack
                 return false;
             }
-            StackTraceEntry[] stackFrames = stack.getStack();
+            return sample(stack.getStack(), timestamp, threadNode);
+        }
+
+        boolean sample(StackTraceEntry[] stackFrames, long timestamp, ProfilerNode<Payload> threadNode) {
             if (stackFrames == null || stackFrames.length == 0) {
                 return false;
             }
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.profiler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLogger;
+import com.oracle.truffle.api.frame.FrameInstance;
+import com.oracle.truffle.api.frame.FrameInstanceVisitor;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNodeFactory;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeCost;
+
+/**
+ * Stack sampling without a shadow stack. Instead of recording every call and return, the sampler
+ * thread only {@link #request() requests} a sample at each tick. Guest threads poll for such a
+ * request at the instrumented locations and, if one is pending, walk their own stack using
+ * {@link com.oracle.truffle.api.TruffleRuntime#iterateFrames(FrameInstanceVisitor)}. The common
+ * case is therefore a single volatile read per instrumented location and no per-call bookkeeping.
+ * <p>
+ * Each thread captures at most one stack per tick. A request is withdrawn as soon as all threads
+ * that were runnable at the time of the tick have answered it, so threads that do not reach a poll
+ * point do not keep the other threads on the slow path for longer than one period.
+ */
+final class StackWalkSampler {
+
+    private final ConcurrentHashMap<Thread, ThreadSample> samples = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Node, StackTraceEntry> entries = new ConcurrentHashMap<>();
+    private final int stackLimit;
+    private final SourceSectionFilter sourceSectionFilter;
+    private final Instrumenter instrumenter;
+    private final TruffleLogger logger;
+
+    private final AtomicInteger pendingThreads = new AtomicInteger();
+    private volatile long tick;
+    private volatile boolean requested;
+
+    StackWalkSampler(int stackLimit, SourceSectionFilter sourceSectionFilter, Instrumenter instrumenter, TruffleLogger logger) {
+        this.stackLimit = stackLimit;
+        this.sourceSectionFilter = sourceSectionFilter;
+        this.instrumenter = instrumenter;
+        this.logger = logger;
+    }
+
+    Collection<ThreadSample> getSamples() {
+        return samples.values();
+    }
+
+    EventBinding<?> install() {
+        return instrumenter.attachExecutionEventFactory(sourceSectionFilter, new ExecutionEventNodeFactory() {
+            public ExecutionEventNode create(EventContext context) {
+                Node instrumentedNode = context.getInstrumentedNode();
+                if (instrumentedNode.getSourceSection() == null) {
+                    logger.warning("Instrumented node " + instrumentedNode + " has null SourceSection.");
+                    return null;
+                }
+                return new SamplePollNode(StackWalkSampler.this, context);
+            }
+        });
+    }
+
+    /**
+     * Asks all guest threads to capture their stack at their next poll point. Called by the sampler
+     * thread once per period, after it consumed the stacks captured for the previous request, so
+     * the samples of threads that terminated in the meantime are dropped here.
+     */
+    void request() {
+        int runnable = 0;
+        for (Iterator<ThreadSample> iterator = samples.values().iterator(); iterator.hasNext();) {
+            Thread.State state = iterator.next().thread.getState();
+            if (state == Thread.State.RUNNABLE) {
+                runnable++;
+            } else if (state == Thread.State.TERMINATED) {
+                iterator.remove();
+            }
+        }
+        // threads that never polled before are not known yet, so always wait for at least one
+        pendingThreads.set(Math.max(runnable, 1));
+        tick++;
+        requested = true;
+    }
+
+    @TruffleBoundary
+    void poll(StackTraceEntry location) {
+        Thread currentThread = Thread.currentThread();
+        ThreadSample sample = samples.get(currentThread);
+        if (sample == null) {
+            sample = new ThreadSample(currentThread);
+            ThreadSample prevSample = samples.putIfAbsent(currentThread, sample);
+            if (prevSample != null) {
+                sample = prevSample;
+            }
+        }
+        long currentTick = tick;
+        if (sample.lastTick == currentTick) {
+            // this thread already answered the current request
+            return;
+        }
+        sample.lastTick = currentTick;
+        sample.capture(location, currentTick);
+        if (pendingThreads.decrementAndGet() <= 0) {
+            requested = false;
+        }
+    }
+
+    private StackTraceEntry getEntry(Node node, byte state) {
+        StackTraceEntry entry = entries.get(node);
+        if (entry == null) {
+            entry = new StackTraceEntry(instrumenter, node, StackTraceEntry.STATE_INTERPRETED);
+            StackTraceEntry prevEntry = entries.putIfAbsent(node, entry);
+            if (prevEntry != null) {
+                entry = prevEntry;
+            }
+        }
+        return state == StackTraceEntry.STATE_INTERPRETED ? entry : new StackTraceEntry(entry, state);
+    }
+
+    private void addEnclosingEntries(ArrayList<StackTraceEntry> sourceLocations, Node node, byte state) {
+        Node current = node.getParent();
+        while (current != null) {
+            if (sourceSectionFilter.includes(current) && current.getSourceSection() != null) {
+                sourceLocations.add(getEntry(current, state));
+            }
+            current = current.getParent();
+        }
+    }
+
+    private static class SamplePollNode extends ExecutionEventNode {
+
+        private final StackWalkSampler sampler;
+
+        private final StackTraceEntry compilationRootLocation;
+        private final StackTraceEntry compiledLocation;
+        private final StackTraceEntry interpretedLocation;
+
+        SamplePollNode(StackWalkSampler sampler, EventContext context) {
+            this.sampler = sampler;
+            this.interpretedLocation = new StackTraceEntry(sampler.instrumenter, context, StackTraceEntry.STATE_INTERPRETED);
+            this.compiledLocation = new StackTraceEntry(interpretedLocation, StackTraceEntry.STATE_COMPILED);
+            this.compilationRootLocation = new StackTraceEntry(interpretedLocation, StackTraceEntry.STATE_COMPILATION_ROOT);
+        }
+
+        @Override
+        protected void onEnter(VirtualFrame frame) {
+            if (sampler.requested) {
+                StackTraceEntry location = CompilerDirectives.inInterpreter() ? interpretedLocation : (CompilerDirectives.inCompilationRoot() ? compilationRootLocation : compiledLocation);
+                sampler.poll(location);
+            }
+        }
+
+        @Override
+        public NodeCost getCost() {
+            return NodeCost.NONE;
+        }
+    }
+
+    final class ThreadSample {
+
+        private final Thread thread;
+        private long lastTick;
+        private long lastConsumedTick;
+
+        private volatile long capturedTick;
+        private volatile StackTraceEntry[] stack;
+        private volatile long timestamp;
+        private volatile boolean stackOverflowed;
+
+        ThreadSample(Thread thread) {
+            this.thread = thread;
+        }
+
+        private void capture(StackTraceEntry location, long currentTick) {
+            ArrayList<StackTraceEntry> sourceLocations = new ArrayList<>();
+            sourceLocations.add(location);
+            addEnclosingEntries(sourceLocations, location.getInstrumentedNode(), location.isInterpreted() ? StackTraceEntry.STATE_INTERPRETED : StackTraceEntry.STATE_COMPILATION_ROOT);
+            Object overflow = Truffle.getRuntime().iterateFrames(new FrameInstanceVisitor<Object>() {
+                @Override
+                public Object visitFrame(FrameInstance frameInstance) {
+                    Node callNode = frameInstance.getCallNode();
+                    if (callNode != null) {
+                        byte state = frameInstance.isVirtualFrame() ? StackTraceEntry.STATE_COMPILATION_ROOT : StackTraceEntry.STATE_INTERPRETED;
+                        addEnclosingEntries(sourceLocations, callNode, state);
+                    }
+                    return sourceLocations.size() > stackLimit ? Boolean.TRUE : null;
+                }
+            });
+            if (overflow != null) {
+                stackOverflowed = true;
+                return;
+            }
+            Collections.reverse(sourceLocations);
+            this.timestamp = System.currentTimeMillis();
+            this.stack = sourceLocations.toArray(new StackTraceEntry[sourceLocations.size()]);
+            this.capturedTick = currentTick;
+        }
+
+        Thread getThread() {
+            return thread;
+        }
+
+        /**
+         * Returns the most recently captured stack, ordered from the bottom to the top, or
+         * <code>null</code> if this thread has not answered any request yet.
+         */
+        StackTraceEntry[] getStack() {
+            return stack;
+        }
+
+        /**
+         * Returns the stack captured since the last invocation of this method, or <code>null</code>
+         * if the thread did not answer a request in the meantime. Must only be called by the
+         * sampler thread.
+         */
+        StackTraceEntry[] consumeStack() {
+            long answeredTick = capturedTick;
+            if (answeredTick == lastConsumedTick) {
+                return null;
+            }
+            lastConsumedTick = answeredTick;
+            return stack;
+        }
+
+        long getTimestamp() {
+            return timestamp;
+        }
+
+        boolean hasStackOverflowed() {
+            return stackOverflowed;
+        }
+    }
+}
@@ -115,6 +115,8 @@ class CPUSamplerCLI extends ProfilerCLI {
 
     @Option(name = "GatherHitTimes", help = "Save a timestamp for each taken sample (default:false).", category = OptionCategory.USER) static final OptionKey<Boolean> GATHER_HIT_TIMES = new OptionKey<>(false);
 
+    @Option(name = "StackWalking", help = "Walk the stack at each sample instead of keeping a shadow stack. Lower overhead, but samples are taken at the next sampled location (default:false).", category = OptionCategory.USER) static final OptionKey<Boolean> STACK_WALKING = new OptionKey<>(false);
+
     static void handleOutput(TruffleInstrument.Env env, CPUSampler sampler) {
         PrintStream out = new PrintStream(env.out());
         if (sampler.hasStackOverflowed()) {
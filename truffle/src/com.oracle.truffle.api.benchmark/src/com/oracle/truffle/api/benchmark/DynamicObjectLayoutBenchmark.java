@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.DynamicObjectFactory;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * Compares objects allocated from a root shape with objects allocated through an
+ * {@linkplain Layout#createAllocationSite(Shape) allocation site}, for objects with a varying
+ * number of properties.
+ */
+@State(Scope.Thread)
+public class DynamicObjectLayoutBenchmark extends TruffleBenchmark {
+
+    private static final Layout LAYOUT = Layout.createLayout();
+    private static final String[] KEYS = {"p0", "p1", "p2", "p3", "p4", "p5", "p6", "p7", "p8", "p9", "p10", "p11", "p12", "p13", "p14", "p15"};
+
+    @Param({"4", "8", "12", "16"}) public int properties;
+    @Param({"false", "true"}) public boolean allocationSite;
+
+    private DynamicObjectFactory factory;
+    private DynamicObject object;
+
+    @Setup
+    public void setup() {
+        Shape rootShape = LAYOUT.createShape(new ObjectType());
+        factory = allocationSite ? LAYOUT.createAllocationSite(rootShape) : rootShape.createFactory();
+        /* Let the allocation site settle on a layout before measuring. */
+        for (int i = 0; i < 100; i++) {
+            object = allocate();
+        }
+    }
+
+    private DynamicObject allocate() {
+        DynamicObject newObject = factory.newInstance();
+        for (int i = 0; i < properties; i++) {
+            newObject.define(KEYS[i], (i & 1) == 0 ? (Object) i : KEYS[i]);
+        }
+        return newObject;
+    }
+
+    @Benchmark
+    public Object allocateAndInitialize() {
+        return allocate();
+    }
+
+    @Benchmark
+    public int readProperties() {
+        int hash = 0;
+        for (int i = 0; i < properties; i++) {
+            hash += object.get(KEYS[i]).hashCode();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public Object writeProperties() {
+        for (int i = 0; i < properties; i++) {
+            object.set(KEYS[i], (i & 1) == 0 ? (Object) (i + 1) : KEYS[i]);
+        }
+        return object;
+    }
+}
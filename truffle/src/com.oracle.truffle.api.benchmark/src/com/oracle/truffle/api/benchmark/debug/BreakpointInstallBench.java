@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark.debug;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.oracle.truffle.api.debug.Breakpoint;
+import com.oracle.truffle.api.debug.Debugger;
+import com.oracle.truffle.api.debug.DebuggerSession;
+import com.oracle.truffle.api.debug.SuspendedCallback;
+import com.oracle.truffle.api.debug.SuspendedEvent;
+
+/**
+ * Measures how long it takes to install and remove a breakpoint in one source, depending on the
+ * number of roots that were loaded and executed from other sources before.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class BreakpointInstallBench implements SuspendedCallback {
+
+    private static final int FUNCTIONS_PER_SOURCE = 10;
+
+    @Param({"10", "100", "1000"}) public int sources;
+
+    private Context context;
+    private DebuggerSession session;
+    private Source breakpointSource;
+
+    @Setup
+    public void beforeTesting() {
+        context = Context.create();
+        for (int i = 0; i < sources; i++) {
+            Source source = Source.newBuilder("instrumentation-test-language", createCode(i), "AttachTest" + i + ".instr").buildLiteral();
+            if (i == 0) {
+                breakpointSource = source;
+            }
+            context.eval(source);
+        }
+        Debugger debugger = context.getEngine().getInstruments().get("debugger").lookup(Debugger.class);
+        session = debugger.startSession(this);
+    }
+
+    private static String createCode(int sourceIndex) {
+        StringBuilder code = new StringBuilder("ROOT(\n");
+        for (int i = 0; i < FUNCTIONS_PER_SOURCE; i++) {
+            code.append("  DEFINE(f").append(sourceIndex).append('_').append(i).append(", STATEMENT(EXPRESSION)),\n");
+        }
+        for (int i = 0; i < FUNCTIONS_PER_SOURCE; i++) {
+            code.append("  CALL(f").append(sourceIndex).append('_').append(i).append("),\n");
+        }
+        code.append("  STATEMENT\n)");
+        return code.toString();
+    }
+
+    @TearDown
+    public void afterTesting() {
+        session.close();
+        context.close();
+    }
+
+    @Benchmark
+    public void installBreakpoint() {
+        Breakpoint breakpoint = Breakpoint.newBuilder(breakpointSource.getURI()).lineIs(2).build();
+        session.install(breakpoint);
+        breakpoint.dispose();
+    }
+
+    @Override
+    public void onSuspend(SuspendedEvent event) {
+        event.prepareContinue();
+    }
+}
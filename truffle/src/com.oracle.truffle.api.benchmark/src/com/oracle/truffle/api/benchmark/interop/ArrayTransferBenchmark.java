@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark.interop;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.oracle.truffle.api.benchmark.TruffleBenchmark;
+
+/**
+ * Compares transferring array elements between Java and polyglot values one element at a time with
+ * the bulk {@link Value#readArrayElements(long, Object, int, int)} and
+ * {@link Value#writeArrayElements(long, Object, int, int)} methods, both for host arrays and for
+ * arrays that are not backed by a Java array of the same type.
+ */
+@State(Scope.Thread)
+public class ArrayTransferBenchmark extends TruffleBenchmark {
+
+    private static final int SIZE = 100_000;
+
+    private Context context;
+    private Value hostArray;
+    private Value proxyArray;
+    private final int[] buffer = new int[SIZE];
+
+    @Setup
+    public void setup() {
+        context = Context.create();
+        int[] ints = new int[SIZE];
+        Object[] boxed = new Object[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            ints[i] = i;
+            boxed[i] = i;
+        }
+        hostArray = context.asValue(ints);
+        proxyArray = context.asValue(ProxyArray.fromArray(boxed));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int[] readHostElementwise() {
+        for (int i = 0; i < SIZE; i++) {
+            buffer[i] = hostArray.getArrayElement(i).asInt();
+        }
+        return buffer;
+    }
+
+    @Benchmark
+    public int[] readHostBulk() {
+        hostArray.readArrayElements(0, buffer, 0, SIZE);
+        return buffer;
+    }
+
+    @Benchmark
+    public int[] readProxyElementwise() {
+        for (int i = 0; i < SIZE; i++) {
+            buffer[i] = proxyArray.getArrayElement(i).asInt();
+        }
+        return buffer;
+    }
+
+    @Benchmark
+    public int[] readProxyBulk() {
+        proxyArray.readArrayElements(0, buffer, 0, SIZE);
+        return buffer;
+    }
+
+    @Benchmark
+    public Value writeHostElementwise() {
+        for (int i = 0; i < SIZE; i++) {
+            hostArray.setArrayElement(i, buffer[i]);
+        }
+        return hostArray;
+    }
+
+    @Benchmark
+    public Value writeHostBulk() {
+        hostArray.writeArrayElements(0, buffer, 0, SIZE);
+        return hostArray;
+    }
+
+    @Benchmark
+    public Value writeProxyElementwise() {
+        for (int i = 0; i < SIZE; i++) {
+            proxyArray.setArrayElement(i, buffer[i]);
+        }
+        return proxyArray;
+    }
+
+    @Benchmark
+    public Value writeProxyBulk() {
+        proxyArray.writeArrayElements(0, buffer, 0, SIZE);
+        return proxyArray;
+    }
+}
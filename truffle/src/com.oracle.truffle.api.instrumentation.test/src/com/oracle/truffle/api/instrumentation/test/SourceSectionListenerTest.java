@@ -139,6 +139,31 @@ public class SourceSectionListenerTest extends AbstractInstrumentationTest {
         assertEvents(impl.onlyExpressions, sourceSections3[2], sourceSections3[3], sourceSections3[4]);
     }
 
+    @Test
+    public void testLoadSourceSectionSourceIs() throws IOException {
+        Instrument instrument = engine.getInstruments().get("testLoadSourceSection1");
+        SourceSection[] sourceSections1 = sections("STATEMENT(EXPRESSION, EXPRESSION)", "STATEMENT(EXPRESSION, EXPRESSION)", "EXPRESSION");
+        SourceSection[] sourceSections2 = sections("STATEMENT(EXPRESSION)", "STATEMENT(EXPRESSION)", "EXPRESSION");
+        Source source1 = sourceSections1[0].getSource();
+        Source source2 = sourceSections2[0].getSource();
+        run(source1);
+        run(source2);
+
+        assureEnabled(instrument);
+        TestLoadSourceSection1 impl = instrument.lookup(TestLoadSourceSection1.class);
+
+        assertSections(impl.query(SourceSectionFilter.newBuilder().sourceIs(getSourceImpl(source1)).build()), sourceSections1);
+        assertSections(impl.query(SourceSectionFilter.newBuilder().sourceIs(getSourceImpl(source2)).build()), sourceSections2);
+
+        // roots loaded after the first source limited query must be found as well
+        SourceSection[] sourceSections3 = sections("STATEMENT(EXPRESSION, EXPRESSION, EXPRESSION)", "STATEMENT(EXPRESSION, EXPRESSION, EXPRESSION)", "EXPRESSION");
+        Source source3 = sourceSections3[0].getSource();
+        run(source3);
+
+        assertSections(impl.query(SourceSectionFilter.newBuilder().sourceIs(getSourceImpl(source3)).build()), sourceSections3);
+        assertSections(impl.query(SourceSectionFilter.newBuilder().sourceIs(getSourceImpl(source1), getSourceImpl(source2)).build()), merge(sourceSections1, sourceSections2));
+    }
+
     private SourceSection[] sections(String code, String... match) {
         Source source = Source.newBuilder(InstrumentationTestLanguage.ID, code, "sourceSectionTest").buildLiteral();
 
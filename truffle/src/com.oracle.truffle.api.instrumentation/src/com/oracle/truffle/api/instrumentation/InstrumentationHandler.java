@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -121,6 +121,15 @@ final class InstrumentationHandler {
 
     private final Collection<RootNode> loadedRoots = new WeakAsyncList<>(256);
     private final Collection<RootNode> executedRoots = new WeakAsyncList<>(64);
+    /*
+     * Indices of "loadedRoots" and "executedRoots" by source. They are lazily initialized when the
+     * first binding with a filter that is limited to a set of sources is attached, and from then on
+     * kept up to date by onLoad() and onFirstExecution(). Both are only created while synchronized
+     * on "rootsIndexLock".
+     */
+    private final Object rootsIndexLock = new Object();
+    private volatile RootsBySource loadedRootsBySource;
+    private volatile RootsBySource executedRootsBySource;
     private final Collection<AllocationReporter> allocationReporters = new WeakAsyncList<>(16);
 
     private final Collection<EventBinding.Source<?>> executionBindings = new EventBindingList<>(8);
@@ -196,6 +205,10 @@ final class InstrumentationHandler {
         } else {
             loadedRoots.add(root);
         }
+        RootsBySource loadedIndex = loadedRootsBySource;
+        if (loadedIndex != null) {
+            loadedIndex.add(root, computeRootBits(root));
+        }
 
         // fast path no bindings attached
         if (!sourceSectionBindings.isEmpty()) {
@@ -293,6 +306,10 @@ final class InstrumentationHandler {
         } else {
             executedRoots.add(root);
         }
+        RootsBySource executedIndex = executedRootsBySource;
+        if (executedIndex != null) {
+            executedIndex.add(root, computeRootBits(root));
+        }
 
         // fast path no bindings attached
         if (!executionBindings.isEmpty()) {
@@ -387,7 +404,7 @@ final class InstrumentationHandler {
         this.executionBindings.add(binding);
 
         if (!executedRoots.isEmpty()) {
-            visitRoots(executedRoots, new InsertWrappersWithBindingVisitor(binding));
+            visitRoots(findExecutedRoots(binding), new InsertWrappersWithBindingVisitor(binding));
         }
 
         if (TRACE) {
@@ -405,7 +422,7 @@ final class InstrumentationHandler {
         this.sourceSectionBindings.add(binding);
         if (notifyLoaded) {
             if (!loadedRoots.isEmpty()) {
-                visitRoots(loadedRoots, new NotifyLoadedWithBindingVisitor(binding));
+                visitRoots(findLoadedRoots(binding), new NotifyLoadedWithBindingVisitor(binding));
             }
         }
 
@@ -422,7 +439,7 @@ final class InstrumentationHandler {
         }
 
         if (!loadedRoots.isEmpty()) {
-            visitRoots(loadedRoots, new NotifyLoadedWithBindingVisitor(binding));
+            visitRoots(findLoadedRoots(binding), new NotifyLoadedWithBindingVisitor(binding));
         }
 
         if (TRACE) {
@@ -628,6 +645,70 @@ final class InstrumentationHandler {
         }
     }
 
+    /**
+     * Returns the loaded roots that may contain source sections included by the binding. All
+     * loaded roots are returned unless the filter of the binding is limited to a set of sources.
+     */
+    private Collection<RootNode> findLoadedRoots(EventBinding.Source<?> binding) {
+        Source[] limitedSources = binding.getFilter().getLimitedSources();
+        if (limitedSources == null) {
+            return loadedRoots;
+        }
+        RootsBySource index = loadedRootsBySource;
+        if (index == null) {
+            synchronized (rootsIndexLock) {
+                index = loadedRootsBySource;
+                if (index == null) {
+                    index = loadedRootsBySource = new RootsBySource();
+                    indexRoots(index, loadedRoots);
+                }
+            }
+        }
+        return index.find(limitedSources);
+    }
+
+    /**
+     * Returns the executed roots that may contain source sections included by the binding. All
+     * executed roots are returned unless the filter of the binding is limited to a set of sources.
+     */
+    private Collection<RootNode> findExecutedRoots(EventBinding.Source<?> binding) {
+        Source[] limitedSources = binding.getFilter().getLimitedSources();
+        if (limitedSources == null) {
+            return executedRoots;
+        }
+        RootsBySource index = executedRootsBySource;
+        if (index == null) {
+            synchronized (rootsIndexLock) {
+                index = executedRootsBySource;
+                if (index == null) {
+                    index = executedRootsBySource = new RootsBySource();
+                    indexRoots(index, executedRoots);
+                }
+            }
+        }
+        return index.find(limitedSources);
+    }
+
+    private void indexRoots(RootsBySource index, Collection<RootNode> roots) {
+        /*
+         * The index is published before the existing roots are added, so roots that are loaded
+         * concurrently are added either here or by the loading thread. RootsBySource ignores
+         * roots that were added already.
+         */
+        for (RootNode root : roots) {
+            index.add(root, computeRootBits(root));
+        }
+    }
+
+    private int computeRootBits(RootNode root) {
+        int bits = RootNodeBits.get(root);
+        if (RootNodeBits.isUninitialized(bits)) {
+            visitRoot(root, root, new ComputeRootBitsVisitor(), true);
+            bits = RootNodeBits.get(root);
+        }
+        return bits;
+    }
+
     private void visitRoots(Collection<RootNode> roots, AbstractNodeVisitor addBindingsVisitor) {
         for (RootNode root : roots) {
             visitRoot(root, root, addBindingsVisitor, false);
@@ -643,7 +724,7 @@ final class InstrumentationHandler {
         if (binding instanceof EventBinding.Source) {
             EventBinding.Source<?> sourceBinding = (EventBinding.Source<?>) binding;
             if (sourceBinding.isExecutionEvent()) {
-                visitRoots(executedRoots, new DisposeWrappersVisitor(sourceBinding));
+                visitRoots(findExecutedRoots(sourceBinding), new DisposeWrappersVisitor(sourceBinding));
             }
         } else if (binding instanceof EventBinding.Allocation) {
             EventBinding.Allocation<?> allocationBinding = (EventBinding.Allocation<?>) binding;
@@ -1262,6 +1343,26 @@ final class InstrumentationHandler {
 
     }
 
+    /**
+     * Only computes the {@link RootNodeBits} of a root, without materializing any nodes.
+     */
+    private static final class ComputeRootBitsVisitor extends AbstractNodeVisitor {
+
+        ComputeRootBitsVisitor() {
+            this.materializeLimitedTags = Collections.emptySet();
+        }
+
+        @Override
+        boolean shouldVisit() {
+            return false;
+        }
+
+        @Override
+        protected void visitInstrumentable(Node parentInstrumentable, SourceSection parentSourceSection, Node instrumentableNode, SourceSection sourceSection) {
+        }
+
+    }
+
     private abstract class AbstractBindingVisitor extends AbstractNodeVisitor {
 
         protected final EventBinding.Source<?> binding;
@@ -2038,6 +2139,54 @@ final class InstrumentationHandler {
 
     }
 
+    /**
+     * An index of roots by source. Roots whose source sections all belong to the source of the root
+     * are indexed by that source. Roots with source sections of different sources are kept in a
+     * separate list that is part of every lookup. Roots without any source section cannot be
+     * included by a filter limited to sources and are not indexed at all.
+     */
+    private static final class RootsBySource {
+
+        private final Map<Source, Collection<RootNode>> rootsBySource = new WeakHashMap<>();
+        private final Collection<RootNode> mixedSourceRoots = new WeakAsyncList<>(16);
+        private final Set<RootNode> indexedRoots = Collections.newSetFromMap(new WeakHashMap<RootNode, Boolean>());
+
+        synchronized void add(RootNode root, int rootBits) {
+            if (!indexedRoots.add(root) || RootNodeBits.isNoSourceSection(rootBits)) {
+                return;
+            }
+            SourceSection rootSourceSection = root.getSourceSection();
+            if (RootNodeBits.isSameSource(rootBits) && rootSourceSection != null) {
+                Source source = rootSourceSection.getSource();
+                Collection<RootNode> roots = rootsBySource.get(source);
+                if (roots == null) {
+                    roots = new WeakAsyncList<>(4);
+                    rootsBySource.put(source, roots);
+                }
+                roots.add(root);
+            } else {
+                mixedSourceRoots.add(root);
+            }
+        }
+
+        synchronized Collection<RootNode> find(Source[] sources) {
+            List<RootNode> found = new ArrayList<>();
+            Set<Source> visitedSources = new HashSet<>(sources.length);
+            for (Source source : sources) {
+                Collection<RootNode> roots = rootsBySource.get(source);
+                if (roots != null && visitedSources.add(source)) {
+                    for (RootNode root : roots) {
+                        found.add(root);
+                    }
+                }
+            }
+            for (RootNode root : mixedSourceRoots) {
+                found.add(root);
+            }
+            return found;
+        }
+    }
+
     /**
      * An async list using weak references.
      */
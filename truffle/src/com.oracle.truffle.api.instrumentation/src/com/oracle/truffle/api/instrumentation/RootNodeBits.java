@@ -79,7 +79,7 @@ final class RootNodeBits {
     }
 
     static int setHasDifferentSource(int bits) {
-        return bits & ~NO_SOURCE_SECTION;
+        return bits & ~SAME_SOURCE;
     }
 
     static int setHasSourceSection(int bits) {
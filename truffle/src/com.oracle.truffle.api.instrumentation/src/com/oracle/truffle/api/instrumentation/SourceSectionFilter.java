@@ -174,6 +174,20 @@ public final class SourceSectionFilter {
         return requiredTags;
     }
 
+    /**
+     * Returns the sources that all source sections included by this filter belong to. Returns
+     * <code>null</code> if the filter is not limited to a known set of sources.
+     */
+    Source[] getLimitedSources() {
+        for (EventFilterExpression expression : expressions) {
+            Source[] limitedSources = expression.getLimitedSources();
+            if (limitedSources != null) {
+                return limitedSources;
+            }
+        }
+        return null;
+    }
+
     // implementation
     Set<Class<?>> getReferencedTags() {
         Set<Class<?>> usedTags = new HashSet<>();
@@ -726,6 +740,14 @@ public final class SourceSectionFilter {
             return false;
         }
 
+        /**
+         * Returns the sources that included source sections must belong to, or <code>null</code>
+         * if this expression does not limit the sources.
+         */
+        Source[] getLimitedSources() {
+            return null;
+        }
+
         abstract boolean isIncluded(Set<Class<?>> providedTags, Node instrumentedNode, SourceSection sourceSection);
 
         abstract boolean isRootIncluded(Set<Class<?>> providedTags, SourceSection rootSection, RootNode rootNode, int rootNodeBits);
@@ -860,6 +882,11 @@ public final class SourceSectionFilter {
                 return false;
             }
 
+            @Override
+            Source[] getLimitedSources() {
+                return sources;
+            }
+
             @Override
             boolean isRootIncluded(Set<Class<?>> providedTags, SourceSection rootSourceSection, RootNode rootNode, int rootNodeBits) {
                 if (RootNodeBits.isNoSourceSection(rootNodeBits)) {
@@ -1057,6 +1084,15 @@ public final class SourceSectionFilter {
                 return rootIncluded;
             }
 
+            @Override
+            Source[] getLimitedSources() {
+                Source[] sources = new Source[sourceSections.length];
+                for (int i = 0; i < sourceSections.length; i++) {
+                    sources[i] = sourceSections[i].getSource();
+                }
+                return sources;
+            }
+
             private boolean canContainSource(SourceSection rootSourceSection, int rootNodeBits) {
                 if (RootNodeBits.isSameSource(rootNodeBits)) {
                     Source rootSource = rootSourceSection.getSource();
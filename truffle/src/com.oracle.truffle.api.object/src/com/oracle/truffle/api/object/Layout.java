@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2013, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2013, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -131,6 +131,24 @@ public abstract class Layout {
      */
     public abstract Shape createShape(ObjectType objectType, Object sharedData, int id);
 
+    /**
+     * Creates a factory for the objects allocated at a single allocation site, e.g. a constructor
+     * call in the guest language, starting with the given root shape. Layouts that support
+     * multiple object sizes observe the shapes the first objects allocated by the factory end up
+     * with, and may then switch the factory to a root shape with the same object type and shared
+     * data but with more in-object storage, so that objects that acquire many properties do not
+     * need to grow extension arrays. The {@linkplain DynamicObjectFactory#getShape() shape} of
+     * the factory can therefore change over time.
+     *
+     * The default implementation returns {@code rootShape.createFactory()}.
+     *
+     * @param rootShape the shape of newly allocated objects
+     * @since 1.0
+     */
+    public DynamicObjectFactory createAllocationSite(Shape rootShape) {
+        return rootShape.createFactory();
+    }
+
     /**
      * Create an allocator for static property creation. Reserves all array extension slots.
      *
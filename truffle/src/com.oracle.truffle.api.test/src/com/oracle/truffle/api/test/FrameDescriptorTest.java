@@ -207,4 +207,69 @@ public class FrameDescriptorTest {
         assertEquals("c", frame.getObject(slot3));
         assertEquals("d", frame.getObject(slot4));
     }
+
+    @Test
+    public void indexedSlots() throws FrameSlotTypeException {
+        FrameDescriptor.Builder builder = FrameDescriptor.newBuilder().defaultValue("default");
+        int i0 = builder.addSlot(FrameSlotKind.Int, "i0", "info0");
+        int i1 = builder.addSlots(2, FrameSlotKind.Illegal);
+        FrameDescriptor d = builder.build();
+        assertEquals(0, i0);
+        assertEquals(1, i1);
+        assertEquals(3, d.getNumberOfSlots());
+        assertEquals(3, d.getSize());
+        assertEquals("i0", d.getSlotName(i0));
+        assertEquals("info0", d.getSlotInfo(i0));
+        assertNull(d.getSlotName(i1));
+        assertEquals(FrameSlotKind.Int, d.getSlotKind(i0));
+        assertEquals(FrameSlotKind.Illegal, d.getSlotKind(i1 + 1));
+
+        FrameSlot slot = d.addFrameSlot("v1");
+        assertEquals(4, d.getSize());
+        VirtualFrame f = Truffle.getRuntime().createVirtualFrame(new Object[0], d);
+        assertEquals("default", f.getValue(i1));
+        f.setInt(i0, 42);
+        f.setDouble(i1, 4.2d);
+        f.setObject(i1 + 1, "o");
+        f.setObject(slot, "s");
+        assertTrue(f.isInt(i0));
+        assertFalse(f.isObject(i0));
+        assertEquals(42, f.getInt(i0));
+        assertEquals(4.2d, f.getDouble(i1), 0d);
+        assertEquals("o", f.getObject(i1 + 1));
+        assertEquals("s", f.getObject(slot));
+        assertEquals(42, f.getValue(i0));
+        try {
+            f.getLong(i0);
+            fail();
+        } catch (FrameSlotTypeException e) {
+        }
+
+        Frame materialized = f.materialize();
+        assertEquals(42, materialized.getInt(i0));
+        materialized.setLong(i0, 43L);
+        assertEquals(43L, f.getLong(i0));
+    }
+
+    @Test
+    public void indexedSlotKind() {
+        FrameDescriptor d = FrameDescriptor.newBuilder().defaultValue(null).build();
+        assertEquals(0, d.getNumberOfSlots());
+
+        FrameDescriptor.Builder builder = FrameDescriptor.newBuilder();
+        builder.addSlots(2, FrameSlotKind.Illegal);
+        d = builder.build();
+        Assumption version = d.getVersion();
+        d.setSlotKind(0, FrameSlotKind.Illegal);
+        assertTrue("Same kind does not invalidate", version.isValid());
+        d.setSlotKind(0, FrameSlotKind.Long);
+        assertFalse(version.isValid());
+        assertTrue(d.getVersion().isValid());
+        assertEquals(FrameSlotKind.Long, d.getSlotKind(0));
+        assertEquals(FrameSlotKind.Illegal, d.getSlotKind(1));
+
+        FrameDescriptor copy = d.copy();
+        assertEquals(2, copy.getNumberOfSlots());
+        assertEquals("Kind isn't copied", FrameSlotKind.Illegal, copy.getSlotKind(0));
+    }
 }
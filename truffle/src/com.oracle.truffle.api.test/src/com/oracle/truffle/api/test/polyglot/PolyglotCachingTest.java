@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -58,6 +58,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.management.SourceCacheStatistics;
 import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.Test;
@@ -103,6 +104,73 @@ public class PolyglotCachingTest {
         assertEquals(4, parseCalled.get());
     }
 
+    @Test
+    public void testBoundedCacheEvictsLeastRecentlyUsed() throws Exception {
+        AtomicInteger parseCalled = new AtomicInteger(0);
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                parseCalled.incrementAndGet();
+                return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(""));
+            }
+        });
+        Context c = Context.newBuilder().option("engine.SourceCacheSize", "2").build();
+        Source a = Source.create(ProxyLanguage.ID, "a");
+        Source b = Source.create(ProxyLanguage.ID, "b");
+        Source d = Source.create(ProxyLanguage.ID, "d");
+
+        c.eval(a);
+        c.eval(b);
+        assertEquals(2, parseCalled.get());
+        c.eval(a); // hit, a becomes most recently used
+        assertEquals(2, parseCalled.get());
+        c.eval(d); // evicts b
+        assertEquals(3, parseCalled.get());
+        c.eval(a);
+        assertEquals(3, parseCalled.get());
+        c.eval(b);
+        assertEquals(4, parseCalled.get());
+        c.close();
+    }
+
+    @Test
+    public void testSourceCacheStatistics() throws Exception {
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(""));
+            }
+        });
+        Context c = Context.newBuilder().option("engine.SourceCacheSize", "2").build();
+        Source a = Source.create(ProxyLanguage.ID, "a");
+        Source b = Source.create(ProxyLanguage.ID, "b");
+        Source d = Source.create(ProxyLanguage.ID, "d");
+        assertSourceCacheStatistics(c, 0, 0, 0);
+
+        c.eval(a);
+        c.eval(b);
+        assertSourceCacheStatistics(c, 0, 2, 0);
+        c.eval(a);
+        c.eval(b);
+        assertSourceCacheStatistics(c, 2, 2, 0);
+        c.eval(d); // evicts a
+        assertSourceCacheStatistics(c, 2, 3, 1);
+        c.eval(a); // evicts b
+        assertSourceCacheStatistics(c, 2, 4, 2);
+
+        /* Uncached sources bypass the cache. */
+        c.eval(Source.newBuilder(ProxyLanguage.ID, "e", "e").cached(false).build());
+        assertSourceCacheStatistics(c, 2, 4, 2);
+        c.close();
+    }
+
+    private static void assertSourceCacheStatistics(Context c, long hits, long misses, long evictions) {
+        SourceCacheStatistics statistics = SourceCacheStatistics.get(c.getEngine(), ProxyLanguage.ID);
+        assertEquals(statistics.toString(), hits, statistics.getHits());
+        assertEquals(statistics.toString(), misses, statistics.getMisses());
+        assertEquals(statistics.toString(), evictions, statistics.getEvictions());
+    }
+
     /*
      * Tests that the outer source instance is never the same as the one passed in. That allows the
      * outer source instance to be collected while the inner one is still referenced strongly. The
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -51,6 +51,7 @@ import static com.oracle.truffle.api.test.polyglot.ValueAssert.Trait.NULL;
 import static com.oracle.truffle.api.test.polyglot.ValueAssert.Trait.NUMBER;
 import static com.oracle.truffle.api.test.polyglot.ValueAssert.Trait.PROXY_OBJECT;
 import static com.oracle.truffle.api.test.polyglot.ValueAssert.Trait.STRING;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
@@ -65,6 +66,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -289,6 +291,56 @@ public class ValueAPITest {
         assertEquals(3, vlist.getArraySize());
     }
 
+    @Test
+    public void testBulkArrayElements() {
+        int[] hostArray = new int[]{1, 2, 3, 4, 5};
+        Value v = context.asValue(hostArray);
+        int[] ints = new int[4];
+        v.readArrayElements(1, ints, 1, 3);
+        assertArrayEquals(new int[]{0, 2, 3, 4}, ints);
+        v.writeArrayElements(0, new int[]{10, 20}, 0, 2);
+        assertArrayEquals(new int[]{10, 20, 3, 4, 5}, hostArray);
+
+        double[] doubles = new double[5];
+        v.readArrayElements(0, doubles, 0, 5);
+        assertArrayEquals(new double[]{10, 20, 3, 4, 5}, doubles, 0);
+
+        List<Object> list = new ArrayList<>(Arrays.asList(1, 2, 3));
+        Value vlist = context.asValue(list);
+        long[] longs = new long[3];
+        vlist.readArrayElements(0, longs, 0, 3);
+        assertArrayEquals(new long[]{1, 2, 3}, longs);
+        vlist.writeArrayElements(1, new String[]{"a", "b"}, 0, 2);
+        assertEquals(Arrays.asList(1, "a", "b"), list);
+
+        String[] hostStrings = new String[]{"x", "y", "z"};
+        Value vstrings = context.asValue(hostStrings);
+        String[] strings = new String[3];
+        vstrings.readArrayElements(0, strings, 0, 3);
+        assertArrayEquals(hostStrings, strings);
+        vstrings.writeArrayElements(1, new String[]{"b", "c"}, 0, 2);
+        assertArrayEquals(new String[]{"x", "b", "c"}, hostStrings);
+        Object[] hostObjects = new Object[1];
+        context.asValue(hostObjects).writeArrayElements(0, new Object[]{context.asValue(42)}, 0, 1);
+        assertEquals(42, hostObjects[0]);
+
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        Value vbuffer = context.asValue(ProxyArray.fromByteBuffer(buffer));
+        assertEquals(4, vbuffer.getArraySize());
+        vbuffer.writeArrayElements(0, new byte[]{1, 2, 3, 4}, 0, 4);
+        assertEquals(3, buffer.get(2));
+        buffer.put(0, (byte) 42);
+        byte[] bytes = new byte[4];
+        vbuffer.readArrayElements(0, bytes, 0, 4);
+        assertArrayEquals(new byte[]{42, 2, 3, 4}, bytes);
+
+        ValueAssert.assertFails(() -> v.readArrayElements(4, ints, 0, 2), ArrayIndexOutOfBoundsException.class);
+        ValueAssert.assertFails(() -> v.readArrayElements(0, ints, 3, 2), IndexOutOfBoundsException.class);
+        ValueAssert.assertFails(() -> v.readArrayElements(0, "", 0, 0), IllegalArgumentException.class);
+        ValueAssert.assertFails(() -> v.readArrayElements(0, new boolean[1], 0, 1), ClassCastException.class);
+        ValueAssert.assertFails(() -> context.asValue("").readArrayElements(0, ints, 0, 1), UnsupportedOperationException.class);
+    }
+
     @Test
     public void testComplexGenericCoercion() {
         TypeLiteral<List<Map<Integer, Map<String, Object[]>>>> literal = new TypeLiteral<List<Map<Integer, Map<String, Object[]>>>>() {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -256,4 +256,195 @@ public interface Frame {
      * @since 0.8 or earlier
      */
     boolean isDouble(FrameSlot slot);
+
+    /**
+     * Read access to an indexed slot of type {@link Object}.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @return the current value of the slot
+     * @throws FrameSlotTypeException if the slot does not hold a value of type {@link Object}
+     * @since 1.0
+     */
+    Object getObject(int index) throws FrameSlotTypeException;
+
+    /**
+     * Write access to an indexed slot of type {@link Object}.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @param value the new value of the slot
+     * @since 1.0
+     */
+    void setObject(int index, Object value);
+
+    /**
+     * Read access to an indexed slot of type byte.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @return the current value of the slot
+     * @throws FrameSlotTypeException if the slot does not hold a value of type byte
+     * @since 1.0
+     */
+    byte getByte(int index) throws FrameSlotTypeException;
+
+    /**
+     * Write access to an indexed slot of type byte.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @param value the new value of the slot
+     * @since 1.0
+     */
+    void setByte(int index, byte value);
+
+    /**
+     * Read access to an indexed slot of type boolean.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @return the current value of the slot
+     * @throws FrameSlotTypeException if the slot does not hold a value of type boolean
+     * @since 1.0
+     */
+    boolean getBoolean(int index) throws FrameSlotTypeException;
+
+    /**
+     * Write access to an indexed slot of type boolean.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @param value the new value of the slot
+     * @since 1.0
+     */
+    void setBoolean(int index, boolean value);
+
+    /**
+     * Read access to an indexed slot of type int.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @return the current value of the slot
+     * @throws FrameSlotTypeException if the slot does not hold a value of type int
+     * @since 1.0
+     */
+    int getInt(int index) throws FrameSlotTypeException;
+
+    /**
+     * Write access to an indexed slot of type int.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @param value the new value of the slot
+     * @since 1.0
+     */
+    void setInt(int index, int value);
+
+    /**
+     * Read access to an indexed slot of type long.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @return the current value of the slot
+     * @throws FrameSlotTypeException if the slot does not hold a value of type long
+     * @since 1.0
+     */
+    long getLong(int index) throws FrameSlotTypeException;
+
+    /**
+     * Write access to an indexed slot of type long.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @param value the new value of the slot
+     * @since 1.0
+     */
+    void setLong(int index, long value);
+
+    /**
+     * Read access to an indexed slot of type float.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @return the current value of the slot
+     * @throws FrameSlotTypeException if the slot does not hold a value of type float
+     * @since 1.0
+     */
+    float getFloat(int index) throws FrameSlotTypeException;
+
+    /**
+     * Write access to an indexed slot of type float.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @param value the new value of the slot
+     * @since 1.0
+     */
+    void setFloat(int index, float value);
+
+    /**
+     * Read access to an indexed slot of type double.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @return the current value of the slot
+     * @throws FrameSlotTypeException if the slot does not hold a value of type double
+     * @since 1.0
+     */
+    double getDouble(int index) throws FrameSlotTypeException;
+
+    /**
+     * Write access to an indexed slot of type double.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @param value the new value of the slot
+     * @since 1.0
+     */
+    void setDouble(int index, double value);
+
+    /**
+     * Read access to an indexed slot of any type.
+     *
+     * @param index the index of the slot, see {@link FrameDescriptor#getNumberOfSlots()}
+     * @return the current value of the slot or the default value if unset
+     * @since 1.0
+     */
+    Object getValue(int index);
+
+    /**
+     * Check whether the indexed slot with the given index is of type Object.
+     *
+     * @since 1.0
+     */
+    boolean isObject(int index);
+
+    /**
+     * Check whether the indexed slot with the given index is of type byte.
+     *
+     * @since 1.0
+     */
+    boolean isByte(int index);
+
+    /**
+     * Check whether the indexed slot with the given index is of type boolean.
+     *
+     * @since 1.0
+     */
+    boolean isBoolean(int index);
+
+    /**
+     * Check whether the indexed slot with the given index is of type int.
+     *
+     * @since 1.0
+     */
+    boolean isInt(int index);
+
+    /**
+     * Check whether the indexed slot with the given index is of type long.
+     *
+     * @since 1.0
+     */
+    boolean isLong(int index);
+
+    /**
+     * Check whether the indexed slot with the given index is of type float.
+     *
+     * @since 1.0
+     */
+    boolean isFloat(int index);
+
+    /**
+     * Check whether the indexed slot with the given index is of type double.
+     *
+     * @since 1.0
+     */
+    boolean isDouble(int index);
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -42,6 +42,7 @@ package com.oracle.truffle.api.frame;
 
 import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
@@ -62,12 +63,25 @@ import org.graalvm.collections.EconomicMap;
 /**
  * Descriptor of the slots of frame objects. Multiple frame instances are associated with one such
  * descriptor. The FrameDescriptor is thread-safe.
+ * <p>
+ * A descriptor may declare a fixed number of <em>indexed slots</em> up front using a
+ * {@link #newBuilder() builder}. Indexed slots occupy the frame indices {@code 0} to
+ * {@link #getNumberOfSlots()}{@code  - 1} and are accessed with the {@code int} based accessors of
+ * {@link Frame}, e.g. {@link Frame#getInt(int)}. Unlike {@link FrameSlot frame slots}, they need
+ * neither a lookup by identifier nor locking of the descriptor on the fast path. Slots added with
+ * {@link #addFrameSlot(Object)} are allocated after the indexed slots.
  *
  * @since 0.8 or earlier
  */
 public final class FrameDescriptor implements Cloneable {
 
+    private static final FrameSlotKind[] EMPTY_KINDS = {};
+    private static final Object[] EMPTY_OBJECTS = {};
+
     private final Object defaultValue;
+    @CompilationFinal(dimensions = 1) private final FrameSlotKind[] indexedSlotKinds;
+    private final Object[] indexedSlotNames;
+    private final Object[] indexedSlotInfos;
     private final ArrayList<FrameSlot> slots;
     private final EconomicMap<Object, FrameSlot> identifierToSlotMap;
     @CompilationFinal private volatile Assumption version;
@@ -102,18 +116,105 @@ public final class FrameDescriptor implements Cloneable {
      * @since 0.8 or earlier
      */
     public FrameDescriptor(Object defaultValue) {
-        this(defaultValue, null);
+        this(defaultValue, EMPTY_KINDS, EMPTY_OBJECTS, EMPTY_OBJECTS);
     }
 
-    private FrameDescriptor(Object defaultValue, Object lock) {
+    private FrameDescriptor(Object defaultValue, FrameSlotKind[] indexedSlotKinds, Object[] indexedSlotNames, Object[] indexedSlotInfos) {
         CompilerAsserts.neverPartOfCompilation("do not create a FrameDescriptor from compiled code");
         this.defaultValue = defaultValue;
+        this.indexedSlotKinds = indexedSlotKinds;
+        this.indexedSlotNames = indexedSlotNames;
+        this.indexedSlotInfos = indexedSlotInfos;
         this.slots = new ArrayList<>();
         this.identifierToSlotMap = EconomicMap.create();
-        this.lock = lock == null ? this : lock;
+        this.lock = this;
+        this.size = indexedSlotKinds.length;
         newVersion(this);
     }
 
+    /**
+     * Creates a new builder for a descriptor with indexed slots.
+     *
+     * @since 1.0
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the number of indexed slots declared by the {@link Builder builder} of this
+     * descriptor. The number never changes after the descriptor was built.
+     *
+     * @since 1.0
+     */
+    public int getNumberOfSlots() {
+        return indexedSlotKinds.length;
+    }
+
+    /**
+     * Returns the current kind of an indexed slot. The kind is read without locking the
+     * descriptor, so it can be used as a profile on the fast path.
+     *
+     * @param index the index of the slot, less than {@link #getNumberOfSlots()}
+     * @throws ArrayIndexOutOfBoundsException if there is no indexed slot with the given index
+     * @since 1.0
+     */
+    public FrameSlotKind getSlotKind(int index) {
+        return indexedSlotKinds[index];
+    }
+
+    /**
+     * Changes the kind of an indexed slot. Like
+     * {@link #setFrameSlotKind(FrameSlot, FrameSlotKind)}, the change is done on the <em>slow
+     * path</em> and invalidates the {@link #getVersion() version} of this descriptor. Setting the
+     * kind the slot already has does not lock the descriptor.
+     *
+     * @param index the index of the slot, less than {@link #getNumberOfSlots()}
+     * @param kind new kind of the slot
+     * @throws ArrayIndexOutOfBoundsException if there is no indexed slot with the given index
+     * @since 1.0
+     */
+    public void setSlotKind(int index, FrameSlotKind kind) {
+        if (indexedSlotKinds[index] != kind) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            setSlotKindSlow(index, kind);
+        }
+    }
+
+    private void setSlotKindSlow(int index, FrameSlotKind kind) {
+        CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
+        Objects.requireNonNull(kind, "kind");
+        synchronized (lock) {
+            if (indexedSlotKinds[index] != kind) { // recheck under lock
+                invalidateVersion(this);
+                indexedSlotKinds[index] = kind;
+                newVersion(this);
+            }
+        }
+    }
+
+    /**
+     * Returns the name an indexed slot was declared with, or <code>null</code>.
+     *
+     * @param index the index of the slot, less than {@link #getNumberOfSlots()}
+     * @throws ArrayIndexOutOfBoundsException if there is no indexed slot with the given index
+     * @since 1.0
+     */
+    public Object getSlotName(int index) {
+        return indexedSlotNames[index];
+    }
+
+    /**
+     * Returns the additional information an indexed slot was declared with, or <code>null</code>.
+     *
+     * @param index the index of the slot, less than {@link #getNumberOfSlots()}
+     * @throws ArrayIndexOutOfBoundsException if there is no indexed slot with the given index
+     * @since 1.0
+     */
+    public Object getSlotInfo(int index) {
+        return indexedSlotInfos[index];
+    }
+
     /**
      * Adds frame slot. Delegates to
      * {@link #addFrameSlot(java.lang.Object, java.lang.Object, FrameSlotKind) addFrameSlot}
@@ -354,8 +455,8 @@ public final class FrameDescriptor implements Cloneable {
     }
 
     /**
-     * Returns the size of an array which is needed for storing all the frame slots. (The number may
-     * be bigger than the number of slots, if some slots are removed.)
+     * Returns the size of an array which is needed for storing all the indexed slots and frame
+     * slots. (The number may be bigger than the number of slots, if some slots are removed.)
      *
      * @return the size of the frame
      * @since 0.8 or earlier
@@ -467,7 +568,9 @@ public final class FrameDescriptor implements Cloneable {
     /**
      * Deeper copy of the descriptor. Copies all slots in the descriptor, but only their
      * {@linkplain FrameSlot#getIdentifier() identifier} and {@linkplain FrameSlot#getInfo() info}
-     * but not their {@linkplain FrameDescriptor#getFrameSlotKind(FrameSlot) kind}!
+     * but not their {@linkplain FrameDescriptor#getFrameSlotKind(FrameSlot) kind}! The same applies
+     * to indexed slots, which are copied with their {@linkplain #getSlotName(int) name} and
+     * {@linkplain #getSlotInfo(int) info}.
      *
      * @return new instance of a descriptor with copies of values from this one
      * @since 0.8 or earlier
@@ -475,7 +578,9 @@ public final class FrameDescriptor implements Cloneable {
     public FrameDescriptor copy() {
         CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
         synchronized (lock) {
-            FrameDescriptor clonedFrameDescriptor = new FrameDescriptor(this.defaultValue);
+            FrameSlotKind[] clonedKinds = indexedSlotKinds.length == 0 ? EMPTY_KINDS : new FrameSlotKind[indexedSlotKinds.length];
+            Arrays.fill(clonedKinds, FrameSlotKind.Illegal);
+            FrameDescriptor clonedFrameDescriptor = new FrameDescriptor(this.defaultValue, clonedKinds, indexedSlotNames, indexedSlotInfos);
             for (int i = 0; i < slots.size(); i++) {
                 FrameSlot slot = slots.get(i);
                 clonedFrameDescriptor.addFrameSlot(slot.getIdentifier(), slot.getInfo(), FrameSlotKind.Illegal);
@@ -571,6 +676,14 @@ public final class FrameDescriptor implements Cloneable {
             sb.append("FrameDescriptor@").append(Integer.toHexString(hashCode()));
             sb.append("{");
             boolean comma = false;
+            for (int i = 0; i < indexedSlotKinds.length; i++) {
+                if (comma) {
+                    sb.append(", ");
+                } else {
+                    comma = true;
+                }
+                sb.append(i).append(":").append(indexedSlotNames[i]);
+            }
             for (FrameSlot slot : slots) {
                 if (comma) {
                     sb.append(", ");
@@ -584,6 +697,98 @@ public final class FrameDescriptor implements Cloneable {
         }
     }
 
+    /**
+     * Builder for descriptors with indexed slots. Indexed slots are numbered in the order they are
+     * added, starting with {@code 0}.
+     *
+     * @see FrameDescriptor#newBuilder()
+     * @since 1.0
+     */
+    public static final class Builder {
+
+        private Object defaultValue;
+        private FrameSlotKind[] kinds = EMPTY_KINDS;
+        private Object[] names = EMPTY_OBJECTS;
+        private Object[] infos = EMPTY_OBJECTS;
+        private int count;
+
+        Builder() {
+        }
+
+        /**
+         * Sets the {@linkplain FrameDescriptor#getDefaultValue() default value} of the slots. The
+         * default is <code>null</code>.
+         *
+         * @since 1.0
+         */
+        public Builder defaultValue(Object value) {
+            this.defaultValue = value;
+            return this;
+        }
+
+        /**
+         * Adds an indexed slot.
+         *
+         * @param kind the initial kind of the slot
+         * @param name the name of the slot, may be <code>null</code>
+         * @param info additional information for the slot, may be <code>null</code>
+         * @return the index of the new slot
+         * @throws NullPointerException if {@code kind} is {@code null}
+         * @since 1.0
+         */
+        public int addSlot(FrameSlotKind kind, Object name, Object info) {
+            Objects.requireNonNull(kind, "kind");
+            ensureCapacity(count + 1);
+            kinds[count] = kind;
+            names[count] = name;
+            infos[count] = info;
+            return count++;
+        }
+
+        /**
+         * Adds a number of unnamed indexed slots of the same kind.
+         *
+         * @param number the number of slots to add
+         * @param kind the initial kind of the slots
+         * @return the index of the first added slot
+         * @throws IllegalArgumentException if {@code number} is negative
+         * @throws NullPointerException if {@code kind} is {@code null}
+         * @since 1.0
+         */
+        public int addSlots(int number, FrameSlotKind kind) {
+            if (number < 0) {
+                throw new IllegalArgumentException("negative number of slots: " + number);
+            }
+            Objects.requireNonNull(kind, "kind");
+            int first = count;
+            ensureCapacity(count + number);
+            Arrays.fill(kinds, first, first + number, kind);
+            count += number;
+            return first;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > kinds.length) {
+                int newLength = Math.max(capacity, kinds.length * 2);
+                kinds = Arrays.copyOf(kinds, newLength);
+                names = Arrays.copyOf(names, newLength);
+                infos = Arrays.copyOf(infos, newLength);
+            }
+        }
+
+        /**
+         * Creates the descriptor. The builder can be used to build further descriptors.
+         *
+         * @since 1.0
+         */
+        public FrameDescriptor build() {
+            if (count == 0) {
+                return new FrameDescriptor(defaultValue);
+            }
+            return new FrameDescriptor(defaultValue, Arrays.copyOf(kinds, count), Arrays.copyOf(names, count), Arrays.copyOf(infos, count));
+        }
+    }
+
     /** @since 0.14 */
     static final class AccessorFrames extends Accessor {
         @Override
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -184,4 +184,114 @@ final class DefaultMaterializedFrame implements MaterializedFrame {
     public boolean isDouble(FrameSlot slot) {
         return wrapped.isDouble(slot);
     }
+
+    @Override
+    public Object getObject(int index) throws FrameSlotTypeException {
+        return wrapped.getObject(index);
+    }
+
+    @Override
+    public void setObject(int index, Object value) {
+        wrapped.setObject(index, value);
+    }
+
+    @Override
+    public byte getByte(int index) throws FrameSlotTypeException {
+        return wrapped.getByte(index);
+    }
+
+    @Override
+    public void setByte(int index, byte value) {
+        wrapped.setByte(index, value);
+    }
+
+    @Override
+    public boolean getBoolean(int index) throws FrameSlotTypeException {
+        return wrapped.getBoolean(index);
+    }
+
+    @Override
+    public void setBoolean(int index, boolean value) {
+        wrapped.setBoolean(index, value);
+    }
+
+    @Override
+    public int getInt(int index) throws FrameSlotTypeException {
+        return wrapped.getInt(index);
+    }
+
+    @Override
+    public void setInt(int index, int value) {
+        wrapped.setInt(index, value);
+    }
+
+    @Override
+    public long getLong(int index) throws FrameSlotTypeException {
+        return wrapped.getLong(index);
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        wrapped.setLong(index, value);
+    }
+
+    @Override
+    public float getFloat(int index) throws FrameSlotTypeException {
+        return wrapped.getFloat(index);
+    }
+
+    @Override
+    public void setFloat(int index, float value) {
+        wrapped.setFloat(index, value);
+    }
+
+    @Override
+    public double getDouble(int index) throws FrameSlotTypeException {
+        return wrapped.getDouble(index);
+    }
+
+    @Override
+    public void setDouble(int index, double value) {
+        wrapped.setDouble(index, value);
+    }
+
+    @Override
+    public Object getValue(int index) {
+        return wrapped.getValue(index);
+    }
+
+    @Override
+    public boolean isObject(int index) {
+        return wrapped.isObject(index);
+    }
+
+    @Override
+    public boolean isByte(int index) {
+        return wrapped.isByte(index);
+    }
+
+    @Override
+    public boolean isBoolean(int index) {
+        return wrapped.isBoolean(index);
+    }
+
+    @Override
+    public boolean isInt(int index) {
+        return wrapped.isInt(index);
+    }
+
+    @Override
+    public boolean isLong(int index) {
+        return wrapped.isLong(index);
+    }
+
+    @Override
+    public boolean isFloat(int index) {
+        return wrapped.isFloat(index);
+    }
+
+    @Override
+    public boolean isDouble(int index) {
+        return wrapped.isDouble(index);
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -166,6 +166,96 @@ final class DefaultVirtualFrame implements VirtualFrame {
         locals[getFrameSlotIndex(slot)] = value;
     }
 
+    @Override
+    public Object getObject(int index) throws FrameSlotTypeException {
+        verifyGet(index, FrameSlotKind.Object);
+        return locals[index];
+    }
+
+    @Override
+    public void setObject(int index, Object value) {
+        verifySet(index, FrameSlotKind.Object);
+        locals[index] = value;
+    }
+
+    @Override
+    public byte getByte(int index) throws FrameSlotTypeException {
+        verifyGet(index, FrameSlotKind.Byte);
+        return (byte) locals[index];
+    }
+
+    @Override
+    public void setByte(int index, byte value) {
+        verifySet(index, FrameSlotKind.Byte);
+        locals[index] = value;
+    }
+
+    @Override
+    public boolean getBoolean(int index) throws FrameSlotTypeException {
+        verifyGet(index, FrameSlotKind.Boolean);
+        return (boolean) locals[index];
+    }
+
+    @Override
+    public void setBoolean(int index, boolean value) {
+        verifySet(index, FrameSlotKind.Boolean);
+        locals[index] = value;
+    }
+
+    @Override
+    public int getInt(int index) throws FrameSlotTypeException {
+        verifyGet(index, FrameSlotKind.Int);
+        return (int) locals[index];
+    }
+
+    @Override
+    public void setInt(int index, int value) {
+        verifySet(index, FrameSlotKind.Int);
+        locals[index] = value;
+    }
+
+    @Override
+    public long getLong(int index) throws FrameSlotTypeException {
+        verifyGet(index, FrameSlotKind.Long);
+        return (long) locals[index];
+    }
+
+    @Override
+    public void setLong(int index, long value) {
+        verifySet(index, FrameSlotKind.Long);
+        locals[index] = value;
+    }
+
+    @Override
+    public float getFloat(int index) throws FrameSlotTypeException {
+        verifyGet(index, FrameSlotKind.Float);
+        return (float) locals[index];
+    }
+
+    @Override
+    public void setFloat(int index, float value) {
+        verifySet(index, FrameSlotKind.Float);
+        locals[index] = value;
+    }
+
+    @Override
+    public double getDouble(int index) throws FrameSlotTypeException {
+        verifyGet(index, FrameSlotKind.Double);
+        return (double) locals[index];
+    }
+
+    @Override
+    public void setDouble(int index, double value) {
+        verifySet(index, FrameSlotKind.Double);
+        locals[index] = value;
+    }
+
+    @Override
+    public Object getValue(int index) {
+        int slotIndex = getSlotIndexChecked(index);
+        return locals[slotIndex];
+    }
+
     @Override
     public FrameDescriptor getFrameDescriptor() {
         return this.descriptor;
@@ -187,6 +277,15 @@ final class DefaultVirtualFrame implements VirtualFrame {
         return slotIndex;
     }
 
+    private int getSlotIndexChecked(int index) {
+        if (index >= tags.length) {
+            if (!resize()) {
+                throw new IllegalArgumentException(String.format("The frame slot index %s is not known by the frame descriptor.", index));
+            }
+        }
+        return index;
+    }
+
     private void verifySet(FrameSlot slot, FrameSlotKind accessKind) {
         int slotIndex = getSlotIndexChecked(slot);
         tags[slotIndex] = (byte) accessKind.ordinal();
@@ -194,6 +293,20 @@ final class DefaultVirtualFrame implements VirtualFrame {
 
     private void verifyGet(FrameSlot slot, FrameSlotKind accessKind) throws FrameSlotTypeException {
         int slotIndex = getSlotIndexChecked(slot);
+        verifyTag(slotIndex, accessKind);
+    }
+
+    private void verifySet(int index, FrameSlotKind accessKind) {
+        int slotIndex = getSlotIndexChecked(index);
+        tags[slotIndex] = (byte) accessKind.ordinal();
+    }
+
+    private void verifyGet(int index, FrameSlotKind accessKind) throws FrameSlotTypeException {
+        int slotIndex = getSlotIndexChecked(index);
+        verifyTag(slotIndex, accessKind);
+    }
+
+    private void verifyTag(int slotIndex, FrameSlotKind accessKind) throws FrameSlotTypeException {
         byte tag = tags[slotIndex];
         if (accessKind == FrameSlotKind.Object ? tag != 0 : tag != accessKind.ordinal()) {
             throw new FrameSlotTypeException();
@@ -217,6 +330,11 @@ final class DefaultVirtualFrame implements VirtualFrame {
         return tags[slotIndex];
     }
 
+    private byte getTag(int index) {
+        int slotIndex = getSlotIndexChecked(index);
+        return tags[slotIndex];
+    }
+
     @SuppressWarnings("deprecation")
     private static int getFrameSlotIndex(FrameSlot slot) {
         return slot.getIndex();
@@ -256,4 +374,39 @@ final class DefaultVirtualFrame implements VirtualFrame {
     public boolean isDouble(FrameSlot slot) {
         return getTag(slot) == FrameSlotKind.Double.ordinal();
     }
+
+    @Override
+    public boolean isObject(int index) {
+        return getTag(index) == FrameSlotKind.Object.ordinal();
+    }
+
+    @Override
+    public boolean isByte(int index) {
+        return getTag(index) == FrameSlotKind.Byte.ordinal();
+    }
+
+    @Override
+    public boolean isBoolean(int index) {
+        return getTag(index) == FrameSlotKind.Boolean.ordinal();
+    }
+
+    @Override
+    public boolean isInt(int index) {
+        return getTag(index) == FrameSlotKind.Int.ordinal();
+    }
+
+    @Override
+    public boolean isLong(int index) {
+        return getTag(index) == FrameSlotKind.Long.ordinal();
+    }
+
+    @Override
+    public boolean isFloat(int index) {
+        return getTag(index) == FrameSlotKind.Float.ordinal();
+    }
+
+    @Override
+    public boolean isDouble(int index) {
+        return getTag(index) == FrameSlotKind.Double.ordinal();
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2016, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2016, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -207,4 +207,136 @@ class ReadOnlyFrame implements Frame {
     public boolean isDouble(FrameSlot slot) {
         return delegate.isDouble(slot);
     }
+
+    @Override
+    @TruffleBoundary
+    public Object getObject(int index) throws FrameSlotTypeException {
+        return delegate.getObject(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setObject(int index, Object value) {
+        throw newReadonlyAssertionError();
+    }
+
+    @Override
+    @TruffleBoundary
+    public byte getByte(int index) throws FrameSlotTypeException {
+        return delegate.getByte(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setByte(int index, byte value) {
+        throw newReadonlyAssertionError();
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean getBoolean(int index) throws FrameSlotTypeException {
+        return delegate.getBoolean(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setBoolean(int index, boolean value) {
+        throw newReadonlyAssertionError();
+    }
+
+    @Override
+    @TruffleBoundary
+    public int getInt(int index) throws FrameSlotTypeException {
+        return delegate.getInt(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setInt(int index, int value) {
+        throw newReadonlyAssertionError();
+    }
+
+    @Override
+    @TruffleBoundary
+    public long getLong(int index) throws FrameSlotTypeException {
+        return delegate.getLong(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setLong(int index, long value) {
+        throw newReadonlyAssertionError();
+    }
+
+    @Override
+    @TruffleBoundary
+    public float getFloat(int index) throws FrameSlotTypeException {
+        return delegate.getFloat(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setFloat(int index, float value) {
+        throw newReadonlyAssertionError();
+    }
+
+    @Override
+    @TruffleBoundary
+    public double getDouble(int index) throws FrameSlotTypeException {
+        return delegate.getDouble(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public void setDouble(int index, double value) {
+        throw newReadonlyAssertionError();
+    }
+
+    @Override
+    @TruffleBoundary
+    public Object getValue(int index) {
+        return delegate.getValue(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean isObject(int index) {
+        return delegate.isObject(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean isByte(int index) {
+        return delegate.isByte(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean isBoolean(int index) {
+        return delegate.isBoolean(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean isInt(int index) {
+        return delegate.isInt(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean isLong(int index) {
+        return delegate.isLong(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean isFloat(int index) {
+        return delegate.isFloat(index);
+    }
+
+    @Override
+    @TruffleBoundary
+    public boolean isDouble(int index) {
+        return delegate.isDouble(index);
+    }
 }
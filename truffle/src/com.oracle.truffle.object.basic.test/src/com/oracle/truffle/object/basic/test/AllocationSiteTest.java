@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.DynamicObjectFactory;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ShapeImpl;
+import com.oracle.truffle.object.basic.DefaultLayoutFactory;
+
+public class AllocationSiteTest {
+
+    private static final int ALLOCATIONS = 100;
+
+    final Layout layout = new DefaultLayoutFactory().createLayout(Layout.newLayout());
+    final ObjectType objectType = new ObjectType();
+    final Shape rootShape = layout.createShape(objectType, "shared", 42);
+
+    private static List<DynamicObject> allocate(DynamicObjectFactory site, int propertyCount) {
+        List<DynamicObject> objects = new ArrayList<>();
+        for (int i = 0; i < ALLOCATIONS; i++) {
+            DynamicObject object = site.newInstance();
+            for (int p = 0; p < propertyCount; p++) {
+                object.define("p" + p, (p & 1) == 0 ? (Object) p : "v" + p);
+            }
+            objects.add(object);
+        }
+        return objects;
+    }
+
+    private static void assertProperties(DynamicObject object, int propertyCount) {
+        for (int p = 0; p < propertyCount; p++) {
+            Assert.assertEquals((p & 1) == 0 ? (Object) p : "v" + p, object.get("p" + p));
+        }
+    }
+
+    @Test
+    public void testSmallObjectsKeepBasicLayout() {
+        DynamicObjectFactory site = layout.createAllocationSite(rootShape);
+        allocate(site, 3);
+        Assert.assertSame(rootShape, site.getShape());
+        Assert.assertSame(layout, site.newInstance().getShape().getLayout());
+    }
+
+    @Test
+    public void testLargeObjectsSwitchLayout() {
+        DynamicObjectFactory site = layout.createAllocationSite(rootShape);
+        List<DynamicObject> objects = allocate(site, 12);
+
+        Shape newRootShape = site.getShape();
+        Assert.assertNotSame(rootShape, newRootShape);
+        Assert.assertNotSame(layout, newRootShape.getLayout());
+        Assert.assertSame(objectType, newRootShape.getObjectType());
+        Assert.assertEquals("shared", newRootShape.getSharedData());
+        Assert.assertEquals(42, newRootShape.getId());
+        Assert.assertEquals(0, newRootShape.getPropertyCount());
+
+        for (DynamicObject object : objects) {
+            assertProperties(object, 12);
+        }
+        DynamicObject object = objects.get(objects.size() - 1);
+        Assert.assertSame(newRootShape.getLayout(), object.getShape().getLayout());
+        Assert.assertEquals(0, ((ShapeImpl) object.getShape()).getObjectArrayCapacity());
+        Assert.assertTrue(layout.getType().isInstance(object));
+    }
+
+    @Test
+    public void testSitesShareExtendedRootShape() {
+        DynamicObjectFactory site1 = layout.createAllocationSite(rootShape);
+        DynamicObjectFactory site2 = layout.createAllocationSite(rootShape);
+        List<DynamicObject> objects1 = allocate(site1, 12);
+        List<DynamicObject> objects2 = allocate(site2, 12);
+
+        Assert.assertNotSame(rootShape, site1.getShape());
+        Assert.assertSame(site1.getShape(), site2.getShape());
+        Assert.assertSame(objects1.get(ALLOCATIONS - 1).getShape(), objects2.get(ALLOCATIONS - 1).getShape());
+    }
+
+    @Test
+    public void testRootShapeWithProperties() {
+        Shape shape = rootShape.defineProperty("x", 1, 0);
+        DynamicObjectFactory site = layout.createAllocationSite(shape);
+        for (int i = 0; i < ALLOCATIONS; i++) {
+            Assert.assertEquals(i, site.newInstance(i).get("x"));
+        }
+        Assert.assertSame(shape, site.getShape());
+    }
+}
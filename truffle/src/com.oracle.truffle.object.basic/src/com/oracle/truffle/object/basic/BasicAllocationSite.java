@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.object.basic;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.DynamicObjectFactory;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ShapeImpl;
+
+/**
+ * Allocation site that chooses between the basic and the extended layout from the shapes its first
+ * objects end up with.
+ *
+ * During the first {@link #TRACKING_ALLOCATIONS} allocations, the site keeps weak references to
+ * the objects it allocated. After that, it looks at the shapes of the sampled objects that are
+ * still alive, and if any of them needed more slots than the basic layout has in-object fields,
+ * all further objects are allocated with a root shape of the extended layout. The decision is
+ * made only once, so that compiled code can treat the root shape as a constant. All sites that
+ * switch share one extended root shape per basic root shape, so their objects end up with the same
+ * shapes.
+ */
+final class BasicAllocationSite implements DynamicObjectFactory {
+    /** Number of allocations observed before the layout of the site is fixed. */
+    static final int TRACKING_ALLOCATIONS = 16;
+    private static final int SAMPLES = 8;
+
+    private final BasicLayout layout;
+    @CompilationFinal private ShapeImpl rootShape;
+    @CompilationFinal private boolean tracking;
+    private Reference<?>[] samples;
+    private int allocations;
+
+    BasicAllocationSite(BasicLayout layout, ShapeImpl rootShape) {
+        assert layout.getExtendedLayout() != null && rootShape.getLayout() == layout && rootShape.getPropertyCount() == 0;
+        this.layout = layout;
+        this.rootShape = rootShape;
+        this.tracking = true;
+        this.samples = new Reference<?>[SAMPLES];
+    }
+
+    @Override
+    public DynamicObject newInstance(Object... initialValues) {
+        assert initialValues.length == 0 : initialValues.length + " arguments given but the factory takes 0";
+        if (tracking) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            return allocateAndTrack();
+        }
+        return rootShape.newInstance();
+    }
+
+    @Override
+    public Shape getShape() {
+        return rootShape;
+    }
+
+    private synchronized DynamicObject allocateAndTrack() {
+        DynamicObject object = rootShape.newInstance();
+        if (tracking) {
+            if (allocations < SAMPLES) {
+                samples[allocations] = new WeakReference<>(object);
+            }
+            allocations++;
+            if (allocations >= TRACKING_ALLOCATIONS) {
+                finishTracking();
+            }
+        }
+        return object;
+    }
+
+    private void finishTracking() {
+        int objectSlots = 0;
+        int primitiveSlots = 0;
+        for (Reference<?> sample : samples) {
+            DynamicObject object = sample == null ? null : (DynamicObject) sample.get();
+            if (object != null) {
+                ShapeImpl shape = (ShapeImpl) object.getShape();
+                objectSlots = Math.max(objectSlots, shape.getObjectFieldSize() + shape.getObjectArraySize());
+                primitiveSlots = Math.max(primitiveSlots, shape.getPrimitiveFieldSize() + shape.getPrimitiveArraySize());
+            }
+        }
+        if (objectSlots > layout.getObjectFieldCount() || primitiveSlots > layout.getPrimitiveFieldCount()) {
+            rootShape = layout.getExtendedRootShape(rootShape);
+        }
+        samples = null;
+        tracking = false;
+    }
+
+    @Override
+    public String toString() {
+        return "AllocationSite[" + rootShape + "]";
+    }
+}
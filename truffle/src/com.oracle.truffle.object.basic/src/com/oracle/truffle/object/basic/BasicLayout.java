@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2012, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -41,8 +41,11 @@
 package com.oracle.truffle.object.basic;
 
 import java.util.EnumSet;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.DynamicObjectFactory;
 import com.oracle.truffle.api.object.Layout;
 import com.oracle.truffle.api.object.Location;
 import com.oracle.truffle.api.object.ObjectLocation;
@@ -52,19 +55,32 @@ import com.oracle.truffle.api.object.Shape.Allocator;
 import com.oracle.truffle.object.LayoutImpl;
 import com.oracle.truffle.object.LayoutStrategy;
 import com.oracle.truffle.object.LocationImpl.InternalLongLocation;
+import com.oracle.truffle.object.ShapeImpl;
 
 public class BasicLayout extends LayoutImpl {
     private final ObjectLocation[] objectFields;
     private final InternalLongLocation[] primitiveFields;
     private final Location objectArrayLocation;
     private final Location primitiveArrayLocation;
+    private final BasicLayout extendedLayout;
+    /** Extended root shapes by the root shape of this layout they were derived from. */
+    private final Map<Shape, ShapeImpl> extendedRootShapes;
 
     BasicLayout(EnumSet<ImplicitCast> allowedImplicitCasts, LayoutStrategy strategy) {
-        super(allowedImplicitCasts, DynamicObjectBasic.class, strategy);
-        this.objectFields = DynamicObjectBasic.OBJECT_FIELD_LOCATIONS;
-        this.primitiveFields = DynamicObjectBasic.PRIMITIVE_FIELD_LOCATIONS;
+        this(allowedImplicitCasts, strategy, DynamicObjectBasic.class, DynamicObjectBasic.OBJECT_FIELD_LOCATIONS, DynamicObjectBasic.PRIMITIVE_FIELD_LOCATIONS,
+                        new BasicLayout(allowedImplicitCasts, strategy, DynamicObjectBasicExtended.class, DynamicObjectBasicExtended.OBJECT_FIELD_LOCATIONS,
+                                        DynamicObjectBasicExtended.PRIMITIVE_FIELD_LOCATIONS, null));
+    }
+
+    private BasicLayout(EnumSet<ImplicitCast> allowedImplicitCasts, LayoutStrategy strategy, Class<? extends DynamicObjectBasic> clazz, ObjectLocation[] objectFields,
+                    InternalLongLocation[] primitiveFields, BasicLayout extendedLayout) {
+        super(allowedImplicitCasts, clazz, strategy);
+        this.objectFields = objectFields;
+        this.primitiveFields = primitiveFields;
         this.primitiveArrayLocation = DynamicObjectBasic.PRIMITIVE_ARRAY_LOCATION;
         this.objectArrayLocation = DynamicObjectBasic.OBJECT_ARRAY_LOCATION;
+        this.extendedLayout = extendedLayout;
+        this.extendedRootShapes = extendedLayout != null ? new WeakHashMap<>() : null;
     }
 
     static LayoutImpl createLayoutImpl(Layout.Builder builder, LayoutStrategy strategy) {
@@ -73,6 +89,9 @@ public class BasicLayout extends LayoutImpl {
 
     @Override
     public DynamicObject newInstance(Shape shape) {
+        if (clazz == DynamicObjectBasicExtended.class) {
+            return new DynamicObjectBasicExtended(shape);
+        }
         return new DynamicObjectBasic(shape);
     }
 
@@ -119,6 +138,35 @@ public class BasicLayout extends LayoutImpl {
         return primitiveFields[index];
     }
 
+    /**
+     * Returns the layout with more in-object fields that allocation sites of this layout can switch
+     * to, or {@code null} if this already is the extended layout.
+     */
+    BasicLayout getExtendedLayout() {
+        return extendedLayout;
+    }
+
+    /**
+     * Returns the root shape of the extended layout that corresponds to {@code basicRootShape},
+     * creating it on first use.
+     */
+    ShapeImpl getExtendedRootShape(ShapeImpl basicRootShape) {
+        assert basicRootShape.getLayout() == this && basicRootShape.getPropertyCount() == 0;
+        synchronized (extendedRootShapes) {
+            ShapeImpl extendedRootShape = extendedRootShapes.get(basicRootShape);
+            if (extendedRootShape == null) {
+                extendedRootShape = (ShapeImpl) extendedLayout.createShape(basicRootShape.getObjectType(), basicRootShape.getSharedData(), basicRootShape.getId());
+                extendedRootShapes.put(basicRootShape, extendedRootShape);
+            }
+            return extendedRootShape;
+        }
+    }
+
+    @Override
+    public DynamicObjectFactory createAllocationSite(Shape rootShape) {
+        return getStrategy().createAllocationSite(this, (ShapeImpl) rootShape);
+    }
+
     @Override
     public Allocator createAllocator() {
         LayoutImpl layout = this;
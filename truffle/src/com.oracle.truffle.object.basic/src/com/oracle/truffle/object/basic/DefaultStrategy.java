@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2014, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2014, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -43,6 +43,7 @@ package com.oracle.truffle.object.basic;
 import java.util.Objects;
 
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.DynamicObjectFactory;
 import com.oracle.truffle.api.object.Location;
 import com.oracle.truffle.object.LayoutImpl;
 import com.oracle.truffle.object.LayoutStrategy;
@@ -77,6 +78,16 @@ class DefaultStrategy extends LayoutStrategy {
         return shape;
     }
 
+    @SuppressWarnings("deprecation")
+    @Override
+    public DynamicObjectFactory createAllocationSite(LayoutImpl layout, ShapeImpl rootShape) {
+        /* Properties of the root shape would have to be replayed on the other layout. */
+        if (com.oracle.truffle.object.ObjectStorageOptions.InObjectFields && ((BasicLayout) layout).getExtendedLayout() != null && rootShape.getPropertyCount() == 0 && rootShape.isValid()) {
+            return new BasicAllocationSite((BasicLayout) layout, rootShape);
+        }
+        return super.createAllocationSite(layout, rootShape);
+    }
+
     @Override
     public BaseAllocator createAllocator(ShapeImpl shape) {
         return new BasicAllocator(shape);
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.object.basic;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.basic.BasicLocations.SimpleLongFieldLocation;
+import com.oracle.truffle.object.basic.BasicLocations.SimpleObjectFieldLocation;
+
+/**
+ * A {@link DynamicObjectBasic} with additional in-object fields, used for objects from allocation
+ * sites that were observed to end up with more properties than fit into the basic layout.
+ *
+ * @see BasicAllocationSite
+ */
+public class DynamicObjectBasicExtended extends DynamicObjectBasic {
+
+    private long primitive4;
+    private long primitive5;
+    private long primitive6;
+    private Object object5;
+    private Object object6;
+    private Object object7;
+    private Object object8;
+    private Object object9;
+    private Object object10;
+    private Object object11;
+    private Object object12;
+
+    protected DynamicObjectBasicExtended(Shape shape) {
+        super(shape);
+    }
+
+    static final SimpleObjectFieldLocation[] OBJECT_FIELD_LOCATIONS;
+    static final SimpleLongFieldLocation[] PRIMITIVE_FIELD_LOCATIONS;
+
+    static {
+        int index;
+
+        index = DynamicObjectBasic.PRIMITIVE_FIELD_LOCATIONS.length;
+        PRIMITIVE_FIELD_LOCATIONS = concat(DynamicObjectBasic.PRIMITIVE_FIELD_LOCATIONS, new SimpleLongFieldLocation[]{new SimpleLongFieldLocation(index++) {
+            @Override
+            public long getLong(DynamicObject store, boolean condition) {
+                return ((DynamicObjectBasicExtended) store).primitive4;
+            }
+
+            @Override
+            public void setLongInternal(DynamicObject store, long value) {
+                ((DynamicObjectBasicExtended) store).primitive4 = value;
+            }
+        }, new SimpleLongFieldLocation(index++) {
+            @Override
+            public long getLong(DynamicObject store, boolean condition) {
+                return ((DynamicObjectBasicExtended) store).primitive5;
+            }
+
+            @Override
+            public void setLongInternal(DynamicObject store, long value) {
+                ((DynamicObjectBasicExtended) store).primitive5 = value;
+            }
+        }, new SimpleLongFieldLocation(index++) {
+            @Override
+            public long getLong(DynamicObject store, boolean condition) {
+                return ((DynamicObjectBasicExtended) store).primitive6;
+            }
+
+            @Override
+            public void setLongInternal(DynamicObject store, long value) {
+                ((DynamicObjectBasicExtended) store).primitive6 = value;
+            }
+        }});
+
+        index = DynamicObjectBasic.OBJECT_FIELD_LOCATIONS.length;
+        OBJECT_FIELD_LOCATIONS = concat(DynamicObjectBasic.OBJECT_FIELD_LOCATIONS, new SimpleObjectFieldLocation[]{new SimpleObjectFieldLocation(index++) {
+            @Override
+            public Object get(DynamicObject store, boolean condition) {
+                return ((DynamicObjectBasicExtended) store).object5;
+            }
+
+            @Override
+            public void setInternal(DynamicObject store, Object value) {
+                ((DynamicObjectBasicExtended) store).object5 = value;
+            }
+        }, new SimpleObjectFieldLocation(index++) {
+            @Override
+            public Object get(DynamicObject store, boolean condition) {
+                return ((DynamicObjectBasicExtended) store).object6;
+            }
+
+            @Override
+            public void setInternal(DynamicObject store, Object value) {
+                ((DynamicObjectBasicExtended) store).object6 = value;
+            }
+        }, new SimpleObjectFieldLocation(index++) {
+            @Override
+            public Object get(DynamicObject store, boolean condition) {
+                return ((DynamicObjectBasicExtended) store).object7;
+            }
+
+            @Override
+            public void setInternal(DynamicObject store, Object value) {
+                ((DynamicObjectBasicExtended) store).object7 = value;
+            }
+        }, new SimpleObjectFieldLocation(index++) {
+            @Override
+            public Object get(DynamicObject store, boolean condition) {
+                return ((DynamicObjectBasicExtended) store).object8;
+            }
+
+            @Override
+            public void setInternal(DynamicObject store, Object value) {
+                ((DynamicObjectBasicExtended) store).object8 = value;
+            }
+        }, new SimpleObjectFieldLocation(index++) {
+            @Override
+            public Object get(DynamicObject store, boolean condition) {
+                return ((DynamicObjectBasicExtended) store).object9;
+            }
+
+            @Override
+            public void setInternal(DynamicObject store, Object value) {
+                ((DynamicObjectBasicExtended) store).object9 = value;
+            }
+        }, new SimpleObjectFieldLocation(index++) {
+            @Override
+            public Object get(DynamicObject store, boolean condition) {
+                return ((DynamicObjectBasicExtended) store).object10;
+            }
+
+            @Override
+            public void setInternal(DynamicObject store, Object value) {
+                ((DynamicObjectBasicExtended) store).object10 = value;
+            }
+        }, new SimpleObjectFieldLocation(index++) {
+            @Override
+            public Object get(DynamicObject store, boolean condition) {
+                return ((DynamicObjectBasicExtended) store).object11;
+            }
+
+            @Override
+            public void setInternal(DynamicObject store, Object value) {
+                ((DynamicObjectBasicExtended) store).object11 = value;
+            }
+        }, new SimpleObjectFieldLocation(index++) {
+            @Override
+            public Object get(DynamicObject store, boolean condition) {
+                return ((DynamicObjectBasicExtended) store).object12;
+            }
+
+            @Override
+            public void setInternal(DynamicObject store, Object value) {
+                ((DynamicObjectBasicExtended) store).object12 = value;
+            }
+        }});
+    }
+
+    private static <T> T[] concat(T[] base, T[] extension) {
+        T[] result = Arrays.copyOf(base, base.length + extension.length);
+        System.arraycopy(extension, 0, result, base.length, extension.length);
+        return result;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2014, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2014, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -45,6 +45,7 @@ import java.util.List;
 import java.util.ListIterator;
 
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.DynamicObjectFactory;
 import com.oracle.truffle.api.object.Location;
 import com.oracle.truffle.api.object.LocationFactory;
 import com.oracle.truffle.api.object.Property;
@@ -91,6 +92,16 @@ public abstract class LayoutStrategy {
     /** @since 0.17 or earlier */
     public abstract BaseAllocator createAllocator(ShapeImpl shape);
 
+    /**
+     * Creates a factory for the objects allocated at one allocation site.
+     *
+     * @see com.oracle.truffle.api.object.Layout#createAllocationSite(Shape)
+     * @since 1.0
+     */
+    public DynamicObjectFactory createAllocationSite(@SuppressWarnings("unused") LayoutImpl layout, ShapeImpl rootShape) {
+        return rootShape.createFactory();
+    }
+
     /** @since 0.17 or earlier */
     protected ShapeImpl defineProperty(ShapeImpl shape, Object key, Object value, int flags, LocationFactory locationFactory) {
         ShapeImpl oldShape = shape;
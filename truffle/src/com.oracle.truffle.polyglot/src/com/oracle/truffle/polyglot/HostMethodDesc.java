@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -128,7 +128,9 @@ abstract class HostMethodDesc {
 
         static SingleMethod unreflect(Method reflectionMethod) {
             assert isAccessible(reflectionMethod);
-            if (TruffleOptions.AOT || isCallerSensitive(reflectionMethod)) {
+            if (TruffleOptions.AOT) {
+                return new MethodStubImpl(reflectionMethod);
+            } else if (isCallerSensitive(reflectionMethod)) {
                 return new MethodReflectImpl(reflectionMethod);
             } else {
                 return new MethodMHImpl(reflectionMethod);
@@ -137,7 +139,9 @@ abstract class HostMethodDesc {
 
         static SingleMethod unreflect(Constructor<?> reflectionConstructor) {
             assert isAccessible(reflectionConstructor);
-            if (TruffleOptions.AOT || isCallerSensitive(reflectionConstructor)) {
+            if (TruffleOptions.AOT) {
+                return new ConstructorStubImpl(reflectionConstructor);
+            } else if (isCallerSensitive(reflectionConstructor)) {
                 return new ConstructorReflectImpl(reflectionConstructor);
             } else {
                 return new ConstructorMHImpl(reflectionConstructor);
@@ -244,6 +248,112 @@ abstract class HostMethodDesc {
             }
         }
 
+        /**
+         * Invokes through a direct invocation stub. The native image builder generates such a stub
+         * for every method registered for reflection and substitutes {@link #makeStub()} and
+         * {@link #invokeStub} to use it, so that host calls neither go through
+         * {@link Method#invoke} nor cross a boundary and partial evaluation can inline the argument
+         * unboxing and the direct call. Without those substitutions the stub is the reflection
+         * object itself.
+         */
+        private abstract static class StubBase extends SingleMethod {
+            @CompilationFinal private Object stub;
+
+            StubBase(Executable executable) {
+                super(executable);
+            }
+
+            @Override
+            public final Object invoke(Object receiver, Object[] arguments) throws Throwable {
+                if (stub == null) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    stub = makeStub();
+                }
+                try {
+                    return invokeStub(stub, receiver, arguments);
+                } catch (IllegalArgumentException | IllegalAccessException | InstantiationException ex) {
+                    throw UnsupportedTypeException.raise(ex, arguments);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+
+            protected abstract Object makeStub();
+
+            protected abstract Object invokeStub(Object target, Object receiver, Object[] arguments)
+                            throws InstantiationException, IllegalAccessException, IllegalArgumentException, InvocationTargetException;
+        }
+
+        private static final class MethodStubImpl extends StubBase {
+            private final Method reflectionMethod;
+
+            MethodStubImpl(Method reflectionMethod) {
+                super(reflectionMethod);
+                this.reflectionMethod = reflectionMethod;
+            }
+
+            @Override
+            public Method getReflectionMethod() {
+                CompilerAsserts.neverPartOfCompilation();
+                return reflectionMethod;
+            }
+
+            @Override
+            public Class<?> getReturnType() {
+                return getReflectionMethod().getReturnType();
+            }
+
+            @Override
+            public boolean isInternal() {
+                return getReflectionMethod().getDeclaringClass() == Object.class;
+            }
+
+            @Override
+            protected Object makeStub() {
+                CompilerAsserts.neverPartOfCompilation();
+                return reflectionMethod;
+            }
+
+            @TruffleBoundary
+            @Override
+            protected Object invokeStub(Object target, Object receiver, Object[] arguments) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+                return ((Method) target).invoke(receiver, arguments);
+            }
+        }
+
+        private static final class ConstructorStubImpl extends StubBase {
+            private final Constructor<?> reflectionConstructor;
+
+            ConstructorStubImpl(Constructor<?> reflectionConstructor) {
+                super(reflectionConstructor);
+                this.reflectionConstructor = reflectionConstructor;
+            }
+
+            @Override
+            public Constructor<?> getReflectionMethod() {
+                CompilerAsserts.neverPartOfCompilation();
+                return reflectionConstructor;
+            }
+
+            @Override
+            public Class<?> getReturnType() {
+                return getReflectionMethod().getDeclaringClass();
+            }
+
+            @Override
+            protected Object makeStub() {
+                CompilerAsserts.neverPartOfCompilation();
+                return reflectionConstructor;
+            }
+
+            @TruffleBoundary
+            @Override
+            protected Object invokeStub(Object target, Object receiver, Object[] arguments)
+                            throws InstantiationException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+                return ((Constructor<?>) target).newInstance(arguments);
+            }
+        }
+
         private abstract static class MHBase extends SingleMethod {
             @CompilationFinal private MethodHandle methodHandle;
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -771,6 +771,9 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
                     }
                 }
             }
+            if (engineOptionValues.get(PolyglotEngineOptions.TraceSourceCache)) {
+                printSourceCacheStatistics();
+            }
             if (logHandler != null) {
                 logHandler.close();
             }
@@ -779,6 +782,13 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
         }
     }
 
+    private void printSourceCacheStatistics() {
+        PrintStream stream = new PrintStream(err, true);
+        for (PolyglotLanguage language : idToLanguage.values()) {
+            language.sourceCacheStatistics.print(stream, language.getId());
+        }
+    }
+
     private List<PolyglotContextImpl> collectAliveContexts() {
         Thread.holdsLock(this);
         List<PolyglotContextImpl> localContexts = new ArrayList<>(contexts.size());
@@ -1015,6 +1025,12 @@ class PolyglotEngineImpl extends org.graalvm.polyglot.impl.AbstractPolyglotImpl.
         return Truffle.getRuntime().getName();
     }
 
+    @Override
+    public long[] getSourceCacheStatistics(String languageId) {
+        requirePublicLanguage(languageId);
+        return idToLanguage.get(languageId).sourceCacheStatistics.getCounts();
+    }
+
     @Override
     @SuppressWarnings({"all"})
     public synchronized Context createContext(OutputStream configOut, OutputStream configErr, InputStream configIn, boolean allowHostAccess,
@@ -59,4 +59,10 @@ final class PolyglotEngineOptions {
      */
     @Option(name = INSTRUMENT_EXCEPTIONS_ARE_THROWN_NAME, category = OptionCategory.DEBUG, help = "Propagates exceptions thrown by instruments.") static final OptionKey<Boolean> InstrumentExceptionsAreThrown = new OptionKey<>(
                     false);
+
+    @Option(category = OptionCategory.EXPERT, help = "Maximum number of parsed sources cached per language instance, least recently used sources are evicted first (0 for no limit).") static final OptionKey<Integer> SourceCacheSize = new OptionKey<>(
+                    0);
+
+    @Option(category = OptionCategory.EXPERT, help = "Print the hit, miss and eviction counts of the source cache of each language when the engine is closed.") static final OptionKey<Boolean> TraceSourceCache = new OptionKey<>(
+                    false);
 }
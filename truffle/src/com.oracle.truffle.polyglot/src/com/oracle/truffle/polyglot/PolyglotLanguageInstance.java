@@ -74,7 +74,7 @@ final class PolyglotLanguageInstance {
         } catch (Exception e) {
             throw new IllegalStateException(String.format("Error initializing language '%s' using class '%s'.", language.cache.getId(), language.cache.getClassName()), e);
         }
-        this.sourceCache = new PolyglotSourceCache();
+        this.sourceCache = new PolyglotSourceCache(language.sourceCacheStatistics);
         this.valueCodeCache = new ConcurrentHashMap<>();
         this.hostInteropCodeCache = new ConcurrentHashMap<>();
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -42,23 +42,39 @@ package com.oracle.truffle.polyglot;
 
 import static com.oracle.truffle.polyglot.VMAccessor.LANGUAGE;
 
+import java.io.PrintStream;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.source.Source;
 
+/**
+ * Caches the call targets of parsed cached sources. Entries are removed when their source becomes
+ * weakly reachable. If {@link PolyglotEngineOptions#SourceCacheSize} is set, the cache is also
+ * bounded and evicts the least recently used entry when it is full.
+ */
 final class PolyglotSourceCache {
 
     private final ConcurrentHashMap<Object, CallTarget> sourceCache;
     private final ReferenceQueue<Source> deadSources = new ReferenceQueue<>();
+    private final Statistics statistics;
+    /*
+     * Bounded mode state. Access order is maintained by the LinkedHashMap, guarded by the lock of
+     * the map itself. Only used if the engine was configured with a source cache size.
+     */
+    private volatile BoundedCache boundedCache;
 
-    PolyglotSourceCache() {
+    PolyglotSourceCache(Statistics statistics) {
         this.sourceCache = new ConcurrentHashMap<>();
+        this.statistics = statistics;
     }
 
     CallTarget parseCached(PolyglotLanguageContext context, Source source, String[] argumentNames) {
@@ -68,16 +84,29 @@ final class PolyglotSourceCache {
         if (source.isCached()) {
             Object sourceId = VMAccessor.SOURCE.getSourceIdentifier(source);
             WeakSourceKey ref = new WeakSourceKey(sourceId, source, argumentNames, deadSources);
-            target = sourceCache.get(ref);
+            BoundedCache bounded = getBoundedCache(context);
+            if (bounded != null) {
+                target = bounded.get(ref);
+            } else {
+                target = sourceCache.get(ref);
+            }
             if (target == null) {
+                statistics.misses.incrementAndGet();
                 target = parseImpl(context, argumentNames, VMAccessor.SOURCE.copySource(source));
-                CallTarget prev = sourceCache.putIfAbsent(ref, target);
+                CallTarget prev;
+                if (bounded != null) {
+                    prev = bounded.putIfAbsent(ref, target);
+                } else {
+                    prev = sourceCache.putIfAbsent(ref, target);
+                }
                 if (prev != null) {
                     /*
                      * Parsed twice -> discard the one not in the cache.
                      */
                     target = prev;
                 }
+            } else {
+                statistics.hits.incrementAndGet();
             }
         } else {
             target = parseImpl(context, argumentNames, source);
@@ -85,6 +114,24 @@ final class PolyglotSourceCache {
         return target;
     }
 
+    private BoundedCache getBoundedCache(PolyglotLanguageContext context) {
+        BoundedCache bounded = boundedCache;
+        if (bounded == null) {
+            int maxEntries = context.getEngine().engineOptionValues.get(PolyglotEngineOptions.SourceCacheSize);
+            if (maxEntries <= 0) {
+                return null;
+            }
+            synchronized (this) {
+                bounded = boundedCache;
+                if (bounded == null) {
+                    bounded = new BoundedCache(maxEntries, statistics);
+                    boundedCache = bounded;
+                }
+            }
+        }
+        return bounded;
+    }
+
     private static CallTarget parseImpl(PolyglotLanguageContext context, String[] argumentNames, Source source) {
         if (!VMAccessor.SOURCE.isLegacySource(source)) {
             validateSource(context, source);
@@ -164,8 +211,74 @@ final class PolyglotSourceCache {
 
     private void cleanupStaleEntries() {
         WeakSourceKey sourceRef = null;
+        BoundedCache bounded = boundedCache;
         while ((sourceRef = (WeakSourceKey) deadSources.poll()) != null) {
-            sourceCache.remove(sourceRef);
+            if (bounded != null) {
+                bounded.remove(sourceRef);
+            } else {
+                sourceCache.remove(sourceRef);
+            }
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counts of all the source caches of a language.
+     */
+    static final class Statistics {
+
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong evictions = new AtomicLong();
+
+        long[] getCounts() {
+            return new long[]{hits.get(), misses.get(), evictions.get()};
+        }
+
+        void print(PrintStream out, String languageId) {
+            long hitCount = hits.get();
+            long missCount = misses.get();
+            if (hitCount + missCount == 0) {
+                return;
+            }
+            out.printf("[engine] source cache %s: hits=%d, misses=%d, evictions=%d, hit rate=%.2f%%%n", languageId, hitCount, missCount, evictions.get(),
+                            100.0 * hitCount / (hitCount + missCount));
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class BoundedCache extends LinkedHashMap<Object, CallTarget> {
+
+        private final int maxEntries;
+        private final Statistics statistics;
+
+        BoundedCache(int maxEntries, Statistics statistics) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public synchronized CallTarget get(Object key) {
+            return super.get(key);
+        }
+
+        @Override
+        public synchronized CallTarget putIfAbsent(Object key, CallTarget value) {
+            return super.putIfAbsent(key, value);
+        }
+
+        @Override
+        public synchronized CallTarget remove(Object key) {
+            return super.remove(key);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, CallTarget> eldest) {
+            if (size() > maxEntries) {
+                statistics.evictions.incrementAndGet();
+                return true;
+            }
+            return false;
         }
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2017, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2017, 2019, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -42,6 +42,7 @@ package com.oracle.truffle.polyglot;
 
 import static com.oracle.truffle.polyglot.VMAccessor.LANGUAGE;
 
+import java.lang.reflect.Array;
 import java.util.AbstractSet;
 import java.util.Arrays;
 import java.util.Collections;
@@ -59,6 +60,7 @@ import org.graalvm.polyglot.impl.AbstractPolyglotImpl.AbstractValueImpl;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.interop.ArityException;
@@ -113,6 +115,35 @@ abstract class PolyglotValue extends AbstractValueImpl {
         throw unsupported(context, receiver, "setArrayElement(long, Object)", "hasArrayElements()");
     }
 
+    @Override
+    public void readArrayElements(Object receiver, long index, Object destination, int offset, int length) {
+        readArrayElementsUnsupported(languageContext, receiver);
+    }
+
+    static Object readArrayElementsUnsupported(PolyglotLanguageContext context, Object receiver) {
+        throw unsupported(context, receiver, "readArrayElements(long, Object, int, int)", "hasArrayElements()");
+    }
+
+    @Override
+    public void writeArrayElements(Object receiver, long index, Object source, int offset, int length) {
+        writeArrayElementsUnsupported(languageContext, receiver);
+    }
+
+    static void writeArrayElementsUnsupported(PolyglotLanguageContext context, Object receiver) {
+        throw unsupported(context, receiver, "writeArrayElements(long, Object, int, int)", "hasArrayElements()");
+    }
+
+    static void checkArrayRange(Object javaArray, int offset, int length) {
+        Objects.requireNonNull(javaArray);
+        if (!javaArray.getClass().isArray()) {
+            throw new PolyglotIllegalArgumentException(String.format("Expected a Java array but got %s.", javaArray.getClass().getTypeName()));
+        }
+        int arrayLength = Array.getLength(javaArray);
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException(String.format("Invalid range [%s, %s) for a Java array of length %s.", offset, (long) offset + length, arrayLength));
+        }
+    }
+
     @Override
     public boolean removeArrayElement(Object receiver, long index) {
         return removeArrayElementUnsupported(languageContext, receiver);
@@ -650,6 +681,8 @@ abstract class PolyglotValue extends AbstractValueImpl {
         final CallTarget hasArrayElements;
         final CallTarget getArrayElement;
         final CallTarget setArrayElement;
+        final CallTarget readArrayElements;
+        final CallTarget writeArrayElements;
         final CallTarget removeArrayElement;
         final CallTarget getArraySize;
         final CallTarget hasMembers;
@@ -689,6 +722,8 @@ abstract class PolyglotValue extends AbstractValueImpl {
             this.hasArrayElements = createTarget(new HasArrayElementsNode(this));
             this.getArrayElement = createTarget(new GetArrayElementNode(this));
             this.setArrayElement = createTarget(new SetArrayElementNode(this));
+            this.readArrayElements = createTarget(new ReadArrayElementsNode(this));
+            this.writeArrayElements = createTarget(new WriteArrayElementsNode(this));
             this.removeArrayElement = createTarget(new RemoveArrayElementNode(this));
             this.getArraySize = createTarget(new GetArraySizeNode(this));
             this.hasMember = createTarget(new HasMemberNode(this));
@@ -918,6 +953,171 @@ abstract class PolyglotValue extends AbstractValueImpl {
             }
         }
 
+        private static class ReadArrayElementsNode extends InteropNode {
+
+            @Child private Node readArrayNode = Message.READ.createNode();
+            @Child private ToHostNode toHost = ToHostNode.create();
+
+            protected ReadArrayElementsNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, Long.class, null, Integer.class, Integer.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "readArrayElements";
+            }
+
+            @Override
+            protected Object executeImpl(PolyglotLanguageContext context, Object receiver, Object[] args) {
+                long index = (long) args[ARGUMENT_OFFSET];
+                Object destination = args[ARGUMENT_OFFSET + 1];
+                int offset = (int) args[ARGUMENT_OFFSET + 2];
+                int length = (int) args[ARGUMENT_OFFSET + 3];
+                if (polyglot.isHost && copyHostArray(receiver, index, destination, offset, length, true)) {
+                    return null;
+                }
+                Class<?> componentType = destination.getClass().getComponentType();
+                for (int i = 0; i < length; i++) {
+                    long elementIndex = index + i;
+                    Object element;
+                    try {
+                        element = ForeignAccess.sendRead(readArrayNode, (TruffleObject) receiver, elementIndex);
+                    } catch (UnsupportedMessageException e) {
+                        CompilerDirectives.transferToInterpreter();
+                        return readArrayElementsUnsupported(context, receiver);
+                    } catch (UnknownIdentifierException e) {
+                        CompilerDirectives.transferToInterpreter();
+                        throw invalidArrayIndex(context, receiver, elementIndex);
+                    }
+                    storeArrayElement(destination, offset + i, toHost.execute(element, componentType, componentType, context));
+                }
+                return null;
+            }
+
+        }
+
+        private static class WriteArrayElementsNode extends InteropNode {
+
+            @Child private Node writeArrayNode = Message.WRITE.createNode();
+
+            private final ToGuestValueNode toGuestValue = ToGuestValueNode.create();
+
+            protected WriteArrayElementsNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, Long.class, null, Integer.class, Integer.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "writeArrayElements";
+            }
+
+            @Override
+            protected Object executeImpl(PolyglotLanguageContext context, Object receiver, Object[] args) {
+                long index = (long) args[ARGUMENT_OFFSET];
+                Object source = args[ARGUMENT_OFFSET + 1];
+                int offset = (int) args[ARGUMENT_OFFSET + 2];
+                int length = (int) args[ARGUMENT_OFFSET + 3];
+                if (polyglot.isHost && copyHostArray(receiver, index, source, offset, length, false)) {
+                    return null;
+                }
+                for (int i = 0; i < length; i++) {
+                    long elementIndex = index + i;
+                    Object value = toGuestValue.apply(context, loadArrayElement(source, offset + i));
+                    try {
+                        ForeignAccess.sendWrite(writeArrayNode, (TruffleObject) receiver, elementIndex, value);
+                    } catch (UnsupportedMessageException e) {
+                        CompilerDirectives.transferToInterpreter();
+                        writeArrayElementsUnsupported(context, receiver);
+                    } catch (UnknownIdentifierException e) {
+                        CompilerDirectives.transferToInterpreter();
+                        throw invalidArrayIndex(context, receiver, elementIndex);
+                    } catch (UnsupportedTypeException e) {
+                        CompilerDirectives.transferToInterpreter();
+                        throw invalidArrayValue(context, receiver, elementIndex, value);
+                    }
+                }
+                return null;
+            }
+        }
+
+        /**
+         * Copies between a host array and a Java array of the same primitive type without
+         * converting the elements. Returns <code>false</code> if the types differ, the arrays are
+         * not primitive arrays or the range is not within the host array, in which case the
+         * elements are transferred one by one. Reference arrays always take the element-wise path,
+         * because their elements must be converted to and from guest values.
+         */
+        @TruffleBoundary
+        static boolean copyHostArray(Object receiver, long index, Object javaArray, int offset, int length, boolean read) {
+            Object hostArray = ((HostObject) receiver).obj;
+            if (hostArray == null || hostArray.getClass() != javaArray.getClass() || !javaArray.getClass().getComponentType().isPrimitive()) {
+                return false;
+            }
+            if (index < 0 || index > Array.getLength(hostArray) - length) {
+                return false;
+            }
+            if (read) {
+                System.arraycopy(hostArray, (int) index, javaArray, offset, length);
+            } else {
+                System.arraycopy(javaArray, offset, hostArray, (int) index, length);
+            }
+            return true;
+        }
+
+        static Object loadArrayElement(Object array, int index) {
+            if (array instanceof int[]) {
+                return ((int[]) array)[index];
+            } else if (array instanceof double[]) {
+                return ((double[]) array)[index];
+            } else if (array instanceof long[]) {
+                return ((long[]) array)[index];
+            } else if (array instanceof byte[]) {
+                return ((byte[]) array)[index];
+            } else if (array instanceof float[]) {
+                return ((float[]) array)[index];
+            } else if (array instanceof short[]) {
+                return ((short[]) array)[index];
+            } else if (array instanceof char[]) {
+                return ((char[]) array)[index];
+            } else if (array instanceof boolean[]) {
+                return ((boolean[]) array)[index];
+            } else {
+                return ((Object[]) array)[index];
+            }
+        }
+
+        static void storeArrayElement(Object array, int index, Object value) {
+            if (array instanceof int[]) {
+                ((int[]) array)[index] = (int) value;
+            } else if (array instanceof double[]) {
+                ((double[]) array)[index] = (double) value;
+            } else if (array instanceof long[]) {
+                ((long[]) array)[index] = (long) value;
+            } else if (array instanceof byte[]) {
+                ((byte[]) array)[index] = (byte) value;
+            } else if (array instanceof float[]) {
+                ((float[]) array)[index] = (float) value;
+            } else if (array instanceof short[]) {
+                ((short[]) array)[index] = (short) value;
+            } else if (array instanceof char[]) {
+                ((char[]) array)[index] = (char) value;
+            } else if (array instanceof boolean[]) {
+                ((boolean[]) array)[index] = (boolean) value;
+            } else {
+                ((Object[]) array)[index] = value;
+            }
+        }
+
         private static class RemoveArrayElementNode extends InteropNode {
 
             @Child private Node removeArrayNode = Message.REMOVE.createNode();
@@ -2436,6 +2636,18 @@ abstract class PolyglotValue extends AbstractValueImpl {
             VMAccessor.SPI.callProfiled(cache.setArrayElement, languageContext, receiver, index, value);
         }
 
+        @Override
+        public void readArrayElements(Object receiver, long index, Object destination, int offset, int length) {
+            checkArrayRange(destination, offset, length);
+            VMAccessor.SPI.callProfiled(cache.readArrayElements, languageContext, receiver, index, destination, offset, length);
+        }
+
+        @Override
+        public void writeArrayElements(Object receiver, long index, Object source, int offset, int length) {
+            checkArrayRange(source, offset, length);
+            VMAccessor.SPI.callProfiled(cache.writeArrayElements, languageContext, receiver, index, source, offset, length);
+        }
+
         @Override
         public boolean removeArrayElement(Object receiver, long index) {
             return (boolean) VMAccessor.SPI.callProfiled(cache.removeArrayElement, languageContext, receiver, index);